@@ -0,0 +1,31 @@
+package com.supernovapos.finalproject.analytics.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.supernovapos.finalproject.analytics.model.dto.AnalyticsCacheStatsDto;
+import com.supernovapos.finalproject.analytics.service.AnalyticsCache;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/analytics/cache")
+@Tag(name = "報表快取", description = "報表查詢快取統計 API")
+public class AnalyticsCacheController {
+
+	private final AnalyticsCache analyticsCache;
+
+	@Operation(summary = "報表快取統計", description = "回傳命中率、容量移除與事件失效次數、目前筆數")
+	@GetMapping("/stats")
+	@PreAuthorize("hasAuthority('ANALYTICS_READ')")
+	public ResponseEntity<AnalyticsCacheStatsDto> getStats() {
+		return ResponseEntity.ok(analyticsCache.getStats());
+	}
+
+}
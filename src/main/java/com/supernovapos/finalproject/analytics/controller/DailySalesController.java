@@ -1,6 +1,9 @@
 package com.supernovapos.finalproject.analytics.controller;
 
+import java.time.LocalDate;
+
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,11 +11,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.supernovapos.finalproject.analytics.model.dto.DailySalesRequest;
 import com.supernovapos.finalproject.analytics.model.dto.DailySalesResponse;
 import com.supernovapos.finalproject.analytics.service.DailySalesService;
+import com.supernovapos.finalproject.analytics.service.ReportExportService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,6 +31,7 @@ import lombok.RequiredArgsConstructor;
 public class DailySalesController {
 
 	private final DailySalesService dailySalesService;
+	private final ReportExportService reportExportService;
 
 	@Operation(summary = "查詢每日營收報表", description = "支援日期區間、月份、年份等模式查詢，並可分頁/排序")
 	@PostMapping("/search")
@@ -49,4 +56,14 @@ public class DailySalesController {
 				: ResponseEntity.notFound().build();
 	}
 
+	@Operation(summary = "匯出每日營收報表", description = "以串流方式匯出 from ~ to（yyyy-MM-dd，含兩端）的每日營收，format 可選 csv（預設）或 ndjson")
+	@GetMapping("/export")
+	@PreAuthorize("hasAuthority('ANALYTICS_READ')")
+	public ResponseEntity<StreamingResponseBody> exportDailySales(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(defaultValue = "csv") String format) {
+		return reportExportService.exportDailySales(from, to, ReportExportService.Format.of(format));
+	}
+
 }
@@ -0,0 +1,37 @@
+package com.supernovapos.finalproject.analytics.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.supernovapos.finalproject.analytics.model.dto.LoadHeatmapDto;
+import com.supernovapos.finalproject.analytics.service.LoadSeries;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/analytics/load")
+@Tag(name = "營運負載分析", description = "15 分鐘時槽的尖峰時段分析 API（人力排班用）")
+public class LoadSeriesController {
+
+	private final LoadSeries loadSeries;
+
+	@Operation(summary = "星期 × 時槽熱度圖", description = "一次回傳開桌數、送出項目數、營收與平均用餐時長的熱度圖，區間需在最近 90 天內，不傳時為最近 90 天")
+	@GetMapping("/heatmap")
+	@PreAuthorize("hasAuthority('ANALYTICS_READ')")
+	public ResponseEntity<LoadHeatmapDto> getHeatmap(
+			@Parameter(description = "起始日期 yyyy-MM-dd") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@Parameter(description = "結束日期 yyyy-MM-dd") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return ResponseEntity.ok(loadSeries.getHeatmap(from, to));
+	}
+}
@@ -8,12 +8,17 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.supernovapos.finalproject.analytics.model.dto.PopularProductDto;
 import com.supernovapos.finalproject.analytics.model.dto.ProductImageResponse;
 import com.supernovapos.finalproject.analytics.model.dto.ProductSaleRequest;
 import com.supernovapos.finalproject.analytics.model.dto.ProductSaleResponse;
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker;
 import com.supernovapos.finalproject.analytics.service.ProductSalesService;
+import com.supernovapos.finalproject.analytics.service.ReportExportService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -31,6 +36,7 @@ import lombok.RequiredArgsConstructor;
 public class ProductSalesController {
 
 	private final ProductSalesService productSalesService;
+	private final ReportExportService reportExportService;
 
 	@Operation(summary = "取得所有商品銷售報表", description = "回傳所有商品的銷售數量與營收統計（不含篩選條件，完整清單）", responses = {
 			@ApiResponse(responseCode = "200", description = "成功取得報表", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductSaleResponse.class)))),
@@ -56,14 +62,32 @@ public class ProductSalesController {
 		return ResponseEntity.ok(productSalesService.searchProductReport(request));
 	}
 
-	@Operation(summary = "取得人氣前三名商品圖片", description = "回傳銷售量最高的前 3 個商品及其圖片，供首頁展示使用。", responses = {
+	@Operation(summary = "取得人氣前三名商品圖片", description = "回傳指定時段（hour / today / week，預設 week）銷售量最高的前 3 個上架商品及其圖片，供首頁展示使用。", responses = {
 			@ApiResponse(responseCode = "200", description = "成功取得前三名商品圖片", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductImageResponse.class)))),
 			@ApiResponse(responseCode = "401", description = "未授權，請先登入"),
 			@ApiResponse(responseCode = "403", description = "權限不足")
 	})
 	@GetMapping("/top3")
 	@PermitAll
-	public ResponseEntity<List<ProductImageResponse>> getTop3PopularProducts() {
-		return ResponseEntity.ok(productSalesService.getTop3PopularProducts());
+	public ResponseEntity<List<ProductImageResponse>> getTop3PopularProducts(
+			@RequestParam(defaultValue = "week") String window) {
+		return ResponseEntity.ok(productSalesService.getTop3PopularProducts(PopularProductTracker.Window.of(window)));
+	}
+
+	@Operation(summary = "取得熱門商品排行", description = "依時段（hour：近一小時、today：今日、week：近 7 天）回傳送出數量前 N 名的上架商品，資料來自記憶體即時統計")
+	@GetMapping("/popular")
+	@PermitAll
+	public ResponseEntity<List<PopularProductDto>> getPopularProducts(
+			@RequestParam(defaultValue = "week") String window,
+			@RequestParam(defaultValue = "10") Integer limit) {
+		return ResponseEntity.ok(productSalesService.getPopularProducts(PopularProductTracker.Window.of(window), limit));
+	}
+
+	@Operation(summary = "匯出商品銷售報表", description = "以串流方式匯出所有商品銷售統計，format 可選 csv（預設）或 ndjson")
+	@GetMapping("/export")
+	@PreAuthorize("hasAuthority('ANALYTICS_READ')")
+	public ResponseEntity<StreamingResponseBody> exportProductSales(
+			@RequestParam(defaultValue = "csv") String format) {
+		return reportExportService.exportProductSales(ReportExportService.Format.of(format));
 	}
 }
@@ -0,0 +1,37 @@
+package com.supernovapos.finalproject.analytics.controller;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.supernovapos.finalproject.analytics.service.SalesRollupService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/analytics/rollup")
+@Tag(name = "營收彙總維護", description = "營收彙總表重建 API")
+public class SalesRollupController {
+
+	private final SalesRollupService salesRollupService;
+
+	@Operation(summary = "重建營收彙總", description = "依已結帳群組重算 from ~ to（yyyy-MM-dd，含兩端）的日 / 時 / 商品 / 桌次彙總")
+	@PostMapping("/rebuild")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<Map<String, Integer>> rebuild(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		return ResponseEntity.ok(salesRollupService.rebuild(from, to));
+	}
+
+}
@@ -3,16 +3,19 @@ package com.supernovapos.finalproject.analytics.controller;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.supernovapos.finalproject.analytics.model.dto.MonthlySpendingDto;
 import com.supernovapos.finalproject.analytics.model.dto.UserSpendingDto;
 import com.supernovapos.finalproject.analytics.model.dto.UserSpendingRequest;
 import com.supernovapos.finalproject.analytics.model.dto.UserSpendingSummaryDto;
+import com.supernovapos.finalproject.analytics.service.ReportExportService;
 import com.supernovapos.finalproject.analytics.service.UserSpendingService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -32,6 +35,7 @@ import lombok.RequiredArgsConstructor;
 public class UserSpendingController {
 
 	private final UserSpendingService service;
+	private final ReportExportService reportExportService;
 
 	@Operation(summary = "分頁查詢顧客消費報表", description = "回傳符合篩選條件的顧客消費報表（支援分頁、排序、關鍵字、金額篩選與日期區間）。", security = @SecurityRequirement(name = "bearerAuth"), responses = {
 			@ApiResponse(responseCode = "200", description = "成功取得顧客消費報表", content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserSpendingDto.class))),
@@ -74,4 +78,12 @@ public class UserSpendingController {
 	public List<MonthlySpendingDto> monthly(UserSpendingRequest req) {
 		return service.getMonthlyTrend(req);
 	}
+
+	@Operation(summary = "匯出顧客消費報表", description = "以串流方式匯出符合篩選條件的所有顧客（不分頁），format 可選 csv（預設）或 ndjson", security = @SecurityRequirement(name = "bearerAuth"))
+	@GetMapping("/export")
+	@PreAuthorize("hasAuthority('ANALYTICS_READ')")
+	public ResponseEntity<StreamingResponseBody> export(UserSpendingRequest req,
+			@RequestParam(defaultValue = "csv") String format) {
+		return reportExportService.exportUserSpending(req, ReportExportService.Format.of(format));
+	}
 }
@@ -0,0 +1,37 @@
+package com.supernovapos.finalproject.analytics.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "報表查詢快取統計")
+public class AnalyticsCacheStatsDto {
+
+    @Schema(description = "命中次數", example = "1520")
+    private long hits;
+
+    @Schema(description = "未命中（重新查詢）次數", example = "230")
+    private long misses;
+
+    @Schema(description = "命中率 hits / (hits + misses)", example = "0.87")
+    private double hitRatio;
+
+    @Schema(description = "因容量上限被移除的筆數", example = "12")
+    private long evictions;
+
+    @Schema(description = "因結帳 / 付款事件失效的筆數", example = "85")
+    private long invalidations;
+
+    @Schema(description = "目前快取筆數", example = "340")
+    private int size;
+
+    @Schema(description = "其中已結束時段（不會再變動）的筆數", example = "300")
+    private int closedEntries;
+
+    @Schema(description = "容量上限", example = "2000")
+    private int maxEntries;
+}
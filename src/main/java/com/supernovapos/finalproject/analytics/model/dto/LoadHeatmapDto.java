@@ -0,0 +1,40 @@
+package com.supernovapos.finalproject.analytics.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "營運負載熱度圖（星期 × 時槽），外層索引 0 = 星期一，內層索引為當日第幾個時槽")
+public class LoadHeatmapDto {
+
+    @Schema(description = "起始日期（含）", example = "2025-07-01")
+    private LocalDate from;
+
+    @Schema(description = "結束日期（含）", example = "2025-09-28")
+    private LocalDate to;
+
+    @Schema(description = "時槽長度（分鐘）", example = "15")
+    private Integer slotMinutes;
+
+    @Schema(description = "區間內各星期幾的天數，索引 0 = 星期一")
+    private int[] dayCount;
+
+    @Schema(description = "平均每日開桌數")
+    private List<List<Double>> groupsOpened;
+
+    @Schema(description = "平均每日送出項目數")
+    private List<List<Double>> itemsSubmitted;
+
+    @Schema(description = "平均每日結帳營收（依結帳時間）")
+    private List<List<Double>> revenue;
+
+    @Schema(description = "平均用餐時長（分鐘，依結帳時間）")
+    private List<List<Double>> avgDiningMinutes;
+}
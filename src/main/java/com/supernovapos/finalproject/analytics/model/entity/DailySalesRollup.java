@@ -2,6 +2,9 @@ package com.supernovapos.finalproject.analytics.model.entity;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Formula;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -11,23 +14,33 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * 每日營收彙總（sales_rollup_daily）
+ * 由 SalesRollupService 於群組結帳時累加，欄位名稱沿用原 v_daily_sales
+ */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "v_daily_sales")
-public class DailySalesView {
+@Table(name = "sales_rollup_daily")
+public class DailySalesRollup {
     @Id
-    @Column(name = "order_date")
+    @Column(name = "sales_date")
     private LocalDate orderDate;
 
-    @Column(name = "daily_revenue")
+    @Column(name = "revenue")
     private BigDecimal dailyRevenue;
 
     @Column(name = "order_count")
     private Integer orderCount;
 
-    @Column(name = "avg_order_value")
+    @Column(name = "item_quantity")
+    private Integer itemQuantity;
+
+    @Formula("revenue * 1.0 / NULLIF(order_count, 0)")
     private BigDecimal avgOrderValue;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
 }
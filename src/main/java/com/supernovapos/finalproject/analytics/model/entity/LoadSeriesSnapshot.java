@@ -0,0 +1,36 @@
+package com.supernovapos.finalproject.analytics.model.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 營運負載每日快照（load_series_daily）
+ * payload 格式由 LoadSeries 定義
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "load_series_daily")
+public class LoadSeriesSnapshot {
+    @Id
+    @Column(name = "series_date")
+    private LocalDate seriesDate;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "VARBINARY(MAX)")
+    private byte[] payload;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+}
@@ -3,9 +3,9 @@ package com.supernovapos.finalproject.analytics.model.mapper;
 import org.mapstruct.Mapper;
 
 import com.supernovapos.finalproject.analytics.model.dto.DailySalesResponse;
-import com.supernovapos.finalproject.analytics.model.entity.DailySalesView;
+import com.supernovapos.finalproject.analytics.model.entity.DailySalesRollup;
 
 @Mapper(componentModel = "spring")
 public interface DailySalesMapper {
-    DailySalesResponse toDto(DailySalesView entity);
+    DailySalesResponse toDto(DailySalesRollup entity);
 }
@@ -1,16 +1,31 @@
 package com.supernovapos.finalproject.analytics.repository;
 
 import java.time.LocalDate;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import com.supernovapos.finalproject.analytics.model.entity.DailySalesView;
+import com.supernovapos.finalproject.analytics.model.entity.DailySalesRollup;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface DailySalesRepository extends 
-JpaRepository<DailySalesView, LocalDate>, 
-JpaSpecificationExecutor<DailySalesView> {
+JpaRepository<DailySalesRollup, LocalDate>, 
+JpaSpecificationExecutor<DailySalesRollup> {
+
+	// 匯出用：逐列讀取，需在交易內使用並關閉 Stream
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT d FROM DailySalesRollup d WHERE d.orderDate BETWEEN :from AND :to ORDER BY d.orderDate ASC")
+	Stream<DailySalesRollup> streamByOrderDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
 
 }
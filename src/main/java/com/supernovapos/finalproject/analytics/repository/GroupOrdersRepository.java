@@ -1,9 +1,13 @@
 package com.supernovapos.finalproject.analytics.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.supernovapos.finalproject.analytics.model.entity.GroupOrdersView;
@@ -13,4 +17,28 @@ public interface GroupOrdersRepository extends
 JpaRepository<GroupOrdersView, UUID>, 
 JpaSpecificationExecutor<GroupOrdersView> {
 
+	// === KPI cube 載入（只計已結帳群組，依開桌時間歸戶）===
+	// 欄位：date(yyyyMMdd), hour, table_id, group_count, revenue, duration_sum, duration_count
+
+	@Query(value = "SELECT YEAR(g.created_at) * 10000 + MONTH(g.created_at) * 100 + DAY(g.created_at), " +
+			"DATEPART(hour, g.created_at), g.table_id, COUNT(*), SUM(CAST(g.total_amount AS BIGINT)), " +
+			"SUM(CAST(DATEDIFF(MINUTE, g.created_at, g.completed_at) AS BIGINT)), COUNT(g.completed_at) " +
+			"FROM order_groups g WHERE g.status = 0 AND g.created_at >= :from AND g.created_at < :to " +
+			"GROUP BY YEAR(g.created_at), MONTH(g.created_at), DAY(g.created_at), DATEPART(hour, g.created_at), g.table_id",
+			nativeQuery = true)
+	List<Object[]> sumCompletedGroupCells(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	// 欄位：group_id, date(yyyyMMdd), hour, table_id, total_amount, duration（逐群組，供當日去重）
+	@Query(value = "SELECT CONVERT(varchar(36), g.id), YEAR(g.created_at) * 10000 + MONTH(g.created_at) * 100 + DAY(g.created_at), " +
+			"DATEPART(hour, g.created_at), g.table_id, g.total_amount, DATEDIFF(MINUTE, g.created_at, g.completed_at) " +
+			"FROM order_groups g WHERE g.status = 0 AND g.created_at >= :from AND g.created_at < :to",
+			nativeQuery = true)
+	List<Object[]> findCompletedGroupRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Query(value = "SELECT CONVERT(varchar(36), g.id), YEAR(g.created_at) * 10000 + MONTH(g.created_at) * 100 + DAY(g.created_at), " +
+			"DATEPART(hour, g.created_at), g.table_id, g.total_amount, DATEDIFF(MINUTE, g.created_at, g.completed_at) " +
+			"FROM order_groups g WHERE g.id = :groupId",
+			nativeQuery = true)
+	List<Object[]> findGroupRow(@Param("groupId") UUID groupId);
+
 }
@@ -0,0 +1,39 @@
+package com.supernovapos.finalproject.analytics.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.supernovapos.finalproject.analytics.model.entity.LoadSeriesSnapshot;
+
+public interface LoadSeriesRepository extends JpaRepository<LoadSeriesSnapshot, LocalDate> {
+
+	List<LoadSeriesSnapshot> findBySeriesDateBetween(LocalDate from, LocalDate to);
+
+	// === 沒有快照的日期由原始資料重建 ===
+	// 時槽編號 = 自 2000-01-01 起的分鐘數 / 15（與 LoadSeries.slotOf 一致）
+
+	// 欄位：slot, 開桌數
+	@Query(value = "SELECT DATEDIFF(MINUTE, '2000-01-01', g.created_at) / 15, COUNT(*) " +
+			"FROM order_groups g WHERE g.created_at >= :from AND g.created_at < :to " +
+			"GROUP BY DATEDIFF(MINUTE, '2000-01-01', g.created_at) / 15", nativeQuery = true)
+	List<Object[]> countOpenedBySlot(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	// 欄位：slot, 已送出項目數量
+	@Query(value = "SELECT DATEDIFF(MINUTE, '2000-01-01', oi.created_at) / 15, SUM(CAST(oi.quantity AS BIGINT)) " +
+			"FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+			"WHERE o.status = 1 AND oi.created_at >= :from AND oi.created_at < :to " +
+			"GROUP BY DATEDIFF(MINUTE, '2000-01-01', oi.created_at) / 15", nativeQuery = true)
+	List<Object[]> sumItemsBySlot(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	// 欄位：slot, 營收, 用餐分鐘合計, 結帳桌次（依結帳時間）
+	@Query(value = "SELECT DATEDIFF(MINUTE, '2000-01-01', g.completed_at) / 15, SUM(CAST(g.total_amount AS BIGINT)), " +
+			"SUM(CAST(DATEDIFF(MINUTE, g.created_at, g.completed_at) AS BIGINT)), COUNT(*) " +
+			"FROM order_groups g WHERE g.status = 0 AND g.completed_at >= :from AND g.completed_at < :to " +
+			"GROUP BY DATEDIFF(MINUTE, '2000-01-01', g.completed_at) / 15", nativeQuery = true)
+	List<Object[]> sumCompletedBySlot(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -1,13 +1,28 @@
 package com.supernovapos.finalproject.analytics.repository;
 
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.supernovapos.finalproject.analytics.model.entity.ProductSalesView;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ProductSalesRepository extends 
         JpaRepository<ProductSalesView, Integer>, 
         JpaSpecificationExecutor<ProductSalesView> {
-}
\ No newline at end of file
+
+    // 匯出用：逐列讀取，需在交易內使用並關閉 Stream
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM ProductSalesView p ORDER BY p.totalRevenue DESC")
+    Stream<ProductSalesView> streamAll();
+}
@@ -0,0 +1,171 @@
+package com.supernovapos.finalproject.analytics.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.supernovapos.finalproject.analytics.model.entity.DailySalesRollup;
+
+/**
+ * 營收彙總表維護與查詢（sales_rollup_*）
+ * merge* 只彙總單一群組的已送出訂單並累加到既有列；rebuild 先 delete 再以 insert 重算區間
+ */
+public interface SalesRollupRepository extends org.springframework.data.repository.Repository<DailySalesRollup, LocalDate> {
+
+	// === 單一群組結帳時累加 ===
+
+	@Modifying(flushAutomatically = true)
+	@Query(value = "MERGE sales_rollup_daily WITH (HOLDLOCK) AS t " +
+			"USING (SELECT CONVERT(date, o.created_at) AS sales_date, SUM(oi.subtotal) AS revenue, " +
+			"       COUNT(DISTINCT o.id) AS order_count, SUM(oi.quantity) AS item_quantity " +
+			"       FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+			"       WHERE o.group_id = :groupId AND o.status = 1 " +
+			"       GROUP BY CONVERT(date, o.created_at)) AS s " +
+			"ON t.sales_date = s.sales_date " +
+			"WHEN MATCHED THEN UPDATE SET t.revenue = t.revenue + s.revenue, " +
+			"     t.order_count = t.order_count + s.order_count, " +
+			"     t.item_quantity = t.item_quantity + s.item_quantity, t.updated_at = SYSUTCDATETIME() " +
+			"WHEN NOT MATCHED THEN INSERT (sales_date, revenue, order_count, item_quantity, updated_at) " +
+			"     VALUES (s.sales_date, s.revenue, s.order_count, s.item_quantity, SYSUTCDATETIME());",
+			nativeQuery = true)
+	int mergeDaily(@Param("groupId") UUID groupId);
+
+	@Modifying(flushAutomatically = true)
+	@Query(value = "MERGE sales_rollup_hourly WITH (HOLDLOCK) AS t " +
+			"USING (SELECT CONVERT(date, o.created_at) AS sales_date, DATEPART(hour, o.created_at) AS sales_hour, " +
+			"       SUM(oi.subtotal) AS revenue, COUNT(DISTINCT o.id) AS order_count, SUM(oi.quantity) AS item_quantity " +
+			"       FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+			"       WHERE o.group_id = :groupId AND o.status = 1 " +
+			"       GROUP BY CONVERT(date, o.created_at), DATEPART(hour, o.created_at)) AS s " +
+			"ON t.sales_date = s.sales_date AND t.sales_hour = s.sales_hour " +
+			"WHEN MATCHED THEN UPDATE SET t.revenue = t.revenue + s.revenue, " +
+			"     t.order_count = t.order_count + s.order_count, t.item_quantity = t.item_quantity + s.item_quantity " +
+			"WHEN NOT MATCHED THEN INSERT (sales_date, sales_hour, revenue, order_count, item_quantity) " +
+			"     VALUES (s.sales_date, s.sales_hour, s.revenue, s.order_count, s.item_quantity);",
+			nativeQuery = true)
+	int mergeHourly(@Param("groupId") UUID groupId);
+
+	@Modifying(flushAutomatically = true)
+	@Query(value = "MERGE sales_rollup_product_daily WITH (HOLDLOCK) AS t " +
+			"USING (SELECT CONVERT(date, o.created_at) AS sales_date, oi.product_id, " +
+			"       SUM(oi.quantity) AS quantity, SUM(oi.subtotal) AS revenue " +
+			"       FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+			"       WHERE o.group_id = :groupId AND o.status = 1 " +
+			"       GROUP BY CONVERT(date, o.created_at), oi.product_id) AS s " +
+			"ON t.sales_date = s.sales_date AND t.product_id = s.product_id " +
+			"WHEN MATCHED THEN UPDATE SET t.quantity = t.quantity + s.quantity, t.revenue = t.revenue + s.revenue " +
+			"WHEN NOT MATCHED THEN INSERT (sales_date, product_id, quantity, revenue) " +
+			"     VALUES (s.sales_date, s.product_id, s.quantity, s.revenue);",
+			nativeQuery = true)
+	int mergeProductDaily(@Param("groupId") UUID groupId);
+
+	// 依群組開桌日期歸戶；沒有點餐的群組也計入桌次
+	@Modifying(flushAutomatically = true)
+	@Query(value = "MERGE sales_rollup_table_daily WITH (HOLDLOCK) AS t " +
+			"USING (SELECT CONVERT(date, g.created_at) AS sales_date, g.table_id, " +
+			"       (SELECT COUNT(*) FROM orders o WHERE o.group_id = g.id AND o.status = 1) AS order_count, " +
+			"       (SELECT COALESCE(SUM(oi.subtotal), 0) FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+			"        WHERE o.group_id = g.id AND o.status = 1) AS revenue, " +
+			"       COALESCE(DATEDIFF(MINUTE, g.created_at, g.completed_at), 0) AS dining_minutes " +
+			"       FROM order_groups g WHERE g.id = :groupId) AS s " +
+			"ON t.sales_date = s.sales_date AND t.table_id = s.table_id " +
+			"WHEN MATCHED THEN UPDATE SET t.group_count = t.group_count + 1, " +
+			"     t.order_count = t.order_count + s.order_count, t.revenue = t.revenue + s.revenue, " +
+			"     t.dining_minutes = t.dining_minutes + s.dining_minutes " +
+			"WHEN NOT MATCHED THEN INSERT (sales_date, table_id, group_count, order_count, revenue, dining_minutes) " +
+			"     VALUES (s.sales_date, s.table_id, 1, s.order_count, s.revenue, s.dining_minutes);",
+			nativeQuery = true)
+	int mergeTableDaily(@Param("groupId") UUID groupId);
+
+	// 群組資料歸戶的最早日期（開桌日與已送出訂單日），yyyyMMdd
+	@Query(value = "SELECT YEAR(MIN(x.d)) * 10000 + MONTH(MIN(x.d)) * 100 + DAY(MIN(x.d)) FROM (" +
+			"SELECT g.created_at AS d FROM order_groups g WHERE g.id = :groupId " +
+			"UNION ALL SELECT o.created_at FROM orders o WHERE o.group_id = :groupId AND o.status = 1) x",
+			nativeQuery = true)
+	Integer findEarliestSalesDate(@Param("groupId") UUID groupId);
+
+	// === 區間重建（只計入已結帳群組，from 含、to 不含）===
+
+	@Modifying
+	@Query(value = "DELETE FROM sales_rollup_daily WHERE sales_date >= :from AND sales_date < :to", nativeQuery = true)
+	int deleteDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Modifying
+	@Query(value = "DELETE FROM sales_rollup_hourly WHERE sales_date >= :from AND sales_date < :to", nativeQuery = true)
+	int deleteHourly(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Modifying
+	@Query(value = "DELETE FROM sales_rollup_product_daily WHERE sales_date >= :from AND sales_date < :to", nativeQuery = true)
+	int deleteProductDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Modifying
+	@Query(value = "DELETE FROM sales_rollup_table_daily WHERE sales_date >= :from AND sales_date < :to", nativeQuery = true)
+	int deleteTableDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Modifying
+	@Query(value = "INSERT INTO sales_rollup_daily (sales_date, revenue, order_count, item_quantity, updated_at) " +
+			"SELECT CONVERT(date, o.created_at), SUM(oi.subtotal), COUNT(DISTINCT o.id), SUM(oi.quantity), SYSUTCDATETIME() " +
+			"FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN order_groups g ON g.id = o.group_id " +
+			"WHERE g.status = 0 AND o.status = 1 AND o.created_at >= :from AND o.created_at < :to " +
+			"GROUP BY CONVERT(date, o.created_at)",
+			nativeQuery = true)
+	int insertDaily(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Modifying
+	@Query(value = "INSERT INTO sales_rollup_hourly (sales_date, sales_hour, revenue, order_count, item_quantity) " +
+			"SELECT CONVERT(date, o.created_at), DATEPART(hour, o.created_at), SUM(oi.subtotal), COUNT(DISTINCT o.id), SUM(oi.quantity) " +
+			"FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN order_groups g ON g.id = o.group_id " +
+			"WHERE g.status = 0 AND o.status = 1 AND o.created_at >= :from AND o.created_at < :to " +
+			"GROUP BY CONVERT(date, o.created_at), DATEPART(hour, o.created_at)",
+			nativeQuery = true)
+	int insertHourly(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Modifying
+	@Query(value = "INSERT INTO sales_rollup_product_daily (sales_date, product_id, quantity, revenue) " +
+			"SELECT CONVERT(date, o.created_at), oi.product_id, SUM(oi.quantity), SUM(oi.subtotal) " +
+			"FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN order_groups g ON g.id = o.group_id " +
+			"WHERE g.status = 0 AND o.status = 1 AND o.created_at >= :from AND o.created_at < :to " +
+			"GROUP BY CONVERT(date, o.created_at), oi.product_id",
+			nativeQuery = true)
+	int insertProductDaily(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Modifying
+	@Query(value = "INSERT INTO sales_rollup_table_daily (sales_date, table_id, group_count, order_count, revenue, dining_minutes) " +
+			"SELECT CONVERT(date, g.created_at), g.table_id, COUNT(*), SUM(s.order_count), SUM(s.revenue), " +
+			"       SUM(COALESCE(DATEDIFF(MINUTE, g.created_at, g.completed_at), 0)) " +
+			"FROM order_groups g " +
+			"CROSS APPLY (SELECT COUNT(DISTINCT o.id) AS order_count, COALESCE(SUM(oi.subtotal), 0) AS revenue " +
+			"             FROM orders o LEFT JOIN order_items oi ON oi.order_id = o.id " +
+			"             WHERE o.group_id = g.id AND o.status = 1) s " +
+			"WHERE g.status = 0 AND g.created_at >= :from AND g.created_at < :to " +
+			"GROUP BY CONVERT(date, g.created_at), g.table_id",
+			nativeQuery = true)
+	int insertTableDaily(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	// === 營收趨勢（依開桌日期，每個時段一列：bucket, revenue）===
+	// bucket：日 yyyyMMdd、月 yyyyMM、年 yyyy
+
+	@Query(value = "SELECT YEAR(sales_date) * 10000 + MONTH(sales_date) * 100 + DAY(sales_date), SUM(revenue) " +
+			"FROM sales_rollup_table_daily WHERE sales_date >= :from AND sales_date < :to " +
+			"GROUP BY sales_date",
+			nativeQuery = true)
+	List<Object[]> sumRevenueByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Query(value = "SELECT YEAR(sales_date) * 100 + MONTH(sales_date), SUM(revenue) " +
+			"FROM sales_rollup_table_daily WHERE sales_date >= :from AND sales_date < :to " +
+			"GROUP BY YEAR(sales_date), MONTH(sales_date)",
+			nativeQuery = true)
+	List<Object[]> sumRevenueByMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Query(value = "SELECT YEAR(sales_date), SUM(revenue) " +
+			"FROM sales_rollup_table_daily WHERE sales_date >= :from AND sales_date < :to " +
+			"GROUP BY YEAR(sales_date)",
+			nativeQuery = true)
+	List<Object[]> sumRevenueByYear(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+}
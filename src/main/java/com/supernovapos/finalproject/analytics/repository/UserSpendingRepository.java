@@ -9,6 +9,7 @@ import com.supernovapos.finalproject.analytics.model.entity.UserSpendingView;
 @Repository
 public interface UserSpendingRepository extends 
 JpaRepository<UserSpendingView, Long>, 
-JpaSpecificationExecutor<UserSpendingView> {
+JpaSpecificationExecutor<UserSpendingView>, 
+UserSpendingRepositoryCustom {
 
 }
@@ -0,0 +1,33 @@
+package com.supernovapos.finalproject.analytics.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.supernovapos.finalproject.analytics.model.entity.UserSpendingView;
+
+import jakarta.persistence.Tuple;
+
+/**
+ * 顧客消費彙總查詢：套用同一組 Specification 條件，在資料庫端 SUM / COUNT
+ */
+public interface UserSpendingRepositoryCustom {
+
+	/**
+	 * 單列結果：totalUsers、totalRevenue、activeUsers（lastOrderDate 晚於 activeSince 的顧客數）
+	 */
+	Tuple summarize(Specification<UserSpendingView> spec, LocalDateTime activeSince);
+
+	/**
+	 * 依最後消費年月分組：year、month、totalSpent，由舊到新
+	 */
+	List<Tuple> sumByLastOrderMonth(Specification<UserSpendingView> spec);
+
+	/**
+	 * 匯出用：逐列讀取符合條件的顧客，需在交易內使用並關閉 Stream
+	 */
+	Stream<UserSpendingView> stream(Specification<UserSpendingView> spec, Sort sort);
+}
@@ -0,0 +1,111 @@
+package com.supernovapos.finalproject.analytics.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.supernovapos.finalproject.analytics.model.entity.UserSpendingView;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class UserSpendingRepositoryImpl implements UserSpendingRepositoryCustom {
+
+	private static final int FETCH_SIZE = 500;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public Tuple summarize(Specification<UserSpendingView> spec, LocalDateTime activeSince) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<UserSpendingView> root = query.from(UserSpendingView.class);
+
+		Expression<LocalDateTime> lastOrderDate = root.get("lastOrderDate");
+		Expression<Long> active = cb.<Long>selectCase()
+				.when(cb.greaterThan(lastOrderDate, activeSince), 1L)
+				.otherwise(0L);
+
+		query.multiselect(
+				cb.count(root).alias("totalUsers"),
+				cb.coalesce(cb.sum(root.<BigDecimal>get("totalSpent")), BigDecimal.ZERO).alias("totalRevenue"),
+				cb.coalesce(cb.sum(active), 0L).alias("activeUsers"));
+		applySpec(spec, root, query, cb, new ArrayList<>());
+
+		return em.createQuery(query).getSingleResult();
+	}
+
+	@Override
+	public List<Tuple> sumByLastOrderMonth(Specification<UserSpendingView> spec) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = cb.createTupleQuery();
+		Root<UserSpendingView> root = query.from(UserSpendingView.class);
+
+		Expression<LocalDateTime> lastOrderDate = root.get("lastOrderDate");
+		Expression<Integer> year = cb.function("year", Integer.class, lastOrderDate);
+		Expression<Integer> month = cb.function("month", Integer.class, lastOrderDate);
+
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(cb.isNotNull(lastOrderDate));
+		predicates.add(cb.isNotNull(root.get("totalSpent")));
+
+		query.multiselect(
+				year.alias("year"),
+				month.alias("month"),
+				cb.sum(root.<BigDecimal>get("totalSpent")).alias("totalSpent"));
+		applySpec(spec, root, query, cb, predicates);
+		query.groupBy(year, month);
+		query.orderBy(cb.asc(year), cb.asc(month));
+
+		return em.createQuery(query).getResultList();
+	}
+
+	@Override
+	public Stream<UserSpendingView> stream(Specification<UserSpendingView> spec, Sort sort) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<UserSpendingView> query = cb.createQuery(UserSpendingView.class);
+		Root<UserSpendingView> root = query.from(UserSpendingView.class);
+
+		if (spec != null) {
+			Predicate predicate = spec.toPredicate(root, query, cb);
+			if (predicate != null) {
+				query.where(predicate);
+			}
+		}
+		if (sort != null && sort.isSorted()) {
+			query.orderBy(QueryUtils.toOrders(sort, root, cb));
+		}
+
+		return em.createQuery(query)
+				.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+				.setHint(HibernateHints.HINT_READ_ONLY, true)
+				.getResultStream();
+	}
+
+	private void applySpec(Specification<UserSpendingView> spec, Root<UserSpendingView> root,
+			CriteriaQuery<Tuple> query, CriteriaBuilder cb, List<Predicate> predicates) {
+		if (spec != null) {
+			Predicate predicate = spec.toPredicate(root, query, cb);
+			if (predicate != null) {
+				predicates.add(predicate);
+			}
+		}
+		if (!predicates.isEmpty()) {
+			query.where(predicates.toArray(new Predicate[0]));
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.supernovapos.finalproject.analytics.model.dto.AnalyticsCacheStatsDto;
+
+/**
+ * 報表查詢結果快取
+ * - 已結束時段（最後一天早於昨天）的結果不會再變動，保留到容量不足才移除
+ * - 目前時段與不分時段的結果在群組結帳、付款回呼時整批失效，另有保存時間上限
+ * - 結帳的群組有昨天以前的資料時（強制結帳的舊群組）全部清除
+ * - 以最近使用順序（LRU）限制總筆數
+ */
+@Component
+public class AnalyticsCache {
+
+	private final int maxEntries;
+	private final long currentTtlMillis;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	// 以 this 同步；access-order 供 LRU 移除
+	private final LinkedHashMap<String, Entry> entries;
+	// 每次失效 +1；查詢期間若發生失效，結果不寫入快取，避免存入過期資料
+	private long generation;
+
+	public AnalyticsCache(@Value("${analytics.cache.max-entries:2000}") int maxEntries,
+			@Value("${analytics.cache.current-ttl-seconds:300}") long currentTtlSeconds) {
+		this.maxEntries = maxEntries;
+		this.currentTtlMillis = TimeUnit.SECONDS.toMillis(currentTtlSeconds);
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				if (size() > AnalyticsCache.this.maxEntries) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * 時段最後一天早於昨天才視為已結束（昨天開桌的群組可能跨午夜才結帳）
+	 */
+	public static boolean isClosed(LocalDate lastDay) {
+		return lastDay != null && lastDay.isBefore(LocalDate.now().minusDays(1));
+	}
+
+	/**
+	 * 取得快取結果，沒有或已過期時執行 loader
+	 *
+	 * @param region 服務與方法名稱
+	 * @param key    查詢條件（需有穩定的 toString）
+	 * @param closed 是否為已結束時段
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(String region, Object key, boolean closed, Supplier<T> loader) {
+		String cacheKey = region + "|" + key;
+		long now = System.currentTimeMillis();
+		long loadGeneration;
+		synchronized (this) {
+			Entry entry = entries.get(cacheKey);
+			if (entry != null && (entry.closed() || entry.expiresAt() > now)) {
+				hits.increment();
+				return (T) entry.value();
+			}
+			loadGeneration = generation;
+		}
+
+		misses.increment();
+		T value = loader.get();
+		if (value == null) {
+			return null;
+		}
+		synchronized (this) {
+			if (loadGeneration == generation) {
+				entries.put(cacheKey, new Entry(value, closed, closed ? Long.MAX_VALUE : now + currentTtlMillis));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 移除所有未結束時段的結果（群組結帳、付款回呼後呼叫）
+	 */
+	public synchronized void evictCurrent() {
+		generation++;
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext()) {
+			if (!it.next().closed()) {
+				it.remove();
+				invalidations.increment();
+			}
+		}
+	}
+
+	/**
+	 * 全部清除（彙總表重建後呼叫）
+	 */
+	public synchronized void evictAll() {
+		generation++;
+		invalidations.add(entries.size());
+		entries.clear();
+	}
+
+	public synchronized AnalyticsCacheStatsDto getStats() {
+		long h = hits.sum();
+		long m = misses.sum();
+		int closedEntries = (int) entries.values().stream().filter(Entry::closed).count();
+		return new AnalyticsCacheStatsDto(h, m, (h + m) == 0 ? 0.0 : (double) h / (h + m),
+				evictions.sum(), invalidations.sum(), entries.size(), closedEntries, maxEntries);
+	}
+
+	private record Entry(Object value, boolean closed, long expiresAt) {
+	}
+}
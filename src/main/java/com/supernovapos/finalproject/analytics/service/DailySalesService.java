@@ -9,10 +9,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.supernovapos.finalproject.analytics.model.dto.DailySalesRequest;
 import com.supernovapos.finalproject.analytics.model.dto.DailySalesResponse;
-import com.supernovapos.finalproject.analytics.model.entity.DailySalesView;
+import com.supernovapos.finalproject.analytics.model.entity.DailySalesRollup;
 import com.supernovapos.finalproject.analytics.model.mapper.DailySalesMapper;
 import com.supernovapos.finalproject.analytics.repository.DailySalesRepository;
 
@@ -20,12 +21,19 @@ import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class DailySalesService {
 
     private final DailySalesRepository dailySalesRepository;
     private final DailySalesMapper dailySalesMapper;
+    private final AnalyticsCache analyticsCache;
 
     public Page<DailySalesResponse> getDailySalesReport(DailySalesRequest request) {
+        return analyticsCache.get("daily.report", request, AnalyticsCache.isClosed(lastDay(request)),
+                () -> loadDailySalesReport(request));
+    }
+
+    private Page<DailySalesResponse> loadDailySalesReport(DailySalesRequest request) {
         Pageable pageable = PageRequest.of(
                 request.getPage() != null ? request.getPage() : 0,
                 request.getSize() != null ? request.getSize() : 10,
@@ -37,7 +45,7 @@ public class DailySalesService {
                 )
         );
 
-        Specification<DailySalesView> spec = switch (request.getMode()) {
+        Specification<DailySalesRollup> spec = switch (request.getMode()) {
             case "day"   -> buildDaySpec(request);
             case "range" -> buildRangeSpec(request);
             case "month" -> buildMonthSpec(request);
@@ -52,7 +60,26 @@ public class DailySalesService {
     }
 
     // === 私有方法 ===
-    private Specification<DailySalesView> buildDaySpec(DailySalesRequest request) {
+
+    // 查詢區間的最後一天，條件不完整時回傳 null（不視為已結束時段）
+    private LocalDate lastDay(DailySalesRequest request) {
+        if (request.getMode() == null) {
+            return null;
+        }
+        return switch (request.getMode()) {
+            case "day" -> request.getDate() != null ? LocalDate.parse(request.getDate()) : null;
+            case "range" -> request.getStartDate() != null && request.getEndDate() != null
+                    ? LocalDate.parse(request.getEndDate()) : null;
+            case "month" -> request.getMonth() != null ? YearMonth.parse(request.getMonth()).atEndOfMonth() : null;
+            case "monthRangeDay" -> request.getStartDate() != null && request.getEndDate() != null
+                    ? YearMonth.parse(request.getEndDate()).atEndOfMonth() : null;
+            case "year" -> request.getYear() != null ? LocalDate.of(Integer.parseInt(request.getYear()), 12, 31) : null;
+            case "yearRangeMonth" -> request.getStartDate() != null && request.getEndDate() != null
+                    ? LocalDate.of(Integer.parseInt(request.getEndDate()), 12, 31) : null;
+            default -> null;
+        };
+    }
+    private Specification<DailySalesRollup> buildDaySpec(DailySalesRequest request) {
         return (root, query, cb) -> {
             if (request.getDate() != null) {
                 return cb.equal(root.get("orderDate"), LocalDate.parse(request.getDate()));
@@ -61,7 +88,7 @@ public class DailySalesService {
         };
     }
 
-    private Specification<DailySalesView> buildRangeSpec(DailySalesRequest request) {
+    private Specification<DailySalesRollup> buildRangeSpec(DailySalesRequest request) {
         return (root, query, cb) -> {
             if (request.getStartDate() != null && request.getEndDate() != null) {
                 return cb.between(
@@ -74,7 +101,7 @@ public class DailySalesService {
         };
     }
 
-    private Specification<DailySalesView> buildMonthSpec(DailySalesRequest request) {
+    private Specification<DailySalesRollup> buildMonthSpec(DailySalesRequest request) {
         return (root, query, cb) -> {
             if (request.getMonth() != null) {
                 YearMonth ym = YearMonth.parse(request.getMonth()); // 格式: yyyy-MM
@@ -88,7 +115,7 @@ public class DailySalesService {
         };
     }
 
-    private Specification<DailySalesView> buildMonthRangeDaySpec(DailySalesRequest request) {
+    private Specification<DailySalesRollup> buildMonthRangeDaySpec(DailySalesRequest request) {
         if (request.getStartDate() != null && request.getEndDate() != null) {
             YearMonth start = YearMonth.parse(request.getStartDate());
             YearMonth end = YearMonth.parse(request.getEndDate());
@@ -101,7 +128,7 @@ public class DailySalesService {
         return (root, query, cb) -> cb.conjunction();
     }
     
-    private Specification<DailySalesView> buildYearSpec(DailySalesRequest request) {
+    private Specification<DailySalesRollup> buildYearSpec(DailySalesRequest request) {
         return (root, query, cb) -> {
             if (request.getYear() != null) {
                 int year = Integer.parseInt(request.getYear());
@@ -115,7 +142,7 @@ public class DailySalesService {
         };
     }
     
-    private Specification<DailySalesView> buildYearRangeMonthSpec(DailySalesRequest request) {
+    private Specification<DailySalesRollup> buildYearRangeMonthSpec(DailySalesRequest request) {
         if (request.getStartDate() != null && request.getEndDate() != null) {
             int startYear = Integer.parseInt(request.getStartDate());
             int endYear = Integer.parseInt(request.getEndDate());
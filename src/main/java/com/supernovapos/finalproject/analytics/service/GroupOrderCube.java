@@ -0,0 +1,256 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.supernovapos.finalproject.analytics.repository.GroupOrdersRepository;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+
+import lombok.Getter;
+
+/**
+ * 群組訂單 KPI 記憶體彙總（日期 × 開桌小時 × 桌位）
+ * 每格保存桌次數、營收合計、用餐時長合計；只計已結帳群組，依開桌時間歸戶
+ *
+ * 已結束的日期第一次查詢時以 GROUP BY 載入一次；今天與昨天逐群組載入並記下群組 ID，
+ * 之後由結帳事件累加（跨午夜的群組會落在昨天），以群組 ID 避免與載入結果重複計算
+ * 已結束的日期收到結帳事件（強制結帳的舊群組）時直接移除，下次查詢重新載入
+ *
+ * 資料庫查詢在鎖外執行，只有檢查缺少的日期、發布載入結果與走訪時持有鎖；
+ * 載入期間該日期收到結帳事件時，載入結果只用於本次查詢、不發布
+ * 最多保留 max-days 天，超過時移除最久未查詢的日期
+ */
+@Component
+public class GroupOrderCube {
+
+	// 今天往前保留群組 ID 的天數
+	private static final int OPEN_DAYS = 1;
+
+	private final GroupOrdersRepository repository;
+
+	// 以 this 同步；access-order 供 LRU 移除
+	private final LinkedHashMap<LocalDate, Day> days;
+	// 進行中的載入，以 this 同步
+	private final List<Load> loads = new ArrayList<>();
+	// clear 時遞增，之前開始的載入不發布
+	private long generation;
+
+	public GroupOrderCube(GroupOrdersRepository repository,
+			@Value("${analytics.group-cube.max-days:400}") int maxDays) {
+		this.repository = repository;
+		this.days = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<LocalDate, Day> eldest) {
+				return size() > maxDays;
+			}
+		};
+	}
+
+	/**
+	 * 逐格走訪 [from, to) 區間，未載入的日期先從資料庫載入
+	 */
+	public void forEachCell(LocalDate from, LocalDate to, CellVisitor visitor) {
+		Map<LocalDate, Day> loaded = load(from, to);
+		synchronized (this) {
+			for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+				Day cells = days.get(day);
+				if (cells == null) {
+					cells = loaded.get(day); // 已被移除或未發布，使用本次載入的結果
+				}
+				if (cells == null) {
+					continue;
+				}
+				cells.cells.forEach((key, cell) -> visitor.visit(key.hour(), key.tableId(), cell));
+			}
+		}
+	}
+
+	/**
+	 * 群組結帳時呼叫（需在結帳交易內，狀態與完成時間已寫入），commit 後才累加
+	 */
+	public void recordGroupCompleted(UUID groupId) {
+		List<Object[]> rows = repository.findGroupRow(groupId);
+		if (rows.isEmpty()) {
+			return;
+		}
+		Object[] row = rows.get(0);
+		TransactionUtils.afterCommit(() -> apply(row));
+	}
+
+	/**
+	 * 清除所有已載入的日期，下次查詢重新從資料庫載入（彙總重建後呼叫）
+	 */
+	public synchronized void clear() {
+		days.clear();
+		generation++;
+	}
+
+	// === 私有方法 ===
+
+	private synchronized void apply(Object[] row) {
+		LocalDate date = toDate(row[1]);
+		Day day = days.get(date);
+		if (day == null) {
+			// 尚未載入的日期，之後查詢時會從資料庫讀到；載入中的結果可能已漏掉此群組
+			loads.forEach(load -> load.stale.add(date));
+			return;
+		}
+		if (day.groupIds == null) {
+			// 無法確認載入結果是否已含此群組，移除後重新載入
+			days.remove(date);
+			return;
+		}
+		if (day.groupIds.add(UUID.fromString((String) row[0]))) {
+			day.add(row, 2);
+		}
+	}
+
+	/**
+	 * 載入 [from, to) 區間中缺少的日期，查詢在鎖外執行
+	 * @return 本次載入的日期（不論是否發布）
+	 */
+	private Map<LocalDate, Day> load(LocalDate from, LocalDate to) {
+		LocalDate today = LocalDate.now();
+		LocalDate openFrom = today.minusDays(OPEN_DAYS);
+
+		List<LocalDate> closedMissing = new ArrayList<>();
+		List<LocalDate> openMissing = new ArrayList<>();
+		Load load = new Load();
+		synchronized (this) {
+			// 已結束的日期不再需要群組 ID
+			days.forEach((date, day) -> {
+				if (day.groupIds != null && date.isBefore(openFrom)) {
+					day.groupIds = null;
+				}
+			});
+			for (LocalDate date = from; date.isBefore(to) && !date.isAfter(today); date = date.plusDays(1)) {
+				if (!days.containsKey(date)) {
+					(date.isBefore(openFrom) ? closedMissing : openMissing).add(date);
+				}
+			}
+			if (closedMissing.isEmpty() && openMissing.isEmpty()) {
+				return Map.of();
+			}
+			load.generation = generation;
+			loads.add(load);
+		}
+
+		Map<LocalDate, Day> loaded = new LinkedHashMap<>();
+		try {
+			if (!closedMissing.isEmpty()) {
+				closedMissing.forEach(date -> loaded.put(date, new Day(false)));
+				LocalDate end = closedMissing.get(closedMissing.size() - 1).plusDays(1);
+				for (Object[] row : repository.sumCompletedGroupCells(closedMissing.get(0).atStartOfDay(), end.atStartOfDay())) {
+					Day day = loaded.get(toDate(row[0]));
+					if (day != null) {
+						day.addSummed(row);
+					}
+				}
+			}
+
+			if (!openMissing.isEmpty()) {
+				openMissing.forEach(date -> loaded.put(date, new Day(true)));
+				LocalDate end = openMissing.get(openMissing.size() - 1).plusDays(1);
+				for (Object[] row : repository.findCompletedGroupRows(openMissing.get(0).atStartOfDay(), end.atStartOfDay())) {
+					Day day = loaded.get(toDate(row[1]));
+					if (day != null && day.groupIds != null) {
+						day.groupIds.add(UUID.fromString((String) row[0]));
+						day.add(row, 2);
+					}
+				}
+			}
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				loads.remove(load);
+			}
+			throw e;
+		}
+
+		synchronized (this) {
+			loads.remove(load);
+			if (load.generation == generation) {
+				loaded.forEach((date, day) -> {
+					if (!load.stale.contains(date)) {
+						days.putIfAbsent(date, day);
+					}
+				});
+			}
+		}
+		return loaded;
+	}
+
+	// yyyyMMdd → LocalDate
+	private static LocalDate toDate(Object value) {
+		int yyyymmdd = ((Number) value).intValue();
+		return LocalDate.of(yyyymmdd / 10000, yyyymmdd / 100 % 100, yyyymmdd % 100);
+	}
+
+	private static long toLong(Object value) {
+		return value != null ? ((Number) value).longValue() : 0L;
+	}
+
+	@FunctionalInterface
+	public interface CellVisitor {
+		void visit(int hour, int tableId, Cell cell);
+	}
+
+	@Getter
+	public static class Cell {
+		private long groupCount;
+		private long revenue;
+		private long durationSum;
+		private long durationCount;
+	}
+
+	private record CellKey(int hour, int tableId) {
+	}
+
+	private static class Load {
+		private final Set<LocalDate> stale = new HashSet<>();
+		private long generation;
+	}
+
+	private static class Day {
+		private final Map<CellKey, Cell> cells = new HashMap<>();
+		private Set<UUID> groupIds;
+
+		Day(boolean open) {
+			this.groupIds = open ? new HashSet<>() : null;
+		}
+
+		// 單一群組：hour, table_id, total_amount, duration 從 offset 開始
+		void add(Object[] row, int offset) {
+			Cell cell = cell(row[offset], row[offset + 1]);
+			cell.groupCount++;
+			cell.revenue += toLong(row[offset + 2]);
+			if (row[offset + 3] != null) {
+				cell.durationSum += toLong(row[offset + 3]);
+				cell.durationCount++;
+			}
+		}
+
+		// 已彙總：date, hour, table_id, group_count, revenue, duration_sum, duration_count
+		void addSummed(Object[] row) {
+			Cell cell = cell(row[1], row[2]);
+			cell.groupCount += toLong(row[3]);
+			cell.revenue += toLong(row[4]);
+			cell.durationSum += toLong(row[5]);
+			cell.durationCount += toLong(row[6]);
+		}
+
+		private Cell cell(Object hour, Object tableId) {
+			return cells.computeIfAbsent(
+					new CellKey(((Number) hour).intValue(), ((Number) tableId).intValue()), k -> new Cell());
+		}
+	}
+}
@@ -1,94 +1,98 @@
 package com.supernovapos.finalproject.analytics.service;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.supernovapos.finalproject.analytics.model.dto.GroupOrderReportDto;
 import com.supernovapos.finalproject.analytics.model.dto.KpiDto;
 import com.supernovapos.finalproject.analytics.model.dto.TableRankingDto;
-import com.supernovapos.finalproject.analytics.model.entity.GroupOrdersView;
-import com.supernovapos.finalproject.analytics.repository.GroupOrdersRepository;
-import com.supernovapos.finalproject.analytics.repository.GroupOrdersSpecifications;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class GroupOrderReportService {
 
-    private final GroupOrdersRepository repository;
+    private final GroupOrderCube cube;
+    private final AnalyticsCache analyticsCache;
 
     public GroupOrderReportDto getReport(LocalDate date, YearMonth ym, Integer year) {
-        Specification<GroupOrdersView> spec;
+        LocalDate from;
+        LocalDate to;
 
         if (date != null) {
-            spec = GroupOrdersSpecifications.onDate(date);
+            from = date;
+            to = date.plusDays(1);
         } else if (ym != null) {
-            spec = GroupOrdersSpecifications.inMonth(ym);
+            from = ym.atDay(1);
+            to = ym.plusMonths(1).atDay(1);
         } else if (year != null) {
-            spec = GroupOrdersSpecifications.inYear(year);
+            from = LocalDate.of(year, 1, 1);
+            to = LocalDate.of(year + 1, 1, 1);
         } else {
-            spec = GroupOrdersSpecifications.onDate(LocalDate.now().minusDays(1)); // 預設昨天
+            from = LocalDate.now().minusDays(1); // 預設昨天
+            to = from.plusDays(1);
         }
 
-        List<GroupOrdersView> result = repository.findAll(spec);
-
-        KpiDto kpi = calculateKpi(result);
-        Map<String, Long> periodDist = calculatePeriodDistribution(result);
-        List<TableRankingDto> topTables = calculateTopTables(result);
+        LocalDate rangeFrom = from;
+        LocalDate rangeTo = to;
+        return analyticsCache.get("group.report", from + "~" + to, AnalyticsCache.isClosed(to.minusDays(1)),
+                () -> buildReport(rangeFrom, rangeTo));
+    }
 
-        return new GroupOrderReportDto(kpi, periodDist, topTables);
+    private GroupOrderReportDto buildReport(LocalDate from, LocalDate to) {
+        // 加總 cube 各格，不再載入逐筆群組
+        Totals totals = new Totals();
+        cube.forEachCell(from, to, (hour, tableId, cell) -> {
+            totals.groupCount += cell.getGroupCount();
+            totals.revenue += cell.getRevenue();
+            totals.durationSum += cell.getDurationSum();
+            totals.durationCount += cell.getDurationCount();
+            totals.periodDist.merge(period(hour), cell.getGroupCount(), Long::sum);
+            totals.tableRevenue.merge(tableId, cell.getRevenue(), Long::sum);
+        });
+
+        KpiDto kpi = calculateKpi(totals);
+        List<TableRankingDto> topTables = calculateTopTables(totals.tableRevenue);
+
+        return new GroupOrderReportDto(kpi, totals.periodDist, topTables);
     }
 
     // -------- Private Methods --------
 
-    private KpiDto calculateKpi(List<GroupOrdersView> result) {
-        long groupCount = result.size();
-        long totalRevenue = result.stream()
-                                  .mapToLong(v -> v.getTotalRevenue() == null ? 0 : v.getTotalRevenue())
-                                  .sum();
-        double avgRevenue = groupCount > 0 ? (double) totalRevenue / groupCount : 0.0;
-        double avgDuration = calculateAvgDiningDuration(result);
-
-        return new KpiDto(groupCount, totalRevenue, avgRevenue, avgDuration);
-    }
+    private KpiDto calculateKpi(Totals totals) {
+        double avgRevenue = totals.groupCount > 0 ? (double) totals.revenue / totals.groupCount : 0.0;
+        double avgDuration = totals.durationCount > 0 ? (double) totals.durationSum / totals.durationCount : 0.0;
 
-    private double calculateAvgDiningDuration(List<GroupOrdersView> result) {
-        return result.stream()
-                     .filter(v -> v.getDiningDuration() != null)
-                     .mapToInt(GroupOrdersView::getDiningDuration)
-                     .average()
-                     .orElse(0.0);
+        return new KpiDto(totals.groupCount, totals.revenue, avgRevenue, avgDuration);
     }
 
-    private Map<String, Long> calculatePeriodDistribution(List<GroupOrdersView> result) {
-        return result.stream()
-            .collect(Collectors.groupingBy(
-                v -> {
-                    int hour = v.getCreatedAt().getHour();
-                    if (hour >= 11 && hour <= 14) return "午餐";
-                    else if (hour >= 17 && hour <= 21) return "晚餐";
-                    else return "其他";
-                },
-                Collectors.counting()
-            ));
+    private String period(int hour) {
+        if (hour >= 11 && hour <= 14) return "午餐";
+        else if (hour >= 17 && hour <= 21) return "晚餐";
+        else return "其他";
     }
 
-    private List<TableRankingDto> calculateTopTables(List<GroupOrdersView> result) {
-        return result.stream()
-            .collect(Collectors.groupingBy(
-                GroupOrdersView::getTableId,
-                Collectors.summingLong(v -> v.getTotalRevenue() == null ? 0 : v.getTotalRevenue())
-            ))
-            .entrySet().stream()
+    private List<TableRankingDto> calculateTopTables(Map<Integer, Long> tableRevenue) {
+        return tableRevenue.entrySet().stream()
             .map(e -> new TableRankingDto(e.getKey(), e.getValue()))
             .sorted((a, b) -> Long.compare(b.getRevenue(), a.getRevenue())) // 營收由大到小
             .limit(5)
             .toList();
     }
+
+    private static class Totals {
+        long groupCount;
+        long revenue;
+        long durationSum;
+        long durationCount;
+        final Map<String, Long> periodDist = new HashMap<>();
+        final Map<Integer, Long> tableRevenue = new HashMap<>();
+    }
 }
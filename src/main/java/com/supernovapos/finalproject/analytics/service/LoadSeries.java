@@ -0,0 +1,340 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.supernovapos.finalproject.analytics.model.dto.LoadHeatmapDto;
+import com.supernovapos.finalproject.analytics.model.entity.LoadSeriesSnapshot;
+import com.supernovapos.finalproject.analytics.repository.LoadSeriesRepository;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 營運負載時間序列（人力排班用）
+ * - 15 分鐘一個時槽，環狀陣列保留最近 90 天，記憶體固定
+ * - 每個時槽記錄開桌數、送出項目數、結帳營收與用餐時長（後兩者依結帳時間歸入時槽）
+ * - 開桌、送單、結帳於 commit 後累加
+ * - 已結束的日期（早於昨天）每天寫成一列精簡快照；啟動時先讀快照，其餘日期由原始資料重建
+ * 注意：只適用單節點部署
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadSeries {
+
+	public static final int SLOT_MINUTES = 15;
+	public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+	public static final int RETENTION_DAYS = 90;
+
+	private static final int CAPACITY = SLOTS_PER_DAY * RETENTION_DAYS;
+	// 時槽編號起算點（與 LoadSeriesRepository 的 SQL 一致）
+	private static final LocalDateTime EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+	// 今天往前仍可能變動的天數
+	private static final int OPEN_DAYS = 1;
+	private static final byte FORMAT_VERSION = 1;
+
+	private final LoadSeriesRepository repository;
+
+	// 以 this 同步；位置 = 時槽編號 % CAPACITY，slotIds 記錄該位置目前屬於哪個時槽
+	private final long[] slotIds = new long[CAPACITY];
+	private final int[] opened = new int[CAPACITY];
+	private final int[] items = new int[CAPACITY];
+	private final long[] revenue = new long[CAPACITY];
+	private final long[] durationSum = new long[CAPACITY];
+	private final int[] durationCount = new int[CAPACITY];
+
+	{
+		Arrays.fill(slotIds, -1L);
+	}
+
+//	啟動時載入：已結束的日期讀快照，沒有快照的日期與昨天、今天由原始資料重建
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional
+	public void load() {
+		LocalDate today = LocalDate.now();
+		LocalDate first = today.minusDays(RETENTION_DAYS - 1);
+		LocalDate openFrom = today.minusDays(OPEN_DAYS);
+
+		Set<LocalDate> restored = new HashSet<>();
+		for (LoadSeriesSnapshot snapshot : repository.findBySeriesDateBetween(first, openFrom.minusDays(1))) {
+			if (restore(snapshot)) {
+				restored.add(snapshot.getSeriesDate());
+			}
+		}
+
+		LocalDate rebuildFrom = first;
+		while (restored.contains(rebuildFrom)) {
+			rebuildFrom = rebuildFrom.plusDays(1);
+		}
+		LocalDateTime from = rebuildFrom.atStartOfDay();
+		LocalDateTime to = today.plusDays(1).atStartOfDay();
+		for (Object[] row : repository.countOpenedBySlot(from, to)) {
+			applyRow(row, restored, (i, r) -> opened[i] += ((Number) r[1]).intValue());
+		}
+		for (Object[] row : repository.sumItemsBySlot(from, to)) {
+			applyRow(row, restored, (i, r) -> items[i] += ((Number) r[1]).intValue());
+		}
+		for (Object[] row : repository.sumCompletedBySlot(from, to)) {
+			applyRow(row, restored, (i, r) -> {
+				revenue[i] += toLong(r[1]);
+				durationSum[i] += toLong(r[2]);
+				durationCount[i] += ((Number) r[3]).intValue();
+			});
+		}
+
+		// 重建出來的已結束日期補寫快照，下次啟動不必再掃原始資料
+		int saved = 0;
+		for (LocalDate date = rebuildFrom; date.isBefore(openFrom); date = date.plusDays(1)) {
+			if (!restored.contains(date)) {
+				persist(date);
+				saved++;
+			}
+		}
+		log.info("已載入營運負載序列：快照 {} 天，重建 {} 天", restored.size(), saved);
+	}
+
+//	每天凌晨把剛結束的日期寫成快照
+	@Scheduled(cron = "0 5 0 * * *")
+	@Transactional
+	public void persistClosedDay() {
+		persist(LocalDate.now().minusDays(OPEN_DAYS + 1));
+	}
+
+// ================= 累加（交易 commit 後生效） =================
+
+	public void recordGroupOpened(LocalDateTime createdAt) {
+		LocalDateTime time = createdAt != null ? createdAt : LocalDateTime.now();
+		TransactionUtils.afterCommit(() -> update(time, i -> opened[i]++));
+	}
+
+	public void recordItemsSubmitted(long quantity) {
+		LocalDateTime time = LocalDateTime.now();
+		TransactionUtils.afterCommit(() -> update(time, i -> items[i] += (int) quantity));
+	}
+
+	public void recordGroupCompleted(LocalDateTime createdAt, LocalDateTime completedAt, Integer totalAmount) {
+		LocalDateTime time = completedAt != null ? completedAt : LocalDateTime.now();
+		TransactionUtils.afterCommit(() -> update(time, i -> {
+			revenue[i] += totalAmount != null ? totalAmount : 0;
+			if (createdAt != null) {
+				durationSum[i] += Duration.between(createdAt, time).toMinutes();
+				durationCount[i]++;
+			}
+		}));
+	}
+
+// ================= 查詢 =================
+
+	/**
+	 * 星期 × 時槽熱度圖，[from, to] 含兩端，需在保留期間內
+	 * 數量與營收為該星期幾的每日平均，用餐時長為平均分鐘數
+	 */
+	public LoadHeatmapDto getHeatmap(LocalDate from, LocalDate to) {
+		LocalDate today = LocalDate.now();
+		LocalDate first = today.minusDays(RETENTION_DAYS - 1);
+		if (to == null) {
+			to = today;
+		}
+		if (from == null) {
+			from = first;
+		}
+		if (from.isAfter(to) || from.isBefore(first) || to.isAfter(today)) {
+			throw new InvalidRequestException("查詢區間需在最近 " + RETENTION_DAYS + " 天內: from=" + from + ", to=" + to);
+		}
+
+		int[] dayCount = new int[7];
+		long[][] openedSum = new long[7][SLOTS_PER_DAY];
+		long[][] itemsSum = new long[7][SLOTS_PER_DAY];
+		long[][] revenueSum = new long[7][SLOTS_PER_DAY];
+		long[][] durationTotal = new long[7][SLOTS_PER_DAY];
+		long[][] durationGroups = new long[7][SLOTS_PER_DAY];
+
+		synchronized (this) {
+			for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+				int weekday = date.getDayOfWeek().getValue() - 1;
+				dayCount[weekday]++;
+				long firstSlot = slotOf(date.atStartOfDay());
+				for (int s = 0; s < SLOTS_PER_DAY; s++) {
+					int i = position(firstSlot + s);
+					if (slotIds[i] != firstSlot + s) {
+						continue;
+					}
+					openedSum[weekday][s] += opened[i];
+					itemsSum[weekday][s] += items[i];
+					revenueSum[weekday][s] += revenue[i];
+					durationTotal[weekday][s] += durationSum[i];
+					durationGroups[weekday][s] += durationCount[i];
+				}
+			}
+		}
+
+		return new LoadHeatmapDto(from, to, SLOT_MINUTES, dayCount,
+				perDay(openedSum, dayCount), perDay(itemsSum, dayCount), perDay(revenueSum, dayCount),
+				ratio(durationTotal, durationGroups));
+	}
+
+// ================= 私有方法 =================
+
+	@FunctionalInterface
+	private interface SlotUpdate {
+		void apply(int position);
+	}
+
+	@FunctionalInterface
+	private interface RowUpdate {
+		void apply(int position, Object[] row);
+	}
+
+	private synchronized void update(LocalDateTime time, SlotUpdate update) {
+		int i = claim(slotOf(time));
+		if (i >= 0) {
+			update.apply(i);
+		}
+	}
+
+	private synchronized void applyRow(Object[] row, Set<LocalDate> restored, RowUpdate update) {
+		long slot = ((Number) row[0]).longValue();
+		if (restored.contains(dateOf(slot))) {
+			return;
+		}
+		int i = claim(slot);
+		if (i >= 0) {
+			update.apply(i, row);
+		}
+	}
+
+	// 取得時槽的寫入位置，位置上的舊時槽先清空；比環內資料更舊時回傳 -1
+	private int claim(long slot) {
+		int i = position(slot);
+		if (slotIds[i] != slot) {
+			if (slot < slotIds[i]) {
+				return -1;
+			}
+			slotIds[i] = slot;
+			opened[i] = 0;
+			items[i] = 0;
+			revenue[i] = 0;
+			durationSum[i] = 0;
+			durationCount[i] = 0;
+		}
+		return i;
+	}
+
+	/**
+	 * 快照格式：版本(1) 非空時槽數(1)，之後每個時槽
+	 * 當日序號(1) 開桌數(4) 項目數(4) 營收(8) 用餐分鐘合計(8) 結帳桌次(4)
+	 */
+	private void persist(LocalDate date) {
+		ByteBuffer buffer = ByteBuffer.allocate(2 + SLOTS_PER_DAY * 29);
+		buffer.put(FORMAT_VERSION);
+		buffer.put((byte) 0);
+		int count = 0;
+		synchronized (this) {
+			long firstSlot = slotOf(date.atStartOfDay());
+			for (int s = 0; s < SLOTS_PER_DAY; s++) {
+				int i = position(firstSlot + s);
+				if (slotIds[i] != firstSlot + s
+						|| (opened[i] == 0 && items[i] == 0 && revenue[i] == 0 && durationCount[i] == 0)) {
+					continue;
+				}
+				buffer.put((byte) s)
+						.putInt(opened[i])
+						.putInt(items[i])
+						.putLong(revenue[i])
+						.putLong(durationSum[i])
+						.putInt(durationCount[i]);
+				count++;
+			}
+		}
+		buffer.put(1, (byte) count);
+		repository.save(new LoadSeriesSnapshot(date, Arrays.copyOf(buffer.array(), buffer.position()),
+				LocalDateTime.now()));
+	}
+
+	private synchronized boolean restore(LoadSeriesSnapshot snapshot) {
+		ByteBuffer buffer = ByteBuffer.wrap(snapshot.getPayload());
+		try {
+			if (buffer.get() != FORMAT_VERSION) {
+				return false;
+			}
+			int count = Byte.toUnsignedInt(buffer.get());
+			long firstSlot = slotOf(snapshot.getSeriesDate().atStartOfDay());
+			for (int n = 0; n < count; n++) {
+				int i = claim(firstSlot + buffer.get());
+				int slotOpened = buffer.getInt();
+				int slotItems = buffer.getInt();
+				long slotRevenue = buffer.getLong();
+				long slotDuration = buffer.getLong();
+				int slotCompleted = buffer.getInt();
+				if (i >= 0) {
+					opened[i] = slotOpened;
+					items[i] = slotItems;
+					revenue[i] = slotRevenue;
+					durationSum[i] = slotDuration;
+					durationCount[i] = slotCompleted;
+				}
+			}
+			return true;
+		} catch (BufferUnderflowException e) {
+			log.warn("營運負載快照格式錯誤，改由原始資料重建: {}", snapshot.getSeriesDate());
+			return false;
+		}
+	}
+
+	private static int position(long slot) {
+		return (int) Math.floorMod(slot, (long) CAPACITY);
+	}
+
+	private static long slotOf(LocalDateTime time) {
+		return Duration.between(EPOCH, time).toMinutes() / SLOT_MINUTES;
+	}
+
+	private static LocalDate dateOf(long slot) {
+		return EPOCH.plusMinutes(slot * SLOT_MINUTES).toLocalDate();
+	}
+
+	private static long toLong(Object value) {
+		return value != null ? ((Number) value).longValue() : 0L;
+	}
+
+	private static List<List<Double>> perDay(long[][] sums, int[] dayCount) {
+		List<List<Double>> result = new ArrayList<>(7);
+		for (int d = 0; d < 7; d++) {
+			List<Double> row = new ArrayList<>(SLOTS_PER_DAY);
+			for (int s = 0; s < SLOTS_PER_DAY; s++) {
+				row.add(dayCount[d] > 0 ? (double) sums[d][s] / dayCount[d] : 0.0);
+			}
+			result.add(row);
+		}
+		return result;
+	}
+
+	private static List<List<Double>> ratio(long[][] sums, long[][] counts) {
+		List<List<Double>> result = new ArrayList<>(7);
+		for (int d = 0; d < 7; d++) {
+			List<Double> row = new ArrayList<>(SLOTS_PER_DAY);
+			for (int s = 0; s < SLOTS_PER_DAY; s++) {
+				row.add(counts[d][s] > 0 ? (double) sums[d][s] / counts[d][s] : 0.0);
+			}
+			result.add(row);
+		}
+		return result;
+	}
+}
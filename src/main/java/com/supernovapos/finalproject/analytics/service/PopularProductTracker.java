@@ -0,0 +1,261 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.supernovapos.finalproject.analytics.model.dto.PopularProductDto;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
+import com.supernovapos.finalproject.product.model.Products;
+import com.supernovapos.finalproject.product.repository.ProductsRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 熱門商品即時排行
+ * - 送單、加點的項目於 commit 後累加，查詢只走記憶體，不再對 order_items 做 GROUP BY
+ * - 每個時段一份 Space-Saving 摘要（固定容量，超過時取代計數最小者），記憶體與商品數無關
+ * - 近一小時：10 分鐘時槽 × 7；今日、近 7 天：每日一份，查詢時合併
+ * - 商品名稱、圖片與上架狀態快取於記憶體，商品異動時移除
+ * 注意：只適用單節點部署；啟動時由資料庫載入近 7 天
+ */
+@Slf4j
+@Component
+public class PopularProductTracker {
+
+	private static final int SLOT_MINUTES = 10;
+	private static final int HOUR_SLOTS = 7;
+	private static final int WEEK_DAYS = 7;
+
+	private final OrderItemsRepository orderItemsRepository;
+	private final ProductsRepository productsRepository;
+	private final int capacity;
+
+	// 環狀時槽，index = 時槽編號 % HOUR_SLOTS
+	private final Slot[] slots = new Slot[HOUR_SLOTS];
+	private final ConcurrentHashMap<LocalDate, SpaceSaving> days = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, ProductMeta> products = new ConcurrentHashMap<>();
+
+	public PopularProductTracker(OrderItemsRepository orderItemsRepository, ProductsRepository productsRepository,
+			@Value("${analytics.popular.capacity:64}") int capacity) {
+		this.orderItemsRepository = orderItemsRepository;
+		this.productsRepository = productsRepository;
+		this.capacity = capacity;
+	}
+
+	public enum Window {
+		HOUR, TODAY, WEEK;
+
+		public static Window of(String value) {
+			if (value == null || value.isBlank()) {
+				return WEEK;
+			}
+			try {
+				return valueOf(value.trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				throw new InvalidRequestException("不支援的時段: " + value);
+			}
+		}
+	}
+
+//	啟動時載入近 7 天已送出項目
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void load() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDate today = now.toLocalDate();
+		int rows = 0;
+		for (Object[] row : orderItemsRepository.sumSubmittedQuantityByDayAndProduct(
+				today.minusDays(WEEK_DAYS - 1).atStartOfDay())) {
+			int yyyymmdd = ((Number) row[0]).intValue();
+			LocalDate date = LocalDate.of(yyyymmdd / 10000, yyyymmdd / 100 % 100, yyyymmdd % 100);
+			day(date).add(((Number) row[1]).intValue(), ((Number) row[2]).longValue());
+			rows++;
+		}
+		long currentSlot = slotOf(now);
+		for (Object[] row : orderItemsRepository.findSubmittedQuantitiesSince(
+				slotStart(currentSlot - HOUR_SLOTS + 1))) {
+			slot(slotOf((LocalDateTime) row[0])).add(((Number) row[1]).intValue(), ((Number) row[2]).longValue());
+		}
+		log.info("已載入熱門商品統計 {} 筆（近 {} 天）", rows, WEEK_DAYS);
+	}
+
+	/**
+	 * 送單或加點後呼叫，commit 後才累加
+	 * @param quantityByProduct 商品 ID → 本次送出數量
+	 */
+	public void record(Map<Integer, Long> quantityByProduct) {
+		if (quantityByProduct.isEmpty()) {
+			return;
+		}
+		TransactionUtils.afterCommit(() -> {
+			LocalDateTime now = LocalDateTime.now();
+			SpaceSaving day = day(now.toLocalDate());
+			SpaceSaving slot = slot(slotOf(now));
+			quantityByProduct.forEach((productId, quantity) -> {
+				day.add(productId, quantity);
+				slot.add(productId, quantity);
+			});
+		});
+	}
+
+	/**
+	 * 指定時段銷量前 limit 名的上架商品（數量為估計值，可能略高於實際）
+	 */
+	public List<PopularProductDto> top(Window window, int limit) {
+		Map<Integer, Long> totals = new HashMap<>();
+		LocalDateTime now = LocalDateTime.now();
+		switch (window) {
+			case HOUR -> {
+				long current = slotOf(now);
+				synchronized (this) {
+					for (Slot slot : slots) {
+						if (slot != null && slot.index > current - HOUR_SLOTS) {
+							slot.sketch.mergeInto(totals);
+						}
+					}
+				}
+			}
+			case TODAY -> mergeDays(now.toLocalDate(), 1, totals);
+			case WEEK -> mergeDays(now.toLocalDate(), WEEK_DAYS, totals);
+		}
+
+		List<Map.Entry<Integer, Long>> ranked = new ArrayList<>(totals.entrySet());
+		ranked.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+		loadMissingMeta(ranked.stream().map(Map.Entry::getKey).toList());
+
+		List<PopularProductDto> result = new ArrayList<>();
+		for (Map.Entry<Integer, Long> entry : ranked) {
+			ProductMeta meta = products.get(entry.getKey());
+			if (meta == null || !meta.available()) {
+				continue; // 已刪除或已下架
+			}
+			result.add(new PopularProductDto(entry.getKey(), meta.name(), meta.image(), entry.getValue()));
+			if (result.size() >= limit) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 商品名稱、圖片或上架狀態變更後呼叫，commit 後移除快取
+	 */
+	public void evictProducts(Collection<Integer> productIds) {
+		TransactionUtils.afterCommit(() -> productIds.forEach(products::remove));
+	}
+
+	public void evictAllProducts() {
+		TransactionUtils.afterCommit(products::clear);
+	}
+
+	// === 私有方法 ===
+
+	private void mergeDays(LocalDate today, int count, Map<Integer, Long> totals) {
+		for (int i = 0; i < count; i++) {
+			SpaceSaving sketch = days.get(today.minusDays(i));
+			if (sketch != null) {
+				sketch.mergeInto(totals);
+			}
+		}
+	}
+
+	private SpaceSaving day(LocalDate date) {
+		SpaceSaving sketch = days.get(date);
+		if (sketch != null) {
+			return sketch;
+		}
+		// 新的一天：移除超過 7 天的摘要
+		LocalDate oldest = LocalDate.now().minusDays(WEEK_DAYS - 1);
+		days.keySet().removeIf(d -> d.isBefore(oldest));
+		return days.computeIfAbsent(date, d -> new SpaceSaving(capacity));
+	}
+
+	// 時槽已輪替時換成新的摘要
+	private synchronized SpaceSaving slot(long index) {
+		int i = (int) (index % HOUR_SLOTS);
+		Slot slot = slots[i];
+		if (slot == null || slot.index != index) {
+			slot = new Slot(index, new SpaceSaving(capacity));
+			slots[i] = slot;
+		}
+		return slot.sketch;
+	}
+
+	private void loadMissingMeta(List<Integer> productIds) {
+		List<Integer> missing = productIds.stream().filter(id -> !products.containsKey(id)).toList();
+		if (missing.isEmpty()) {
+			return;
+		}
+		for (Products product : productsRepository.findAllById(missing)) {
+			products.put(product.getId(), new ProductMeta(product.getName(), product.getImage(),
+					Boolean.TRUE.equals(product.getIsAvailable())));
+		}
+		// 已刪除的商品記為下架，避免每次查詢都重新讀取
+		missing.forEach(id -> products.putIfAbsent(id, new ProductMeta(null, null, false)));
+	}
+
+	private static long slotOf(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC) / 60 / SLOT_MINUTES;
+	}
+
+	private static LocalDateTime slotStart(long index) {
+		return LocalDateTime.ofEpochSecond(index * SLOT_MINUTES * 60, 0, ZoneOffset.UTC);
+	}
+
+	private record Slot(long index, SpaceSaving sketch) {
+	}
+
+	private record ProductMeta(String name, String image, boolean available) {
+	}
+
+	/**
+	 * Space-Saving 摘要：最多保留 capacity 個商品的計數
+	 * 已滿時新商品取代計數最小者並繼承其計數，估計值不會低於實際銷量
+	 */
+	static class SpaceSaving {
+		private final int capacity;
+		// 以 this 同步
+		private final Map<Integer, Long> counts = new HashMap<>();
+
+		SpaceSaving(int capacity) {
+			this.capacity = capacity;
+		}
+
+		synchronized void add(int productId, long quantity) {
+			Long count = counts.get(productId);
+			if (count != null || counts.size() < capacity) {
+				counts.put(productId, (count != null ? count : 0L) + quantity);
+				return;
+			}
+			// 容量通常只有數十筆，直接線性找出最小者
+			Map.Entry<Integer, Long> min = null;
+			for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+				if (min == null || entry.getValue() < min.getValue()) {
+					min = entry;
+				}
+			}
+			long floor = min.getValue();
+			counts.remove(min.getKey());
+			counts.put(productId, floor + quantity);
+		}
+
+		synchronized void mergeInto(Map<Integer, Long> totals) {
+			counts.forEach((productId, count) -> totals.merge(productId, count, Long::sum));
+		}
+	}
+}
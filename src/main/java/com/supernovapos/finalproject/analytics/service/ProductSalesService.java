@@ -10,54 +10,57 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.supernovapos.finalproject.analytics.model.dto.PopularProductDto;
 import com.supernovapos.finalproject.analytics.model.dto.ProductImageResponse;
 import com.supernovapos.finalproject.analytics.model.dto.ProductSaleRequest;
 import com.supernovapos.finalproject.analytics.model.dto.ProductSaleResponse;
 import com.supernovapos.finalproject.analytics.model.entity.ProductSalesView;
 import com.supernovapos.finalproject.analytics.model.mapper.ProductSaleMapper;
 import com.supernovapos.finalproject.analytics.repository.ProductSalesRepository;
-import com.supernovapos.finalproject.product.model.Products;
-import com.supernovapos.finalproject.product.repository.ProductsRepository;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ProductSalesService {
 
 	private final ProductSalesRepository productSalesRepository;
-	private final ProductsRepository productRepo;
+	private final PopularProductTracker popularProductTracker;
     private final ProductSaleMapper productSaleMapper;
+    private final AnalyticsCache analyticsCache;
+
+    // 商品銷售為不分時段的累計資料，結果一律視為目前時段
 
     public List<ProductSaleResponse> getAllProductReport() {
-        return productSalesRepository.findAll()
+        return analyticsCache.get("product.all", "", false, () -> productSalesRepository.findAll()
                 .stream()
                 .map(productSaleMapper::toDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
-    public List<ProductImageResponse> getTop3PopularProducts() {
-        // 撈出前 3 名
-        List<ProductSalesView> top3 = productSalesRepository.findAll(
-                PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "totalQuantity"))
-        ).getContent();
-
-        return top3.stream()
-                .map(sales -> {
-                    String image = productRepo.findById(sales.getProductId())
-                            .map(Products::getImage)
-                            .orElse(null);
-                    return new ProductImageResponse(
-                            sales.getProductId(),
-                            sales.getProductName(),
-                            image
-                    );
-                })
+    // 人氣排行改由記憶體中的即時統計提供，不查 v_product_sales
+    public List<ProductImageResponse> getTop3PopularProducts(PopularProductTracker.Window window) {
+        return popularProductTracker.top(window, 3).stream()
+                .map(p -> new ProductImageResponse(p.getProductId(), p.getProductName(), p.getImage()))
                 .toList();
     }
+
+    public List<PopularProductDto> getPopularProducts(PopularProductTracker.Window window, int limit) {
+        if (limit < 1) {
+            throw new InvalidRequestException("limit 必須大於 0");
+        }
+        return popularProductTracker.top(window, limit);
+    }
     
     public List<ProductSaleResponse> searchProductReport(ProductSaleRequest request) {
+        return analyticsCache.get("product.search", request, false, () -> loadProductReport(request));
+    }
+
+    private List<ProductSaleResponse> loadProductReport(ProductSaleRequest request) {
         // 1️ 動態條件
         Specification<ProductSalesView> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
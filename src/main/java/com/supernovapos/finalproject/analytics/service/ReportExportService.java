@@ -0,0 +1,203 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supernovapos.finalproject.analytics.model.dto.DailySalesResponse;
+import com.supernovapos.finalproject.analytics.model.dto.ProductSaleResponse;
+import com.supernovapos.finalproject.analytics.model.dto.UserSpendingDto;
+import com.supernovapos.finalproject.analytics.model.dto.UserSpendingRequest;
+import com.supernovapos.finalproject.analytics.model.entity.UserSpendingView;
+import com.supernovapos.finalproject.analytics.model.mapper.DailySalesMapper;
+import com.supernovapos.finalproject.analytics.model.mapper.ProductSaleMapper;
+import com.supernovapos.finalproject.analytics.model.mapper.UserSpendingMapper;
+import com.supernovapos.finalproject.analytics.repository.DailySalesRepository;
+import com.supernovapos.finalproject.analytics.repository.ProductSalesRepository;
+import com.supernovapos.finalproject.analytics.repository.UserSpendingRepository;
+import com.supernovapos.finalproject.analytics.repository.UserSpendingSpecifications;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 報表匯出（CSV / NDJSON）
+ * 以 Stream 逐列讀取並直接寫入回應，寫出後即從 persistence context 移除，記憶體用量不隨筆數成長；
+ * 實際寫出在 MVC 非同步執行緒池（WebAsyncConfig）內進行
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportExportService {
+
+    // 每寫出幾列 flush 一次
+    private static final int FLUSH_EVERY = 500;
+
+    private final ProductSalesRepository productSalesRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final UserSpendingRepository userSpendingRepository;
+    private final ProductSaleMapper productSaleMapper;
+    private final DailySalesMapper dailySalesMapper;
+    private final UserSpendingMapper userSpendingMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public enum Format {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public static Format of(String value) {
+            if (value == null || value.isBlank() || "csv".equalsIgnoreCase(value)) {
+                return CSV;
+            }
+            if ("ndjson".equalsIgnoreCase(value)) {
+                return NDJSON;
+            }
+            throw new InvalidRequestException("不支援的匯出格式: " + value);
+        }
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportProductSales(Format format) {
+        return response("product-sales", format, write(
+                productSalesRepository::streamAll,
+                productSaleMapper::toDto,
+                format,
+                new String[] { "productId", "productName", "category", "totalQuantity", "totalRevenue" },
+                (ProductSaleResponse d) -> new Object[] {
+                        d.productId(), d.productName(), d.category(), d.totalQuantity(), d.totalRevenue() }));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportDailySales(LocalDate from, LocalDate to, Format format) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new InvalidRequestException("匯出區間錯誤: from=" + from + ", to=" + to);
+        }
+        return response("daily-sales_" + from + "_" + to, format, write(
+                () -> dailySalesRepository.streamByOrderDateBetween(from, to),
+                dailySalesMapper::toDto,
+                format,
+                new String[] { "orderDate", "dailyRevenue", "orderCount", "avgOrderValue" },
+                (DailySalesResponse d) -> new Object[] {
+                        d.orderDate(), d.dailyRevenue(), d.orderCount(), d.avgOrderValue() }));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportUserSpending(UserSpendingRequest req, Format format) {
+        Specification<UserSpendingView> spec = Specification.<UserSpendingView>where(null)
+                .and(UserSpendingSpecifications.keyword(req.getKeyword()))
+                .and(UserSpendingSpecifications.minSpent(req.getMinSpent()))
+                .and(UserSpendingSpecifications.dateBetween(
+                        req.getStartDate() != null ? req.getStartDate().atStartOfDay() : null,
+                        req.getEndDate() != null ? req.getEndDate().atTime(LocalTime.MAX) : null));
+        Sort sort = Sort.by(Sort.Direction.fromString(req.getDirection()), req.getSortBy());
+
+        return response("user-spending", format, write(
+                () -> userSpendingRepository.stream(spec, sort),
+                userSpendingMapper::toDto,
+                format,
+                new String[] { "userId", "nickname", "email", "totalSpent", "orderCount", "lastOrderDate", "avgSpent" },
+                (UserSpendingDto d) -> new Object[] {
+                        d.getUserId(), d.getNickname(), d.getEmail(), d.getTotalSpent(),
+                        d.getOrderCount(), d.getLastOrderDate(), d.getAvgSpent() }));
+    }
+
+    // === 私有方法 ===
+
+    private <E, D> StreamingResponseBody write(Supplier<Stream<E>> source, Function<E, D> mapper, Format format,
+            String[] header, Function<D, Object[]> columns) {
+        return out -> exportTransaction().executeWithoutResult(status -> {
+            try (Stream<E> rows = source.get();
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                if (format == Format.CSV) {
+                    writer.write('\uFEFF'); // BOM，Excel 才能正確顯示中文
+                    writeCsvLine(writer, header);
+                }
+                int count = 0;
+                for (E entity : (Iterable<E>) rows::iterator) {
+                    D dto = mapper.apply(entity);
+                    em.detach(entity);
+                    if (format == Format.CSV) {
+                        writeCsvLine(writer, columns.apply(dto));
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(dto));
+                        writer.write('\n');
+                    }
+                    if (++count % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // 唯讀交易，名稱帶上類別名稱，讀寫分流才會導向讀取池（DataSourceConfig）
+    private TransactionTemplate exportTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        template.setName(ReportExportService.class.getName() + ".export");
+        return template;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvCell(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvCell(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static ResponseEntity<StreamingResponseBody> response(String baseName, Format format,
+            StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(baseName + "." + format.extension)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
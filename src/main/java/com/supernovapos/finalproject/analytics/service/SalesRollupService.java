@@ -0,0 +1,108 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.supernovapos.finalproject.analytics.repository.SalesRollupRepository;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 營收彙總表（日 / 時 / 商品日 / 桌日）維護
+ * 群組結帳時在同一交易內累加該群組的已送出訂單；歷史資料或修正用 rebuild 重算
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SalesRollupService {
+
+	private final SalesRollupRepository salesRollupRepository;
+	private final TrendService trendService;
+	private final GroupOrderCube groupOrderCube;
+	private final AnalyticsCache analyticsCache;
+
+	@Value("${analytics.rollup.backfill-on-startup:false}")
+	private boolean backfillOnStartup;
+
+	@Value("${analytics.rollup.backfill-days:365}")
+	private int backfillDays;
+
+	/**
+	 * 群組結帳後累加到彙總表與 KPI cube，需在結帳交易內呼叫，每個群組只能呼叫一次
+	 */
+	public void recordGroupCompleted(UUID groupId) {
+		salesRollupRepository.mergeDaily(groupId);
+		salesRollupRepository.mergeHourly(groupId);
+		salesRollupRepository.mergeProductDaily(groupId);
+		salesRollupRepository.mergeTableDaily(groupId);
+		groupOrderCube.recordGroupCompleted(groupId);
+		evictReports(groupId);
+	}
+
+	/**
+	 * 群組金額異動後讓報表快取失效，commit 後執行
+	 * 資料都在昨天以後只影響目前時段；強制結帳的舊群組會改到已結束時段，需全部清除
+	 */
+	public void evictReports(UUID groupId) {
+		Integer earliest = salesRollupRepository.findEarliestSalesDate(groupId);
+		if (earliest != null && AnalyticsCache.isClosed(LocalDate.of(earliest / 10000, earliest / 100 % 100, earliest % 100))) {
+			TransactionUtils.afterCommit(() -> {
+				trendService.evictClosedPeriods();
+				analyticsCache.evictAll();
+			});
+		} else {
+			TransactionUtils.afterCommit(analyticsCache::evictCurrent);
+		}
+	}
+
+	/**
+	 * 重建 [from, to] 區間（含兩端）的彙總資料，只計入已結帳群組
+	 * @return 各彙總表寫入的列數
+	 */
+	public Map<String, Integer> rebuild(LocalDate from, LocalDate to) {
+		if (from == null || to == null || from.isAfter(to)) {
+			throw new InvalidRequestException("重建區間錯誤: from=" + from + ", to=" + to);
+		}
+		LocalDate end = to.plusDays(1);
+
+		salesRollupRepository.deleteDaily(from, end);
+		salesRollupRepository.deleteHourly(from, end);
+		salesRollupRepository.deleteProductDaily(from, end);
+		salesRollupRepository.deleteTableDaily(from, end);
+
+		Map<String, Integer> rows = new LinkedHashMap<>();
+		rows.put("daily", salesRollupRepository.insertDaily(from.atStartOfDay(), end.atStartOfDay()));
+		rows.put("hourly", salesRollupRepository.insertHourly(from.atStartOfDay(), end.atStartOfDay()));
+		rows.put("productDaily", salesRollupRepository.insertProductDaily(from.atStartOfDay(), end.atStartOfDay()));
+		rows.put("tableDaily", salesRollupRepository.insertTableDaily(from.atStartOfDay(), end.atStartOfDay()));
+		TransactionUtils.afterCommit(() -> {
+			trendService.evictClosedPeriods();
+			groupOrderCube.clear();
+			analyticsCache.evictAll();
+		});
+		log.info("營收彙總重建完成 {} ~ {}: {}", from, to, rows);
+		return rows;
+	}
+
+	// 首次部署時回填歷史資料（預設關閉）
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillOnStartup() {
+		if (!backfillOnStartup) {
+			return;
+		}
+		LocalDate today = LocalDate.now();
+		rebuild(today.minusDays(backfillDays), today);
+	}
+}
@@ -4,63 +4,167 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.supernovapos.finalproject.analytics.model.dto.RevenueTrendResponse;
-import com.supernovapos.finalproject.analytics.model.entity.GroupOrdersView;
-import com.supernovapos.finalproject.analytics.repository.GroupOrdersRepository;
-import com.supernovapos.finalproject.analytics.repository.GroupOrdersSpecifications;
+import com.supernovapos.finalproject.analytics.repository.SalesRollupRepository;
+import com.supernovapos.finalproject.order.service.ActiveSessionRegistry;
+import com.supernovapos.finalproject.order.service.ActiveSessionRegistry.ActiveSession;
 
 import lombok.RequiredArgsConstructor;
 
+/**
+ * 營收趨勢：每次請求只對 sales_rollup_table_daily 下一次 GROUP BY 查詢
+ * 已結束（最後一天早於昨天且沒有進行中群組）的時段結果永久快取，只有目前時段每次重算
+ */
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class TrendService {
 
-    private final GroupOrdersRepository repo;
+    private final SalesRollupRepository salesRollupRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final AnalyticsCache analyticsCache;
+
+    // bucket（日 yyyyMMdd、月 yyyyMM、年 yyyy）→ 營收，只放已結束的時段
+    private final Map<Integer, Long> closedPeriods = new ConcurrentHashMap<>();
+    // 每次清除 +1，以 this 同步；查詢期間若被清除，結果不寫入 closedPeriods
+    private long generation;
 
     public RevenueTrendResponse getRevenueTrend(String mode, String base) {
+        List<Period> periods = periods(mode, base);
+        if (periods.isEmpty()) {
+            return new RevenueTrendResponse(new ArrayList<>(), new ArrayList<>());
+        }
+        LocalDate lastDay = periods.get(periods.size() - 1).end().minusDays(1);
+        return analyticsCache.get("trend", mode.toLowerCase() + "|" + base, AnalyticsCache.isClosed(lastDay),
+                () -> buildTrend(mode, periods));
+    }
+
+    private RevenueTrendResponse buildTrend(String mode, List<Period> periods) {
         List<String> labels = new ArrayList<>();
         List<Long> values = new ArrayList<>();
 
+        Map<Integer, Long> revenue = new HashMap<>();
+        List<Period> missing = new ArrayList<>();
+        for (Period period : periods) {
+            Long cached = closedPeriods.get(period.bucket());
+            if (cached != null) {
+                revenue.put(period.bucket(), cached);
+            } else {
+                missing.add(period);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long loadGeneration = generation();
+            // 先取進行中群組再查彙總表：兩者之間結帳的群組會同時出現在兩邊（該時段不快取），不會兩邊都漏掉
+            List<ActiveSession> activeSessions = activeSessionRegistry.getAll();
+            // 未快取的時段一次查詢（時段連續，取頭尾範圍）
+            Map<Integer, Long> rolled = sumRevenue(mode,
+                    missing.get(0).start(), missing.get(missing.size() - 1).end());
+
+            for (Period period : missing) {
+                // 進行中群組尚未寫入彙總表，以記憶體中的已送出金額補上
+                long live = 0;
+                boolean hasActive = false;
+                for (ActiveSession session : activeSessions) {
+                    if (period.contains(session.getCreatedAt().toLocalDate())) {
+                        hasActive = true;
+                        live += session.getTotalAmount() != null ? session.getTotalAmount() : 0;
+                    }
+                }
+                long value = rolled.getOrDefault(period.bucket(), 0L) + live;
+                revenue.put(period.bucket(), value);
+                // 與 AnalyticsCache 相同：最後一天早於昨天才視為已結束（昨天開桌的群組可能跨午夜才結帳）
+                if (!hasActive && AnalyticsCache.isClosed(period.end().minusDays(1))) {
+                    pin(period.bucket(), value, loadGeneration);
+                }
+            }
+        }
+
+        for (Period period : periods) {
+            labels.add(period.label());
+            values.add(revenue.getOrDefault(period.bucket(), 0L));
+        }
+        return new RevenueTrendResponse(labels, values);
+    }
+
+    /**
+     * 彙總表重建後清除已結束時段的快取
+     */
+    public synchronized void evictClosedPeriods() {
+        generation++;
+        closedPeriods.clear();
+    }
+
+    // === 私有方法 ===
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void pin(int bucket, long value, long loadGeneration) {
+        if (loadGeneration == generation) {
+            closedPeriods.put(bucket, value);
+        }
+    }
+
+    private Map<Integer, Long> sumRevenue(String mode, LocalDate from, LocalDate to) {
+        List<Object[]> rows = switch (mode.toLowerCase()) {
+            case "date" -> salesRollupRepository.sumRevenueByDay(from, to);
+            case "month" -> salesRollupRepository.sumRevenueByMonth(from, to);
+            default -> salesRollupRepository.sumRevenueByYear(from, to);
+        };
+        Map<Integer, Long> result = new HashMap<>();
+        for (Object[] row : rows) {
+            result.put(((Number) row[0]).intValue(), row[1] != null ? ((Number) row[1]).longValue() : 0L);
+        }
+        return result;
+    }
+
+    // 依模式產生由舊到新的時段：日 7 天、月 6 個月、年 5 年
+    private List<Period> periods(String mode, String base) {
+        List<Period> periods = new ArrayList<>();
         if ("date".equalsIgnoreCase(mode)) {
             LocalDate baseDate = LocalDate.parse(base);
             for (int i = 6; i >= 0; i--) {
                 LocalDate day = baseDate.minusDays(i);
-                Specification<GroupOrdersView> spec = GroupOrdersSpecifications.onDate(day);
-                List<GroupOrdersView> data = repo.findAll(spec);
-
-                long revenue = data.stream().mapToLong(v -> v.getTotalRevenue() != null ? v.getTotalRevenue() : 0).sum();
-                labels.add(day.format(DateTimeFormatter.ofPattern("MM-dd")));
-                values.add(revenue);
+                periods.add(new Period(
+                        day.getYear() * 10000 + day.getMonthValue() * 100 + day.getDayOfMonth(),
+                        day.format(DateTimeFormatter.ofPattern("MM-dd")),
+                        day, day.plusDays(1)));
             }
         } else if ("month".equalsIgnoreCase(mode)) {
             YearMonth baseMonth = YearMonth.parse(base);
             for (int i = 5; i >= 0; i--) {
                 YearMonth ym = baseMonth.minusMonths(i);
-                Specification<GroupOrdersView> spec = GroupOrdersSpecifications.inMonth(ym);
-                List<GroupOrdersView> data = repo.findAll(spec);
-
-                long revenue = data.stream().mapToLong(v -> v.getTotalRevenue() != null ? v.getTotalRevenue() : 0).sum();
-                labels.add(ym.format(DateTimeFormatter.ofPattern("yyyy-MM")));
-                values.add(revenue);
+                periods.add(new Period(
+                        ym.getYear() * 100 + ym.getMonthValue(),
+                        ym.format(DateTimeFormatter.ofPattern("yyyy-MM")),
+                        ym.atDay(1), ym.plusMonths(1).atDay(1)));
             }
         } else if ("year".equalsIgnoreCase(mode)) {
             int baseYear = Integer.parseInt(base);
             for (int i = 4; i >= 0; i--) {
                 int year = baseYear - i;
-                Specification<GroupOrdersView> spec = GroupOrdersSpecifications.inYear(year);
-                List<GroupOrdersView> data = repo.findAll(spec);
-
-                long revenue = data.stream().mapToLong(v -> v.getTotalRevenue() != null ? v.getTotalRevenue() : 0).sum();
-                labels.add(String.valueOf(year));
-                values.add(revenue);
+                periods.add(new Period(year, String.valueOf(year),
+                        LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1)));
             }
         }
+        return periods;
+    }
 
-        return new RevenueTrendResponse(labels, values);
+    // 時段：start 含、end 不含
+    private record Period(int bucket, String label, LocalDate start, LocalDate end) {
+        boolean contains(LocalDate date) {
+            return !date.isBefore(start) && date.isBefore(end);
+        }
     }
 }
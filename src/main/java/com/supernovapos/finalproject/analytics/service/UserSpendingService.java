@@ -6,9 +6,6 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.YearMonth;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -16,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.supernovapos.finalproject.analytics.model.dto.MonthlySpendingDto;
 import com.supernovapos.finalproject.analytics.model.dto.UserSpendingDto;
@@ -26,16 +24,25 @@ import com.supernovapos.finalproject.analytics.model.mapper.UserSpendingMapper;
 import com.supernovapos.finalproject.analytics.repository.UserSpendingRepository;
 import com.supernovapos.finalproject.analytics.repository.UserSpendingSpecifications;
 
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class UserSpendingService {
 
     private final UserSpendingRepository repository;
     private final UserSpendingMapper mapper;
+    private final AnalyticsCache analyticsCache;
+
+    // 顧客的最後消費日會隨新訂單改變，過去區間的結果也會變動，一律視為目前時段
 
     public Page<UserSpendingDto> search(UserSpendingRequest req) {
+        return analyticsCache.get("user.search", req, false, () -> loadSearch(req));
+    }
+
+    private Page<UserSpendingDto> loadSearch(UserSpendingRequest req) {
 
     	LocalDateTime start = req.getStartDate() != null ? req.getStartDate().atStartOfDay() : null;
     	LocalDateTime end = req.getEndDate() != null ? req.getEndDate().atTime(LocalTime.MAX) : null;
@@ -56,10 +63,15 @@ public class UserSpendingService {
 
     public List<UserSpendingDto> findTopN(int limit) {
         Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "totalSpent"));
-        return repository.findAll(pageable).map(mapper::toDto).getContent();
+        return analyticsCache.get("user.top", limit, false,
+                () -> repository.findAll(pageable).map(mapper::toDto).getContent());
     }
 
     public UserSpendingSummaryDto getSummary(UserSpendingRequest req) {
+        return analyticsCache.get("user.summary", req, false, () -> loadSummary(req));
+    }
+
+    private UserSpendingSummaryDto loadSummary(UserSpendingRequest req) {
     	LocalDateTime start = req.getStartDate() != null ? req.getStartDate().atStartOfDay() : null;
     	LocalDateTime end = req.getEndDate() != null ? req.getEndDate().atTime(LocalTime.MAX) : null;
     	
@@ -68,18 +80,12 @@ public class UserSpendingService {
                 .and(UserSpendingSpecifications.minSpent(req.getMinSpent()))
                 .and(UserSpendingSpecifications.dateBetween(start, end));
 
-        List<UserSpendingView> all = repository.findAll(spec);
-
-        BigDecimal totalRevenue = all.stream()
-                .map(UserSpendingView::getTotalSpent)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // 資料庫端 SUM / COUNT，不載入個別顧客
+        Tuple summary = repository.summarize(spec, LocalDateTime.now().minusMonths(1));
 
-        int totalUsers = all.size();
-        long activeUsers = all.stream()
-                .filter(u -> u.getLastOrderDate() != null &&
-                             u.getLastOrderDate().isAfter(LocalDateTime.now().minusMonths(1)))
-                .count();
+        BigDecimal totalRevenue = summary.get("totalRevenue", BigDecimal.class);
+        int totalUsers = summary.get("totalUsers", Long.class).intValue();
+        long activeUsers = summary.get("activeUsers", Long.class);
         BigDecimal avgOrderValue = totalUsers > 0
                 ? totalRevenue.divide(BigDecimal.valueOf(totalUsers), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
@@ -89,6 +95,10 @@ public class UserSpendingService {
     }
     
     public List<MonthlySpendingDto> getMonthlyTrend(UserSpendingRequest req) {
+        return analyticsCache.get("user.monthly", req, false, () -> loadMonthlyTrend(req));
+    }
+
+    private List<MonthlySpendingDto> loadMonthlyTrend(UserSpendingRequest req) {
     	LocalDateTime start = req.getStartDate() != null ? req.getStartDate().atStartOfDay() : null;
     	LocalDateTime end = req.getEndDate() != null ? req.getEndDate().atTime(LocalTime.MAX) : null;
     	
@@ -97,23 +107,11 @@ public class UserSpendingService {
                 .and(UserSpendingSpecifications.minSpent(req.getMinSpent()))
                 .and(UserSpendingSpecifications.dateBetween(start, end));
 
-        List<UserSpendingView> all = repository.findAll(spec);
-
-        // 依照年月分組
-        Map<YearMonth, BigDecimal> grouped = all.stream()
-                .filter(u -> u.getLastOrderDate() != null && u.getTotalSpent() != null)
-                .collect(Collectors.groupingBy(
-                        u -> YearMonth.from(u.getLastOrderDate()),
-                        Collectors.mapping(UserSpendingView::getTotalSpent,
-                                Collectors.reducing(BigDecimal.ZERO, BigDecimal::add))
-                ));
-
-        // 轉成 DTO list
-        return grouped.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(e -> new MonthlySpendingDto(
-                        e.getKey().toString(), // e.g. "2025-09"
-                        e.getValue()
+        // 依最後消費年月在資料庫端分組加總
+        return repository.sumByLastOrderMonth(spec).stream()
+                .map(row -> new MonthlySpendingDto(
+                        YearMonth.of(row.get("year", Integer.class), row.get("month", Integer.class)).toString(), // e.g. "2025-09"
+                        row.get("totalSpent", BigDecimal.class)
                 ))
                 .toList();
     }
@@ -1,18 +1,28 @@
 package com.supernovapos.finalproject.auth.controller;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.supernovapos.finalproject.auth.model.dto.AuthRequest;
 import com.supernovapos.finalproject.auth.model.dto.AuthResponse;
+import com.supernovapos.finalproject.auth.security.LoginRateLimiter;
 import com.supernovapos.finalproject.auth.service.AuthService;
 import com.supernovapos.finalproject.auth.service.impl.AuthServiceImpl;
+import com.supernovapos.finalproject.common.exception.TooManyRequestsException;
 import com.supernovapos.finalproject.common.model.AuthErrorResponse;
 import com.supernovapos.finalproject.common.model.ErrorResponse;
 import com.supernovapos.finalproject.oauth.dto.GoogleTokenRequest;
@@ -30,38 +40,56 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.security.PermitAll;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
 
 @RestController
 @RequestMapping("/api/auth")
-@RequiredArgsConstructor
 @Tag(name = "Authentication", description = "註冊 / 登入 / 登出 / 第三方登入 API")
 public class AuthController {
 
 	private final UserService userService;
 	private final AuthService authService;
+	private final LoginRateLimiter loginRateLimiter;
+	private final PasswordEncoder passwordEncoder;
+	// BCrypt 專用執行緒池（AuthExecutorConfig）
+	private final ThreadPoolTaskExecutor authExecutor;
+
+	// 另有 mvcAsyncExecutor 同型別，需指定名稱
+	public AuthController(UserService userService, AuthService authService, LoginRateLimiter loginRateLimiter,
+			PasswordEncoder passwordEncoder, @Qualifier("authExecutor") ThreadPoolTaskExecutor authExecutor) {
+		this.userService = userService;
+		this.authService = authService;
+		this.loginRateLimiter = loginRateLimiter;
+		this.passwordEncoder = passwordEncoder;
+		this.authExecutor = authExecutor;
+	}
 
 	@Operation(summary = "使用者註冊", description = "建立帳號並寄送驗證信。")
 	@ApiResponses({
 			@ApiResponse(responseCode = "201", description = "註冊成功，驗證信已寄出", content = @Content(schema = @Schema(implementation = UserResponseDto.class))),
 			@ApiResponse(responseCode = "409", description = "註冊失敗，Email 或手機已存在", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+			@ApiResponse(responseCode = "429", description = "嘗試次數過多", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
 			@ApiResponse(responseCode = "500", description = "系統錯誤", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
 	})
 	@PostMapping("/register")
 	public ResponseEntity<UserResponseDto> registerUser(@Valid @RequestBody UserRegisterDto registerDto) {
+		loginRateLimiter.acquireAccount("register", registerDto.getEmail());
+		// 只有 BCrypt 在 authExecutor 執行；存檔與寄驗證信（commit 後）留在請求執行緒，不佔用 CPU 專用池
+		String encodedPassword = runOnAuthExecutor(() -> passwordEncoder.encode(registerDto.getPassword())).join();
 		return ResponseEntity
 				.status(HttpStatus.CREATED)
-				.body(userService.registerUser(registerDto));
+				.body(userService.registerUser(registerDto, encodedPassword));
 	}
 
 	@Operation(summary = "重新寄送驗證信", description = "當驗證信過期或遺失時，重新寄送驗證信。")
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "驗證信已重新寄出"),
-			@ApiResponse(responseCode = "409", description = "帳號不存在或已驗證", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+			@ApiResponse(responseCode = "409", description = "帳號不存在或已驗證", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+			@ApiResponse(responseCode = "429", description = "嘗試次數過多", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
 	})
 	@PermitAll
 	@PostMapping("/resend-verification")
 	public ResponseEntity<Void> resendVerification(@RequestParam String username) {
+		loginRateLimiter.acquireAccount("resend-verification", username);
 		userService.resendVerificationEmail(username);
 		return ResponseEntity.ok().build();
 	}
@@ -82,12 +110,13 @@ public class AuthController {
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "登入成功", content = @Content(schema = @Schema(implementation = AuthResponse.class))),
 			@ApiResponse(responseCode = "401", description = "帳號或密碼錯誤", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
-			@ApiResponse(responseCode = "403", description = "帳號未驗證 / 已停用", content = @Content(schema = @Schema(implementation = AuthErrorResponse.class)))
+			@ApiResponse(responseCode = "403", description = "帳號未驗證 / 已停用", content = @Content(schema = @Schema(implementation = AuthErrorResponse.class))),
+			@ApiResponse(responseCode = "429", description = "嘗試次數過多", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
 	})
 	@PostMapping("/login")
-	public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-		AuthResponse response = authService.login(request);
-		return ResponseEntity.ok(response);
+	public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest request) {
+		loginRateLimiter.acquireAccount("login", request.getUsername());
+		return runOnAuthExecutor(() -> ResponseEntity.ok(authService.login(request)));
 	}
 
 	@Operation(summary = "Google 快速登入", description = "使用 Google IdToken 登入系統")
@@ -114,11 +143,21 @@ public class AuthController {
 	    return ResponseEntity.ok(authService.loginWithLine(req.getAccessToken()));
 	}
 	
-	@Operation(summary = "使用者登出", description = "登出系統，前端需刪除保存的 JWT Token。")
+	@Operation(summary = "使用者登出", description = "登出系統並撤銷目前的 JWT Token，前端仍需刪除保存的 Token。")
 	@ApiResponse(responseCode = "200", description = "登出成功")
 	@PostMapping("/logout")
 	@PermitAll
-	public ResponseEntity<String> logout() {
+	public ResponseEntity<String> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+		authService.logout(authHeader);
 		return ResponseEntity.ok("登出成功");
 	}
+
+	// 含 BCrypt 的流程改在專用執行緒池執行，釋放 Tomcat 執行緒；池滿時直接回傳 429
+	private <T> CompletableFuture<T> runOnAuthExecutor(Supplier<T> task) {
+		try {
+			return CompletableFuture.supplyAsync(task, authExecutor);
+		} catch (RejectedExecutionException e) {
+			throw new TooManyRequestsException("登入人數過多，請稍後再試");
+		}
+	}
 }
@@ -0,0 +1,50 @@
+package com.supernovapos.finalproject.auth.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * JWT 撤銷紀錄（revoked_tokens），供重啟後還原撤銷清單
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    public enum Kind {
+        // 單一 token，tokenKey 為 jti
+        TOKEN,
+        // 使用者在 revokedAt 前簽發的所有 token，tokenKey 為 email
+        USER
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Kind kind;
+
+    @Column(name = "token_key", nullable = false, length = 100)
+    private String tokenKey;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
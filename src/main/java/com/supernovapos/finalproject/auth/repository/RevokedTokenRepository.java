@@ -0,0 +1,32 @@
+package com.supernovapos.finalproject.auth.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.supernovapos.finalproject.auth.model.entity.RevokedToken;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * 查詢尚未過期的撤銷紀錄（啟動時載入）
+     *
+     * @param now 目前時間
+     * @return List<RevokedToken>
+     */
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * 刪除已過期的撤銷紀錄
+     *
+     * @param now 目前時間
+     * @return 刪除筆數
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -27,6 +27,20 @@ public interface RoleRepository extends JpaRepository<Role, Integer>{
     @Query("SELECT DISTINCT r FROM Role r LEFT JOIN FETCH r.rolePermissions")
     List<Role> findAllWithPermissions();
 
+    /**
+     * 查詢所有角色代碼與其綁定的啟用權限代碼（編譯權限集合用）
+     * 沒有綁定權限的角色回傳一列，權限代碼為 null
+     *
+     * @return List<Object[]> [角色代碼, 權限代碼]
+     */
+    @Query("""
+            SELECT r.code, p.code
+            FROM Role r
+            LEFT JOIN r.rolePermissions rp
+            LEFT JOIN rp.permission p ON p.isAvailable = true
+            """)
+    List<Object[]> findRolePermissionCodes();
+
     /**
      * 查詢所有角色（含停用）
      *
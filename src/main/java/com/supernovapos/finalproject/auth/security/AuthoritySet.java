@@ -0,0 +1,70 @@
+package com.supernovapos.finalproject.auth.security;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * 以 BitSet 表示的唯讀權限集合
+ * 每個位元對應字典中的一個角色或權限代碼，GrantedAuthority 實例由字典共用
+ */
+public final class AuthoritySet extends AbstractSet<GrantedAuthority> {
+
+    private final Dictionary dictionary;
+    private final BitSet bits;
+    private final int size;
+
+    AuthoritySet(Dictionary dictionary, BitSet bits) {
+        this.dictionary = dictionary;
+        this.bits = bits;
+        this.size = bits.cardinality();
+    }
+
+    public boolean hasAuthority(String code) {
+        Integer index = dictionary.indexes().get(code);
+        return index != null && bits.get(index);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GrantedAuthority authority && hasAuthority(authority.getAuthority());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return new Iterator<>() {
+            private int next = bits.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public GrantedAuthority next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                GrantedAuthority authority = dictionary.authorities()[next];
+                next = bits.nextSetBit(next + 1);
+                return authority;
+            }
+        };
+    }
+
+    /**
+     * 代碼字典：index ↔ 代碼，RBAC 變更時整份重建
+     */
+    record Dictionary(Map<String, Integer> indexes, SimpleGrantedAuthority[] authorities) {
+    }
+}
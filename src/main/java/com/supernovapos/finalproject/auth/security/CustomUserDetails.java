@@ -1,60 +1,51 @@
 package com.supernovapos.finalproject.auth.security;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import com.supernovapos.finalproject.auth.model.entity.Permission;
-import com.supernovapos.finalproject.auth.model.entity.Role;
-import com.supernovapos.finalproject.auth.model.entity.RolePermission;
-import com.supernovapos.finalproject.auth.model.entity.UserRole;
 import com.supernovapos.finalproject.user.model.entity.User;
 
 import lombok.Getter;
 
+/**
+ * 登入者資訊快照
+ * 權限為預先編譯的角色權限聯集（RoleAuthorityRegistry），不持有 User 實體，可放入快取跨請求共用
+ */
 @Getter
 public class CustomUserDetails implements UserDetails {
 
-	private final User user;
+	private final Long userId;
+	private final String username;
+	private final String password;
+	private final boolean active;
+	private final AuthoritySet authorities;
 
-	public CustomUserDetails(User user) {
-		this.user = user;
+	public CustomUserDetails(User user, AuthoritySet authorities) {
+		this(user.getId(), user.getEmail(), user.getPassword(),
+				Boolean.TRUE.equals(user.getIsActive()), authorities);
 	}
 
-	@Override
-	public Collection<? extends GrantedAuthority> getAuthorities() {
-	    Set<GrantedAuthority> authorities = new HashSet<>();
-
-	    for (UserRole ur : user.getUserRoles()) {
-	        Role role = ur.getRole();
-
-	        // 加角色 (ROLE_ADMIN / ROLE_MANAGER ...)
-	        authorities.add(new SimpleGrantedAuthority(role.getCode()));
-
-	        // 加權限 (USER_READ / USER_WRITE ...)
-	        for (RolePermission rp : role.getRolePermissions()) {
-	            Permission p = rp.getPermission();
-	            if (Boolean.TRUE.equals(p.getIsAvailable())) { // 確認權限啟用
-	                authorities.add(new SimpleGrantedAuthority(p.getCode()));
-	            }
-	        }
-	    }
-
-	    return authorities;
+	private CustomUserDetails(Long userId, String username, String password, boolean active,
+			AuthoritySet authorities) {
+		this.userId = userId;
+		this.username = username;
+		this.password = password;
+		this.active = active;
+		this.authorities = authorities;
 	}
 
-	@Override
-	public String getUsername() {
-		return user.getEmail();
+	/**
+	 * 去除密碼雜湊的副本（JWT 驗證用，放入快取）
+	 */
+	public CustomUserDetails withoutPassword() {
+		return new CustomUserDetails(userId, username, null, active, authorities);
 	}
 
 	@Override
-	public String getPassword() {
-		return user.getPassword();
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return authorities;
 	}
 
 	/** 判斷帳號是否啟用 */
@@ -68,7 +59,7 @@ public class CustomUserDetails implements UserDetails {
     public boolean isAccountNonLocked() {
         return true;
     }
-    
+
 	@Override
 	public boolean isAccountNonExpired() {
 		return true;
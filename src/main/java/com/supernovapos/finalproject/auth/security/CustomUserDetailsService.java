@@ -6,9 +6,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import com.supernovapos.finalproject.user.model.entity.User;
-import com.supernovapos.finalproject.user.repository.UserRepository;
 import com.supernovapos.finalproject.user.service.UserService;
-import com.supernovapos.finalproject.user.service.impl.UserServiceImpl;
 
 import lombok.RequiredArgsConstructor;
 
@@ -17,10 +15,23 @@ import lombok.RequiredArgsConstructor;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final RoleAuthorityRegistry roleAuthorityRegistry;
 
+    // 登入驗證密碼用，每次查詢資料庫
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userService.findByEmailOrPhoneOrThrow(username);
-        return new CustomUserDetails(user);
+        return new CustomUserDetails(user, roleAuthorityRegistry.authoritiesOf(user));
+    }
+
+    /**
+     * JWT 驗證用，優先取快取（不含密碼雜湊）
+     */
+    public CustomUserDetails loadPrincipal(String username) throws UsernameNotFoundException {
+        return principalCache.get(username, () -> {
+            User user = userService.findByEmailOrPhoneOrThrow(username);
+            return new CustomUserDetails(user, roleAuthorityRegistry.authoritiesOf(user)).withoutPassword();
+        });
     }
 }
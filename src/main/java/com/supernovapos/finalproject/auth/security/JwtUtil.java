@@ -2,6 +2,7 @@ package com.supernovapos.finalproject.auth.security;
 
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -9,8 +10,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtUtil {
@@ -21,9 +25,20 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long expiration; // 毫秒
 
+    // 建立一次重複使用（執行緒安全）
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        parser = Jwts.parserBuilder()
+                .setSigningKey(secret.getBytes())
+                .build();
+    }
+
     // 產生 Token
     public String generateToken(UserDetails userDetails) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // jti，撤銷單一 token 用
                 .setSubject(userDetails.getUsername())
                 .claim("authorities", userDetails.getAuthorities().stream()
                         .map(GrantedAuthority::getAuthority)
@@ -34,33 +49,22 @@ public class JwtUtil {
                 .compact();
     }
 
-    // 解析 Claims
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(secret.getBytes())
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * 解析並驗證 Token（簽章與到期時間只檢查一次）
+     * @throws JwtException 簽章錯誤、格式錯誤或已過期
+     */
+    public Claims parseClaims(String token) throws JwtException {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     // 抽出 username
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseClaims(token).getSubject();
     }
 
     // 抽出 authorities
     @SuppressWarnings("unchecked")
     public List<String> extractAuthorities(String token) {
-        return (List<String>) extractAllClaims(token).get("authorities");
-    }
-
-    // 檢查是否過期
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
-    }
-
-    // 驗證 token
-    public boolean validateToken(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return (List<String>) parseClaims(token).get("authorities");
     }
 }
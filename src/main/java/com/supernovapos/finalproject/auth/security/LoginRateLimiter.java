@@ -0,0 +1,120 @@
+package com.supernovapos.finalproject.auth.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.supernovapos.finalproject.common.exception.TooManyRequestsException;
+
+/**
+ * 登入、註冊、重寄驗證信的頻率限制（token bucket）
+ * - 每個端點分別以來源 IP 與帳號計數，桶內沒有額度時直接拒絕，不會進入 BCrypt
+ * - 取用額度以 CAS 更新，不加鎖；拒絕時不寫入
+ * - 閒置到額度補滿的桶定期移除；桶數超過上限時，新的 key 共用一個溢出桶
+ * 注意：只適用單節點部署
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final String OVERFLOW_KEY = "*";
+
+    private final Limit ipLimit;
+    private final Limit accountLimit;
+    private final int maxKeys;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public LoginRateLimiter(
+            @Value("${auth.rate-limit.ip.capacity:20}") int ipCapacity,
+            @Value("${auth.rate-limit.ip.refill-per-minute:20}") int ipRefillPerMinute,
+            @Value("${auth.rate-limit.account.capacity:5}") int accountCapacity,
+            @Value("${auth.rate-limit.account.refill-per-minute:5}") int accountRefillPerMinute,
+            @Value("${auth.rate-limit.max-keys:100000}") int maxKeys) {
+        this.ipLimit = new Limit(ipCapacity, ipRefillPerMinute);
+        this.accountLimit = new Limit(accountCapacity, accountRefillPerMinute);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 以來源 IP 取用一次額度
+     * @param endpoint 端點名稱（login / register / resend-verification）
+     */
+    public boolean tryAcquireIp(String endpoint, String ip) {
+        return tryAcquire("ip:" + endpoint + ":", ip, ipLimit);
+    }
+
+    /**
+     * 以帳號（Email 或手機）取用一次額度，沒有額度時拋出 429
+     */
+    public void acquireAccount(String endpoint, String account) {
+        if (account == null || account.isBlank()) {
+            return; // 交由後續驗證回報
+        }
+        if (!tryAcquire("account:" + endpoint + ":", account.trim().toLowerCase(), accountLimit)) {
+            throw new TooManyRequestsException("嘗試次數過多，請稍後再試");
+        }
+    }
+
+    // 移除閒置到額度補滿的桶
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    // === 私有方法 ===
+
+    private boolean tryAcquire(String prefix, String key, Limit limit) {
+        Bucket bucket = buckets.get(prefix + key);
+        if (bucket == null) {
+            String bucketKey = buckets.size() < maxKeys ? prefix + key : prefix + OVERFLOW_KEY;
+            bucket = buckets.computeIfAbsent(bucketKey, k -> new Bucket(limit));
+        }
+        return bucket.tryAcquire(System.nanoTime());
+    }
+
+    private record Limit(int capacity, double tokensPerNano) {
+        Limit(int capacity, int refillPerMinute) {
+            this(capacity, refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1));
+        }
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private static final class Bucket {
+        private final Limit limit;
+        private final AtomicReference<State> state;
+
+        Bucket(Limit limit) {
+            this.limit = limit;
+            this.state = new AtomicReference<>(new State(limit.capacity(), System.nanoTime()));
+        }
+
+        boolean tryAcquire(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = refill(current, now);
+                if (tokens < 1) {
+                    return false;
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                    return true;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return refill(state.get(), now) >= limit.capacity();
+        }
+
+        private double refill(State current, long now) {
+            return Math.min(limit.capacity(),
+                    current.tokens() + Math.max(0, now - current.updatedAt()) * limit.tokensPerNano());
+        }
+    }
+}
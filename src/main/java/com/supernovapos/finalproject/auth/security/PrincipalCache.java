@@ -0,0 +1,98 @@
+package com.supernovapos.finalproject.auth.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+
+/**
+ * JWT 驗證用的登入者快取（key 為 token subject）
+ * - 命中時請求不需再查詢使用者、角色與權限
+ * - 使用者角色、角色權限、權限狀態或帳號狀態變更時於 commit 後移除
+ * - 以最近使用順序（LRU）限制筆數，另有保存時間上限
+ * 注意：只適用單節點部署
+ */
+@Component
+public class PrincipalCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // 以 this 同步；access-order 供 LRU 移除
+    private final LinkedHashMap<String, Entry> entries;
+    // 每次失效 +1；載入期間若發生失效，結果不寫入快取
+    private long generation;
+
+    public PrincipalCache(@Value("${auth.principal-cache.max-entries:10000}") int maxEntries,
+            @Value("${auth.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 取得快取的登入者，沒有或已過期時執行 loader
+     */
+    public CustomUserDetails get(String username, Supplier<CustomUserDetails> loader) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(username);
+            if (entry != null && entry.expiresAt() > now) {
+                return entry.principal();
+            }
+            loadGeneration = generation;
+        }
+
+        CustomUserDetails principal = loader.get();
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                entries.put(username, new Entry(principal, now + ttlMillis));
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * 使用者的角色或帳號狀態變更後呼叫，commit 後移除
+     */
+    public void evictUser(Long userId) {
+        TransactionUtils.afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                Iterator<Entry> it = entries.values().iterator();
+                while (it.hasNext()) {
+                    if (userId.equals(it.next().principal().getUserId())) {
+                        it.remove();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 角色或權限本身變更後呼叫（影響多位使用者），commit 後全部移除
+     */
+    public void evictAll() {
+        TransactionUtils.afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                entries.clear();
+            }
+        });
+    }
+
+    private record Entry(CustomUserDetails principal, long expiresAt) {
+    }
+}
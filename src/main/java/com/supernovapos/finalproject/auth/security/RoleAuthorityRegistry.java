@@ -0,0 +1,127 @@
+package com.supernovapos.finalproject.auth.security;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.supernovapos.finalproject.auth.model.entity.UserRole;
+import com.supernovapos.finalproject.auth.repository.RoleRepository;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+import com.supernovapos.finalproject.user.model.entity.User;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 角色 → 權限集合預先編譯
+ * - 所有角色與權限代碼編成一份字典，每個角色的有效權限（含角色代碼本身）存成一個 BitSet
+ * - 使用者權限為所屬角色 BitSet 的聯集，不需載入 rolePermissions
+ * - 角色、權限或綁定變更時於 commit 後整份重建，並清除登入者快取
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleAuthorityRegistry {
+
+    private final RoleRepository roleRepository;
+    private final PrincipalCache principalCache;
+
+    // null 表示需要重建
+    private volatile Compiled compiled;
+
+    // 初始化資料（CommandLineRunner）完成後重新編譯
+    @EventListener(ApplicationReadyEvent.class)
+    public void compileOnStartup() {
+        reset();
+        compiled();
+    }
+
+    /**
+     * 使用者所屬角色的權限聯集（需已載入 userRoles → role）
+     */
+    public AuthoritySet authoritiesOf(User user) {
+        Compiled current = compiled();
+        BitSet bits = new BitSet(current.dictionary().authorities().length);
+        for (UserRole ur : user.getUserRoles()) {
+            BitSet roleBits = current.roles().get(ur.getRole().getCode());
+            if (roleBits != null) {
+                bits.or(roleBits);
+            } else {
+                log.warn("角色不在權限字典中, code={}", ur.getRole().getCode());
+            }
+        }
+        return new AuthoritySet(current.dictionary(), bits);
+    }
+
+    /**
+     * 角色、權限或角色權限綁定變更後呼叫
+     */
+    public void invalidate() {
+        // 先重置字典，再清除以舊字典建立的登入者
+        TransactionUtils.afterCommit(this::reset);
+        principalCache.evictAll();
+    }
+
+    // === 私有方法 ===
+
+    // 與編譯互斥：編譯中的舊結果會在完成後被清掉
+    private synchronized void reset() {
+        compiled = null;
+    }
+
+    private Compiled compiled() {
+        Compiled current = compiled;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (compiled == null) {
+                compiled = compile();
+            }
+            return compiled;
+        }
+    }
+
+    // 一次查詢所有 [角色代碼, 權限代碼]
+    private Compiled compile() {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        Map<String, BitSet> roles = new HashMap<>();
+
+        for (Object[] row : roleRepository.findRolePermissionCodes()) {
+            String roleCode = (String) row[0];
+            BitSet bits = roles.computeIfAbsent(roleCode, code -> {
+                BitSet roleBits = new BitSet();
+                roleBits.set(index(code, indexes, authorities));
+                return roleBits;
+            });
+            if (row[1] != null) {
+                bits.set(index((String) row[1], indexes, authorities));
+            }
+        }
+
+        log.info("已編譯角色權限：角色 {} 個，代碼 {} 個", roles.size(), authorities.size());
+        return new Compiled(
+                new AuthoritySet.Dictionary(Map.copyOf(indexes),
+                        authorities.toArray(SimpleGrantedAuthority[]::new)),
+                Map.copyOf(roles));
+    }
+
+    private static int index(String code, Map<String, Integer> indexes, List<SimpleGrantedAuthority> authorities) {
+        return indexes.computeIfAbsent(code, c -> {
+            authorities.add(new SimpleGrantedAuthority(c));
+            return authorities.size() - 1;
+        });
+    }
+
+    // roles 的 BitSet 編譯後不再修改
+    private record Compiled(AuthoritySet.Dictionary dictionary, Map<String, BitSet> roles) {
+    }
+}
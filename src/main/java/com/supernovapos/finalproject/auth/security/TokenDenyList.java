@@ -0,0 +1,272 @@
+package com.supernovapos.finalproject.auth.security;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.supernovapos.finalproject.auth.model.entity.RevokedToken;
+import com.supernovapos.finalproject.auth.model.entity.RevokedToken.Kind;
+import com.supernovapos.finalproject.auth.repository.RevokedTokenRepository;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JWT 撤銷清單
+ * - 單一 token 以 jti 撤銷（登出）；使用者層級撤銷其在撤銷時間前簽發的所有 token（停用、角色變更）
+ * - 每筆只保留到對應 token 過期為止，由時間輪（每格 1 分鐘）到期移除
+ * - 清單為空時檢查只有一次 isEmpty；否則先查 Bloom filter，可能命中才查 Map
+ * - 寫入 revoked_tokens，啟動時（接受請求前）載入未過期的紀錄
+ * 注意：只適用單節點部署
+ */
+@Slf4j
+@Component
+public class TokenDenyList {
+
+    private static final long TICK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String TOKEN_PREFIX = "t:";
+    private static final String USER_PREFIX = "u:";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expirationMillis;
+    private final int bloomBits;
+
+    // key（前綴 + jti 或 email）→ 撤銷紀錄
+    private final ConcurrentHashMap<String, Denial> denials = new ConcurrentHashMap<>();
+    // 時間輪：index = 到期分鐘 % 格數，涵蓋一個完整的 token 有效期
+    private final Queue<String>[] wheel;
+    // 寫入時複製整份；null 表示停用
+    private volatile Bloom bloom;
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public TokenDenyList(RevokedTokenRepository revokedTokenRepository,
+            @Value("${jwt.expiration}") long expirationMillis,
+            @Value("${auth.revocation.bloom-bits:65536}") int bloomBits) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expirationMillis = expirationMillis;
+        this.bloomBits = bloomBits;
+        this.wheel = new Queue[(int) (expirationMillis / TICK_MILLIS) + 2];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.bloom = bloomBits > 0 ? new Bloom(bloomBits) : null;
+    }
+
+    // Bean 建立時載入，確保接受請求前清單已完整
+    @PostConstruct
+    void load() {
+        lastTick = System.currentTimeMillis() / TICK_MILLIS - 1;
+        Collection<RevokedToken> rows = revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now());
+        for (RevokedToken row : rows) {
+            String key = (row.getKind() == Kind.TOKEN ? TOKEN_PREFIX : USER_PREFIX) + row.getTokenKey();
+            // 舊紀錄的撤銷時間未進位到秒
+            add(key, new Denial(ceilToSecond(toMillis(row.getRevokedAt())), toMillis(row.getExpiresAt())));
+        }
+        log.info("已載入 JWT 撤銷清單 {} 筆", rows.size());
+    }
+
+    /**
+     * 是否已撤銷（每個請求呼叫，需已驗證簽章）
+     */
+    public boolean isRevoked(Claims claims) {
+        if (denials.isEmpty()) {
+            return false;
+        }
+        String jti = claims.getId();
+        if (jti != null && mightContain(TOKEN_PREFIX + jti) && denials.containsKey(TOKEN_PREFIX + jti)) {
+            return true;
+        }
+        String userKey = USER_PREFIX + claims.getSubject();
+        if (!mightContain(userKey)) {
+            return false;
+        }
+        Denial denial = denials.get(userKey);
+        if (denial == null) {
+            return false;
+        }
+        // iat 只到秒，撤銷時間已進位到下一秒：撤銷當秒與之前簽發的 token 都撤銷
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null || issuedAt.getTime() < denial.revokedAt();
+    }
+
+    /**
+     * 撤銷單一 token（登出）；舊版沒有 jti 的 token 無法單獨撤銷
+     */
+    public void revokeToken(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null || claims.getExpiration() == null) {
+            log.debug("token 沒有 jti，略過撤銷, subject={}", claims.getSubject());
+            return;
+        }
+        revoke(Kind.TOKEN, jti, claims.getExpiration().getTime());
+    }
+
+    /**
+     * 撤銷使用者目前所有 token（停用帳號、角色變更），commit 後生效
+     */
+    public void revokeUser(String email) {
+        revoke(Kind.USER, email, System.currentTimeMillis() + expirationMillis);
+    }
+
+    // 每分鐘推進時間輪，移除已過期的紀錄
+    @Scheduled(fixedDelay = 60_000)
+    @Transactional
+    public void advance() {
+        long now = System.currentTimeMillis();
+        // 只處理已完整經過的格，格內紀錄必定已到期
+        long doneTick = now / TICK_MILLIS - 1;
+        boolean removed = false;
+        // 停頓超過一圈時最多處理一圈
+        for (long tick = Math.max(lastTick + 1, doneTick - wheel.length + 1); tick <= doneTick; tick++) {
+            Queue<String> slot = wheel[(int) (tick % wheel.length)];
+            for (int n = slot.size(); n > 0; n--) {
+                String key = slot.poll();
+                if (key == null) {
+                    break;
+                }
+                Denial denial = denials.get(key);
+                if (denial == null) {
+                    continue;
+                }
+                if (denial.expiresAt() <= now) {
+                    removed |= denials.remove(key, denial);
+                } else {
+                    // 撤銷時間被延後的紀錄，移到新的到期格
+                    wheel[(int) ((denial.expiresAt() / TICK_MILLIS) % wheel.length)].add(key);
+                }
+            }
+        }
+        lastTick = doneTick;
+        if (removed) {
+            rebuildBloom();
+            revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        }
+    }
+
+    // === 私有方法 ===
+
+    private void revoke(Kind kind, String tokenKey, long expiresAt) {
+        // 進位到下一秒，撤銷前一刻簽發（iat 捨去到同一秒）的 token 不會漏掉；
+        // 撤銷當秒重新登入取得的 token 也會失效，需再登入一次
+        long revokedAt = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        RevokedToken row = new RevokedToken();
+        row.setKind(kind);
+        row.setTokenKey(tokenKey);
+        row.setRevokedAt(toLocalDateTime(revokedAt));
+        row.setExpiresAt(toLocalDateTime(expiresAt));
+        revokedTokenRepository.save(row);
+
+        String key = (kind == Kind.TOKEN ? TOKEN_PREFIX : USER_PREFIX) + tokenKey;
+        TransactionUtils.afterCommit(() -> add(key, new Denial(revokedAt, expiresAt)));
+    }
+
+    // 先更新 Bloom filter 再放入 Map，檢查端不會漏判
+    private synchronized void add(String key, Denial denial) {
+        if (bloom != null) {
+            Bloom next = bloom.copy();
+            next.add(key);
+            bloom = next;
+        }
+        // 同一使用者多次撤銷時保留較晚的撤銷時間
+        denials.merge(key, denial, (a, b) -> a.revokedAt() >= b.revokedAt() ? a : b);
+        wheel[(int) ((denial.expiresAt() / TICK_MILLIS) % wheel.length)].add(key);
+    }
+
+    private synchronized void rebuildBloom() {
+        if (bloom == null) {
+            return;
+        }
+        Bloom next = new Bloom(bloomBits);
+        denials.keySet().forEach(next::add);
+        bloom = next;
+    }
+
+    private boolean mightContain(String key) {
+        Bloom current = bloom;
+        return current == null || current.mightContain(key);
+    }
+
+    private static long ceilToSecond(long millis) {
+        return (millis + 999) / 1000 * 1000;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private record Denial(long revokedAt, long expiresAt) {
+    }
+
+    /**
+     * 固定大小的 Bloom filter（3 個雜湊），只增不減，到期移除時整份重建
+     */
+    private static final class Bloom {
+        private static final int HASHES = 3;
+        private final long[] bits;
+
+        Bloom(int size) {
+            this.bits = new long[Math.max(1, (size + 63) / 64)];
+        }
+
+        private Bloom(long[] bits) {
+            this.bits = bits;
+        }
+
+        Bloom copy() {
+            return new Bloom(bits.clone());
+        }
+
+        void add(String key) {
+            int h1 = key.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = index(h1 + i * h2);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String key) {
+            int h1 = key.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = index(h1 + i * h2);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int index(int hash) {
+            return (int) ((hash & 0xffffffffL) % (bits.length * 64L));
+        }
+
+        // murmur3 fmix32
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h | 1;
+        }
+    }
+}
@@ -31,4 +31,9 @@ public interface AuthService {
 	 */
 	AuthResponse loginWithLine(String accessToken);
 
+	/**
+	 * 登出：撤銷 Authorization header 中的 token（無效或未提供時略過）
+	 */
+	void logout(String authHeader);
+
 }
\ No newline at end of file
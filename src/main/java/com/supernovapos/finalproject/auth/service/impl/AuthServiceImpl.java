@@ -11,10 +11,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClient;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.supernovapos.finalproject.auth.model.dto.AuthRequest;
 import com.supernovapos.finalproject.auth.model.dto.AuthResponse;
@@ -24,14 +21,18 @@ import com.supernovapos.finalproject.auth.model.mapper.AuthMapper;
 import com.supernovapos.finalproject.auth.security.CustomUserDetails;
 import com.supernovapos.finalproject.auth.security.CustomUserDetailsService;
 import com.supernovapos.finalproject.auth.security.JwtUtil;
+import com.supernovapos.finalproject.auth.security.TokenDenyList;
 import com.supernovapos.finalproject.auth.service.AuthService;
 import com.supernovapos.finalproject.common.exception.AuthException;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.oauth.verifier.GoogleTokenVerifier;
+import com.supernovapos.finalproject.oauth.verifier.LineTokenVerifier;
 import com.supernovapos.finalproject.user.model.entity.User;
 import com.supernovapos.finalproject.user.repository.UserRepository;
 import com.supernovapos.finalproject.user.service.UserService;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -43,12 +44,12 @@ public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final UserService userService;
-    private final RestClient restClient;
-    private final ObjectMapper objectMapper;
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
     private final GoogleTokenVerifier googleTokenVerifier;
+    private final LineTokenVerifier lineTokenVerifier;
     private final AuthMapper authMapper;
+    private final TokenDenyList tokenDenyList;
 
     /**
      * 取得目前登入的 Authentication
@@ -73,7 +74,7 @@ public class AuthServiceImpl implements AuthService {
     public Long getCurrentUserId() {
         Object principal = getAuthentication().getPrincipal();
         if (principal instanceof CustomUserDetails userDetails) {
-            Long userId = userDetails.getUser().getId();
+            Long userId = userDetails.getUserId();
             log.debug("取得目前登入的 UserId = {}", userId);
             return userId;
         }
@@ -82,6 +83,7 @@ public class AuthServiceImpl implements AuthService {
 
     /**
      * 取得目前登入的完整 User 實體
+     * 登入者資訊為快取的快照，需要實體時才查詢資料庫
      */
     @Override
     @Transactional(readOnly = true)
@@ -89,7 +91,7 @@ public class AuthServiceImpl implements AuthService {
         Object principal = getAuthentication().getPrincipal();
         if (principal instanceof CustomUserDetails userDetails) {
             log.debug("取得目前登入的 User 實體: {}", userDetails.getUsername());
-            return userDetails.getUser();
+            return userService.findByEmailOrPhoneOrThrow(userDetails.getUsername());
         }
         throw new IllegalStateException("無法解析登入使用者資訊");
     }
@@ -150,14 +152,7 @@ public class AuthServiceImpl implements AuthService {
     @Transactional
     public AuthResponse loginWithLine(String accessToken) {
         try {
-            String profile = restClient.get()
-                    .uri("https://api.line.me/v2/profile")
-                    .header("Authorization", "Bearer " + accessToken)
-                    .retrieve()
-                    .body(String.class);
-
-            JsonNode profileJson = objectMapper.readTree(profile);
-            String lineUid = profileJson.get("userId").asText();
+            String lineUid = lineTokenVerifier.verify(accessToken).getUserId();
 
             log.info("LINE 登入請求，lineUid = {}", lineUid);
 
@@ -178,6 +173,25 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    /**
+     * 登出：撤銷目前的 token
+     */
+    @Override
+    @Transactional
+    public void logout(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return;
+        }
+        try {
+            Claims claims = jwtUtil.parseClaims(authHeader.substring(7));
+            tokenDenyList.revokeToken(claims);
+            log.info("使用者登出，email = {}", claims.getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            // 已過期或無效的 token 不需撤銷
+            log.debug("登出時 token 無效: {}", e.getMessage());
+        }
+    }
+
     /**
      * 共用：檢查帳號狀態
      */
@@ -16,6 +16,7 @@ import com.supernovapos.finalproject.auth.model.mapper.PermissionMapper;
 import com.supernovapos.finalproject.auth.repository.PermissionCategoryRepository;
 import com.supernovapos.finalproject.auth.repository.PermissionRepository;
 import com.supernovapos.finalproject.auth.repository.RolePermissionRepository;
+import com.supernovapos.finalproject.auth.security.RoleAuthorityRegistry;
 import com.supernovapos.finalproject.auth.service.PermissionService;
 import com.supernovapos.finalproject.common.exception.ConflictException;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
@@ -34,6 +35,7 @@ public class PermissionServiceImpl implements PermissionService {
 	private final RolePermissionRepository rpRepository;
 	private final PermissionMapper permissionMapper;
 	private final PermissionCategoryRepository categoryRepository;
+	private final RoleAuthorityRegistry roleAuthorityRegistry;
 
 	// ====== Public APIs ======
 
@@ -87,6 +89,7 @@ public class PermissionServiceImpl implements PermissionService {
 		permission.setCategory(category);
 
 		Permission saved = permissionRepository.save(permission);
+		roleAuthorityRegistry.invalidate(); // 權限代碼可能變更
 		log.info("更新權限成功，id={}, code={}", saved.getId(), saved.getCode());
 
 		return permissionMapper.toResponse(saved);
@@ -98,6 +101,7 @@ public class PermissionServiceImpl implements PermissionService {
 		Permission permission = findPermissionOrThrow(id);
 		permission.setIsAvailable(isAvailable);
 		Permission saved = permissionRepository.save(permission);
+		roleAuthorityRegistry.invalidate();
 
 		log.info("更新權限狀態成功，id={}, isAvailable={}", saved.getId(), saved.getIsAvailable());
 		return permissionMapper.toResponse(saved);
@@ -114,6 +118,7 @@ public class PermissionServiceImpl implements PermissionService {
 		}
 
 		permissionRepository.deleteById(permissionId);
+		roleAuthorityRegistry.invalidate();
 		log.info("刪除權限成功，id={}", permissionId);
 	}
 
@@ -19,6 +19,7 @@ import com.supernovapos.finalproject.auth.model.mapper.RbacMapper;
 import com.supernovapos.finalproject.auth.repository.PermissionRepository;
 import com.supernovapos.finalproject.auth.repository.RolePermissionRepository;
 import com.supernovapos.finalproject.auth.repository.RoleRepository;
+import com.supernovapos.finalproject.auth.security.RoleAuthorityRegistry;
 import com.supernovapos.finalproject.auth.service.RbacAdminService;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
@@ -39,6 +40,7 @@ public class RbacAdminServiceImpl implements RbacAdminService {
     private final RolePermissionRepository rolePermissionRepository;
     private final RbacMapper rbacMapper;
     private final PermissionMapper permissionMapper;
+    private final RoleAuthorityRegistry roleAuthorityRegistry;
 
     @PersistenceContext
     private EntityManager em;
@@ -136,6 +138,7 @@ public class RbacAdminServiceImpl implements RbacAdminService {
                 .map(p -> rbacMapper.toRolePermission(role, p))
                 .toList();
         rolePermissionRepository.saveAll(rolePermissions);
+        roleAuthorityRegistry.invalidate(); // 重新編譯並清除所有擁有此角色的登入者
 
         log.info("角色權限更新完成，role={}, 新綁定數={}", role.getCode(), rolePermissions.size());
     }
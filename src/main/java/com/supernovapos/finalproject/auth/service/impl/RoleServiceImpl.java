@@ -14,6 +14,7 @@ import com.supernovapos.finalproject.auth.model.entity.Role;
 import com.supernovapos.finalproject.auth.model.mapper.RoleMapper;
 import com.supernovapos.finalproject.auth.repository.RolePermissionRepository;
 import com.supernovapos.finalproject.auth.repository.RoleRepository;
+import com.supernovapos.finalproject.auth.security.RoleAuthorityRegistry;
 import com.supernovapos.finalproject.auth.service.RoleService;
 import com.supernovapos.finalproject.common.exception.ConflictException;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
@@ -31,6 +32,7 @@ public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final RolePermissionRepository rpRepository;
     private final RoleMapper roleMapper;
+    private final RoleAuthorityRegistry roleAuthorityRegistry;
 
     private static final Set<String> SYSTEM_ROLES = Set.of("ROLE_ADMIN", "ROLE_OWNER", "ROLE_STAFF", "ROLE_USER");
 
@@ -114,6 +116,7 @@ public class RoleServiceImpl implements RoleService {
         role.setCategory(req.getCategory());
 
         Role saved = roleRepository.save(role);
+        roleAuthorityRegistry.invalidate(); // 新角色代碼加入字典
         log.info("角色建立成功, id={}, code={}", saved.getId(), saved.getCode());
         return roleMapper.toDto(saved);
     }
@@ -189,6 +192,7 @@ public class RoleServiceImpl implements RoleService {
         }
 
         roleRepository.deleteById(roleId);
+        roleAuthorityRegistry.invalidate();
         log.info("角色刪除成功, id={}", roleId);
     }
 }
@@ -10,6 +10,8 @@ import com.supernovapos.finalproject.auth.model.entity.Role;
 import com.supernovapos.finalproject.auth.model.entity.UserRole;
 import com.supernovapos.finalproject.auth.model.entity.UserRoleId;
 import com.supernovapos.finalproject.auth.repository.RoleRepository;
+import com.supernovapos.finalproject.auth.security.PrincipalCache;
+import com.supernovapos.finalproject.auth.security.TokenDenyList;
 import com.supernovapos.finalproject.auth.service.UserRoleService;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
@@ -31,6 +33,8 @@ public class UserRoleServiceImpl implements UserRoleService {
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
     private final SystemAccountProtector protector;
+    private final PrincipalCache principalCache;
+    private final TokenDenyList tokenDenyList;
 
     @Override
     @Transactional
@@ -52,6 +56,8 @@ public class UserRoleServiceImpl implements UserRoleService {
         ensureHasBasicRole(user);
 
         User saved = userRepository.save(user);
+        principalCache.evictUser(saved.getId());
+        tokenDenyList.revokeUser(saved.getEmail()); // 需重新登入取得新角色
         log.info("覆蓋角色成功, userId={}, 最終角色={}", saved.getId(),
                 saved.getUserRoles().stream().map(ur -> ur.getRole().getCode()).toList());
 
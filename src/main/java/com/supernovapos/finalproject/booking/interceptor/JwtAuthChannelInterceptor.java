@@ -12,11 +12,15 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.supernovapos.finalproject.auth.security.CustomUserDetails;
 import com.supernovapos.finalproject.auth.security.CustomUserDetailsService;
 import com.supernovapos.finalproject.auth.security.JwtUtil;
+import com.supernovapos.finalproject.auth.security.TokenDenyList;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 
 @Component
 public class JwtAuthChannelInterceptor implements ChannelInterceptor {
@@ -25,10 +29,13 @@ public class JwtAuthChannelInterceptor implements ChannelInterceptor {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenDenyList tokenDenyList;
 
-    public JwtAuthChannelInterceptor(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtAuthChannelInterceptor(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService,
+                                     TokenDenyList tokenDenyList) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenDenyList = tokenDenyList;
     }
 
     @Override
@@ -60,20 +67,26 @@ public class JwtAuthChannelInterceptor implements ChannelInterceptor {
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 String jwt = authHeader.substring(7);
                 try {
-                    String username = jwtUtil.extractUsername(jwt);
-                    if (username != null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                        if (jwtUtil.validateToken(jwt, userDetails)) {
-                            UsernamePasswordAuthenticationToken auth =
-                                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                            accessor.setUser(auth);
-                            // 若後續需要在同一執行緒使用 SecurityContext，則同步設定
-                            SecurityContextHolder.getContext().setAuthentication(auth);
-                            logger.debug("WebSocket CONNECT authenticated for user {}", username);
-                        } else {
-                            logger.debug("Invalid JWT token in WebSocket CONNECT for token {}", jwt);
-                        }
+                    // 解析一次即完成簽章與到期檢查
+                    Claims claims = jwtUtil.parseClaims(jwt);
+                    if (tokenDenyList.isRevoked(claims)) {
+                        logger.debug("Revoked JWT token in WebSocket CONNECT for user {}", claims.getSubject());
+                        return message;
+                    }
+                    String username = claims.getSubject();
+                    CustomUserDetails userDetails = userDetailsService.loadPrincipal(username);
+                    if (userDetails.isActive()) {
+                        UsernamePasswordAuthenticationToken auth =
+                                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        accessor.setUser(auth);
+                        // 若後續需要在同一執行緒使用 SecurityContext，則同步設定
+                        SecurityContextHolder.getContext().setAuthentication(auth);
+                        logger.debug("WebSocket CONNECT authenticated for user {}", username);
+                    } else {
+                        logger.debug("Inactive account in WebSocket CONNECT for user {}", username);
                     }
+                } catch (JwtException ex) {
+                    logger.debug("Invalid JWT token in WebSocket CONNECT: {}", ex.getMessage());
                 } catch (Exception ex) {
                     logger.warn("Exception while authenticating WebSocket CONNECT token", ex);
                 }
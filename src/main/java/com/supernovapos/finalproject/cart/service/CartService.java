@@ -18,6 +18,9 @@ import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
 import com.supernovapos.finalproject.order.model.OrderGroup;
 import com.supernovapos.finalproject.order.model.Orders;
 import com.supernovapos.finalproject.order.repository.OrderGroupRepository;
+import com.supernovapos.finalproject.order.service.CartStatusReadModel;
+import com.supernovapos.finalproject.order.service.CartStatusReadModel.CartStatusView;
+import com.supernovapos.finalproject.order.service.CartStatusReadModel.OrderView;
 
 import lombok.RequiredArgsConstructor;
 
@@ -28,18 +31,14 @@ public class CartService {
 
     private final OrderGroupRepository orderGroupRepository;
     private final OrderRepository orderRepository;
+    private final CartStatusReadModel cartStatusReadModel;
 
+    // 群組、已提交訂單與項目一次查詢取得，購物車由記憶體快照提供
     public OrderGroupCartDto getOrderGroupCartStatus(UUID groupId) {
-        OrderGroup orderGroup = orderGroupRepository.findActiveOrderGroup(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("訂單組不存在或已過期"));
+        CartStatusView view = cartStatusReadModel.load(groupId);
 
-        // 尚未提交的購物車
-        List<Orders> cartOrders = orderRepository.findUnsubmittedByGroupId(groupId);
-        List<CartItemDto> cartItems = mapOrdersToCartItems(cartOrders);
-
-        // 已提交的訂單
-        List<Orders> submittedOrders = orderRepository.findSubmittedByGroupId(groupId);
-        List<CartItemDto> submittedItems = mapOrdersToCartItems(submittedOrders);
+        List<CartItemDto> cartItems = mapOrdersToCartItems(view.getCartOrders());
+        List<CartItemDto> submittedItems = mapOrdersToCartItems(view.getSubmittedOrders());
 
         // 計算總額
         int totalCartAmount = cartItems.stream().mapToInt(CartItemDto::getTotalAmount).sum();
@@ -48,13 +47,15 @@ public class CartService {
 
         // 回傳 DTO
         OrderGroupCartDto dto = new OrderGroupCartDto();
-        dto.setGroupId(orderGroup.getId());
-        dto.setTableId(orderGroup.getTable().getTableId());
+        dto.setGroupId(view.getGroupId());
+        dto.setTableId(view.getTableId());
         dto.setCartItems(cartItems);
         dto.setSubmittedOrders(submittedItems);
+        dto.setTotalCartAmount(totalCartAmount);
+        dto.setTotalSubmittedAmount(totalSubmittedAmount);
         dto.setGrandTotal(grandTotal);
-        dto.setCanSubmitFirstOrder(!orderGroup.getHasOrder() && orderGroup.getStatus());
-        dto.setCanAddOrder(orderGroup.getHasOrder() && orderGroup.getStatus());
+        dto.setCanSubmitFirstOrder(!view.isHasOrder() && view.isActive());
+        dto.setCanAddOrder(view.isHasOrder() && view.isActive());
 
         return dto;
     }
@@ -84,21 +85,19 @@ public class CartService {
                 .toList();
     }
     
-    private List<CartItemDto> mapOrdersToCartItems(List<Orders> orders) {
+    private List<CartItemDto> mapOrdersToCartItems(List<OrderView> orders) {
         return orders.stream().map(order -> {
             CartItemDto dto = new CartItemDto();
-            dto.setOrderId(order.getId());
-            dto.setUserId(order.getTempUser() != null ? order.getTempUser().getId().toString()
-                    : order.getUser() != null ? order.getUser().getId().toString() : null);
-            dto.setUserType(order.getTempUser() != null ? "TEMP" : "REGISTERED");
-            dto.setUserNickname(order.getTempUser() != null ? order.getTempUser().getNickname()
-                    : order.getUser() != null ? order.getUser().getNickname() : "匿名");
+            dto.setOrderId(order.getOrderId());
+            dto.setUserId(order.getUserId());
+            dto.setUserType("TEMP".equals(order.getUserType()) ? "TEMP" : "REGISTERED");
+            dto.setUserNickname(order.getUserType() != null ? order.getNickname() : "匿名");
             dto.setTotalAmount(order.getTotalAmount());
             dto.setNote(order.getNote());
             dto.setCreatedAt(order.getCreatedAt());
 
             // 映射 orderItems
-            List<CartOrderItemDto> itemDtos = order.getOrderItems().stream().map(oi -> {
+            List<CartOrderItemDto> itemDtos = order.getItems().stream().map(oi -> {
                 CartOrderItemDto itemDto = new CartOrderItemDto();
                 itemDto.setId(oi.getId());
                 itemDto.setQuantity(oi.getQuantity());
@@ -109,10 +108,10 @@ public class CartService {
 
                 // 包裝 products 物件
                 ProductSimpleDto productDto = new ProductSimpleDto();
-                productDto.setId(oi.getProducts().getId());
-                productDto.setName(oi.getProducts().getName());
-                productDto.setImage(oi.getProducts().getImage());
-                productDto.setPrice(oi.getProducts().getPrice());
+                productDto.setId(oi.getProductId());
+                productDto.setName(oi.getProductName());
+                productDto.setImage(oi.getProductImage());
+                productDto.setPrice(oi.getProductPrice());
                 itemDto.setProducts(productDto);
 
                 return itemDto;
@@ -124,4 +123,3 @@ public class CartService {
     }
 
 }
-
@@ -1,7 +1,12 @@
 package com.supernovapos.finalproject.common.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.client.RestClient;
@@ -39,11 +44,20 @@ public class AppConfig {
     /**
      * 全域 RestClient
      * 可配置連線 Timeout / BaseUrl / 攔截器等
+     * 共用同一個 JDK HttpClient（內建連線池，keep-alive 重用連線），外部 API（LINE、Google）不必每次重新建立連線
      */
     @Bean
-    public RestClient restClient(RestClient.Builder builder) {
+    public RestClient restClient(RestClient.Builder builder,
+            @Value("${http.client.connect-timeout-ms:3000}") long connectTimeoutMs,
+            @Value("${http.client.read-timeout-ms:5000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
         return builder
                 //.baseUrl("https://api.example.com") // 如果有預設 base URL 可以加
+                .requestFactory(requestFactory)
                 .build();
     }
     
@@ -0,0 +1,32 @@
+package com.supernovapos.finalproject.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 登入、註冊（BCrypt 雜湊）專用執行緒池
+ * 以 MVC 非同步回應在此池內執行，不佔用處理點餐請求的 Tomcat 執行緒；池與佇列皆有上限，滿了直接拒絕（429）
+ */
+@Configuration
+public class AuthExecutorConfig {
+
+    // BCrypt 為 CPU 運算，預設與核心數相同
+    @Value("${auth.executor.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int poolSize;
+
+    @Value("${auth.executor.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor authExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("auth-");
+        executor.initialize();
+        return executor;
+    }
+}
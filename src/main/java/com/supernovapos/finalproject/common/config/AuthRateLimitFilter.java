@@ -0,0 +1,63 @@
+package com.supernovapos.finalproject.common.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.supernovapos.finalproject.auth.security.LoginRateLimiter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 登入、註冊、重寄驗證信的來源 IP 頻率限制
+ * 在 Spring Security 與請求內容解析之前執行，超過限制直接回傳 429
+ * 注意：以 remoteAddr 為來源 IP；部署在反向代理後方時需由代理（或 server.forward-headers-strategy）提供真實 IP
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    // 路徑 → 端點名稱
+    private static final Map<String, String> ENDPOINTS = Map.of(
+            "/api/auth/login", "login",
+            "/api/auth/register", "register",
+            "/api/auth/resend-verification", "resend-verification");
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !ENDPOINTS.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws IOException, ServletException {
+        String endpoint = ENDPOINTS.get(request.getRequestURI());
+        if (!loginRateLimiter.tryAcquireIp(endpoint, request.getRemoteAddr())) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", "60");
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write("""
+                    {
+                      "status":429,
+                      "error":"請求過於頻繁",
+                      "message":"嘗試次數過多，請稍後再試"
+                    }
+                    """);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
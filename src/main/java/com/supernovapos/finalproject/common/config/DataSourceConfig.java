@@ -0,0 +1,94 @@
+package com.supernovapos.finalproject.common.config;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 讀寫分流連線池
+ * - 寫入池：沿用 spring.datasource.*（池設定 spring.datasource.hikari.*）
+ * - 讀取池：報表類唯讀交易使用，可指向唯讀複本（app.datasource.read.url），未設定時連同一個資料庫但用獨立的池
+ * 報表查詢再重也只會用完讀取池，點餐與結帳的寫入池不受影響
+ * 本機測試可將 app.datasource.read.url 指向另一個資料庫，連線池統計見 /api/admin/datasource/pools
+ * 注意：使用複本時報表可能落後主庫數秒
+ */
+@Configuration
+public class DataSourceConfig {
+
+	@Value("${app.datasource.read.url:}")
+	private String readUrl;
+
+	@Value("${app.datasource.read.username:}")
+	private String readUsername;
+
+	@Value("${app.datasource.read.password:}")
+	private String readPassword;
+
+	@Value("${app.datasource.read.maximum-pool-size:4}")
+	private int readMaxPoolSize;
+
+	@Value("${app.datasource.read.minimum-idle:1}")
+	private int readMinIdle;
+
+	@Value("${app.datasource.read.connection-timeout-ms:5000}")
+	private long readConnectionTimeoutMs;
+
+	// 交易名稱（類別.方法）前綴，符合且為唯讀交易時走讀取池
+	@Value("${app.datasource.read.packages:com.supernovapos.finalproject.analytics}")
+	private List<String> readPackages;
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource writeDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("write");
+		return dataSource;
+	}
+
+	@Bean
+	public HikariDataSource readDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName("read");
+		dataSource.setDriverClassName(properties.determineDriverClassName());
+		if (readUrl.isBlank()) {
+			dataSource.setJdbcUrl(properties.determineUrl());
+			dataSource.setUsername(properties.determineUsername());
+			dataSource.setPassword(properties.determinePassword());
+		} else {
+			dataSource.setJdbcUrl(readUrl);
+			dataSource.setUsername(readUsername.isBlank() ? properties.determineUsername() : readUsername);
+			dataSource.setPassword(readPassword.isBlank() ? properties.determinePassword() : readPassword);
+		}
+		dataSource.setMaximumPoolSize(readMaxPoolSize);
+		dataSource.setMinimumIdle(readMinIdle);
+		dataSource.setConnectionTimeout(readConnectionTimeoutMs);
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+			@Qualifier("readDataSource") DataSource readDataSource) {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(readPackages);
+		routing.setTargetDataSources(Map.of(
+				ReadWriteRoutingDataSource.WRITE, writeDataSource,
+				ReadWriteRoutingDataSource.READ, readDataSource));
+		routing.setDefaultTargetDataSource(writeDataSource);
+		routing.afterPropertiesSet();
+		// 延後到第一次執行 SQL 才取得實體連線，此時交易的唯讀旗標已設定
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+}
@@ -0,0 +1,45 @@
+package com.supernovapos.finalproject.common.config;
+
+import java.util.List;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 讀寫分流 DataSource
+ * 唯讀交易且交易名稱（類別.方法）符合報表套件前綴時走讀取池，其餘一律走寫入池
+ * 需包在 LazyConnectionDataSourceProxy 內，取得連線時交易的唯讀旗標與名稱才已設定
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String WRITE = "write";
+	public static final String READ = "read";
+
+	private final List<String> readPrefixes;
+
+	public ReadWriteRoutingDataSource(List<String> readPrefixes) {
+		this.readPrefixes = List.copyOf(readPrefixes);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return isReadRouted() ? READ : WRITE;
+	}
+
+	boolean isReadRouted() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()
+				|| !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return false;
+		}
+		String name = TransactionSynchronizationManager.getCurrentTransactionName();
+		if (name == null) {
+			return false;
+		}
+		for (String prefix : readPrefixes) {
+			if (name.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
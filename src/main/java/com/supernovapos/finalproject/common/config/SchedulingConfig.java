@@ -0,0 +1,13 @@
+package com.supernovapos.finalproject.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 啟用排程
+ * 供購物車背景寫回等定期任務使用
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,42 @@
+package com.supernovapos.finalproject.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * MVC 非同步回應（StreamingResponseBody 報表匯出）專用執行緒池
+ * 匯出在此池內寫出，不佔用處理點餐請求的 Tomcat 執行緒；池與佇列皆有上限，滿了直接拒絕
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    @Value("${app.async.pool-size:2}")
+    private int poolSize;
+
+    @Value("${app.async.queue-capacity:8}")
+    private int queueCapacity;
+
+    @Value("${app.async.timeout-ms:600000}")
+    private long timeoutMs;
+
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
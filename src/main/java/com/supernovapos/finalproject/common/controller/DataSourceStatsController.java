@@ -0,0 +1,52 @@
+package com.supernovapos.finalproject.common.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.supernovapos.finalproject.common.model.DataSourcePoolStatsDto;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/admin/datasource")
+@Tag(name = "連線池監控", description = "讀寫分流連線池使用狀況")
+public class DataSourceStatsController {
+
+	private final HikariDataSource writeDataSource;
+	private final HikariDataSource readDataSource;
+
+	public DataSourceStatsController(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+			@Qualifier("readDataSource") HikariDataSource readDataSource) {
+		this.writeDataSource = writeDataSource;
+		this.readDataSource = readDataSource;
+	}
+
+	@Operation(summary = "連線池統計", description = "寫入池與報表讀取池的使用中、閒置、等待中連線數與飽和度")
+	@GetMapping("/pools")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<List<DataSourcePoolStatsDto>> getPoolStats() {
+		return ResponseEntity.ok(List.of(stats(writeDataSource), stats(readDataSource)));
+	}
+
+	private static DataSourcePoolStatsDto stats(HikariDataSource dataSource) {
+		int max = dataSource.getMaximumPoolSize();
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		if (pool == null) {
+			// 尚未建立任何連線
+			return new DataSourcePoolStatsDto(dataSource.getPoolName(), 0, 0, 0, max, 0, 0.0);
+		}
+		int active = pool.getActiveConnections();
+		return new DataSourcePoolStatsDto(dataSource.getPoolName(), active,
+				pool.getIdleConnections(), pool.getTotalConnections(), max, pool.getThreadsAwaitingConnection(),
+				max > 0 ? (double) active / max : 0.0);
+	}
+}
@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -98,6 +100,21 @@ public class GlobalExceptionHandler {
         throw new AuthException("帳號已停用", "ACCOUNT_DISABLED", HttpStatus.FORBIDDEN.value());
     }
     
+    /**
+     * 處理樂觀鎖衝突與列鎖等候逾時 (同一筆訂單/訂單群組被同時更新)
+     */
+    @ExceptionHandler({ OptimisticLockingFailureException.class, PessimisticLockingFailureException.class })
+    public ResponseEntity<ErrorResponse> handleOptimisticLock(RuntimeException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error(HttpStatus.CONFLICT.getReasonPhrase())
+                .message("資料已被其他人更新，請重新整理後再試")
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     /**
      * 處理其他未預期的錯誤
      */
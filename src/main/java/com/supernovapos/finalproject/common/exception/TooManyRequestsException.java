@@ -0,0 +1,10 @@
+package com.supernovapos.finalproject.common.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class TooManyRequestsException extends BusinessException {
+
+	public TooManyRequestsException(String message) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
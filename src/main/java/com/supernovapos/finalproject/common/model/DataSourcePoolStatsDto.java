@@ -0,0 +1,22 @@
+package com.supernovapos.finalproject.common.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+//連線池使用狀況
+public class DataSourcePoolStatsDto {
+	private String poolName;                 // write / read
+	private int active;                      // 使用中連線數
+	private int idle;                        // 閒置連線數
+	private int total;                       // 目前連線總數
+	private int maximumPoolSize;             // 連線上限
+	private int threadsAwaiting;             // 等待取得連線的執行緒數
+	private double saturation;               // active / maximumPoolSize
+}
@@ -0,0 +1,43 @@
+package com.supernovapos.finalproject.common.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionUtils {
+
+	private TransactionUtils() {
+	}
+
+	/**
+	 * 目前交易 commit 後才執行；沒有交易時立即執行
+	 * 用於推播、記憶體快取等不應反映未提交資料的副作用
+	 */
+	public static void afterCommit(Runnable task) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					task.run();
+				}
+			});
+		} else {
+			task.run();
+		}
+	}
+
+	/**
+	 * 目前交易結束（commit 或 rollback）後執行；沒有交易時立即執行
+	 */
+	public static void afterCompletion(Runnable task) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					task.run();
+				}
+			});
+		} else {
+			task.run();
+		}
+	}
+}
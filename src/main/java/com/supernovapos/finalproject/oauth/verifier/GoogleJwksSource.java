@@ -0,0 +1,68 @@
+package com.supernovapos.finalproject.oauth.verifier;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 從 Google 的 JWKS 端點取得 ID Token 簽章公鑰（只接受 RSA 金鑰）
+ * 網址可由 google.jwks-url 設定，測試時可指向本機 stub
+ */
+@Component
+public class GoogleJwksSource implements JwksSource {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    // 沒有 Cache-Control 時的快取時間
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+
+    private final RestClient restClient;
+    private final String jwksUrl;
+
+    public GoogleJwksSource(RestClient restClient,
+            @Value("${google.jwks-url:https://www.googleapis.com/oauth2/v3/certs}") String jwksUrl) {
+        this.restClient = restClient;
+        this.jwksUrl = jwksUrl;
+    }
+
+    @Override
+    public KeySet fetch() throws Exception {
+        ResponseEntity<JsonNode> response = restClient.get()
+                .uri(jwksUrl)
+                .retrieve()
+                .toEntity(JsonNode.class);
+
+        Map<String, PublicKey> keys = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        for (JsonNode jwk : response.getBody().path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText())) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+            keys.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return new KeySet(keys, maxAge(response.getHeaders().getCacheControl()));
+    }
+
+    private static Duration maxAge(String cacheControl) {
+        if (cacheControl == null) {
+            return DEFAULT_MAX_AGE;
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        return matcher.find() ? Duration.ofSeconds(Long.parseLong(matcher.group(1))) : DEFAULT_MAX_AGE;
+    }
+}
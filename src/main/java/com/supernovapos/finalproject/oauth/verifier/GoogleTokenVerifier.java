@@ -1,43 +1,132 @@
 package com.supernovapos.finalproject.oauth.verifier;
 
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.oauth.config.GoogleProperties;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Google ID Token 本機驗證
+ * - 以快取的 Google 公鑰（JWKS）驗證 RS256 簽章，並檢查 aud、iss、exp
+ * - 公鑰依 Cache-Control 的 max-age 於背景更新；遇到未知的 kid（Google 換金鑰）時立即更新，最多每分鐘一次
+ * - 更新失敗時沿用舊的公鑰
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class GoogleTokenVerifier {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Set<String> ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+    private static final long CLOCK_SKEW_SECONDS = 60;
+    // 在 max-age 到期前提早更新
+    private static final long REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long MIN_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
 
-    public GoogleIdToken.Payload verify(String idToken) {
-        try {
-            // 呼叫 Google 驗證端點
-            RestTemplate restTemplate = new RestTemplate();
-            String url = "https://oauth2.googleapis.com/tokeninfo?id_token=" + idToken;
-            String response = restTemplate.getForObject(url, String.class);
+    private final JwksSource jwksSource;
+    private final GoogleProperties googleProperties;
 
-            JsonNode json = objectMapper.readTree(response);
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long refreshAt;
+    private long lastFetchAt;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        if (!"RS256".equals(header.getAlgorithm())) {
+                            throw new JwtException("不支援的簽章演算法: " + header.getAlgorithm());
+                        }
+                        return findKey(header.getKeyId());
+                    }
+                })
+                .setAllowedClockSkewSeconds(CLOCK_SKEW_SECONDS)
+                .build();
+    }
 
-            if (json.has("error")) {
-                throw new InvalidRequestException("Google Token 無效");
+    public GoogleIdToken.Payload verify(String idToken) {
+        try {
+            // 簽章與到期時間由 parser 檢查
+            Claims claims = parser.parseClaimsJws(idToken).getBody();
+            if (!ISSUERS.contains(claims.getIssuer())) {
+                throw new JwtException("iss 不符: " + claims.getIssuer());
+            }
+            if (!googleProperties.getClientId().equals(claims.getAudience())) {
+                throw new JwtException("aud 不符: " + claims.getAudience());
             }
 
-            // 模擬 Payload
             GoogleIdToken.Payload payload = new GoogleIdToken.Payload();
-            payload.set("email", json.get("email").asText());
-            payload.set("name", json.get("name").asText());
-            payload.set("picture", json.get("picture").asText());
-            payload.setSubject(json.get("sub").asText());
+            payload.setSubject(claims.getSubject());
+            payload.setEmail(claims.get("email", String.class));
+            payload.set("name", claims.get("name", String.class));
+            payload.set("picture", claims.get("picture", String.class));
             return payload;
         } catch (Exception e) {
+            log.debug("Google Token 驗證失敗: {}", e.getMessage());
             throw new InvalidRequestException("Google Token 驗證失敗");
         }
     }
+
+    // 啟動時與每分鐘檢查，快到期才向 Google 取得
+    @Scheduled(fixedDelay = 60_000)
+    public void refreshIfStale() {
+        if (System.currentTimeMillis() >= refreshAt) {
+            refresh(false);
+        }
+    }
+
+    // === 私有方法 ===
+
+    private PublicKey findKey(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null) {
+            // 同時有其他請求剛更新過時不會重複取得，直接重查
+            refresh(true);
+            key = keys.get(kid);
+        }
+        if (key == null) {
+            throw new JwtException("找不到對應的 Google 公鑰, kid=" + kid);
+        }
+        return key;
+    }
+
+    /**
+     * @param onDemand 驗證時找不到 kid 觸發；距上次取得未滿一分鐘則略過
+     */
+    private synchronized void refresh(boolean onDemand) {
+        long now = System.currentTimeMillis();
+        if (onDemand && now - lastFetchAt < MIN_REFRESH_INTERVAL_MILLIS) {
+            return;
+        }
+        lastFetchAt = now;
+        try {
+            JwksSource.KeySet keySet = jwksSource.fetch();
+            keys = Map.copyOf(keySet.keys());
+            refreshAt = now + Math.max(keySet.maxAge().toMillis() - REFRESH_AHEAD_MILLIS, MIN_REFRESH_INTERVAL_MILLIS);
+            log.debug("已更新 Google 公鑰 {} 把，下次更新於 {} 秒後", keys.size(), (refreshAt - now) / 1000);
+        } catch (Exception e) {
+            log.warn("Google 公鑰更新失敗，沿用目前的 {} 把: {}", keys.size(), e.getMessage());
+        }
+    }
 }
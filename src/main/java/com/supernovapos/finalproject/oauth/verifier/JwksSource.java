@@ -0,0 +1,25 @@
+package com.supernovapos.finalproject.oauth.verifier;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * ID Token 簽章公鑰（JWKS）來源
+ * 預設由 {@link GoogleJwksSource} 向 Google 取得；測試可提供本機實作
+ */
+public interface JwksSource {
+
+    /**
+     * 取得目前的公鑰
+     * @throws Exception 取得或解析失敗
+     */
+    KeySet fetch() throws Exception;
+
+    /**
+     * @param keys   kid → 公鑰
+     * @param maxAge 可快取的時間（依回應的 Cache-Control）
+     */
+    record KeySet(Map<String, PublicKey> keys, Duration maxAge) {
+    }
+}
@@ -1,32 +1,74 @@
 package com.supernovapos.finalproject.oauth.verifier;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.oauth.dto.LineProfile;
 
-import lombok.RequiredArgsConstructor;
-
+/**
+ * 以 access token 向 LINE 取得使用者 Profile
+ * - 使用全域 RestClient（連線池、keep-alive）
+ * - 成功的結果以 access token 為 key 短暫快取（預設 60 秒），同一 token 重複登入、綁定不再呼叫 LINE
+ */
 @Component
-@RequiredArgsConstructor
 public class LineTokenVerifier {
 
-    private final RestClient restClient = RestClient.create();
+    private static final String PROFILE_URL = "https://api.line.me/v2/profile";
+
+    private final RestClient restClient;
+    private final long ttlMillis;
+
+    // 以 this 同步；access-order 供 LRU 移除
+    private final LinkedHashMap<String, Entry> profiles;
+
+    public LineTokenVerifier(RestClient restClient,
+            @Value("${line.profile-cache.max-entries:1000}") int maxEntries,
+            @Value("${line.profile-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.restClient = restClient;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.profiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
 
     public LineProfile verify(String accessToken) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = profiles.get(accessToken);
+            if (entry != null && entry.expiresAt() > now) {
+                return entry.profile();
+            }
+        }
+
+        LineProfile profile;
         try {
-            String result = restClient.get()
-                    .uri("https://api.line.me/v2/profile")
+            profile = restClient.get()
+                    .uri(PROFILE_URL)
                     .header("Authorization", "Bearer " + accessToken)
                     .retrieve()
-                    .body(String.class);
-
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(result, LineProfile.class);
+                    .body(LineProfile.class);
         } catch (Exception e) {
             throw new InvalidRequestException("LINE Token 驗證失敗");
         }
+        if (profile == null || profile.getUserId() == null || profile.getUserId().isBlank()) {
+            throw new InvalidRequestException("LINE Token 驗證失敗");
+        }
+
+        synchronized (this) {
+            profiles.put(accessToken, new Entry(profile, now + ttlMillis));
+        }
+        return profile;
+    }
+
+    private record Entry(LineProfile profile, long expiresAt) {
     }
 }
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -27,6 +28,7 @@ import com.supernovapos.finalproject.order.dto.AddOrderRequest;
 import com.supernovapos.finalproject.order.dto.OrderGroupCartStatusDto;
 import com.supernovapos.finalproject.order.dto.UpdateCartItemCountRequest;
 import com.supernovapos.finalproject.order.model.Orders;
+import com.supernovapos.finalproject.order.service.IdempotencyCache;
 import com.supernovapos.finalproject.order.service.OrderService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -51,6 +53,9 @@ public class CustomerOrderController {
 	@Autowired
 	private CartService cartService;
 
+	@Autowired
+	private IdempotencyCache idempotencyCache;
+
 //	新增商品到購物車 POST /api/customer/order/{orderGroupId}/cart/items
 
 	@Operation(summary = "新增商品到購物車", description = "將商品加入用戶購物車，支援臨時用戶和註冊用戶")
@@ -60,15 +65,18 @@ public class CustomerOrderController {
 			@Parameter(description = "用戶類型", schema = @Schema(allowableValues = { "TEMP",
 					"REGISTERED" })) @RequestParam String userType,
 			@Parameter(description = "用戶ID") @RequestParam String userId,
+			@Parameter(description = "重送識別碼，相同值的重送請求只會執行一次") @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
 			@RequestBody AddOrderItemRequest request) {
 
-		orderService.addItemToCart(orderGroupId, userType, userId, request);
+		return idempotencyCache.execute(idempotencyKey, scope("cart-add", orderGroupId, userType, userId), request, () -> {
+			orderService.addItemToCart(orderGroupId, userType, userId, request);
 
-		Map<String, String> response = new HashMap<String, String>();
-		response.put("success", "true");
-		response.put("message", "商品已新增到購物車");
+			Map<String, String> response = new HashMap<String, String>();
+			response.put("success", "true");
+			response.put("message", "商品已新增到購物車");
 
-		return ResponseEntity.ok(response);
+			return ResponseEntity.ok(response);
+		});
 	}
 
 //	購物車移除商品
@@ -78,15 +86,18 @@ public class CustomerOrderController {
 			@PathVariable UUID orderGroupId,
 			@PathVariable Integer productId,
 			@RequestParam String userType,
-			@RequestParam String userId) {
+			@RequestParam String userId,
+			@RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
 
-		orderService.removeItemFromCart(orderGroupId, userType, userId, productId);
+		return idempotencyCache.execute(idempotencyKey, scope("cart-remove:" + productId, orderGroupId, userType, userId), null, () -> {
+			orderService.removeItemFromCart(orderGroupId, userType, userId, productId);
 
-		Map<String, String> response = new HashMap<>();
-		response.put("success", "true");
-		response.put("message", "商品已從購物車移除");
+			Map<String, String> response = new HashMap<>();
+			response.put("success", "true");
+			response.put("message", "商品已從購物車移除");
 
-		return ResponseEntity.ok(response);
+			return ResponseEntity.ok(response);
+		});
 	}
 
 	// 更新購物車商品數量 - 加入錯誤處理 (request body需加上quantity與description)
@@ -97,8 +108,16 @@ public class CustomerOrderController {
 	        @PathVariable Integer productId,
 	        @RequestParam String userType,
 	        @RequestParam String userId,
+	        @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
 	        @RequestBody UpdateCartItemCountRequest request) {
 
+	    return idempotencyCache.execute(idempotencyKey, scope("cart-update:" + productId, orderGroupId, userType, userId), request,
+	            () -> doUpdateCartItemQuantity(orderGroupId, productId, userType, userId, request));
+	}
+
+	private ResponseEntity<Map<String, String>> doUpdateCartItemQuantity(UUID orderGroupId, Integer productId,
+	        String userType, String userId, UpdateCartItemCountRequest request) {
+
 	    try {
 	        orderService.updateCartItemQuantity(orderGroupId, userType, userId, productId, request);
 
@@ -135,15 +154,18 @@ public class CustomerOrderController {
 	public ResponseEntity<Map<String, String>> clearCart(
 			@PathVariable UUID orderGroupId,
 			@RequestParam String userType,
-			@RequestParam String userId) {
+			@RequestParam String userId,
+			@RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
 
-		orderService.clearCart(orderGroupId, userType, userId);
+		return idempotencyCache.execute(idempotencyKey, scope("cart-clear", orderGroupId, userType, userId), null, () -> {
+			orderService.clearCart(orderGroupId, userType, userId);
 
-		Map<String, String> response = new HashMap<>();
-		response.put("success", "true");
-		response.put("message", "購物車已清空");
+			Map<String, String> response = new HashMap<>();
+			response.put("success", "true");
+			response.put("message", "購物車已清空");
 
-		return ResponseEntity.ok(response);
+			return ResponseEntity.ok(response);
+		});
 	}
 
 //	取得用戶購物車的內容
@@ -186,15 +208,18 @@ public class CustomerOrderController {
 	public ResponseEntity<Map<String, String>> submitFirstOrder(
 			@PathVariable UUID orderGroupId,
 			@RequestParam String userType,
-			@RequestParam String userId) {
+			@RequestParam String userId,
+			@RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
 
-		orderService.submitFirstOrder(orderGroupId, userType, userId);
+		return idempotencyCache.execute(idempotencyKey, scope("submit-first", orderGroupId, userType, userId), null, () -> {
+			orderService.submitFirstOrder(orderGroupId, userType, userId);
 
-		Map<String, String> response = new HashMap<>();
-		response.put("success", "true");
-		response.put("message", "首次訂單已提交成功");
+			Map<String, String> response = new HashMap<>();
+			response.put("success", "true");
+			response.put("message", "首次訂單已提交成功");
 
-		return ResponseEntity.ok(response);
+			return ResponseEntity.ok(response);
+		});
 	}
 
 //	加點
@@ -204,15 +229,23 @@ public class CustomerOrderController {
 			@PathVariable UUID orderGroupId,
 			@RequestParam String userType,
 			@RequestParam String userId,
+			@RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
 			@RequestBody AddOrderRequest request) {
 		
-		Orders addOrder = orderService.addOrder(orderGroupId, userType, userId, request);
-		
-		Map<String, Object> response = new HashMap<>();
-		response.put("success", true);
-		response.put("message", "加點訂單已提交成功");
-		response.put("order", addOrder);
-		
-		return ResponseEntity.ok(response);
+		return idempotencyCache.execute(idempotencyKey, scope("add-order", orderGroupId, userType, userId), request, () -> {
+			Orders addOrder = orderService.addOrder(orderGroupId, userType, userId, request);
+
+			Map<String, Object> response = new HashMap<>();
+			response.put("success", true);
+			response.put("message", "加點訂單已提交成功");
+			response.put("order", addOrder);
+
+			return ResponseEntity.ok(response);
+		});
+	}
+
+//	重送識別碼的範圍：同一個 key 只在同一個 API、同一位用戶下有效
+	private String scope(String action, UUID orderGroupId, String userType, String userId) {
+		return action + ":" + orderGroupId + ":" + userType + ":" + userId;
 	}
 }
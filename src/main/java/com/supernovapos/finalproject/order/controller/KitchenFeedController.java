@@ -0,0 +1,37 @@
+package com.supernovapos.finalproject.order.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.supernovapos.finalproject.order.dto.KitchenSnapshotDto;
+import com.supernovapos.finalproject.order.service.KitchenFeedService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * 廚房看板 API - 快照與 WebSocket 推播重新同步
+ * 即時事件請訂閱 /topic/kitchen/all 或 /topic/kitchen/{stationId}
+ */
+@RestController
+@RequestMapping("/api/qr/kitchen")
+@Tag(name = "廚房看板", description = "廚房看板快照與推播同步")
+public class KitchenFeedController {
+
+	@Autowired
+	private KitchenFeedService kitchenFeedService;
+
+//	店家端：取得廚房看板快照 (初次載入或序號不連續時重新同步)
+	@Operation(summary = "取得廚房看板快照", description = "回傳目前所有已送出且進行中的訂單與對應的事件序號，之後只需套用 seq 更大的推播事件")
+	@GetMapping("/snapshot")
+	public ResponseEntity<KitchenSnapshotDto> getSnapshot(
+			@Parameter(description = "出餐站（商品分類ID），不填代表全部") @RequestParam(required = false) String station) {
+
+		return ResponseEntity.ok(kitchenFeedService.getSnapshot(station));
+	}
+}
@@ -0,0 +1,64 @@
+package com.supernovapos.finalproject.order.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.supernovapos.finalproject.order.dto.KitchenQueueItemDto;
+import com.supernovapos.finalproject.order.dto.PrepStatusUpdateRequest;
+import com.supernovapos.finalproject.order.model.PrepStatus;
+import com.supernovapos.finalproject.order.service.KitchenQueueService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+/**
+ * 廚房出餐佇列 API - 查詢未出餐項目與變更出餐狀態
+ */
+@RestController
+@RequestMapping("/api/qr/kitchen")
+@Tag(name = "廚房出餐佇列", description = "未出餐項目查詢與出餐狀態變更")
+public class KitchenQueueController {
+
+	@Autowired
+	private KitchenQueueService kitchenQueueService;
+
+//	店家端：取得全場未出餐項目（由舊到新）
+	@Operation(summary = "取得未出餐佇列", description = "回傳所有進行中訂單尚未出餐的項目，依點餐時間由舊到新排序")
+	@GetMapping("/queue")
+	public ResponseEntity<List<KitchenQueueItemDto>> getQueue(
+			@Parameter(description = "出餐站（商品分類ID），不填代表全部") @RequestParam(required = false) Integer station) {
+
+		return ResponseEntity.ok(kitchenQueueService.getUnservedQueue(station));
+	}
+
+//	店家端：批次變更項目出餐狀態
+	@Operation(summary = "批次變更出餐狀態", description = "將多個訂單項目變更為指定出餐狀態（QUEUED / COOKING / READY / SERVED），任一項目無法變更則全部不變更")
+	@PutMapping("/items/status")
+	public ResponseEntity<List<KitchenQueueItemDto>> updateItemsStatus(
+			@Valid @RequestBody PrepStatusUpdateRequest request) {
+
+		return ResponseEntity.ok(kitchenQueueService.transitionItems(request.getItemIds(), request.getStatus()));
+	}
+
+//	店家端：變更整筆訂單出餐狀態
+	@Operation(summary = "變更訂單出餐狀態", description = "將訂單內所有項目變更為指定出餐狀態")
+	@PutMapping("/orders/{orderId}/status")
+	public ResponseEntity<Void> updateOrderStatus(
+			@Parameter(description = "訂單ID") @PathVariable Long orderId,
+			@Parameter(description = "出餐狀態") @RequestParam PrepStatus status) {
+
+		kitchenQueueService.transitionOrder(orderId, status);
+		return ResponseEntity.noContent().build();
+	}
+}
@@ -5,12 +5,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,16 +21,23 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
 import com.supernovapos.finalproject.common.model.ApiResponse;
+import com.supernovapos.finalproject.order.dto.IdempotencyStatsDto;
 import com.supernovapos.finalproject.order.dto.OrderGroupDetailDto;
 import com.supernovapos.finalproject.order.dto.TablePaymentRequest;
+import com.supernovapos.finalproject.order.dto.TodayDashboardDto;
+import com.supernovapos.finalproject.order.dto.TotalReconciliationDto;
 import com.supernovapos.finalproject.order.model.OrderGroup;
 import com.supernovapos.finalproject.order.model.OrderItems;
 import com.supernovapos.finalproject.order.model.Orders;
+import com.supernovapos.finalproject.order.model.PrepStatus;
 import com.supernovapos.finalproject.order.repository.OrderGroupRepository;
 import com.supernovapos.finalproject.order.repository.OrdersRepository;
+import com.supernovapos.finalproject.order.service.IdempotencyCache;
+import com.supernovapos.finalproject.order.service.KitchenQueueService;
 import com.supernovapos.finalproject.order.service.OrderGroupService;
 import com.supernovapos.finalproject.order.service.OrderItemsService;
 import com.supernovapos.finalproject.order.service.OrderService;
+import com.supernovapos.finalproject.order.service.OrderTotalReconciliationService;
 import com.supernovapos.finalproject.table.model.RestaurantTable;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -60,6 +67,15 @@ public class QRCodeController {
 	@Autowired
 	private OrderGroupRepository orderGroupRepository;
 
+	@Autowired
+	private OrderTotalReconciliationService reconciliationService;
+
+	@Autowired
+	private KitchenQueueService kitchenQueueService;
+
+	@Autowired
+	private IdempotencyCache idempotencyCache;
+
 //	店家端：為指定桌子生成新的點餐會話 (產生 QR Code)
 	@Operation(summary = "生成點餐 QR Code", description = "店家端為指定桌號生成新的點餐會話")
 	@PostMapping("/generate/{tableId}")
@@ -86,7 +102,7 @@ public class QRCodeController {
 			@Parameter(description = "訂單群組ID") @PathVariable UUID orderGroupId) {
 
 		OrderGroup orderGroup = orderGroupService.findByQrCode(orderGroupId);
-		RestaurantTable table = orderGroupService.getTableByOrderGroupId(orderGroupId);
+		RestaurantTable table = orderGroup.getTable();
 
 		Map<String, Object> payload = new HashMap<>();
 		payload.put("orderGroupId", orderGroupId);
@@ -141,6 +157,56 @@ public class QRCodeController {
 		return ResponseEntity.ok(response);
 	}
 
+//	店家端：訂單總額對帳 (比對累計總額與完整重算結果，只讀)
+	@Operation(summary = "訂單總額對帳", description = "比對訂單群組與各訂單記錄的總額與項目重算結果，不修改資料")
+	@GetMapping("/reconcile/{orderGroupId}")
+	public ResponseEntity<TotalReconciliationDto> reconcileOrderGroup(
+			@Parameter(description = "訂單群組ID") @PathVariable UUID orderGroupId) {
+
+		return ResponseEntity.ok(reconciliationService.reconcile(orderGroupId));
+	}
+
+//	店家端：所有進行中訂單群組對帳，只回傳不一致者
+	@Operation(summary = "進行中訂單總額對帳", description = "對所有進行中的訂單群組執行總額對帳，只回傳不一致的結果，不修改資料")
+	@GetMapping("/reconcile")
+	public ResponseEntity<List<TotalReconciliationDto>> reconcileActiveOrderGroups() {
+
+		return ResponseEntity.ok(reconciliationService.reconcileActiveGroups());
+	}
+
+//	管理員：以重算結果修正進行中訂單群組的總額
+	@Operation(summary = "修正訂單總額", description = "以項目重算結果修正進行中訂單群組與其訂單的總額，已結帳的群組不可修正")
+	@PostMapping("/reconcile/{orderGroupId}/repair")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<TotalReconciliationDto> repairOrderGroup(
+			@Parameter(description = "訂單群組ID") @PathVariable UUID orderGroupId) {
+
+		return ResponseEntity.ok(reconciliationService.repair(orderGroupId));
+	}
+
+//	管理員：修正所有進行中訂單群組的總額，只回傳原本不一致者
+	@Operation(summary = "修正進行中訂單總額", description = "對所有進行中的訂單群組執行總額修正，只回傳原本不一致的結果")
+	@PostMapping("/reconcile/repair")
+	@PreAuthorize("hasRole('ADMIN')")
+	public ResponseEntity<List<TotalReconciliationDto>> repairActiveOrderGroups() {
+
+		return ResponseEntity.ok(reconciliationService.repairActiveGroups());
+	}
+
+//	店家端：客戶端重送請求快取統計
+	@Operation(summary = "重送請求快取統計", description = "客戶端點餐 API 依 Idempotency-Key 攔截重送請求的命中次數")
+	@GetMapping("/idempotency/stats")
+	public ResponseEntity<IdempotencyStatsDto> getIdempotencyStats() {
+		return ResponseEntity.ok(idempotencyCache.getStats());
+	}
+
+//	店家端：今日營運即時數據（之後的變動推播到 /topic/dashboard）
+	@Operation(summary = "今日營運數據", description = "今日營業額、各桌營業額、各時段開桌數與商品送出數量快照")
+	@GetMapping("/dashboard/today")
+	public ResponseEntity<TodayDashboardDto> getTodayDashboard() {
+		return ResponseEntity.ok(orderGroupService.getTodayDashboard());
+	}
+
 //	檢查桌子是否有進行中的訂單
 	@Operation(summary = "檢查桌子狀態", description = "檢查指定桌號是否有進行中的訂單")
 	@GetMapping("/table/{tableId}/status")
@@ -181,9 +247,8 @@ public class QRCodeController {
 				orderData.put("id", order.getId());
 				orderData.put("orderNo", "訂單 ＃" + order.getId());
 				orderData.put("total", order.getTotalAmount());
-				// 方案1：使用 note 欄位判斷（最簡單，不需要修改資料庫）
-				boolean isServed = order.getNote() != null && order.getNote().contains("已出餐");
-				orderData.put("done", isServed);
+				orderData.put("done", order.isServed());
+				orderData.put("prepStatus", order.getPrepStatus());
 				orderData.put("createdAt", formatDateTime(order.getCreatedAt()));
 				orderData.put("note", order.getNote());
 
@@ -234,35 +299,8 @@ public class QRCodeController {
 	public ResponseEntity<Map<String, Object>> toggleOrderStatus(
 			@Parameter(description = "訂單ID") @PathVariable Long orderId) {
 
-		// 查找訂單
-		Optional<Orders> orderOpt = ordersRepository.findById(orderId);
-		if (!orderOpt.isPresent()) {
-			throw new ResourceNotFoundException("訂單不存在");
-		}
-
-		Orders order = orderOpt.get();
-
-		// 檢查當前出餐狀態（從 note 欄位判斷）
-		boolean isCurrentlyServed = order.getNote() != null && order.getNote().contains("已出餐");
-		boolean newStatus = !isCurrentlyServed;
-
-		// 更新 note 欄位來儲存出餐狀態
-		String currentNote = order.getNote() == null ? "" : order.getNote();
-
-		if (newStatus) {
-			// 標記為已出餐
-			if (!currentNote.contains("已出餐")) {
-				String newNote = currentNote.trim().isEmpty() ? "[已出餐]" : currentNote + " [已出餐]";
-				order.setNote(newNote);
-			}
-		} else {
-			// 標記為未出餐（移除已出餐標記）
-			String newNote = currentNote.replace(" [已出餐]", "").replace("[已出餐]", "").trim();
-			order.setNote(newNote.isEmpty() ? null : newNote);
-		}
-
-		// 保存到資料庫
-		ordersRepository.save(order);
+		// 整筆訂單的項目一起切換出餐狀態（並通知廚房看板）
+		boolean newStatus = kitchenQueueService.toggleOrderServed(orderId);
 
 		Map<String, Object> response = new HashMap<>();
 		response.put("success", true);
@@ -287,18 +325,10 @@ public class QRCodeController {
 			OrderGroup activeOrderGroup = orderGroupService.getActiveOrderGroupByTableId(tableId);
 
 			// 只檢查已提交的訂單（草稿訂單不需要檢查出餐狀態）
-	        List<Orders> submittedOrders = ordersRepository.findSubmittedOrdersByGroupId(activeOrderGroup.getId());
 			List<String> unfinishedOrders = new ArrayList<>();
-
-			for (Orders order : submittedOrders) {
-				// 修改：使用 note 欄位判斷是否已出餐
-	            boolean isServed = order.getNote() != null && order.getNote().contains("已出餐");
-	            
-	            // 如果訂單未出餐，加入未完成列表
-	            if (!isServed) {
-	                unfinishedOrders.add("訂單 #" + order.getId());
-	            }
-	        }
+			for (Long unservedOrderId : ordersRepository.findUnservedSubmittedOrderIds(activeOrderGroup.getId(), PrepStatus.SERVED)) {
+				unfinishedOrders.add("訂單 #" + unservedOrderId);
+			}
 
 			// 如果有未出餐的訂單，拒絕收款
 			if (!unfinishedOrders.isEmpty()) {
@@ -0,0 +1,23 @@
+package com.supernovapos.finalproject.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+//重送請求快取統計
+public class IdempotencyStatsDto {
+	private long hits;                       // 重送請求直接回傳快取結果的次數
+	private long misses;                     // 首次執行的次數
+	private long errorReplays;               // 重送請求得到第一次執行錯誤的次數（不計入 hits）
+	private long evictions;                  // 因容量上限被移除的筆數
+	private int size;                        // 目前快取筆數
+	private int maxEntries;                  // 容量上限
+	private long ttlSeconds;                 // 保存秒數
+	private double hitRatio;                 // hits / (hits + misses)
+}
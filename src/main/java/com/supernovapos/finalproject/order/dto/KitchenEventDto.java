@@ -0,0 +1,34 @@
+package com.supernovapos.finalproject.order.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+
+//廚房看板推播事件（只帶差異）
+public class KitchenEventDto {
+	public static final String ORDER_SUBMITTED = "ORDER_SUBMITTED";    // 首次送單
+	public static final String ITEMS_ADDED = "ITEMS_ADDED";            // 加點
+	public static final String SERVED_TOGGLED = "SERVED_TOGGLED";      // 切換出餐狀態
+	public static final String GROUP_COMPLETED = "GROUP_COMPLETED";    // 結帳完成，整桌移除
+	public static final String PREP_STATUS_CHANGED = "PREP_STATUS_CHANGED";    // 項目出餐狀態變更
+
+	private String type;                     // 事件類型
+	private long seq;                        // 該 topic 的序號，不連續時應重新取得快照
+	private String station;                  // 出餐站，all 代表全部
+	private UUID groupId;                    // 訂單群組 ID
+	private Integer tableId;                 // 桌號
+	private Long orderId;                    // SERVED_TOGGLED 的訂單 ID
+	private Boolean served;                  // SERVED_TOGGLED 的新狀態
+	private List<KitchenOrderDto> orders = new ArrayList<>();    // 新增的訂單（已依出餐站過濾）
+	private List<KitchenItemDto> items = new ArrayList<>();      // PREP_STATUS_CHANGED 的項目（已依出餐站過濾）
+	private LocalDateTime occurredAt;        // 發生時間
+}
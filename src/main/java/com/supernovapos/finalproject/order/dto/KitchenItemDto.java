@@ -0,0 +1,22 @@
+package com.supernovapos.finalproject.order.dto;
+
+import com.supernovapos.finalproject.order.model.PrepStatus;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+
+//廚房看板上的單一餐點
+public class KitchenItemDto {
+	private Long id;                         // 訂單項目 ID
+	private Integer productId;               // 商品 ID
+	private String productName;              // 商品名稱
+	private Integer stationId;               // 出餐站（商品分類 ID）
+	private Integer quantity;                // 數量
+	private String note;                     // 項目備註
+	private PrepStatus prepStatus;           // 出餐狀態
+}
@@ -0,0 +1,29 @@
+package com.supernovapos.finalproject.order.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.supernovapos.finalproject.order.model.PrepStatus;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+
+//廚房看板上的單筆訂單
+public class KitchenOrderDto {
+	private Long orderId;                    // 訂單 ID
+	private UUID groupId;                    // 訂單群組 ID
+	private Integer tableId;                 // 桌號
+	private Integer total;                   // 訂單總額
+	private boolean served;                  // 是否已出餐
+	private PrepStatus prepStatus;           // 出餐狀態（最慢的項目）
+	private String note;                     // 訂單備註
+	private LocalDateTime createdAt;         // 建立時間
+	private List<KitchenItemDto> items = new ArrayList<>();
+}
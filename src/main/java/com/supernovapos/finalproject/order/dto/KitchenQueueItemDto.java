@@ -0,0 +1,31 @@
+package com.supernovapos.finalproject.order.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.supernovapos.finalproject.order.model.PrepStatus;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+
+//廚房佇列中的單一未出餐項目
+public class KitchenQueueItemDto {
+	private Long id;                         // 訂單項目 ID
+	private Long orderId;                    // 訂單 ID
+	private UUID groupId;                    // 訂單群組 ID
+	private Integer tableId;                 // 桌號
+	private Integer productId;               // 商品 ID
+	private String productName;              // 商品名稱
+	private Integer stationId;               // 出餐站（商品分類 ID）
+	private Integer quantity;                // 數量
+	private String note;                     // 項目備註
+	private PrepStatus prepStatus;           // 出餐狀態
+	private LocalDateTime createdAt;         // 點餐時間
+	private LocalDateTime cookingAt;         // 開始製作時間
+	private LocalDateTime readyAt;           // 完成製作時間
+}
@@ -0,0 +1,19 @@
+package com.supernovapos.finalproject.order.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+
+//廚房看板快照，seq 之後的事件由 WebSocket 補上
+public class KitchenSnapshotDto {
+	private String station;                  // 出餐站，all 代表全部
+	private long seq;                        // 快照對應的事件序號
+	private List<KitchenOrderDto> orders = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.supernovapos.finalproject.order.dto;
+
+import java.util.List;
+
+import com.supernovapos.finalproject.order.model.PrepStatus;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+
+//廚房看板批次變更出餐狀態
+public class PrepStatusUpdateRequest {
+
+	@NotEmpty(message = "訂單項目不能為空")
+	private List<Long> itemIds;
+
+	@NotNull(message = "出餐狀態不能為空")
+	private PrepStatus status;
+}
@@ -0,0 +1,31 @@
+package com.supernovapos.finalproject.order.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+
+//今日營運即時數據（推播到 /topic/dashboard）
+public class TodayDashboardDto {
+	private LocalDate date;                          // 營業日
+	private long completedGroups;                    // 今日結帳桌次
+	private long completedRevenue;                   // 今日結帳營業額
+	private long openedGroups;                       // 今日開桌數
+	private long submittedAmount;                    // 今日開桌群組已送出的訂單金額
+	private long paidCount;                          // 今日線上付款成功筆數
+	private long paidAmount;                         // 今日線上付款成功金額
+	private Map<Integer, Long> revenueByTable;       // 桌號 → 結帳營業額
+	private List<Long> groupsByHour;                 // 0~23 時各時段開桌數
+	private Map<Integer, Long> quantityByProduct;    // 商品 ID → 已送出數量
+	private LocalDateTime generatedAt;               // 快照時間
+}
@@ -0,0 +1,34 @@
+package com.supernovapos.finalproject.order.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class TotalReconciliationDto {
+
+	private UUID groupId;
+	private Integer storedGroupTotal;                                  // 訂單群組目前記錄的總額
+	private Integer computedGroupTotal;                                // 由已提交訂單項目重新加總的總額
+	private List<OrderMismatch> orderMismatches = new ArrayList<>();   // 訂單總額不一致的明細
+	private boolean consistent;                                        // 是否全部一致
+	private boolean repaired;                                          // 是否已修正
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class OrderMismatch {
+		private Long orderId;
+		private Boolean submitted;
+		private Integer storedTotal;
+		private Integer computedTotal;
+	}
+}
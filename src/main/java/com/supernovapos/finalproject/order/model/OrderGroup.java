@@ -23,6 +23,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -60,6 +61,11 @@ public class OrderGroup {
 	
 	@Column(name = "completed_at")
 	private LocalDateTime completedAt;
+
+//	樂觀鎖版本號，避免同桌多人同時異動總額時互相覆蓋
+	@Version
+	@Column(name = "version", nullable = false)
+	private Long version;
 	
 //	與orders為一對多關係
 	@OneToMany(mappedBy = "orderGroup", fetch = FetchType.LAZY)
@@ -11,6 +11,8 @@ import com.supernovapos.finalproject.product.model.Products;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
@@ -18,6 +20,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Min;
 import lombok.Getter;
@@ -33,8 +36,10 @@ import lombok.ToString;
 @ToString
 public class OrderItems {
 
+//	使用 sequence 並預先配置一批 id（pooled），讓 Hibernate 可以批次 INSERT
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+	@SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
 	@Column(name = "id", nullable = false)
 	private Long id;
 
@@ -55,6 +60,20 @@ public class OrderItems {
 	@Column(name = "created_at", nullable = false, columnDefinition = "DATETIME2")
 	private LocalDateTime createdAt;
 
+//	出餐狀態與各階段時間
+	@Enumerated(EnumType.STRING)
+	@Column(name = "prep_status", nullable = false, length = 10)
+	private PrepStatus prepStatus = PrepStatus.QUEUED;
+
+	@Column(name = "cooking_at", columnDefinition = "DATETIME2")
+	private LocalDateTime cookingAt;
+
+	@Column(name = "ready_at", columnDefinition = "DATETIME2")
+	private LocalDateTime readyAt;
+
+	@Column(name = "served_at", columnDefinition = "DATETIME2")
+	private LocalDateTime servedAt;
+
 //	與orders為多對一關係，並與order_id產生外鍵關聯
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "order_id", foreignKey = @ForeignKey(name = "FK_order_items_order"))
@@ -67,4 +86,30 @@ public class OrderItems {
 	@JoinColumn(name = "product_id", foreignKey = @ForeignKey(name = "FK_order_items_product"))
 	@ToString.Exclude
 	private Products products;
+
+//	變更出餐狀態，進入某階段時記錄時間，退回時清除之後階段的時間
+	public void transitionTo(PrepStatus next, LocalDateTime now) {
+		if (!prepStatus.canTransitionTo(next)) {
+			throw new IllegalStateException("出餐狀態無法由 " + prepStatus + " 變更為 " + next);
+		}
+		if (next.ordinal() >= PrepStatus.COOKING.ordinal() && cookingAt == null) {
+			cookingAt = now;
+		}
+		if (next.ordinal() >= PrepStatus.READY.ordinal() && readyAt == null) {
+			readyAt = now;
+		}
+		if (next == PrepStatus.SERVED) {
+			servedAt = now;
+		}
+		if (next.ordinal() < PrepStatus.SERVED.ordinal()) {
+			servedAt = null;
+		}
+		if (next.ordinal() < PrepStatus.READY.ordinal()) {
+			readyAt = null;
+		}
+		if (next.ordinal() < PrepStatus.COOKING.ordinal()) {
+			cookingAt = null;
+		}
+		prepStatus = next;
+	}
 }
@@ -13,6 +13,8 @@ import com.supernovapos.finalproject.user.model.entity.User;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
@@ -22,6 +24,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -57,6 +60,19 @@ public class Orders {
 	@Column(name = "updated_at", nullable = false, columnDefinition = "DATETIME2")
 	private LocalDateTime updatedAt;
 
+//	出餐狀態（取所有項目中最慢的狀態），收款前以此判斷是否全部出餐
+	@Enumerated(EnumType.STRING)
+	@Column(name = "prep_status", nullable = false, length = 10)
+	private PrepStatus prepStatus = PrepStatus.QUEUED;
+
+	@Column(name = "served_at", columnDefinition = "DATETIME2")
+	private LocalDateTime servedAt;
+
+//	樂觀鎖版本號，避免同桌多人同時異動總額時互相覆蓋
+	@Version
+	@Column(name = "version", nullable = false)
+	private Long version;
+
 //	與order_group為多對一關聯，並與group_id產生外關聯
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "group_id", foreignKey = @ForeignKey(name = "FK_orders_group"))
@@ -89,4 +105,18 @@ public class Orders {
 	public boolean isSubmitted() {
 	    return this.status;
 	}
+
+	public boolean isServed() {
+	    return this.prepStatus == PrepStatus.SERVED;
+	}
+
+	// 依項目狀態更新訂單出餐狀態
+	public void updatePrepStatus(PrepStatus slowest, LocalDateTime now) {
+	    if (slowest == PrepStatus.SERVED && this.prepStatus != PrepStatus.SERVED) {
+	        this.servedAt = now;
+	    } else if (slowest != PrepStatus.SERVED) {
+	        this.servedAt = null;
+	    }
+	    this.prepStatus = slowest;
+	}
 }
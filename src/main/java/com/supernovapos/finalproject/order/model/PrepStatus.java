@@ -0,0 +1,43 @@
+package com.supernovapos.finalproject.order.model;
+
+import java.util.Collection;
+
+/**
+ * 出餐狀態（訂單項目與訂單共用）
+ * 狀態只能往後推進，或退回前一個狀態（誤按時復原）
+ */
+public enum PrepStatus {
+	QUEUED("待製作"),
+	COOKING("製作中"),
+	READY("待出餐"),
+	SERVED("已出餐");
+
+	private final String description;
+
+	PrepStatus(String description) {
+		this.description = description;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public boolean canTransitionTo(PrepStatus next) {
+		return next.ordinal() > ordinal() || next.ordinal() == ordinal() - 1;
+	}
+
+	public boolean isServed() {
+		return this == SERVED;
+	}
+
+//	訂單的狀態取決於最慢的項目
+	public static PrepStatus slowestOf(Collection<PrepStatus> statuses) {
+		PrepStatus slowest = SERVED;
+		for (PrepStatus status : statuses) {
+			if (status.ordinal() < slowest.ordinal()) {
+				slowest = status;
+			}
+		}
+		return slowest;
+	}
+}
@@ -1,22 +1,31 @@
 package com.supernovapos.finalproject.order.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.supernovapos.finalproject.order.model.OrderGroup;
 
+import jakarta.persistence.LockModeType;
+
 public interface OrderGroupRepository extends JpaRepository<OrderGroup, UUID> {
 
 //	查詢活躍的訂單群組(用於qr code掃描驗證)
 	@Query("select og from OrderGroup og where og.id = :groupId and og.status = true")
 	Optional<OrderGroup> findActiveOrderGroup(@Param("groupId") UUID groupId);
 
+//	查詢活躍的訂單群組並鎖定該列直到交易結束（SQL Server 為 UPDLOCK，多節點部署時避免重複送單）
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select og from OrderGroup og where og.id = :groupId and og.status = true")
+	Optional<OrderGroup> findActiveOrderGroupForUpdate(@Param("groupId") UUID groupId);
+
 //	根據桌號查詢進行中的訂單group
 	@Query("select og from OrderGroup og where og.table.id = :tableId and og.status = true")
 	Optional<OrderGroup> findActiveOrderGroupByTableId(@Param("tableId") Integer tableId);
@@ -57,8 +66,8 @@ public interface OrderGroupRepository extends JpaRepository<OrderGroup, UUID> {
 			@Param("startOfDay") LocalDateTime startOfDay,
 			@Param("endOfDay") LocalDateTime endOfDay);
 
-//	統計各桌今日營業額
-	@Query("SELECT og.table.tableId, COALESCE(SUM(og.totalAmount), 0) " +
+//	統計各桌今日營業額與結帳桌次（今日儀表板啟動與跨日時載入）
+	@Query("SELECT og.table.tableId, COALESCE(SUM(og.totalAmount), 0), COUNT(og) " +
 			"FROM OrderGroup og " +
 			"WHERE og.status = false " +
 			"AND og.completedAt >= :startOfDay AND og.completedAt < :endOfDay " +
@@ -74,8 +83,8 @@ public interface OrderGroupRepository extends JpaRepository<OrderGroup, UUID> {
 			"ORDER BY og.createdAt DESC")
 	List<OrderGroup> findActiveOrderGroupsSince(@Param("startTime") LocalDateTime startTime);
 
-//	統計各時段的訂單數量（用於分析營業高峰）
-	@Query("SELECT HOUR(og.createdAt), COUNT(og) " +
+//	統計各時段的開桌數與已送出金額（用於分析營業高峰）
+	@Query("SELECT HOUR(og.createdAt), COUNT(og), COALESCE(SUM(og.totalAmount), 0) " +
 			"FROM OrderGroup og " +
 			"WHERE og.createdAt >= :startOfDay AND og.createdAt < :endOfDay " +
 			"GROUP BY HOUR(og.createdAt) " +
@@ -87,4 +96,16 @@ public interface OrderGroupRepository extends JpaRepository<OrderGroup, UUID> {
 	@Query("SELECT og FROM OrderGroup og JOIN FETCH og.table WHERE og.id = :groupId AND og.status = true")
 	Optional<OrderGroup> findActiveOrderGroupWithTable(@Param("groupId") UUID groupId);
 
+//	查詢所有進行中的訂單群組
+	@Query("select og from OrderGroup og where og.status = true")
+	List<OrderGroup> findAllActiveOrderGroups();
+
+//	查詢所有進行中的訂單群組（含桌子，重建進行中會話用）
+	@Query("SELECT og FROM OrderGroup og JOIN FETCH og.table WHERE og.status = true")
+	List<OrderGroup> findAllActiveOrderGroupsWithTable();
+
+//	依 ID 查詢進行中的訂單群組（含桌子）
+	@Query("SELECT og FROM OrderGroup og JOIN FETCH og.table WHERE og.id IN :groupIds AND og.status = true ORDER BY og.createdAt ASC")
+	List<OrderGroup> findActiveOrderGroupsWithTableByIds(@Param("groupIds") Collection<UUID> groupIds);
+
 }
@@ -2,6 +2,7 @@ package com.supernovapos.finalproject.order.repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -49,4 +50,83 @@ public interface OrderItemsRepository extends JpaRepository<OrderItems, Long> {
 	List<Object[]> getProductSalesStatsBetweenDates(@Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate);
 
+	// 依訂單加總指定訂單群組的項目金額（總額對帳用）
+	@Query("SELECT oi.orders.id, SUM(oi.quantity * oi.unitPrice) FROM OrderItems oi "
+			+ "WHERE oi.orders.orderGroup.id = :groupId GROUP BY oi.orders.id")
+	List<Object[]> sumItemAmountByOrderInGroup(@Param("groupId") UUID groupId);
+
+	// 查詢指定訂單的項目（含商品與分類，廚房推播用）
+	@Query("SELECT oi FROM OrderItems oi JOIN FETCH oi.products p LEFT JOIN FETCH p.productCategory "
+			+ "JOIN FETCH oi.orders o WHERE o.id IN :orderIds ORDER BY o.createdAt ASC, oi.id ASC")
+	List<OrderItems> findKitchenItemsByOrderIds(@Param("orderIds") List<Long> orderIds);
+
+	// 查詢所有進行中訂單群組的已提交項目（廚房看板快照用）
+	@Query("SELECT oi FROM OrderItems oi JOIN FETCH oi.products p LEFT JOIN FETCH p.productCategory "
+			+ "JOIN FETCH oi.orders o JOIN FETCH o.orderGroup og JOIN FETCH og.table "
+			+ "WHERE og.status = true AND o.status = true ORDER BY o.createdAt ASC, oi.id ASC")
+	List<OrderItems> findActiveKitchenItems();
+
+	// 查詢指定訂單涉及的出餐站（商品分類）
+	@Query("SELECT DISTINCT c.id FROM OrderItems oi JOIN oi.products p LEFT JOIN p.productCategory c "
+			+ "WHERE oi.orders.id = :orderId")
+	List<Integer> findStationIdsByOrderId(@Param("orderId") Long orderId);
+
+	// 查詢指定訂單群組已提交項目涉及的出餐站（商品分類）
+	@Query("SELECT DISTINCT c.id FROM OrderItems oi JOIN oi.products p LEFT JOIN p.productCategory c JOIN oi.orders o "
+			+ "WHERE o.orderGroup.id = :groupId AND o.status = true")
+	List<Integer> findStationIdsByGroupId(@Param("groupId") UUID groupId);
+
+	// 廚房佇列：所有進行中訂單群組尚未出餐的項目，由舊到新
+	// 條件需為常數（非參數）才能使用 prep_status <> 'SERVED' 的篩選索引
+	@Query("SELECT oi FROM OrderItems oi JOIN FETCH oi.products p LEFT JOIN FETCH p.productCategory "
+			+ "JOIN FETCH oi.orders o JOIN FETCH o.orderGroup og JOIN FETCH og.table "
+			+ "WHERE oi.prepStatus <> com.supernovapos.finalproject.order.model.PrepStatus.SERVED "
+			+ "AND o.status = true AND og.status = true "
+			+ "ORDER BY oi.createdAt ASC, oi.id ASC")
+	List<OrderItems> findKitchenQueue();
+
+	// 群組結帳或強制結束時，尚未出餐的項目（含未送出的草稿）不再出餐，一律標記為 SERVED 離開廚房佇列索引
+	// served_at 保持空值，與實際出餐區分
+	@Modifying
+	@Query("UPDATE OrderItems oi SET oi.prepStatus = com.supernovapos.finalproject.order.model.PrepStatus.SERVED "
+			+ "WHERE oi.prepStatus <> com.supernovapos.finalproject.order.model.PrepStatus.SERVED "
+			+ "AND oi.orders.id IN (SELECT o.id FROM Orders o WHERE o.orderGroup.id = :groupId)")
+	int retireUnservedByGroupId(@Param("groupId") UUID groupId);
+
+	// 依項目 ID 查詢（含訂單、群組與桌子，批次變更出餐狀態用）
+	@Query("SELECT oi FROM OrderItems oi JOIN FETCH oi.products p LEFT JOIN FETCH p.productCategory "
+			+ "JOIN FETCH oi.orders o JOIN FETCH o.orderGroup og JOIN FETCH og.table "
+			+ "WHERE oi.id IN :itemIds ORDER BY oi.id ASC")
+	List<OrderItems> findKitchenItemsWithGroupByIds(@Param("itemIds") Collection<Long> itemIds);
+
+	// 查詢指定訂單各項目的出餐狀態（重新計算訂單狀態用）
+	@Query("SELECT oi.orders.id, oi.prepStatus FROM OrderItems oi WHERE oi.orders.id IN :orderIds")
+	List<Object[]> findPrepStatusesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+	// 各商品已送出數量：指定訂單（送單時累加今日儀表板）
+	@Query("SELECT oi.products.id, SUM(oi.quantity) FROM OrderItems oi "
+			+ "WHERE oi.orders.id IN :orderIds GROUP BY oi.products.id")
+	List<Object[]> sumQuantityByProductForOrders(@Param("orderIds") Collection<Long> orderIds);
+
+	// 各商品已送出數量：指定時間內開桌的群組（今日儀表板啟動與跨日時載入）
+	@Query("SELECT oi.products.id, SUM(oi.quantity) FROM OrderItems oi "
+			+ "WHERE oi.orders.status = true "
+			+ "AND oi.orders.orderGroup.createdAt >= :startOfDay AND oi.orders.orderGroup.createdAt < :endOfDay "
+			+ "GROUP BY oi.products.id")
+	List<Object[]> sumSubmittedQuantityByProduct(@Param("startOfDay") LocalDateTime startOfDay,
+			@Param("endOfDay") LocalDateTime endOfDay);
+
+	// 熱門商品啟動載入：指定時間後已送出項目，依日期（yyyyMMdd）與商品加總
+	@Query(value = "SELECT YEAR(oi.created_at) * 10000 + MONTH(oi.created_at) * 100 + DAY(oi.created_at), "
+			+ "oi.product_id, SUM(oi.quantity) "
+			+ "FROM order_items oi JOIN orders o ON o.id = oi.order_id "
+			+ "WHERE o.status = 1 AND oi.created_at >= :since "
+			+ "GROUP BY YEAR(oi.created_at), MONTH(oi.created_at), DAY(oi.created_at), oi.product_id", nativeQuery = true)
+	List<Object[]> sumSubmittedQuantityByDayAndProduct(@Param("since") LocalDateTime since);
+
+	// 熱門商品啟動載入：指定時間後已送出的逐筆項目（建立時間, 商品 ID, 數量）
+	@Query("SELECT oi.createdAt, oi.products.id, oi.quantity FROM OrderItems oi "
+			+ "WHERE oi.orders.status = true AND oi.createdAt >= :since")
+	List<Object[]> findSubmittedQuantitiesSince(@Param("since") LocalDateTime since);
+
 }
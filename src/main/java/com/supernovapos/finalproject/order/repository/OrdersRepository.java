@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.supernovapos.finalproject.order.model.Orders;
+import com.supernovapos.finalproject.order.model.PrepStatus;
 
 public interface OrdersRepository extends JpaRepository<Orders, Long> {
 
@@ -44,9 +45,15 @@ public interface OrdersRepository extends JpaRepository<Orders, Long> {
 
 //	批量更新草稿訂單為已提交
 	@Modifying
-	@Query("update Orders o set o.status = true, o.updatedAt = CURRENT_TIMESTAMP where o.orderGroup.id = :groupId and o.status = false")
+	@Query("update Orders o set o.status = true, o.updatedAt = CURRENT_TIMESTAMP, o.version = o.version + 1 where o.orderGroup.id = :groupId and o.status = false")
 	int updateDraftOrdersToSubmitted(@Param("groupId") UUID groupId);
 
+	// 群組結帳或強制結束時，尚未出餐的訂單一律標記為 SERVED（與 OrderItemsRepository.retireUnservedByGroupId 一起呼叫）
+	@Modifying
+	@Query("update Orders o set o.prepStatus = com.supernovapos.finalproject.order.model.PrepStatus.SERVED, o.version = o.version + 1 "
+			+ "where o.orderGroup.id = :groupId and o.prepStatus <> com.supernovapos.finalproject.order.model.PrepStatus.SERVED")
+	int retireUnservedByGroupId(@Param("groupId") UUID groupId);
+
 	// 查詢臨時用戶的所有訂單（包含訂單項目）
 	@Query("SELECT o FROM Orders o LEFT JOIN FETCH o.orderItems WHERE o.tempUser.id = :tempUserId")
 	List<Orders> findOrdersWithItemsByTempUserId(@Param("tempUserId") UUID tempUserId);
@@ -93,4 +100,37 @@ public interface OrdersRepository extends JpaRepository<Orders, Long> {
 	       "ORDER BY o.createdAt ASC")
 	List<Orders> findAllOrdersByGroupIdWithDetails(@Param("groupId") UUID groupId);
 
+	// 一次載入訂單群組所有草稿訂單（購物車記憶體快取用）
+	@Query("SELECT DISTINCT o FROM Orders o " +
+	       "LEFT JOIN FETCH o.orderItems oi " +
+	       "LEFT JOIN FETCH oi.products p " +
+	       "LEFT JOIN FETCH p.productCategory " +
+	       "LEFT JOIN FETCH o.tempUser " +
+	       "LEFT JOIN FETCH o.user " +
+	       "WHERE o.orderGroup.id = :groupId AND o.status = false " +
+	       "ORDER BY o.createdAt ASC")
+	List<Orders> findDraftOrdersWithDetailsByGroupId(@Param("groupId") UUID groupId);
+
+	// 一次查出訂單群組狀態與已提交訂單明細，直接回傳欄位值不建立實體（購物車狀態用）
+	// 欄位順序見 CartStatusReadModel
+	@Query("SELECT og.id, og.status, og.hasOrder, t.tableId, " +
+	       "o.id, o.totalAmount, o.note, o.createdAt, o.updatedAt, " +
+	       "tu.id, tu.nickname, u.id, u.nickname, " +
+	       "oi.id, oi.quantity, oi.unitPrice, oi.note, oi.createdAt, " +
+	       "p.id, p.name, p.price, p.image " +
+	       "FROM OrderGroup og JOIN og.table t " +
+	       "LEFT JOIN og.orders o ON o.status = true " +
+	       "LEFT JOIN o.tempUser tu " +
+	       "LEFT JOIN o.user u " +
+	       "LEFT JOIN o.orderItems oi " +
+	       "LEFT JOIN oi.products p " +
+	       "WHERE og.id = :groupId AND og.status = true " +
+	       "ORDER BY o.createdAt ASC, oi.id ASC")
+	List<Object[]> findCartStatusRowsByGroupId(@Param("groupId") UUID groupId);
+
+	// 查詢指定訂單群組尚未出餐的已提交訂單 ID（收款前檢查用）
+	@Query("SELECT o.id FROM Orders o WHERE o.orderGroup.id = :groupId AND o.status = true " +
+	       "AND o.prepStatus <> :served ORDER BY o.id ASC")
+	List<Long> findUnservedSubmittedOrderIds(@Param("groupId") UUID groupId, @Param("served") PrepStatus served);
+
 }
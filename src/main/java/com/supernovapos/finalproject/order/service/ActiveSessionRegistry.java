@@ -0,0 +1,147 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+import com.supernovapos.finalproject.order.model.OrderGroup;
+import com.supernovapos.finalproject.order.repository.OrderGroupRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 進行中點餐會話登記表
+ * - 以訂單群組 ID 與桌號索引所有 status = true 的訂單群組，查詢不需掃描歷史資料
+ * - 由 OrderGroupService / OrderService 在交易 commit 後維護，Bean 建立時由資料庫重建
+ * 注意：只適用單節點部署
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActiveSessionRegistry {
+
+	private final OrderGroupRepository orderGroupRepository;
+
+	private final ConcurrentHashMap<UUID, ActiveSession> sessions = new ConcurrentHashMap<>();
+	// key 為桌號（RestaurantTable.tableId）
+	private final ConcurrentHashMap<Integer, UUID> groupByTable = new ConcurrentHashMap<>();
+
+//	Bean 建立時由資料庫重建，確保 Web 伺服器接受請求前登記表已完整
+//	（ApplicationReadyEvent 在開始接受請求之後才發出，期間會誤判沒有進行中的會話）
+//	桌子以 JOIN FETCH 一併載入，不需要交易
+	@PostConstruct
+	void rebuild() {
+		sessions.clear();
+		groupByTable.clear();
+		List<OrderGroup> activeGroups = orderGroupRepository.findAllActiveOrderGroupsWithTable();
+		for (OrderGroup group : activeGroups) {
+			put(new ActiveSession(group));
+		}
+		log.info("已載入進行中點餐會話 {} 筆", activeGroups.size());
+	}
+
+// ================= 查詢 =================
+
+	public Optional<ActiveSession> findByGroupId(UUID groupId) {
+		return Optional.ofNullable(sessions.get(groupId));
+	}
+
+	public Optional<ActiveSession> findByTableNumber(Integer tableNumber) {
+		UUID groupId = groupByTable.get(tableNumber);
+		return groupId != null ? findByGroupId(groupId) : Optional.empty();
+	}
+
+	public boolean isActive(UUID groupId) {
+		return sessions.containsKey(groupId);
+	}
+
+	public Set<UUID> getActiveGroupIds() {
+		return Set.copyOf(sessions.keySet());
+	}
+
+	public List<ActiveSession> getAll() {
+		return new ArrayList<>(sessions.values());
+	}
+
+// ================= 維護（交易 commit 後生效） =================
+
+	public void register(OrderGroup group) {
+		ActiveSession session = new ActiveSession(group);
+		TransactionUtils.afterCommit(() -> put(session));
+	}
+
+	public void markSubmitted(UUID groupId, Integer totalAmount) {
+		TransactionUtils.afterCommit(() -> {
+			ActiveSession session = sessions.get(groupId);
+			if (session != null) {
+				session.hasOrder = true;
+				session.totalAmount = totalAmount;
+			}
+		});
+	}
+
+	public void updateTotal(UUID groupId, Integer totalAmount) {
+		TransactionUtils.afterCommit(() -> {
+			ActiveSession session = sessions.get(groupId);
+			if (session != null) {
+				session.totalAmount = totalAmount;
+			}
+		});
+	}
+
+	public void remove(UUID groupId) {
+		TransactionUtils.afterCommit(() -> {
+			ActiveSession session = sessions.remove(groupId);
+			if (session != null) {
+				groupByTable.remove(session.tableNumber, groupId);
+			}
+		});
+	}
+
+	private void put(ActiveSession session) {
+		sessions.put(session.groupId, session);
+		groupByTable.put(session.tableNumber, session.groupId);
+	}
+
+// ================= 會話資料 =================
+
+	@Getter
+	public static class ActiveSession {
+		private final UUID groupId;
+		private final Integer tableDbId;          // restaurant_table.id
+		private final Integer tableNumber;        // 桌號
+		private final Integer capacity;
+		private final LocalDateTime createdAt;
+		private volatile boolean hasOrder;
+		private volatile Integer totalAmount;
+
+		private ActiveSession(OrderGroup group) {
+			this.groupId = group.getId();
+			this.tableDbId = group.getTable().getId();
+			this.tableNumber = group.getTable().getTableId();
+			this.capacity = group.getTable().getCapacity();
+			this.createdAt = group.getCreatedAt();
+			this.hasOrder = Boolean.TRUE.equals(group.getHasOrder());
+			this.totalAmount = group.getTotalAmount();
+		}
+
+		// 與 OrderGroup 相同的判斷規則（會話仍在登記表中即代表進行中）
+		public boolean canSubmitFirstOrder() {
+			return !hasOrder;
+		}
+
+		public boolean canAddOrder() {
+			return hasOrder;
+		}
+	}
+}
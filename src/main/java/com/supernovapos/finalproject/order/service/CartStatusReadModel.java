@@ -0,0 +1,174 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
+import com.supernovapos.finalproject.order.repository.OrdersRepository;
+import com.supernovapos.finalproject.order.service.DraftCartStore.CartLine;
+import com.supernovapos.finalproject.order.service.DraftCartStore.DraftCart;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 購物車狀態讀取模型
+ * - 已提交訂單：一次查詢取回群組、訂單、項目、商品與暱稱的欄位值，不建立受管理實體
+ * - 購物車（草稿）：直接由 DraftCartStore 的記憶體快照提供
+ * OrderService 與 CartService 的購物車狀態 API 共用此模型
+ */
+@Component
+@RequiredArgsConstructor
+public class CartStatusReadModel {
+
+	private final OrdersRepository ordersRepository;
+	private final DraftCartStore draftCartStore;
+
+	@Transactional(readOnly = true)
+	public CartStatusView load(UUID groupId) {
+		List<Object[]> rows = ordersRepository.findCartStatusRowsByGroupId(groupId);
+		if (rows.isEmpty()) {
+			throw new ResourceNotFoundException("訂單組不存在或已過期");
+		}
+
+		Object[] head = rows.get(0);
+		CartStatusView view = new CartStatusView();
+		view.setGroupId((UUID) head[0]);
+		view.setActive((Boolean) head[1]);
+		view.setHasOrder((Boolean) head[2]);
+		view.setTableId((Integer) head[3]);
+
+		// 已提交訂單：每列為一個訂單項目，依訂單 ID 彙整
+		Map<Long, OrderView> submitted = new LinkedHashMap<>();
+		for (Object[] row : rows) {
+			Long orderId = (Long) row[4];
+			if (orderId == null) {
+				continue;
+			}
+			OrderView order = submitted.get(orderId);
+			if (order == null) {
+				order = new OrderView();
+				order.setOrderId(orderId);
+				order.setTotalAmount((Integer) row[5]);
+				order.setNote((String) row[6]);
+				order.setCreatedAt((LocalDateTime) row[7]);
+				order.setSubmittedAt((LocalDateTime) row[8]);
+				if (row[9] != null) {
+					order.setUserType("TEMP");
+					order.setUserId(row[9].toString());
+					order.setNickname((String) row[10]);
+				} else if (row[11] != null) {
+					order.setUserType("REGISTERED");
+					order.setUserId(row[11].toString());
+					order.setNickname((String) row[12]);
+				}
+				submitted.put(orderId, order);
+			}
+			if (row[13] != null) {
+				ItemView item = new ItemView();
+				item.setId((Long) row[13]);
+				item.setQuantity((Integer) row[14]);
+				item.setUnitPrice((BigDecimal) row[15]);
+				item.setNote((String) row[16]);
+				item.setCreatedAt((LocalDateTime) row[17]);
+				item.setProductId((Integer) row[18]);
+				item.setProductName((String) row[19]);
+				item.setProductPrice((BigDecimal) row[20]);
+				item.setProductImage((String) row[21]);
+				order.getItems().add(item);
+			}
+		}
+		view.setSubmittedOrders(new ArrayList<>(submitted.values()));
+
+		// 購物車：記憶體快照
+		List<OrderView> carts = new ArrayList<>();
+		for (DraftCart cart : draftCartStore.getCarts(groupId)) {
+			carts.add(fromDraft(cart));
+		}
+		view.setCartOrders(carts);
+		return view;
+	}
+
+	private OrderView fromDraft(DraftCart cart) {
+		OrderView order = new OrderView();
+		order.setOrderId(cart.getOrderId());
+		order.setTotalAmount(cart.getTotalAmount());
+		order.setNote(cart.getNote());
+		order.setCreatedAt(cart.getCreatedAt());
+		order.setUserType(cart.getUserType());
+		order.setUserId(cart.getUserId());
+		order.setNickname(cart.getNickname());
+		for (CartLine line : cart.getLines().values()) {
+			ItemView item = new ItemView();
+			item.setId(line.getItemId());
+			item.setQuantity(line.getQuantity());
+			item.setUnitPrice(line.getUnitPrice());
+			item.setNote(line.getNote());
+			item.setCreatedAt(line.getCreatedAt());
+			item.setProductId(line.getProduct().getId());
+			item.setProductName(line.getProduct().getName());
+			item.setProductPrice(line.getProduct().getPrice());
+			item.setProductImage(line.getProduct().getImage());
+			order.getItems().add(item);
+		}
+		return order;
+	}
+
+// ================= 讀取結果 =================
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	public static class CartStatusView {
+		private UUID groupId;
+		private Integer tableId;
+		private boolean active;
+		private boolean hasOrder;
+		private List<OrderView> cartOrders = new ArrayList<>();
+		private List<OrderView> submittedOrders = new ArrayList<>();
+	}
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	public static class OrderView {
+		private Long orderId;
+		private Integer totalAmount;
+		private String note;
+		private LocalDateTime createdAt;
+		private LocalDateTime submittedAt;
+		private String userType;                 // TEMP / REGISTERED，皆無時為 null
+		private String userId;
+		private String nickname;
+		private List<ItemView> items = new ArrayList<>();
+	}
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	public static class ItemView {
+		private Long id;
+		private Integer quantity;
+		private BigDecimal unitPrice;
+		private String note;
+		private LocalDateTime createdAt;
+		private Integer productId;
+		private String productName;
+		private BigDecimal productPrice;
+		private String productImage;
+
+		public BigDecimal getSubtotal() {
+			return unitPrice.multiply(BigDecimal.valueOf(quantity));
+		}
+	}
+}
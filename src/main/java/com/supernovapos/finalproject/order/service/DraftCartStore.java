@@ -0,0 +1,607 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
+import com.supernovapos.finalproject.order.model.OrderItems;
+import com.supernovapos.finalproject.order.model.Orders;
+import com.supernovapos.finalproject.order.model.TempUser;
+import com.supernovapos.finalproject.order.repository.OrdersRepository;
+import com.supernovapos.finalproject.product.model.Products;
+import com.supernovapos.finalproject.product.repository.ProductsRepository;
+import com.supernovapos.finalproject.user.model.entity.User;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 草稿購物車記憶體快取（write-behind）
+ * - 以訂單群組為單位，保存所有 status = false 的訂單與項目
+ * - 購物車讀取與異動都在記憶體完成，由排程合併後批次寫回 orders / order_items
+ * - 首次送單、結帳與關機時同步寫回
+ * 注意：只適用單節點部署
+ */
+@Slf4j
+@Component
+public class DraftCartStore {
+
+	// 訂單列連續幾次寫回都找不到時放棄該購物車（剛建立尚未 commit 的列通常下一次就可見）
+	private static final int MAX_MISSING_FLUSHES = 3;
+
+	private final OrdersRepository ordersRepository;
+	private final ProductsRepository productsRepository;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${order.cart.idle-evict-minutes:30}")
+	private long idleEvictMinutes;
+
+	private final ConcurrentHashMap<UUID, GroupCarts> groups = new ConcurrentHashMap<>();
+
+	public DraftCartStore(OrdersRepository ordersRepository, ProductsRepository productsRepository,
+			PlatformTransactionManager transactionManager) {
+		this.ordersRepository = ordersRepository;
+		this.productsRepository = productsRepository;
+		// 寫回一律開新交易，不受呼叫端交易回滾影響
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+// ================= 讀取 =================
+
+//	取得用戶購物車快照，不存在時回傳 null
+	public DraftCart find(UUID groupId, String userType, Object userId) {
+		return withGroup(groupId, group -> {
+			group.touch();
+			DraftCart cart = group.carts.get(ownerKey(userType, userId));
+			return cart != null ? cart.copy() : null;
+		});
+	}
+
+//	取得訂單群組所有購物車快照（依建立時間排序）
+	public List<DraftCart> getCarts(UUID groupId) {
+		return withGroup(groupId, group -> {
+			group.touch();
+			List<DraftCart> carts = new ArrayList<>(group.carts.size());
+			for (DraftCart cart : group.carts.values()) {
+				carts.add(cart.copy());
+			}
+			return carts;
+		});
+	}
+
+//	取得已在記憶體中的購物車快照；不從資料庫載入、不更新閒置時間，未載入時回傳空清單
+	public List<DraftCart> peekCarts(UUID groupId) {
+		GroupCarts group = groups.get(groupId);
+		if (group == null) {
+			return List.of();
+		}
+		synchronized (group) {
+			if (group.removed) {
+				return List.of();
+			}
+			List<DraftCart> carts = new ArrayList<>(group.carts.size());
+			for (DraftCart cart : group.carts.values()) {
+				carts.add(cart.copy());
+			}
+			return carts;
+		}
+	}
+
+// ================= 異動 =================
+
+//	登記剛建立的購物車（訂單列已存在於資料庫）
+	public DraftCart register(UUID groupId, Orders order) {
+		DraftCart created = DraftCart.from(order);
+		return withGroup(groupId, group -> {
+			group.touch();
+			DraftCart existing = group.carts.putIfAbsent(created.ownerKey(), created);
+			return existing != null ? existing.copy() : created.copy();
+		});
+	}
+
+//	加入商品，已存在則累加數量
+	public void addItem(UUID groupId, String ownerKey, Products product, int quantity, String note) {
+		withGroup(groupId, group -> {
+			DraftCart cart = requireCart(group, ownerKey);
+			CartLine line = cart.lines.get(product.getId());
+			if (line != null) {
+				line.quantity += quantity;
+				cart.totalAmount += quantity * line.unitPrice.intValue();
+			} else {
+				line = new CartLine();
+				line.product = product;
+				line.quantity = quantity;
+				line.unitPrice = product.getPrice();
+				line.note = note;
+				line.createdAt = LocalDateTime.now();
+				cart.lines.put(product.getId(), line);
+				cart.totalAmount += line.amount();
+			}
+			cart.changed();
+			group.touch();
+			return null;
+		});
+	}
+
+//	更新商品數量與備註，找不到商品回傳 false
+	public boolean updateItem(UUID groupId, String ownerKey, Integer productId, int quantity, String note) {
+		return withGroup(groupId, group -> {
+			DraftCart cart = requireCart(group, ownerKey);
+			CartLine line = cart.lines.get(productId);
+			if (line == null) {
+				return false;
+			}
+			cart.totalAmount += (quantity - line.quantity) * line.unitPrice.intValue();
+			line.quantity = quantity;
+			line.note = note;
+			cart.changed();
+			group.touch();
+			return true;
+		});
+	}
+
+//	移除商品，找不到商品回傳 false
+	public boolean removeItem(UUID groupId, String ownerKey, Integer productId) {
+		return withGroup(groupId, group -> {
+			DraftCart cart = requireCart(group, ownerKey);
+			CartLine removed = cart.lines.remove(productId);
+			if (removed == null) {
+				return false;
+			}
+			cart.totalAmount -= removed.amount();
+			cart.changed();
+			group.touch();
+			return true;
+		});
+	}
+
+//	清空購物車
+	public void clear(UUID groupId, String ownerKey) {
+		withGroup(groupId, group -> {
+			DraftCart cart = requireCart(group, ownerKey);
+			cart.lines.clear();
+			cart.totalAmount = 0;
+			cart.changed();
+			group.touch();
+			return null;
+		});
+	}
+
+// ================= 寫回 =================
+
+//	同步寫回指定訂單群組的異動
+	public void flushGroup(UUID groupId) {
+		GroupCarts group = groups.get(groupId);
+		if (group != null) {
+			flush(groupId, group);
+		}
+	}
+
+//	寫回並移出記憶體（送單、結帳後草稿不再由快取負責）
+	public void evict(UUID groupId) {
+		GroupCarts group = groups.get(groupId);
+		if (group == null) {
+			return;
+		}
+		group.flushLock.lock();
+		try {
+			// 寫回期間可能又有異動，寫到乾淨為止才移除
+			do {
+				flush(groupId, group);
+			} while (!tryRemove(groupId, group, Long.MAX_VALUE));
+		} finally {
+			group.flushLock.unlock();
+		}
+	}
+
+//	定期合併寫回，並移除閒置的訂單群組
+	@Scheduled(fixedDelayString = "${order.cart.flush-interval-ms:2000}")
+	public void flushDirty() {
+		long idleBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictMinutes);
+		for (Map.Entry<UUID, GroupCarts> entry : groups.entrySet()) {
+			GroupCarts group = entry.getValue();
+			try {
+				flush(entry.getKey(), group);
+			} catch (RuntimeException e) {
+				log.error("購物車寫回失敗, groupId={}", entry.getKey(), e);
+				continue;
+			}
+			group.flushLock.lock();
+			try {
+				tryRemove(entry.getKey(), group, idleBefore);
+			} finally {
+				group.flushLock.unlock();
+			}
+		}
+	}
+
+//	關機前全部寫回
+	@PreDestroy
+	public void flushAll() {
+		for (Map.Entry<UUID, GroupCarts> entry : groups.entrySet()) {
+			try {
+				flush(entry.getKey(), entry.getValue());
+			} catch (RuntimeException e) {
+				log.error("關機寫回購物車失敗, groupId={}", entry.getKey(), e);
+			}
+		}
+	}
+
+//	將快照轉成 Orders 檢視（沿用原本回傳 Orders 的介面，非受管理實體）
+	public Orders toOrders(DraftCart cart) {
+		Orders view = new Orders();
+		view.setId(cart.orderId);
+		view.setStatus(false);
+		view.setNote(cart.note);
+		view.setCreatedAt(cart.createdAt);
+		view.setTotalAmount(cart.getTotalAmount());
+		if ("TEMP".equals(cart.userType)) {
+			TempUser tempUser = new TempUser();
+			tempUser.setId(UUID.fromString(cart.userId));
+			tempUser.setNickname(cart.nickname);
+			view.setTempUser(tempUser);
+		} else if ("REGISTERED".equals(cart.userType)) {
+			User user = new User();
+			user.setId(Long.valueOf(cart.userId));
+			user.setNickname(cart.nickname);
+			view.setUser(user);
+		}
+		List<OrderItems> items = new ArrayList<>(cart.lines.size());
+		for (CartLine line : cart.lines.values()) {
+			OrderItems item = new OrderItems();
+			item.setId(line.itemId);
+			item.setOrders(view);
+			item.setProducts(line.product);
+			item.setQuantity(line.quantity);
+			item.setUnitPrice(line.unitPrice);
+			item.setSubtotal(line.getSubtotal());
+			item.setNote(line.note);
+			item.setCreatedAt(line.createdAt);
+			items.add(item);
+		}
+		view.setOrderItems(items);
+		return view;
+	}
+
+	public static String ownerKey(String userType, Object userId) {
+		return userType + ":" + userId;
+	}
+
+// ================= 內部方法 =================
+
+//	在訂單群組的鎖內執行；群組已被移出記憶體時重新取得，避免異動寫到沒人寫回的舊物件
+	private <T> T withGroup(UUID groupId, Function<GroupCarts, T> action) {
+		while (true) {
+			GroupCarts group = getOrLoad(groupId);
+			synchronized (group) {
+				if (!group.removed) {
+					return action.apply(group);
+				}
+			}
+		}
+	}
+
+//	沒有待寫回且閒置超過期限時移出記憶體（需持有 flushLock，確保沒有寫回進行中）
+	private boolean tryRemove(UUID groupId, GroupCarts group, long idleBefore) {
+		synchronized (group) {
+			if (group.hasDirty() || group.lastAccess >= idleBefore) {
+				return false;
+			}
+			group.removed = true;
+			groups.remove(groupId, group);
+			return true;
+		}
+	}
+
+	private GroupCarts getOrLoad(UUID groupId) {
+		GroupCarts group = groups.get(groupId);
+		if (group != null) {
+			return group;
+		}
+		// 不在 computeIfAbsent 中查資料庫，避免長時間佔用 map 的分段鎖
+		GroupCarts loaded = load(groupId);
+		GroupCarts existing = groups.putIfAbsent(groupId, loaded);
+		return existing != null ? existing : loaded;
+	}
+
+	private GroupCarts load(UUID groupId) {
+		List<Orders> drafts = ordersRepository.findDraftOrdersWithDetailsByGroupId(groupId);
+		GroupCarts group = new GroupCarts();
+		for (Orders order : drafts) {
+			DraftCart cart = DraftCart.from(order);
+			group.carts.putIfAbsent(cart.ownerKey(), cart);
+		}
+		return group;
+	}
+
+	private DraftCart requireCart(GroupCarts group, String ownerKey) {
+		DraftCart cart = group.carts.get(ownerKey);
+		if (cart == null) {
+			throw new ResourceNotFoundException("購物車不存在");
+		}
+		return cart;
+	}
+
+	private void flush(UUID groupId, GroupCarts group) {
+		group.flushLock.lock();
+		try {
+			List<DraftCart> pending = new ArrayList<>();
+			synchronized (group) {
+				for (DraftCart cart : group.carts.values()) {
+					if (cart.dirty) {
+						cart.dirty = false;
+						pending.add(cart.copy());
+					}
+				}
+			}
+			if (pending.isEmpty()) {
+				return;
+			}
+
+			Map<Long, Map<Integer, Long>> savedIds;
+			try {
+				savedIds = transactionTemplate.execute(status -> {
+					Map<Long, Map<Integer, Long>> ids = new HashMap<>();
+					for (DraftCart cart : pending) {
+						ids.put(cart.orderId, persist(cart));
+					}
+					return ids;
+				});
+			} catch (RuntimeException e) {
+				// 寫回失敗，重新標記待寫回
+				synchronized (group) {
+					for (DraftCart cart : pending) {
+						DraftCart current = group.carts.get(cart.ownerKey());
+						if (current != null) {
+							current.dirty = true;
+						}
+					}
+				}
+				throw e;
+			}
+
+			// 回填項目 id（合併重複列後可能改變）；訂單列尚未可見者留待下次寫回
+			synchronized (group) {
+				for (DraftCart cart : pending) {
+					DraftCart current = group.carts.get(cart.ownerKey());
+					if (current == null) {
+						continue;
+					}
+					Map<Integer, Long> ids = savedIds.get(cart.orderId);
+					if (ids == null) {
+						// 訂單列可能已被刪除（例如臨時用戶刪除時串聯刪除），重試有限次數後移除購物車，
+						// 否則 evict 會一直寫不乾淨
+						if (++current.missingFlushes >= MAX_MISSING_FLUSHES) {
+							log.warn("草稿訂單列不存在，移除購物車, groupId={}, orderId={}", groupId, cart.orderId);
+							group.carts.remove(cart.ownerKey(), current);
+						} else {
+							current.dirty = true;
+						}
+						continue;
+					}
+					current.missingFlushes = 0;
+					for (Map.Entry<Integer, Long> id : ids.entrySet()) {
+						CartLine line = current.lines.get(id.getKey());
+						if (line != null) {
+							line.itemId = id.getValue();
+						}
+					}
+				}
+			}
+		} finally {
+			group.flushLock.unlock();
+		}
+	}
+
+//	比對資料庫與快照，只寫入差異；回傳 null 表示訂單列尚未可見
+	private Map<Integer, Long> persist(DraftCart cart) {
+		Map<Integer, Long> ids = new HashMap<>();
+		Orders order = ordersRepository.findById(cart.orderId).orElse(null);
+		if (order == null) {
+			return null;
+		}
+		if (Boolean.TRUE.equals(order.getStatus())) {
+			// 已送出或已刪除的訂單不再覆寫
+			log.warn("略過寫回非草稿訂單, orderId={}", cart.orderId);
+			return ids;
+		}
+		if (order.getOrderItems() == null) {
+			order.setOrderItems(new ArrayList<>());
+		}
+
+		Map<Integer, OrderItems> existing = new HashMap<>();
+		for (Iterator<OrderItems> it = order.getOrderItems().iterator(); it.hasNext();) {
+			OrderItems item = it.next();
+			Integer productId = item.getProducts().getId();
+			// 同一商品的重複列已在載入時合併，只保留第一列
+			if (!cart.lines.containsKey(productId) || existing.containsKey(productId)) {
+				it.remove();
+			} else {
+				existing.put(productId, item);
+			}
+		}
+
+		for (CartLine line : cart.lines.values()) {
+			OrderItems item = existing.get(line.product.getId());
+			if (item == null) {
+				item = new OrderItems();
+				item.setOrders(order);
+				item.setProducts(productsRepository.getReferenceById(line.product.getId()));
+				item.setUnitPrice(line.unitPrice);
+				order.getOrderItems().add(item);
+			}
+			item.setQuantity(line.quantity);
+			item.setNote(line.note);
+		}
+
+		order.setTotalAmount(cart.getTotalAmount());
+		ordersRepository.saveAndFlush(order);
+
+		for (OrderItems item : order.getOrderItems()) {
+			ids.put(item.getProducts().getId(), item.getId());
+		}
+		return ids;
+	}
+
+// ================= 快取結構 =================
+
+	private static class GroupCarts {
+		private final LinkedHashMap<String, DraftCart> carts = new LinkedHashMap<>();
+		private final ReentrantLock flushLock = new ReentrantLock();
+		private volatile long lastAccess = System.currentTimeMillis();
+		// 以 this 同步；已移出 groups 的物件不可再異動
+		private boolean removed;
+
+		private void touch() {
+			lastAccess = System.currentTimeMillis();
+		}
+
+		private synchronized boolean hasDirty() {
+			for (DraftCart cart : carts.values()) {
+				if (cart.dirty) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	@Getter
+	public static class DraftCart {
+		private Long orderId;
+		private String userType;
+		private String userId;
+		private String nickname;
+		private String note;
+		private LocalDateTime createdAt;
+		private final LinkedHashMap<Integer, CartLine> lines = new LinkedHashMap<>();
+		// 依每次異動的差額維護，不再逐項加總
+		private int totalAmount;
+		private boolean dirty;
+		// 連續寫回找不到訂單列的次數
+		private int missingFlushes;
+
+		private static DraftCart from(Orders order) {
+			DraftCart cart = new DraftCart();
+			cart.orderId = order.getId();
+			cart.note = order.getNote();
+			cart.createdAt = order.getCreatedAt();
+			cart.totalAmount = order.getTotalAmount() != null ? order.getTotalAmount() : 0;
+			if (order.getTempUser() != null) {
+				cart.userType = "TEMP";
+				cart.userId = order.getTempUser().getId().toString();
+				cart.nickname = order.getTempUser().getNickname();
+			} else if (order.getUser() != null) {
+				cart.userType = "REGISTERED";
+				cart.userId = order.getUser().getId().toString();
+				cart.nickname = order.getUser().getNickname();
+			}
+			if (order.getOrderItems() != null) {
+				for (OrderItems item : order.getOrderItems()) {
+					CartLine existing = cart.lines.get(item.getProducts().getId());
+					if (existing != null) {
+						// 同一商品有多列草稿：數量合併到第一列並標記待寫回，寫回時刪除多餘的列
+						log.warn("草稿訂單有重複商品列，合併數量, orderId={}, productId={}",
+								order.getId(), item.getProducts().getId());
+						existing.quantity += item.getQuantity();
+						cart.dirty = true;
+						continue;
+					}
+					CartLine line = new CartLine();
+					line.itemId = item.getId();
+					line.product = item.getProducts();
+					line.quantity = item.getQuantity();
+					line.unitPrice = item.getUnitPrice();
+					line.note = item.getNote();
+					line.createdAt = item.getCreatedAt();
+					cart.lines.put(item.getProducts().getId(), line);
+				}
+			}
+			if (cart.dirty) {
+				// 合併後以第一列單價重算總額
+				cart.totalAmount = 0;
+				for (CartLine line : cart.lines.values()) {
+					cart.totalAmount += line.amount();
+				}
+			}
+			return cart;
+		}
+
+		public String ownerKey() {
+			return DraftCartStore.ownerKey(userType, userId);
+		}
+
+		private void changed() {
+			dirty = true;
+		}
+
+		private DraftCart copy() {
+			DraftCart copy = new DraftCart();
+			copy.orderId = orderId;
+			copy.userType = userType;
+			copy.userId = userId;
+			copy.nickname = nickname;
+			copy.note = note;
+			copy.createdAt = createdAt;
+			copy.totalAmount = totalAmount;
+			copy.dirty = dirty;
+			for (Map.Entry<Integer, CartLine> entry : lines.entrySet()) {
+				copy.lines.put(entry.getKey(), entry.getValue().copy());
+			}
+			return copy;
+		}
+
+		public boolean isEmpty() {
+			return lines.isEmpty();
+		}
+	}
+
+	@Getter
+	public static class CartLine {
+		private Long itemId;
+		private Products product;
+		private int quantity;
+		private BigDecimal unitPrice;
+		private String note;
+		private LocalDateTime createdAt;
+
+		private int amount() {
+			return quantity * unitPrice.intValue();
+		}
+
+		public BigDecimal getSubtotal() {
+			return unitPrice.multiply(BigDecimal.valueOf(quantity));
+		}
+
+		private CartLine copy() {
+			CartLine copy = new CartLine();
+			copy.itemId = itemId;
+			copy.product = product;
+			copy.quantity = quantity;
+			copy.unitPrice = unitPrice;
+			copy.note = note;
+			copy.createdAt = createdAt;
+			return copy;
+		}
+	}
+}
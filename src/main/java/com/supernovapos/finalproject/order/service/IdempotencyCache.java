@@ -0,0 +1,223 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supernovapos.finalproject.common.exception.ConflictException;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.order.dto.IdempotencyStatsDto;
+
+/**
+ * 重送請求快取（Idempotency-Key）
+ * - 同一個 key 的請求只執行一次，之後的重送直接回傳第一次的成功結果，不再碰資料庫
+ * - 保存的是回應狀態碼、標頭與序列化後的 JSON，不保留實體物件；重送時由 JSON 重建回應內容
+ * - 第一次還在處理中時，重送請求會等待同一個結果
+ * - 只保存成功（2xx）的回應；失敗時移除紀錄，允許重新執行
+ * - 有筆數上限與保存時間，超過上限時移除最早的紀錄
+ */
+@Component
+public class IdempotencyCache {
+
+	public static final String HEADER = "Idempotency-Key";
+	private static final int MAX_KEY_LENGTH = 128;
+
+	private final ObjectMapper objectMapper;
+	private final int maxEntries;
+	private final long ttlMillis;
+	private final long waitMillis;
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	// 依寫入順序記錄，超過上限時由最舊的開始移除
+	private final ConcurrentLinkedQueue<Map.Entry<String, Entry>> insertionOrder = new ConcurrentLinkedQueue<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	// 等待中的重送請求得到第一次執行的錯誤（不計入 hits）
+	private final LongAdder errorReplays = new LongAdder();
+
+	public IdempotencyCache(ObjectMapper objectMapper,
+			@Value("${order.idempotency.max-entries:10000}") int maxEntries,
+			@Value("${order.idempotency.ttl-seconds:600}") long ttlSeconds,
+			@Value("${order.idempotency.wait-ms:5000}") long waitMillis) {
+		this.objectMapper = objectMapper;
+		this.maxEntries = maxEntries;
+		this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+		this.waitMillis = waitMillis;
+	}
+
+	/**
+	 * 以 Idempotency-Key 執行請求
+	 *
+	 * @param key     請求標頭的 Idempotency-Key，空白時直接執行
+	 * @param scope   請求範圍（API 與用戶），不同範圍的相同 key 互不影響
+	 * @param body    請求內容，同一個 key 搭配不同內容視為錯誤
+	 * @param action  實際執行的動作
+	 */
+	public <T> ResponseEntity<T> execute(String key, String scope, Object body, Supplier<ResponseEntity<T>> action) {
+		if (key == null || key.isBlank()) {
+			return action.get();
+		}
+		if (key.length() > MAX_KEY_LENGTH) {
+			throw new InvalidRequestException(HEADER + " 長度不可超過 " + MAX_KEY_LENGTH);
+		}
+
+		String cacheKey = scope + "|" + key;
+		String fingerprint = fingerprint(body);
+		long now = System.currentTimeMillis();
+		Entry created = new Entry(fingerprint, now + ttlMillis);
+		Entry entry = entries.compute(cacheKey, (k, old) -> old == null || old.isExpired(now) ? created : old);
+
+		if (entry != created) {
+			if (!entry.fingerprint.equals(fingerprint)) {
+				throw new ConflictException(HEADER + " 已用於不同的請求內容");
+			}
+			ResponseEntity<T> replay = replay(await(entry));
+			hits.increment();
+			return replay;
+		}
+
+		misses.increment();
+		insertionOrder.add(Map.entry(cacheKey, created));
+		try {
+			ResponseEntity<T> response = action.get();
+			if (!response.getStatusCode().is2xxSuccessful()) {
+				entries.remove(cacheKey, created);
+			}
+			complete(created, response);
+			evictOverflow();
+			return response;
+		} catch (RuntimeException e) {
+			entries.remove(cacheKey, created);
+			created.result.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	public IdempotencyStatsDto getStats() {
+		long hitCount = hits.sum();
+		long missCount = misses.sum();
+		long total = hitCount + missCount;
+		return new IdempotencyStatsDto(hitCount, missCount, errorReplays.sum(), evictions.sum(), entries.size(), maxEntries,
+				TimeUnit.MILLISECONDS.toSeconds(ttlMillis), total == 0 ? 0.0 : (double) hitCount / total);
+	}
+
+//	定期移除過期紀錄
+	@Scheduled(fixedDelayString = "${order.idempotency.sweep-interval-ms:60000}")
+	public void sweepExpired() {
+		long now = System.currentTimeMillis();
+		insertionOrder.removeIf(e -> {
+			if (e.getValue().isExpired(now)) {
+				entries.remove(e.getKey(), e.getValue());
+				return true;
+			}
+			return false;
+		});
+	}
+
+// ================= 內部方法 =================
+
+	private Snapshot await(Entry entry) {
+		try {
+			return entry.result.get(waitMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new ConflictException("相同請求處理中，請稍後再試");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConflictException("相同請求處理中，請稍後再試");
+		} catch (ExecutionException e) {
+			// 第一次執行失敗，重送請求得到相同的錯誤
+			errorReplays.increment();
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+//	第一次的回應立即序列化保存，不持有回應物件（可能含 JPA 實體與延遲載入的關聯）
+	private void complete(Entry entry, ResponseEntity<?> response) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(response.getHeaders());
+		try {
+			byte[] body = response.hasBody() ? objectMapper.writeValueAsBytes(response.getBody()) : null;
+			entry.result.complete(new Snapshot(response.getStatusCode(), headers, body));
+		} catch (JsonProcessingException e) {
+			// 請求已執行成功，保留紀錄避免重送時重複執行，只是無法重播內容
+			entry.result.completeExceptionally(new ConflictException(HEADER + " 對應的請求已完成，但無法重播回應內容"));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> ResponseEntity<T> replay(Snapshot snapshot) {
+		Object body = null;
+		if (snapshot.body() != null) {
+			try {
+				body = objectMapper.readValue(snapshot.body(), Object.class);
+			} catch (IOException e) {
+				throw new IllegalStateException("無法重建重送請求的回應內容", e);
+			}
+		}
+		ResponseEntity<?> response = ResponseEntity.status(snapshot.status()).headers(snapshot.headers()).body(body);
+		return (ResponseEntity<T>) response;
+	}
+
+	private void evictOverflow() {
+		while (entries.size() > maxEntries) {
+			Map.Entry<String, Entry> oldest = insertionOrder.poll();
+			if (oldest == null) {
+				return;
+			}
+			if (entries.remove(oldest.getKey(), oldest.getValue())) {
+				evictions.increment();
+			}
+		}
+	}
+
+	private String fingerprint(Object body) {
+		if (body == null) {
+			return "";
+		}
+		try {
+			return DigestUtils.sha256Hex(objectMapper.writeValueAsBytes(body));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("無法計算請求內容摘要", e);
+		}
+	}
+
+	private static class Entry {
+		private final String fingerprint;
+		private final long expiresAt;
+		private final CompletableFuture<Snapshot> result = new CompletableFuture<>();
+
+		private Entry(String fingerprint, long expiresAt) {
+			this.fingerprint = fingerprint;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now > expiresAt;
+		}
+	}
+
+	private record Snapshot(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+	}
+}
@@ -0,0 +1,285 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+import com.supernovapos.finalproject.order.dto.KitchenEventDto;
+import com.supernovapos.finalproject.order.dto.KitchenItemDto;
+import com.supernovapos.finalproject.order.dto.KitchenOrderDto;
+import com.supernovapos.finalproject.order.dto.KitchenSnapshotDto;
+import com.supernovapos.finalproject.order.model.OrderGroup;
+import com.supernovapos.finalproject.order.model.OrderItems;
+import com.supernovapos.finalproject.order.model.Orders;
+import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
+import com.supernovapos.finalproject.product.model.ProductCategory;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 廚房看板推播
+ * - 全部事件推到 /topic/kitchen/all，各出餐站（商品分類）只收到自己的餐點：/topic/kitchen/{stationId}
+ * - 每個 topic 各自遞增 seq，前端發現序號不連續時呼叫快照 API 重新同步
+ * - 交易中產生的事件於 commit 後才送出
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KitchenFeedService {
+
+	public static final String TOPIC_PREFIX = "/topic/kitchen/";
+	public static final String ALL_STATIONS = "all";
+	// 沒有分類的商品歸到 0 號出餐站
+	static final int UNASSIGNED_STATION = 0;
+
+	private final SimpMessagingTemplate messagingTemplate;
+	private final OrderItemsRepository orderItemsRepository;
+
+	private final ConcurrentHashMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+// ================= 事件 =================
+
+//	首次送單：推送本次送出的所有訂單
+	public void publishOrdersSubmitted(OrderGroup group, List<Long> orderIds) {
+		if (orderIds.isEmpty()) {
+			return;
+		}
+		List<KitchenOrderDto> orders = toKitchenOrders(orderItemsRepository.findKitchenItemsByOrderIds(orderIds), group);
+		publishOrders(KitchenEventDto.ORDER_SUBMITTED, group, orders);
+	}
+
+//	加點：推送新增的訂單
+	public void publishItemsAdded(OrderGroup group, Orders order) {
+		publishOrders(KitchenEventDto.ITEMS_ADDED, group, toKitchenOrders(order.getOrderItems(), group));
+	}
+
+//	切換出餐狀態：推送給該訂單涉及的出餐站
+	public void publishServedToggled(Orders order, boolean served) {
+		UUID groupId = order.getOrderGroup().getId();
+		Integer tableId = tableIdOf(order.getOrderGroup());
+		Set<String> stations = toStations(orderItemsRepository.findStationIdsByOrderId(order.getId()));
+		TransactionUtils.afterCommit(() -> {
+			for (String station : withAll(stations)) {
+				KitchenEventDto event = newEvent(KitchenEventDto.SERVED_TOGGLED, station, groupId, tableId);
+				event.setOrderId(order.getId());
+				event.setServed(served);
+				send(station, event);
+			}
+		});
+	}
+
+//	項目出餐狀態變更：各出餐站只收到自己的項目
+	public void publishPrepStatusChanged(OrderGroup group, List<OrderItems> items) {
+		if (items.isEmpty()) {
+			return;
+		}
+		List<KitchenItemDto> itemDtos = new ArrayList<>();
+		Set<String> stations = new LinkedHashSet<>();
+		for (OrderItems item : items) {
+			KitchenItemDto itemDto = toKitchenItem(item);
+			itemDtos.add(itemDto);
+			stations.add(String.valueOf(itemDto.getStationId()));
+		}
+		UUID groupId = group.getId();
+		Integer tableId = tableIdOf(group);
+		TransactionUtils.afterCommit(() -> {
+			for (String station : withAll(stations)) {
+				KitchenEventDto event = newEvent(KitchenEventDto.PREP_STATUS_CHANGED, station, groupId, tableId);
+				event.setItems(ALL_STATIONS.equals(station) ? itemDtos : filterStationItems(itemDtos, station));
+				send(station, event);
+			}
+		});
+	}
+
+//	結帳完成：通知各出餐站移除整桌
+	public void publishGroupCompleted(OrderGroup group) {
+		UUID groupId = group.getId();
+		Integer tableId = tableIdOf(group);
+		Set<String> stations = toStations(orderItemsRepository.findStationIdsByGroupId(groupId));
+		TransactionUtils.afterCommit(() -> {
+			for (String station : withAll(stations)) {
+				send(station, newEvent(KitchenEventDto.GROUP_COMPLETED, station, groupId, tableId));
+			}
+		});
+	}
+
+// ================= 快照 =================
+
+//	取得目前看板快照（先取序號再查詢，之後的事件可能重複，前端以訂單 ID 去重）
+	@Transactional(readOnly = true)
+	public KitchenSnapshotDto getSnapshot(String station) {
+		String key = station == null || station.isBlank() ? ALL_STATIONS : station;
+
+		KitchenSnapshotDto snapshot = new KitchenSnapshotDto();
+		snapshot.setStation(key);
+		snapshot.setSeq(sequence(key).get());
+
+		List<KitchenOrderDto> orders = toKitchenOrders(orderItemsRepository.findActiveKitchenItems(), null);
+		snapshot.setOrders(ALL_STATIONS.equals(key) ? orders : filterStation(orders, key));
+		return snapshot;
+	}
+
+// ================= 內部方法 =================
+
+	private void publishOrders(String type, OrderGroup group, List<KitchenOrderDto> orders) {
+		if (orders.isEmpty()) {
+			return;
+		}
+		Set<String> stations = new LinkedHashSet<>();
+		for (KitchenOrderDto order : orders) {
+			for (KitchenItemDto item : order.getItems()) {
+				stations.add(String.valueOf(item.getStationId()));
+			}
+		}
+		UUID groupId = group.getId();
+		Integer tableId = tableIdOf(group);
+		TransactionUtils.afterCommit(() -> {
+			for (String station : withAll(stations)) {
+				KitchenEventDto event = newEvent(type, station, groupId, tableId);
+				event.setOrders(ALL_STATIONS.equals(station) ? orders : filterStation(orders, station));
+				send(station, event);
+			}
+		});
+	}
+
+	private KitchenEventDto newEvent(String type, String station, UUID groupId, Integer tableId) {
+		KitchenEventDto event = new KitchenEventDto();
+		event.setType(type);
+		event.setStation(station);
+		event.setGroupId(groupId);
+		event.setTableId(tableId);
+		event.setOccurredAt(LocalDateTime.now());
+		return event;
+	}
+
+//	同一 topic 的配號與送出必須一起完成，確保前端收到的序號是遞增的
+	private void send(String station, KitchenEventDto event) {
+		AtomicLong seq = sequence(station);
+		try {
+			synchronized (seq) {
+				event.setSeq(seq.incrementAndGet());
+				messagingTemplate.convertAndSend(TOPIC_PREFIX + station, event);
+			}
+		} catch (RuntimeException e) {
+			// 推播失敗不影響交易結果，前端會因序號不連續而重新取得快照
+			log.warn("廚房看板推播失敗, station={}, type={}", station, event.getType(), e);
+		}
+	}
+
+	private AtomicLong sequence(String station) {
+		return sequences.computeIfAbsent(station, k -> new AtomicLong());
+	}
+
+	private List<KitchenOrderDto> toKitchenOrders(Collection<OrderItems> items, OrderGroup group) {
+		Map<Long, KitchenOrderDto> orders = new LinkedHashMap<>();
+		if (items == null) {
+			return new ArrayList<>();
+		}
+		for (OrderItems item : items) {
+			Orders order = item.getOrders();
+			KitchenOrderDto dto = orders.get(order.getId());
+			if (dto == null) {
+				OrderGroup orderGroup = group != null ? group : order.getOrderGroup();
+				dto = new KitchenOrderDto();
+				dto.setOrderId(order.getId());
+				dto.setGroupId(orderGroup.getId());
+				dto.setTableId(tableIdOf(orderGroup));
+				dto.setTotal(order.getTotalAmount());
+				dto.setServed(order.isServed());
+				dto.setPrepStatus(order.getPrepStatus());
+				dto.setNote(order.getNote());
+				dto.setCreatedAt(order.getCreatedAt());
+				orders.put(order.getId(), dto);
+			}
+
+			dto.getItems().add(toKitchenItem(item));
+		}
+		return new ArrayList<>(orders.values());
+	}
+
+	private KitchenItemDto toKitchenItem(OrderItems item) {
+		KitchenItemDto itemDto = new KitchenItemDto();
+		itemDto.setId(item.getId());
+		itemDto.setProductId(item.getProducts().getId());
+		itemDto.setProductName(item.getProducts().getName());
+		itemDto.setStationId(stationOf(item.getProducts().getProductCategory()));
+		itemDto.setQuantity(item.getQuantity());
+		itemDto.setNote(item.getNote());
+		itemDto.setPrepStatus(item.getPrepStatus());
+		return itemDto;
+	}
+
+	private List<KitchenOrderDto> filterStation(List<KitchenOrderDto> orders, String station) {
+		List<KitchenOrderDto> filtered = new ArrayList<>();
+		for (KitchenOrderDto order : orders) {
+			List<KitchenItemDto> items = new ArrayList<>();
+			for (KitchenItemDto item : order.getItems()) {
+				if (station.equals(String.valueOf(item.getStationId()))) {
+					items.add(item);
+				}
+			}
+			if (items.isEmpty()) {
+				continue;
+			}
+			KitchenOrderDto copy = new KitchenOrderDto();
+			copy.setOrderId(order.getOrderId());
+			copy.setGroupId(order.getGroupId());
+			copy.setTableId(order.getTableId());
+			copy.setTotal(order.getTotal());
+			copy.setServed(order.isServed());
+			copy.setPrepStatus(order.getPrepStatus());
+			copy.setNote(order.getNote());
+			copy.setCreatedAt(order.getCreatedAt());
+			copy.setItems(items);
+			filtered.add(copy);
+		}
+		return filtered;
+	}
+
+	private List<KitchenItemDto> filterStationItems(List<KitchenItemDto> items, String station) {
+		List<KitchenItemDto> filtered = new ArrayList<>();
+		for (KitchenItemDto item : items) {
+			if (station.equals(String.valueOf(item.getStationId()))) {
+				filtered.add(item);
+			}
+		}
+		return filtered;
+	}
+
+	private Set<String> toStations(List<Integer> stationIds) {
+		Set<String> stations = new LinkedHashSet<>();
+		for (Integer id : stationIds) {
+			stations.add(String.valueOf(id != null ? id : UNASSIGNED_STATION));
+		}
+		return stations;
+	}
+
+	private List<String> withAll(Set<String> stations) {
+		List<String> targets = new ArrayList<>(stations.size() + 1);
+		targets.add(ALL_STATIONS);
+		targets.addAll(stations);
+		return targets;
+	}
+
+	private Integer tableIdOf(OrderGroup group) {
+		return group.getTable() != null ? group.getTable().getTableId() : null;
+	}
+
+	static Integer stationOf(ProductCategory category) {
+		return category != null ? category.getId() : UNASSIGNED_STATION;
+	}
+}
@@ -0,0 +1,159 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
+import com.supernovapos.finalproject.order.dto.KitchenQueueItemDto;
+import com.supernovapos.finalproject.order.model.OrderGroup;
+import com.supernovapos.finalproject.order.model.OrderItems;
+import com.supernovapos.finalproject.order.model.Orders;
+import com.supernovapos.finalproject.order.model.PrepStatus;
+import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 廚房出餐佇列
+ * - 出餐狀態記錄在訂單項目上（待製作 → 製作中 → 待出餐 → 已出餐），訂單狀態取最慢的項目
+ * - 狀態變更後推播給廚房看板
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class KitchenQueueService {
+
+	private final OrderItemsRepository orderItemsRepository;
+	private final KitchenFeedService kitchenFeedService;
+
+//	取得全場未出餐項目（由舊到新），可依出餐站過濾
+	@Transactional(readOnly = true)
+	public List<KitchenQueueItemDto> getUnservedQueue(Integer stationId) {
+		List<KitchenQueueItemDto> queue = new ArrayList<>();
+		for (OrderItems item : orderItemsRepository.findKitchenQueue()) {
+			KitchenQueueItemDto dto = toQueueItem(item);
+			if (stationId == null || stationId.equals(dto.getStationId())) {
+				queue.add(dto);
+			}
+		}
+		return queue;
+	}
+
+//	批次變更項目出餐狀態（全部成功或全部失敗）
+	public List<KitchenQueueItemDto> transitionItems(List<Long> itemIds, PrepStatus status) {
+		Set<Long> ids = new LinkedHashSet<>(itemIds);
+		List<OrderItems> items = orderItemsRepository.findKitchenItemsWithGroupByIds(ids);
+		if (items.size() != ids.size()) {
+			throw new ResourceNotFoundException("訂單項目不存在");
+		}
+		applyTransition(items, status);
+
+		List<KitchenQueueItemDto> result = new ArrayList<>();
+		for (OrderItems item : items) {
+			result.add(toQueueItem(item));
+		}
+		return result;
+	}
+
+//	變更整筆訂單的出餐狀態
+	public void transitionOrder(Long orderId, PrepStatus status) {
+		List<OrderItems> items = orderItemsRepository.findKitchenItemsByOrderIds(List.of(orderId));
+		if (items.isEmpty()) {
+			throw new ResourceNotFoundException("訂單不存在");
+		}
+		applyTransition(items, status);
+	}
+
+//	切換整筆訂單已出餐 / 未出餐，回傳新的狀態
+	public boolean toggleOrderServed(Long orderId) {
+		List<OrderItems> items = orderItemsRepository.findKitchenItemsByOrderIds(List.of(orderId));
+		if (items.isEmpty()) {
+			throw new ResourceNotFoundException("訂單不存在");
+		}
+		boolean served = !items.get(0).getOrders().isServed();
+		// 取消出餐時退回待出餐
+		applyTransition(items, served ? PrepStatus.SERVED : PrepStatus.READY);
+		return served;
+	}
+
+// ================= 內部方法 =================
+
+	private void applyTransition(List<OrderItems> items, PrepStatus status) {
+		// 先全部檢查，避免只更新一部分
+		List<OrderItems> changed = new ArrayList<>();
+		for (OrderItems item : items) {
+			if (!item.getOrders().isSubmitted()) {
+				throw new InvalidRequestException("訂單 #" + item.getOrders().getId() + " 尚未送出");
+			}
+			if (item.getPrepStatus() == status) {
+				continue;
+			}
+			if (!item.getPrepStatus().canTransitionTo(status)) {
+				throw new InvalidRequestException("項目 #" + item.getId() + " 無法由"
+						+ item.getPrepStatus().getDescription() + "變更為" + status.getDescription());
+			}
+			changed.add(item);
+		}
+		if (changed.isEmpty()) {
+			return;
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		Map<Long, Orders> orders = new LinkedHashMap<>();
+		for (OrderItems item : changed) {
+			item.transitionTo(status, now);
+			orders.put(item.getOrders().getId(), item.getOrders());
+		}
+		orderItemsRepository.saveAll(changed);
+
+		// 重新計算受影響訂單的狀態（查詢前會先 flush 上面的變更）
+		Map<Long, List<PrepStatus>> statusesByOrder = new HashMap<>();
+		for (Object[] row : orderItemsRepository.findPrepStatusesByOrderIds(orders.keySet())) {
+			statusesByOrder.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((PrepStatus) row[1]);
+		}
+		for (Orders order : orders.values()) {
+			boolean wasServed = order.isServed();
+			order.updatePrepStatus(PrepStatus.slowestOf(statusesByOrder.get(order.getId())), now);
+			if (wasServed != order.isServed()) {
+				kitchenFeedService.publishServedToggled(order, order.isServed());
+			}
+		}
+
+		// 依訂單群組推播項目變更
+		Map<OrderGroup, List<OrderItems>> byGroup = new LinkedHashMap<>();
+		for (OrderItems item : changed) {
+			byGroup.computeIfAbsent(item.getOrders().getOrderGroup(), k -> new ArrayList<>()).add(item);
+		}
+		byGroup.forEach(kitchenFeedService::publishPrepStatusChanged);
+	}
+
+	private KitchenQueueItemDto toQueueItem(OrderItems item) {
+		Orders order = item.getOrders();
+		OrderGroup group = order.getOrderGroup();
+		KitchenQueueItemDto dto = new KitchenQueueItemDto();
+		dto.setId(item.getId());
+		dto.setOrderId(order.getId());
+		dto.setGroupId(group.getId());
+		dto.setTableId(group.getTable() != null ? group.getTable().getTableId() : null);
+		dto.setProductId(item.getProducts().getId());
+		dto.setProductName(item.getProducts().getName());
+		dto.setStationId(KitchenFeedService.stationOf(item.getProducts().getProductCategory()));
+		dto.setQuantity(item.getQuantity());
+		dto.setNote(item.getNote());
+		dto.setPrepStatus(item.getPrepStatus());
+		dto.setCreatedAt(item.getCreatedAt());
+		dto.setCookingAt(item.getCookingAt());
+		dto.setReadyAt(item.getReadyAt());
+		return dto;
+	}
+}
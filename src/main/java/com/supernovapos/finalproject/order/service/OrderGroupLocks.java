@@ -0,0 +1,62 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.supernovapos.finalproject.common.exception.ConflictException;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+
+/**
+ * 訂單群組分段鎖
+ * - 同一訂單群組（同一桌）的購物車異動、送單、加點、結帳依序執行，不同桌互不影響
+ * - 以固定數量的鎖分段，不需為每個群組建立鎖物件
+ * - 鎖持有到交易結束才釋放，下一個請求一定看得到上一筆已提交的資料
+ * 注意：只保護單一節點，多節點由資料庫列鎖（findActiveOrderGroupForUpdate）與版本號把關
+ */
+@Component
+public class OrderGroupLocks {
+
+	private final ReentrantLock[] stripes;
+	private final long timeoutMs;
+
+	public OrderGroupLocks(@Value("${order.group-lock.stripes:64}") int stripeCount,
+			@Value("${order.group-lock.timeout-ms:5000}") long timeoutMs) {
+		this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+		this.timeoutMs = timeoutMs;
+	}
+
+//	鎖定訂單群組直到目前交易結束（必須在交易中呼叫）
+	public void lockUntilCompletion(UUID groupId) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("訂單群組鎖必須在交易中取得");
+		}
+		ReentrantLock lock = acquire(groupId);
+		TransactionUtils.afterCompletion(lock::unlock);
+	}
+
+	private ReentrantLock acquire(UUID groupId) {
+		ReentrantLock lock = stripes[Math.floorMod(spread(groupId.hashCode()), stripes.length)];
+		try {
+			if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+				throw new ConflictException("同桌訂單處理中，請稍後再試");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConflictException("同桌訂單處理中，請稍後再試");
+		}
+		return lock;
+	}
+
+//	打散 hash 高位，避免 UUID 分佈不均集中在少數分段
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+}
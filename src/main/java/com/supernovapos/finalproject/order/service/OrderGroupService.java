@@ -5,18 +5,24 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.supernovapos.finalproject.analytics.service.LoadSeries;
+import com.supernovapos.finalproject.analytics.service.SalesRollupService;
 import com.supernovapos.finalproject.common.exception.ConflictException;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
 import com.supernovapos.finalproject.order.dto.OrderGroupDetailDto;
+import com.supernovapos.finalproject.order.dto.TodayDashboardDto;
 import com.supernovapos.finalproject.order.model.OrderGroup;
 import com.supernovapos.finalproject.order.repository.OrderGroupRepository;
+import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
 import com.supernovapos.finalproject.order.repository.OrdersRepository;
+import com.supernovapos.finalproject.order.service.ActiveSessionRegistry.ActiveSession;
 import com.supernovapos.finalproject.table.model.RestaurantTable;
 import com.supernovapos.finalproject.table.repository.RestaurantTableRepository;
 
@@ -32,9 +38,33 @@ public class OrderGroupService {
 	@Autowired
 	private OrdersRepository ordersRepository;
 
+	@Autowired
+	private OrderItemsRepository orderItemsRepository;
+
 	@Autowired
 	private RestaurantTableRepository restaurantTableRepository;
 
+	@Autowired
+	private DraftCartStore draftCartStore;
+
+	@Autowired
+	private KitchenFeedService kitchenFeedService;
+
+	@Autowired
+	private ActiveSessionRegistry activeSessionRegistry;
+
+	@Autowired
+	private OrderGroupLocks orderGroupLocks;
+
+	@Autowired
+	private SalesRollupService salesRollupService;
+
+	@Autowired
+	private TodayMetrics todayMetrics;
+
+	@Autowired
+	private LoadSeries loadSeries;
+
 //	創建新的點餐會話(產生QR CODE)
 	public OrderGroup createNewSession(Integer tableId) {
 		// 檢查桌子是否存在
@@ -50,9 +80,7 @@ public class OrderGroupService {
 		}
 
 		// 檢查桌子是否已有進行中的訂單
-		Optional<OrderGroup> existingOrderGroup = orderGroupRepository
-				.findActiveOrderGroupByTableId(table.getId().intValue());
-		if (existingOrderGroup.isPresent()) {
+		if (activeSessionRegistry.findByTableNumber(table.getTableId()).isPresent()) {
 			throw new ConflictException("桌號 " + tableId + " 已有進行中的訂單會話");
 		}
 
@@ -63,6 +91,9 @@ public class OrderGroupService {
 		orderGroup.setHasOrder(false); // 尚未有人提交訂單
 
 		OrderGroup savedGroup = orderGroupRepository.save(orderGroup);
+		activeSessionRegistry.register(savedGroup);
+		todayMetrics.recordGroupOpened(savedGroup.getCreatedAt());
+		loadSeries.recordGroupOpened(savedGroup.getCreatedAt());
 
 //		// 更新桌子狀態為用餐
 //		table.setDining();
@@ -73,6 +104,10 @@ public class OrderGroupService {
 
 	// 根據 QR Code 掃描結果查找訂單群組
 	public OrderGroup findByQrCode(UUID orderGroupId) {
+	    // 不在進行中會話內就不查資料庫
+	    if (!activeSessionRegistry.isActive(orderGroupId)) {
+	        throw new ResourceNotFoundException("找不到對應的訂單群組或QrCode過期");
+	    }
 	    Optional<OrderGroup> findActiveOrderGroup = orderGroupRepository.findActiveOrderGroupWithTable(orderGroupId);
 	    if (!findActiveOrderGroup.isPresent()) {
 	        throw new ResourceNotFoundException("找不到對應的訂單群組或QrCode過期");
@@ -82,26 +117,40 @@ public class OrderGroupService {
 
 //	檢查是否可以提交首次訂單
 	public boolean canSubmitFirstOrder(UUID groupId) {
-		OrderGroup group = findByQrCode(groupId);
-		return group.getStatus() && !group.getHasOrder();
+		return findActiveSession(groupId).canSubmitFirstOrder();
 	}
 
 //	檢查是否可以加點
 	public boolean canAddOrder(UUID groupId) {
-		OrderGroup group = findByQrCode(groupId);
-		return group.getStatus() && group.getHasOrder();
+		return findActiveSession(groupId).canAddOrder();
+	}
+
+	private ActiveSession findActiveSession(UUID groupId) {
+		return activeSessionRegistry.findByGroupId(groupId)
+				.orElseThrow(() -> new ResourceNotFoundException("找不到對應的訂單群組或QrCode過期"));
 	}
 
 //	完成訂單群組(結帳)
 	public void completeOrderGroup(UUID groupId) {
+		// 等同桌進行中的送單、加點完成後才結帳
+		orderGroupLocks.lockUntilCompletion(groupId);
 		OrderGroup group = findByQrCode(groupId);
+		// 未送出的購物車先寫回並移出記憶體
+		draftCartStore.evict(groupId);
+		retireUnservedItems(groupId);
 		group.setStatus(false); // 設為完成
 		group.setCompletedAt(LocalDateTime.now());
 
-		// 重新計算最終總金額
-		Integer finalTotal = ordersRepository.sumTotalAmountByGroupId(groupId);
-		group.setTotalAmount(finalTotal);
+		// 總金額已隨送單/加點累加，不再重新加總（可用對帳 API 檢查）
 		orderGroupRepository.save(group);
+		activeSessionRegistry.remove(groupId);
+		// 累加營收彙總表（與結帳同一交易）
+		salesRollupService.recordGroupCompleted(groupId);
+		todayMetrics.recordGroupCompleted(group.getTable().getTableId(), group.getTotalAmount(), group.getCompletedAt());
+		loadSeries.recordGroupCompleted(group.getCreatedAt(), group.getCompletedAt(), group.getTotalAmount());
+
+		// 通知廚房看板移除此桌
+		kitchenFeedService.publishGroupCompleted(group);
 
 		// 更新桌子狀態為清潔
 //		RestaurantTable table = group.getTable();
@@ -109,15 +158,21 @@ public class OrderGroupService {
 //		restaurantTableRepository.save(table);
 	}
 
-//	取得今日業績
+//	取得今日業績（由記憶體計數器讀取，不查資料庫）
 	public Integer getTodayTotalRevenue() {
-		LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-		LocalDateTime endOfDay = startOfDay.plusDays(1);
-		return orderGroupRepository.getTodayTotalRevenue(startOfDay, endOfDay);
+		return (int) todayMetrics.getTodayRevenue();
+	}
+
+//	取得今日營運即時數據
+	public TodayDashboardDto getTodayDashboard() {
+		return todayMetrics.getSnapshot();
 	}
 
 //	取得指定日期業績
 	public Integer getRevenueByDate(LocalDate date) {
+		if (date.equals(LocalDate.now())) {
+			return getTodayTotalRevenue();
+		}
 		LocalDateTime startOfDay = date.atStartOfDay();
 		LocalDateTime endOfDay = startOfDay.plusDays(1);
 		return orderGroupRepository.getTodayTotalRevenue(startOfDay, endOfDay);
@@ -146,57 +201,59 @@ public class OrderGroupService {
 
 //	取得所有進行中的訂單群組
 	public List<OrderGroup> getActiveOrderGroups() {
-		List<OrderGroup> allGroups = orderGroupRepository.findAll();
-		List<OrderGroup> activeGroups = new ArrayList<>();
-
-		for (OrderGroup group : allGroups) {
-			if (group.getStatus()) {
-				activeGroups.add(group);
-			}
+		Set<UUID> activeGroupIds = activeSessionRegistry.getActiveGroupIds();
+		if (activeGroupIds.isEmpty()) {
+			return new ArrayList<>();
 		}
-		return activeGroups;
+		return orderGroupRepository.findActiveOrderGroupsWithTableByIds(activeGroupIds);
 	}
 
 //	根據桌子ID查詢進行中的訂單群組
 	public OrderGroup getActiveOrderGroupByTableId(Integer tableId) {
+		Optional<ActiveSession> session = activeSessionRegistry.findByTableNumber(tableId);
+		if (session.isPresent()) {
+			return findByQrCode(session.get().getGroupId());
+		}
+
+		// 沒有進行中會話時才查桌子，保留原本的錯誤訊息
 		Optional<RestaurantTable> tableOpt = restaurantTableRepository.findByTableId(tableId);
 		if (!tableOpt.isPresent()) {
 			throw new ResourceNotFoundException("桌號 " + tableId + " 不存在");
 		}
 
-		Optional<OrderGroup> orderGroupOpt = orderGroupRepository
-				.findActiveOrderGroupByTableId(tableOpt.get().getId().intValue());
-		if (!orderGroupOpt.isPresent()) {
-			throw new ResourceNotFoundException("桌號 " + tableId + " 沒有進行中的訂單");
-		}
-
-		return orderGroupOpt.get();
+		throw new ResourceNotFoundException("桌號 " + tableId + " 沒有進行中的訂單");
 	}
 
 //	檢查桌子是否有進行中的訂單
 	public boolean hasActiveOrderByTableId(Integer tableId) {
-		try {
-			getActiveOrderGroupByTableId(tableId);
-			return true;
-		} catch (ResourceNotFoundException e) {
-			return false;
-		}
+		return activeSessionRegistry.findByTableNumber(tableId).isPresent();
 	}
 
 //	強制結束訂單群組（用於異常情況處理）
 	public void forceCompleteOrderGroup(UUID groupId) {
+		orderGroupLocks.lockUntilCompletion(groupId);
 		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findById(groupId);
 		if (!orderGroupOpt.isPresent()) {
 			throw new ResourceNotFoundException("訂單群組不存在");
 		}
 
 		OrderGroup group = orderGroupOpt.get();
+		// 已結束的群組不重複計入營收彙總
+		boolean wasActive = Boolean.TRUE.equals(group.getStatus());
+		draftCartStore.evict(groupId);
+		retireUnservedItems(groupId);
 		group.setStatus(false);
 		group.setCompletedAt(LocalDateTime.now());
-
-		Integer finalTotal = ordersRepository.sumTotalAmountByGroupId(groupId);
-		group.setTotalAmount(finalTotal);
 		orderGroupRepository.save(group);
+		activeSessionRegistry.remove(groupId);
+		if (wasActive) {
+			salesRollupService.recordGroupCompleted(groupId);
+			todayMetrics.recordGroupCompleted(
+					group.getTable() != null ? group.getTable().getTableId() : null,
+					group.getTotalAmount(), group.getCompletedAt());
+			loadSeries.recordGroupCompleted(group.getCreatedAt(), group.getCompletedAt(), group.getTotalAmount());
+		}
+		kitchenFeedService.publishGroupCompleted(group);
 
 		// 更新桌子狀態
 //		RestaurantTable table = group.getTable();
@@ -206,6 +263,12 @@ public class OrderGroupService {
 		}
 	
 
+//	結束的群組不會再出餐：未出餐的項目與訂單標記為 SERVED，廚房佇列索引只保留進行中的項目
+	private void retireUnservedItems(UUID groupId) {
+		orderItemsRepository.retireUnservedByGroupId(groupId);
+		ordersRepository.retireUnservedByGroupId(groupId);
+	}
+
 //	取得訂單群組的桌子資訊
 	public RestaurantTable getTableByOrderGroupId(UUID groupId) {
 		OrderGroup group = findByQrCode(groupId);
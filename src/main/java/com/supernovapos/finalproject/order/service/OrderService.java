@@ -1,14 +1,20 @@
 package com.supernovapos.finalproject.order.service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.supernovapos.finalproject.analytics.service.LoadSeries;
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker;
 import com.supernovapos.finalproject.common.exception.ConflictException;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
@@ -25,6 +31,10 @@ import com.supernovapos.finalproject.order.repository.OrderGroupRepository;
 import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
 import com.supernovapos.finalproject.order.repository.OrdersRepository;
 import com.supernovapos.finalproject.order.repository.TempUserRepository;
+import com.supernovapos.finalproject.order.service.CartStatusReadModel.CartStatusView;
+import com.supernovapos.finalproject.order.service.CartStatusReadModel.ItemView;
+import com.supernovapos.finalproject.order.service.CartStatusReadModel.OrderView;
+import com.supernovapos.finalproject.order.service.DraftCartStore.DraftCart;
 import com.supernovapos.finalproject.product.model.Products;
 import com.supernovapos.finalproject.product.repository.ProductsRepository;
 import com.supernovapos.finalproject.user.model.entity.User;
@@ -60,28 +70,49 @@ public class OrderService {
 	@Autowired
 	private UserRepository userRepository;
 
+	@Autowired
+	private DraftCartStore draftCartStore;
+
+	@Autowired
+	private KitchenFeedService kitchenFeedService;
+
+	@Autowired
+	private CartStatusReadModel cartStatusReadModel;
+
+	@Autowired
+	private ActiveSessionRegistry activeSessionRegistry;
+
+	@Autowired
+	private OrderGroupLocks orderGroupLocks;
+
+	@Autowired
+	private TodayMetrics todayMetrics;
+
+	@Autowired
+	private PopularProductTracker popularProductTracker;
+
+	@Autowired
+	private LoadSeries loadSeries;
+
 // ================= 統一的公開方法 =================	
 
 //	取得或創建用戶購物車(統一方法)
+//	購物車由 DraftCartStore 於記憶體維護，回傳的是快照檢視
 	public Orders getOrCreateUserCart(UUID groupId, String userType, String userId) {
-		if ("TEMP".equals(userType)) {
-			UUID tempUserId = UUID.fromString(userId);
-			return getOrCreateTempUserCart(groupId, tempUserId);
-		} else if ("REGISTERED".equals(userType)) {
-			long registeredUserId = Long.parseLong(userId);
-			return getOrCreateRegisteredUserCart(groupId, registeredUserId);
-		} else {
-			throw new InvalidRequestException("不支援的用戶類型:" + userType);
-		}
+		orderGroupLocks.lockUntilCompletion(groupId);
+		return draftCartStore.toOrders(getOrCreateDraftCart(groupId, userType, userId));
 	}
 
 //	添加商品到購物車(統一方法)
 	public void addItemToCart(UUID groupId, String userType, String userId, AddOrderItemRequest request) {
+		// 同一訂單群組的異動依序執行（鎖到交易結束）
+		orderGroupLocks.lockUntilCompletion(groupId);
+
 		// 取得購物車
-		Orders cart = getOrCreateUserCart(groupId, userType, userId);
+		DraftCart cart = getOrCreateDraftCart(groupId, userType, userId);
 
 		// 檢查商品是否存在且可用
-		Optional<Products> productOpt = productsRepository.findById(request.getProductId());
+		Optional<Products> productOpt = productsRepository.findByIdWithCategory(request.getProductId());
 		if (!productOpt.isPresent()) {
 			throw new ResourceNotFoundException("商品不存在");
 		}
@@ -91,35 +122,8 @@ public class OrderService {
 			throw new InvalidRequestException("商品" + product.getName() + "已下架");
 		}
 
-		// 檢查購物車中是否已有相同商品
-		List<OrderItems> existingItems = orderItemsRepository.findOrderItemsWithProductsByOrderId(cart.getId());
-		OrderItems existingItem = null;
-
-		for (OrderItems item : existingItems) {
-			if (item.getProducts().getId().equals(request.getProductId())) {
-				existingItem = item;
-				break;
-			}
-		}
-
-		if (existingItem != null) {
-			// 更新數量
-			existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
-			orderItemsRepository.save(existingItem);
-		} else {
-			// 創建新的訂單項目
-			OrderItems newItem = new OrderItems();
-			newItem.setOrders(cart);
-			newItem.setProducts(product);
-			newItem.setQuantity(request.getQuantity());
-			newItem.setUnitPrice(product.getPrice());
-			newItem.setNote(request.getNote());
-
-			orderItemsRepository.save(newItem);
-		}
-
-		// 重新計算購物車總額
-		updateOrderTotalAmount(cart.getId());
+		// 已有相同商品則累加數量，總額由快取即時計算，稍後批次寫回
+		draftCartStore.addItem(groupId, cart.ownerKey(), product, request.getQuantity(), request.getNote());
 	}
 
 //	@Transactional
@@ -194,31 +198,13 @@ public class OrderService {
 //	}
 	
 	public void removeItemFromCart(UUID groupId, String userType, String userId, Integer productId) {
-	    Orders cart = getOrCreateUserCart(groupId, userType, userId);
-
-	    // 直接從 cart.orderItems 找
-	    List<OrderItems> items = cart.getOrderItems();
+	    orderGroupLocks.lockUntilCompletion(groupId);
+	    DraftCart cart = getOrCreateDraftCart(groupId, userType, userId);
 
-	    OrderItems target = null;
-	    for (OrderItems item : items) {
-	        if (item.getProducts() != null && item.getProducts().getId().equals(productId)) {
-	            target = item;
-	            break;
-	        }
-	    }
-
-	    if (target == null) {
+	    // 寫回時由 orphanRemoval 刪除對應的 OrderItems
+	    if (!draftCartStore.removeItem(groupId, cart.ownerKey(), productId)) {
 	        throw new ResourceNotFoundException("購物車中找不到指定的商品（商品ID: " + productId + "）");
 	    }
-
-	    // 從集合移除，orphanRemoval 會觸發 DELETE
-	    cart.getOrderItems().remove(target);
-
-	    // 儲存 cart，JPA 會自動刪掉孤兒 OrderItems
-	    ordersRepository.save(cart);
-
-	    // 更新總額
-	    updateOrderTotalAmount(cart.getId());
 	}
 //	// 從購物車移除商品(統一方法) - 加入商品存在檢查
 //	@Transactional
@@ -250,6 +236,8 @@ public class OrderService {
 	// 更新購物車商品數量(統一方法) - 加入商品存在檢查
 	public void updateCartItemQuantity(UUID groupId, String userType, String userId, Integer productId,
 			UpdateCartItemCountRequest request) {
+		orderGroupLocks.lockUntilCompletion(groupId);
+
 		// 檢查數量是否有效
 		if (request.getQuantity() < 0) {
 			throw new InvalidRequestException("商品數量不能小於 0");
@@ -261,40 +249,21 @@ public class OrderService {
 			return;
 		}
 
-		Orders cart = getOrCreateUserCart(groupId, userType, userId);
-		List<OrderItems> items = orderItemsRepository.findOrderItemsWithProductsByOrderId(cart.getId());
-
-		// 檢查購物車中是否有該商品
-		boolean itemFound = false;
-		for (OrderItems item : items) {
-			if (item.getProducts().getId().equals(productId)) {
-				item.setQuantity(request.getQuantity());
-				item.setNote(request.getNote());
-				orderItemsRepository.save(item);
-				itemFound = true;
-				break;
-			}
-		}
+		DraftCart cart = getOrCreateDraftCart(groupId, userType, userId);
 
 		// 如果找不到商品，拋出例外
-		if (!itemFound) {
+		if (!draftCartStore.updateItem(groupId, cart.ownerKey(), productId, request.getQuantity(), request.getNote())) {
 			throw new ResourceNotFoundException("購物車中找不到指定的商品（商品ID: " + productId + "）");
 		}
-
-		// 重新計算購物車總額
-		updateOrderTotalAmount(cart.getId());
 	}
 
 //	清空購物車(統一方法)
 	public void clearCart(UUID groupId, String userType, String userId) {
-		Orders cart = getOrCreateUserCart(groupId, userType, userId);
-
-		// 刪除所有訂單項目
-		orderItemsRepository.deleteByOrderId(cart.getId());
+		orderGroupLocks.lockUntilCompletion(groupId);
+		DraftCart cart = getOrCreateDraftCart(groupId, userType, userId);
 
-		// 重設總額為 0
-		cart.setTotalAmount(0);
-		ordersRepository.save(cart);
+		// 刪除所有訂單項目，總額隨之歸 0
+		draftCartStore.clear(groupId, cart.ownerKey());
 	}
 
 //	取得用戶的購物車(包含商品詳情) (統一方法)
@@ -306,8 +275,11 @@ public class OrderService {
 
 //	提交首次訂單（統一方法 - 支援任何用戶類型發起）
 	public void submitFirstOrder(UUID groupId, String userType, String userId) {
+		// 同桌同時送單只會有一人通過檢查：本機以分段鎖排隊，跨節點由資料庫列鎖把關
+		orderGroupLocks.lockUntilCompletion(groupId);
+
 		// 檢查是否可以提交
-		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findActiveOrderGroup(groupId);
+		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findActiveOrderGroupForUpdate(groupId);
 		if (!orderGroupOpt.isPresent()) {
 			throw new ResourceNotFoundException("訂單群組不存在");
 		}
@@ -317,6 +289,9 @@ public class OrderService {
 			throw new ConflictException("已有人提交過訂單");
 		}
 
+		// 先將記憶體中的購物車同步寫回，之後草稿改由資料庫負責
+		draftCartStore.evict(groupId);
+
 		// 檢查是否有草稿訂單
 		List<Orders> draftOrders = ordersRepository.findDraftOrdersByGroupId(groupId);
 		if (draftOrders.isEmpty()) {
@@ -344,17 +319,33 @@ public class OrderService {
 		// 標記訂單群組已有人提交
 		orderGroup.setHasOrder(true);
 
-		// 重新計算總金額
-		Integer totalAmount = ordersRepository.sumTotalAmountByGroupId(groupId);
-		orderGroup.setTotalAmount(totalAmount);
+		// 總金額只加上本次送出的草稿金額
+		int submittedAmount = 0;
+		List<Long> submittedOrderIds = new ArrayList<>();
+		for (Orders order : draftOrders) {
+			submittedAmount += order.getTotalAmount();
+			submittedOrderIds.add(order.getId());
+		}
+		adjustOrderGroupTotalAmount(orderGroup, submittedAmount);
 
 		orderGroupRepository.save(orderGroup);
+		activeSessionRegistry.markSubmitted(groupId, orderGroup.getTotalAmount());
+		Map<Integer, Long> quantityByProduct =
+				sumQuantityByProduct(orderItemsRepository.sumQuantityByProductForOrders(submittedOrderIds));
+		todayMetrics.recordOrdersSubmitted(orderGroup.getCreatedAt(), quantityByProduct, submittedAmount);
+		popularProductTracker.record(quantityByProduct);
+		loadSeries.recordItemsSubmitted(quantityByProduct.values().stream().mapToLong(Long::longValue).sum());
+
+		// 通知廚房看板
+		kitchenFeedService.publishOrdersSubmitted(orderGroup, submittedOrderIds);
 	}
 
 //	加點
 	public Orders addOrder(UUID groupId, String userType, String userId, AddOrderRequest request) {
+		orderGroupLocks.lockUntilCompletion(groupId);
+
 		// 檢查是否可以加點
-		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findActiveOrderGroup(groupId);
+		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findActiveOrderGroupForUpdate(groupId);
 		if (!orderGroupOpt.isPresent()) {
 			throw new ResourceNotFoundException("訂單群組不存在");
 		}
@@ -368,7 +359,6 @@ public class OrderService {
 		Orders additionalOrder = new Orders();
 		additionalOrder.setOrderGroup(orderGroup);
 		additionalOrder.setStatus(true);
-		additionalOrder.setTotalAmount(0);
 		additionalOrder.setNote(request.getNote());
 
 		// 設定用戶關聯
@@ -395,22 +385,34 @@ public class OrderService {
 			throw new InvalidRequestException("不支援的用戶類型: " + userType);
 		}
 
+		// 一次查出所有商品，先組好項目與總額，訂單只需 INSERT 一次
+		additionalOrder.setOrderItems(new ArrayList<>());
+		Map<Integer, Products> products = findProductsByIds(request.getItems());
+		int orderTotal = 0;
+		for (AddOrderItemRequest itemRequest : request.getItems()) {
+			orderTotal += addOrderItemToOrder(additionalOrder, products.get(itemRequest.getProductId()), itemRequest);
+		}
+		additionalOrder.setTotalAmount(orderTotal);
+
+		// 訂單項目由 cascade 寫入，使用 sequence 主鍵可批次 INSERT
 		Orders savedOrder = ordersRepository.save(additionalOrder);
 
-		// 添加訂單項目
-		List<AddOrderItemRequest> items = request.getItems();
-		for (AddOrderItemRequest itemRequest : items) {
-			addOrderItemToOrder(savedOrder.getId(), itemRequest);
+		// 訂單群組總額只加上本次加點金額
+		adjustOrderGroupTotalAmount(orderGroup, orderTotal);
+		orderGroupRepository.save(orderGroup);
+		activeSessionRegistry.updateTotal(groupId, orderGroup.getTotalAmount());
+		Map<Integer, Long> quantityByProduct = new HashMap<>();
+		for (AddOrderItemRequest itemRequest : request.getItems()) {
+			quantityByProduct.merge(itemRequest.getProductId(), (long) itemRequest.getQuantity(), Long::sum);
 		}
+		todayMetrics.recordOrdersSubmitted(orderGroup.getCreatedAt(), quantityByProduct, orderTotal);
+		popularProductTracker.record(quantityByProduct);
+		loadSeries.recordItemsSubmitted(quantityByProduct.values().stream().mapToLong(Long::longValue).sum());
 
-		// 重新計算訂單總額
-		updateOrderTotalAmount(savedOrder.getId());
+		// 通知廚房看板
+		kitchenFeedService.publishItemsAdded(orderGroup, savedOrder);
 
-		// 更新訂單群組總額
-		updateOrderGroupTotalAmount(groupId);
-
-		Optional<Orders> updatedOrderOpt = ordersRepository.findById(savedOrder.getId());
-		return updatedOrderOpt.isPresent() ? updatedOrderOpt.get() : savedOrder;
+		return savedOrder;
 	}
 
 //	取得特定用戶的購物車
@@ -422,16 +424,20 @@ public class OrderService {
 
 //	取得購物車內容
 	public List<Orders> getShoppingCartContents(UUID groupId) {
-		return ordersRepository.findDraftOrdersByGroupId(groupId);
+		List<Orders> carts = new ArrayList<>();
+		for (DraftCart cart : draftCartStore.getCarts(groupId)) {
+			carts.add(draftCartStore.toOrders(cart));
+		}
+		return carts;
 	}
 
 //	取得訂單群組的所有購物車內容
 	public List<CartItemDto> getUnifiedShoppingCartContents(UUID groupId) {
-		List<Orders> draftOrders = ordersRepository.findDraftOrdersByGroupId(groupId);
+		List<Orders> draftOrders = getShoppingCartContents(groupId);
 		List<CartItemDto> cartItems = new ArrayList<>();
 
 		for (Orders order : draftOrders) {
-			List<OrderItems> items = orderItemsRepository.findOrderItemsWithProductsByOrderId(order.getId());
+			List<OrderItems> items = order.getOrderItems();
 
 			CartItemDto cartItem = new CartItemDto();
 			cartItem.setOrderId(order.getId());
@@ -508,19 +514,15 @@ public class OrderService {
 	}
 
 // 取得訂單群組的完整狀況（購物車 + 已提交訂單）
+//	由 CartStatusReadModel 一次查詢組出，不逐筆載入訂單與項目
 	public OrderGroupCartStatusDto getOrderGroupCartStatus(UUID groupId) {
-		OrderGroup orderGroup = orderGroupRepository.findActiveOrderGroup(groupId)
-				.orElseThrow(() -> new ResourceNotFoundException("訂單組不存在或已過期"));
+		CartStatusView view = cartStatusReadModel.load(groupId);
 
 		OrderGroupCartStatusDto status = new OrderGroupCartStatusDto();
 		status.setGroupId(groupId);
-		status.setTableId(orderGroup.getTable().getTableId());
-		// 防護措施：確保回傳的列表不為 null
-		List<CartItemDto> cartItems = getUnifiedShoppingCartContents(groupId);
-		List<CartItemDto> submittedOrders = getUnifiedSubmittedOrders(groupId);
-		
-		status.setCartItems(cartItems != null ? cartItems : new ArrayList<>());
-		status.setSubmittedOrders(submittedOrders != null ? submittedOrders : new ArrayList<>());
+		status.setTableId(view.getTableId());
+		status.setCartItems(toCartItemDtos(view.getCartOrders(), false));
+		status.setSubmittedOrders(toCartItemDtos(view.getSubmittedOrders(), true));
 
 		// 計算統計資訊
 		Integer totalCartAmount = 0;
@@ -539,29 +541,43 @@ public class OrderService {
 		status.setGrandTotal(totalCartAmount + totalSubmittedAmount);
 
 		// 設定操作權限狀態
-		status.setCanSubmitFirstOrder(!orderGroup.getHasOrder() && orderGroup.getStatus());
-		status.setCanAddOrder(orderGroup.getHasOrder() && orderGroup.getStatus());
+		status.setCanSubmitFirstOrder(!view.isHasOrder() && view.isActive());
+		status.setCanAddOrder(view.isHasOrder() && view.isActive());
 
 		return status;
 	}
 
 //	================= 內部私有方法 =================	
 
-	// 取得或創建臨時用戶的購物車
-	private Orders getOrCreateTempUserCart(UUID groupId, UUID tempUserId) {
-		// 先用新的查詢方法嘗試取得購物車
-		Optional<Orders> existingCart = ordersRepository.findTempUserCartWithAllData(groupId, tempUserId);
-		if (existingCart.isPresent()) {
-			return existingCart.get();
+	// 取得或創建購物車快照，新購物車會立即建立訂單列
+	private DraftCart getOrCreateDraftCart(UUID groupId, String userType, String userId) {
+		if ("TEMP".equals(userType)) {
+			UUID tempUserId = UUID.fromString(userId);
+			DraftCart cart = draftCartStore.find(groupId, userType, tempUserId);
+			return cart != null ? cart : draftCartStore.register(groupId, createTempUserCart(groupId, tempUserId));
+		} else if ("REGISTERED".equals(userType)) {
+			Long registeredUserId = Long.parseLong(userId);
+			DraftCart cart = draftCartStore.find(groupId, userType, registeredUserId);
+			return cart != null ? cart : draftCartStore.register(groupId, createRegisteredUserCart(groupId, registeredUserId));
+		} else {
+			throw new InvalidRequestException("不支援的用戶類型:" + userType);
 		}
+	}
 
-		// 如果沒有購物車，就創建新的（原本的邏輯）
-		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findActiveOrderGroup(groupId);
+	// 創建臨時用戶的購物車
+	private Orders createTempUserCart(UUID groupId, UUID tempUserId) {
+		// 鎖定訂單群組列後再確認一次，其他節點可能已建立同一用戶的購物車
+		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findActiveOrderGroupForUpdate(groupId);
 		if (!orderGroupOpt.isPresent()) {
 			throw new ResourceNotFoundException("訂單群組不存在或已過期");
 		}
 		OrderGroup orderGroup = orderGroupOpt.get();
 
+		Optional<Orders> existingCart = ordersRepository.findTempUserCartWithAllData(groupId, tempUserId);
+		if (existingCart.isPresent()) {
+			return existingCart.get();
+		}
+
 		Optional<TempUser> tempUserOpt = tempUserRepository.findById(tempUserId);
 		if (!tempUserOpt.isPresent()) {
 			throw new ResourceNotFoundException("臨時用戶不存在");
@@ -582,21 +598,19 @@ public class OrderService {
 		return ordersRepository.save(newCart);
 	}
 
-	// 取得或創建註冊用戶的購物車
-	private Orders getOrCreateRegisteredUserCart(UUID groupId, Long userId) {
-		// 先用新的查詢方法嘗試取得購物車
-		Optional<Orders> existingCart = ordersRepository.findRegisteredUserCartWithAllData(groupId, userId);
-		if (existingCart.isPresent()) {
-			return existingCart.get();
-		}
-
-		// 如果沒有購物車，就創建新的（原本的邏輯）
-		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findActiveOrderGroup(groupId);
+	// 創建註冊用戶的購物車
+	private Orders createRegisteredUserCart(UUID groupId, Long userId) {
+		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findActiveOrderGroupForUpdate(groupId);
 		if (!orderGroupOpt.isPresent()) {
 			throw new ResourceNotFoundException("訂單群組不存在或已過期");
 		}
 		OrderGroup orderGroup = orderGroupOpt.get();
 
+		Optional<Orders> existingCart = ordersRepository.findRegisteredUserCartWithAllData(groupId, userId);
+		if (existingCart.isPresent()) {
+			return existingCart.get();
+		}
+
 		Optional<User> userOpt = userRepository.findById(userId);
 		if (!userOpt.isPresent()) {
 			throw new ResourceNotFoundException("註冊用戶不存在");
@@ -612,50 +626,40 @@ public class OrderService {
 		return ordersRepository.save(newCart);
 	}
 
-//	更新訂單總金額
-	private void updateOrderTotalAmount(Long orderId) {
-		List<OrderItems> items = orderItemsRepository.findOrderItemsWithProductsByOrderId(orderId);
-
-		int totalAmount = 0;
-		for (OrderItems item : items) {
-			int itemTotal = item.getQuantity() * item.getUnitPrice().intValue();
-			totalAmount += itemTotal;
-		}
-
-		Optional<Orders> orderOpt = ordersRepository.findById(orderId);
-		if (orderOpt.isPresent()) {
-			Orders order = orderOpt.get();
-			order.setTotalAmount(totalAmount);
-			ordersRepository.save(order);
-		}
+// 	依差額調整訂單群組總金額（由 @Version 防止同桌併發更新遺失）
+	private void adjustOrderGroupTotalAmount(OrderGroup orderGroup, int delta) {
+		int current = orderGroup.getTotalAmount() != null ? orderGroup.getTotalAmount() : 0;
+		orderGroup.setTotalAmount(current + delta);
 	}
 
-// 	更新訂單群組總金額
-	private void updateOrderGroupTotalAmount(UUID groupId) {
-		Integer totalAmount = ordersRepository.sumTotalAmountByGroupId(groupId);
-
-		Optional<OrderGroup> orderGroupOpt = orderGroupRepository.findById(groupId);
-		if (orderGroupOpt.isPresent()) {
-			OrderGroup orderGroup = orderGroupOpt.get();
-			orderGroup.setTotalAmount(totalAmount);
-			orderGroupRepository.save(orderGroup);
+//	商品 ID, 數量 查詢結果轉為 Map
+	private Map<Integer, Long> sumQuantityByProduct(List<Object[]> rows) {
+		Map<Integer, Long> result = new HashMap<>();
+		for (Object[] row : rows) {
+			result.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
 		}
+		return result;
 	}
 
-//	添加訂單項目到指定訂單
-	private void addOrderItemToOrder(Long orderId, AddOrderItemRequest request) {
-		Optional<Orders> orderOpt = ordersRepository.findById(orderId);
-		if (!orderOpt.isPresent()) {
-			throw new ResourceNotFoundException("訂單不存在");
+//	批次查詢加點商品，任一商品不存在則拋出例外
+	private Map<Integer, Products> findProductsByIds(List<AddOrderItemRequest> items) {
+		Set<Integer> productIds = new HashSet<>();
+		for (AddOrderItemRequest item : items) {
+			productIds.add(item.getProductId());
 		}
-		Orders order = orderOpt.get();
 
-		Optional<Products> productOpt = productsRepository.findById(request.getProductId());
-		if (!productOpt.isPresent()) {
+		Map<Integer, Products> products = new HashMap<>();
+		for (Products product : productsRepository.findAllById(productIds)) {
+			products.put(product.getId(), product);
+		}
+		if (products.size() != productIds.size()) {
 			throw new ResourceNotFoundException("商品不存在");
 		}
-		Products product = productOpt.get();
+		return products;
+	}
 
+//	添加訂單項目到指定訂單，回傳此項目金額
+	private int addOrderItemToOrder(Orders order, Products product, AddOrderItemRequest request) {
 		OrderItems orderItem = new OrderItems();
 		orderItem.setOrders(order);
 		orderItem.setProducts(product);
@@ -663,7 +667,64 @@ public class OrderService {
 		orderItem.setUnitPrice(product.getPrice());
 		orderItem.setNote(request.getNote());
 
-		orderItemsRepository.save(orderItem);
+		order.getOrderItems().add(orderItem);
+		return orderItem.getQuantity() * orderItem.getUnitPrice().intValue();
+	}
+
+//	將讀取模型轉為 CartItemDto（項目與商品為非受管理的物件，只帶顯示所需欄位）
+	private List<CartItemDto> toCartItemDtos(List<OrderView> orders, boolean submitted) {
+		List<CartItemDto> result = new ArrayList<>();
+		for (OrderView order : orders) {
+			CartItemDto dto = new CartItemDto();
+			dto.setOrderId(order.getOrderId());
+			dto.setTotalAmount(order.getTotalAmount());
+			dto.setNote(order.getNote());
+			dto.setCreatedAt(order.getCreatedAt());
+			if (submitted) {
+				dto.setSubmittedAt(order.getSubmittedAt());
+			}
+
+			// 設定用戶資訊
+			if ("TEMP".equals(order.getUserType())) {
+				dto.setUserType("TEMP");
+				dto.setUserId(order.getUserId());
+				dto.setUserNickname(order.getNickname());
+			} else if ("REGISTERED".equals(order.getUserType())) {
+				dto.setUserType("REGISTERED");
+				dto.setUserId(order.getUserId());
+				String nickname = order.getNickname();
+				if (nickname == null || nickname.isBlank()) {
+					nickname = "用戶" + order.getUserId();
+				}
+				dto.setUserNickname(nickname);
+			} else {
+				dto.setUserType("UNKNOWN");
+				dto.setUserId("unknown");
+				dto.setUserNickname("未知用戶");
+			}
+
+			List<OrderItems> items = new ArrayList<>();
+			for (ItemView itemView : order.getItems()) {
+				Products product = new Products();
+				product.setId(itemView.getProductId());
+				product.setName(itemView.getProductName());
+				product.setPrice(itemView.getProductPrice());
+				product.setImage(itemView.getProductImage());
+
+				OrderItems item = new OrderItems();
+				item.setId(itemView.getId());
+				item.setQuantity(itemView.getQuantity());
+				item.setUnitPrice(itemView.getUnitPrice());
+				item.setSubtotal(itemView.getSubtotal());
+				item.setNote(itemView.getNote());
+				item.setCreatedAt(itemView.getCreatedAt());
+				item.setProducts(product);
+				items.add(item);
+			}
+			dto.setOrderItems(items);
+			result.add(dto);
+		}
+		return result;
 	}
 
 	private boolean isOrderBelongsToUser(Orders order, String userType, String userId) {
@@ -0,0 +1,175 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.supernovapos.finalproject.analytics.service.SalesRollupService;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
+import com.supernovapos.finalproject.order.dto.TotalReconciliationDto;
+import com.supernovapos.finalproject.order.dto.TotalReconciliationDto.OrderMismatch;
+import com.supernovapos.finalproject.order.model.OrderGroup;
+import com.supernovapos.finalproject.order.model.Orders;
+import com.supernovapos.finalproject.order.repository.OrderGroupRepository;
+import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
+import com.supernovapos.finalproject.order.repository.OrdersRepository;
+import com.supernovapos.finalproject.order.service.DraftCartStore.CartLine;
+import com.supernovapos.finalproject.order.service.DraftCartStore.DraftCart;
+
+// 訂單總額對帳服務：比對差額累計的總額與完整重算結果，只修正進行中的訂單群組
+
+@Service
+@Transactional
+public class OrderTotalReconciliationService {
+
+	@Autowired
+	private OrderGroupRepository orderGroupRepository;
+
+	@Autowired
+	private OrdersRepository ordersRepository;
+
+	@Autowired
+	private OrderItemsRepository orderItemsRepository;
+
+	@Autowired
+	private DraftCartStore draftCartStore;
+
+	@Autowired
+	private OrderGroupLocks orderGroupLocks;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private SalesRollupService salesRollupService;
+
+//	對帳指定訂單群組（只讀，不修改任何資料）
+	@Transactional(readOnly = true)
+	public TotalReconciliationDto reconcile(UUID groupId) {
+		OrderGroup group = orderGroupRepository.findById(groupId)
+				.orElseThrow(() -> new ResourceNotFoundException("訂單群組不存在"));
+		return compare(group, false);
+	}
+
+//	對帳所有進行中的訂單群組，只回傳不一致的結果
+	@Transactional(readOnly = true)
+	public List<TotalReconciliationDto> reconcileActiveGroups() {
+		List<TotalReconciliationDto> mismatches = new ArrayList<>();
+		for (OrderGroup group : orderGroupRepository.findAllActiveOrderGroups()) {
+			TotalReconciliationDto result = compare(group, false);
+			if (!result.isConsistent()) {
+				mismatches.add(result);
+			}
+		}
+		return mismatches;
+	}
+
+//	以重算結果修正進行中訂單群組的總額
+//	已結帳的群組已計入營收彙總與報表快取，不在此修正（需先修正資料再重建彙總）
+	public TotalReconciliationDto repair(UUID groupId) {
+		TotalReconciliationDto result = repairActive(groupId);
+		if (result == null) {
+			if (orderGroupRepository.existsById(groupId)) {
+				throw new InvalidRequestException("只能修正進行中的訂單群組");
+			}
+			throw new ResourceNotFoundException("訂單群組不存在");
+		}
+		return result;
+	}
+
+//	修正所有進行中的訂單群組，每個群組各自一個交易，只回傳不一致的結果
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public List<TotalReconciliationDto> repairActiveGroups() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		List<TotalReconciliationDto> mismatches = new ArrayList<>();
+		for (OrderGroup group : orderGroupRepository.findAllActiveOrderGroups()) {
+			TotalReconciliationDto result = transactionTemplate.execute(status -> repairActive(group.getId()));
+			// 查詢後才結帳的群組略過
+			if (result != null && !result.isConsistent()) {
+				mismatches.add(result);
+			}
+		}
+		return mismatches;
+	}
+
+// ================= 內部方法 =================
+
+//	鎖定進行中的群組後修正，群組不存在或已結帳時回傳 null
+	private TotalReconciliationDto repairActive(UUID groupId) {
+		// 與送單、加點、結帳依序執行，並鎖定群組列
+		orderGroupLocks.lockUntilCompletion(groupId);
+		OrderGroup group = orderGroupRepository.findActiveOrderGroupForUpdate(groupId).orElse(null);
+		if (group == null) {
+			return null;
+		}
+		// 購物車寫回並移出記憶體，避免之後被舊總額覆蓋
+		draftCartStore.evict(groupId);
+
+		TotalReconciliationDto result = compare(group, true);
+		if (!result.isConsistent()) {
+			group.setTotalAmount(result.getComputedGroupTotal());
+			orderGroupRepository.save(group);
+			// 進行中的群組未計入彙總表，只需讓報表快取失效
+			salesRollupService.evictReports(groupId);
+			result.setRepaired(true);
+		}
+		return result;
+	}
+
+	private TotalReconciliationDto compare(OrderGroup group, boolean repair) {
+		UUID groupId = group.getId();
+		Map<Long, Integer> itemTotals = new HashMap<>();
+		for (Object[] row : orderItemsRepository.sumItemAmountByOrderInGroup(groupId)) {
+			itemTotals.put((Long) row[0], row[1] != null ? ((Number) row[1]).intValue() : 0);
+		}
+
+		TotalReconciliationDto result = new TotalReconciliationDto();
+		result.setGroupId(groupId);
+		result.setStoredGroupTotal(group.getTotalAmount());
+
+		// 尚未寫回的草稿以記憶體中的購物車為準，不為對帳寫回資料庫（修正時已先移出記憶體，這裡為空）
+		Map<Long, DraftCart> drafts = new HashMap<>();
+		for (DraftCart cart : draftCartStore.peekCarts(groupId)) {
+			drafts.put(cart.getOrderId(), cart);
+		}
+
+		int computedGroupTotal = 0;
+		for (Orders order : ordersRepository.findAllOrdersByGroupId(groupId)) {
+			int computed = itemTotals.getOrDefault(order.getId(), 0);
+			Integer stored = order.getTotalAmount();
+			DraftCart draft = order.getStatus() ? null : drafts.get(order.getId());
+			if (draft != null) {
+				computed = 0;
+				for (CartLine line : draft.getLines().values()) {
+					computed += line.getQuantity() * line.getUnitPrice().intValue();
+				}
+				stored = draft.getTotalAmount();
+			}
+			if (order.getStatus()) {
+				computedGroupTotal += computed;
+			}
+			if (stored == null || stored != computed) {
+				result.getOrderMismatches().add(
+						new OrderMismatch(order.getId(), order.getStatus(), stored, computed));
+				if (repair) {
+					order.setTotalAmount(computed);
+				}
+			}
+		}
+		result.setComputedGroupTotal(computedGroupTotal);
+
+		boolean groupConsistent = group.getTotalAmount() != null && group.getTotalAmount() == computedGroupTotal;
+		result.setConsistent(groupConsistent && result.getOrderMismatches().isEmpty());
+		return result;
+	}
+}
@@ -0,0 +1,228 @@
+package com.supernovapos.finalproject.order.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.supernovapos.finalproject.common.util.TransactionUtils;
+import com.supernovapos.finalproject.order.dto.TodayDashboardDto;
+import com.supernovapos.finalproject.order.repository.OrderGroupRepository;
+import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
+import com.supernovapos.finalproject.payment.repository.PaymentRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 今日營運即時數據（儀表板）
+ * - 各桌營業額、各時段開桌數、各商品送出數量以 LongAdder 累加，讀寫都不加鎖
+ * - 開桌、送單、結帳、付款成功時於交易 commit 後累加；啟動時與每天午夜由資料庫重新載入
+ * - 有變動時以固定間隔推播快照到 /topic/dashboard，間隔內多次變動只推一次
+ * 注意：只適用單節點部署；重新載入期間 commit 的事件可能漏計，下次載入時修正
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodayMetrics {
+
+	public static final String TOPIC = "/topic/dashboard";
+
+	private final OrderGroupRepository orderGroupRepository;
+	private final OrderItemsRepository orderItemsRepository;
+	private final PaymentRepository paymentRepository;
+	private final SimpMessagingTemplate messagingTemplate;
+
+	private final AtomicReference<Day> current = new AtomicReference<>(new Day(LocalDate.now()));
+	private final AtomicBoolean dirty = new AtomicBoolean();
+
+//	啟動時由資料庫載入
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void seedOnStartup() {
+		reload();
+	}
+
+//	跨日時換成新的營業日
+	@Scheduled(cron = "0 0 0 * * *")
+	@Transactional(readOnly = true)
+	public void rollover() {
+		reload();
+	}
+
+// ================= 查詢 =================
+
+	public TodayDashboardDto getSnapshot() {
+		Day day = current.get();
+		List<Long> groupsByHour = new ArrayList<>(24);
+		for (LongAdder adder : day.groupsByHour) {
+			groupsByHour.add(adder.sum());
+		}
+		return new TodayDashboardDto(
+				day.date,
+				day.completedGroups.sum(),
+				day.completedRevenue.sum(),
+				day.openedGroups.sum(),
+				day.submittedAmount.sum(),
+				day.paidCount.sum(),
+				day.paidAmount.sum(),
+				sums(day.revenueByTable),
+				groupsByHour,
+				sums(day.quantityByProduct),
+				LocalDateTime.now());
+	}
+
+	public long getTodayRevenue() {
+		return current.get().completedRevenue.sum();
+	}
+
+// ================= 累加（交易 commit 後生效） =================
+
+	public void recordGroupOpened(LocalDateTime createdAt) {
+		LocalDateTime time = createdAt != null ? createdAt : LocalDateTime.now();
+		TransactionUtils.afterCommit(() -> apply(time, day -> {
+			day.openedGroups.increment();
+			day.groupsByHour[time.getHour()].increment();
+		}));
+	}
+
+	/**
+	 * 送單或加點，依群組開桌日期歸戶
+	 * @param quantityByProduct 商品 ID → 本次送出數量
+	 */
+	public void recordOrdersSubmitted(LocalDateTime groupCreatedAt, Map<Integer, Long> quantityByProduct, long amount) {
+		TransactionUtils.afterCommit(() -> apply(groupCreatedAt, day -> {
+			day.submittedAmount.add(amount);
+			quantityByProduct.forEach((productId, quantity) -> day.adder(day.quantityByProduct, productId).add(quantity));
+		}));
+	}
+
+	public void recordGroupCompleted(Integer tableNumber, Integer totalAmount, LocalDateTime completedAt) {
+		long amount = totalAmount != null ? totalAmount : 0L;
+		TransactionUtils.afterCommit(() -> apply(completedAt, day -> {
+			day.completedGroups.increment();
+			day.completedRevenue.add(amount);
+			if (tableNumber != null) {
+				day.adder(day.revenueByTable, tableNumber).add(amount);
+			}
+		}));
+	}
+
+	public void recordPaymentSucceeded(long amount, LocalDateTime paidAt) {
+		TransactionUtils.afterCommit(() -> apply(paidAt, day -> {
+			day.paidCount.increment();
+			day.paidAmount.add(amount);
+		}));
+	}
+
+// ================= 推播 =================
+
+//	有變動才推播，推播頻率不超過設定的間隔
+	@Scheduled(fixedDelayString = "${dashboard.push-interval-ms:1000}")
+	public void pushIfChanged() {
+		if (!dirty.getAndSet(false)) {
+			return;
+		}
+		try {
+			messagingTemplate.convertAndSend(TOPIC, getSnapshot());
+		} catch (Exception e) {
+			log.warn("今日儀表板推播失敗: {}", e.getMessage());
+		}
+	}
+
+// ================= 私有方法 =================
+
+	private void reload() {
+		LocalDate date = LocalDate.now();
+		LocalDateTime startOfDay = date.atStartOfDay();
+		LocalDateTime endOfDay = startOfDay.plusDays(1);
+		Day day = new Day(date);
+
+		// 桌號, 營業額, 結帳桌次
+		for (Object[] row : orderGroupRepository.getTodayRevenueByTable(startOfDay, endOfDay)) {
+			long revenue = toLong(row[1]);
+			day.adder(day.revenueByTable, ((Number) row[0]).intValue()).add(revenue);
+			day.completedRevenue.add(revenue);
+			day.completedGroups.add(toLong(row[2]));
+		}
+		// 小時, 開桌數, 已送出金額
+		for (Object[] row : orderGroupRepository.getOrderCountByHour(startOfDay, endOfDay)) {
+			long count = toLong(row[1]);
+			day.groupsByHour[((Number) row[0]).intValue()].add(count);
+			day.openedGroups.add(count);
+			day.submittedAmount.add(toLong(row[2]));
+		}
+		// 商品 ID, 數量
+		for (Object[] row : orderItemsRepository.sumSubmittedQuantityByProduct(startOfDay, endOfDay)) {
+			day.adder(day.quantityByProduct, ((Number) row[0]).intValue()).add(toLong(row[1]));
+		}
+		// 筆數, 金額
+		for (Object[] row : paymentRepository.countAndSumPaidBetween(startOfDay, endOfDay)) {
+			day.paidCount.add(toLong(row[0]));
+			day.paidAmount.add(toLong(row[1]));
+		}
+
+		current.set(day);
+		dirty.set(true);
+		log.info("已載入 {} 營運數據：結帳 {} 桌，營業額 {}", date, day.completedGroups.sum(), day.completedRevenue.sum());
+	}
+
+//	只累加到同一營業日，跨日前後 commit 的舊事件直接略過
+	private void apply(LocalDateTime time, Consumer<Day> update) {
+		Day day = current.get();
+		if (time != null && !time.toLocalDate().equals(day.date)) {
+			return;
+		}
+		update.accept(day);
+		dirty.set(true);
+	}
+
+	private static Map<Integer, Long> sums(ConcurrentHashMap<Integer, LongAdder> adders) {
+		Map<Integer, Long> result = new TreeMap<>();
+		adders.forEach((key, adder) -> result.put(key, adder.sum()));
+		return result;
+	}
+
+	private static long toLong(Object value) {
+		return value != null ? ((Number) value).longValue() : 0L;
+	}
+
+	private static class Day {
+		private final LocalDate date;
+		private final LongAdder completedGroups = new LongAdder();
+		private final LongAdder completedRevenue = new LongAdder();
+		private final LongAdder openedGroups = new LongAdder();
+		private final LongAdder submittedAmount = new LongAdder();
+		private final LongAdder paidCount = new LongAdder();
+		private final LongAdder paidAmount = new LongAdder();
+		private final LongAdder[] groupsByHour = new LongAdder[24];
+		// key 為桌號（RestaurantTable.tableId）
+		private final ConcurrentHashMap<Integer, LongAdder> revenueByTable = new ConcurrentHashMap<>();
+		private final ConcurrentHashMap<Integer, LongAdder> quantityByProduct = new ConcurrentHashMap<>();
+
+		Day(LocalDate date) {
+			this.date = date;
+			for (int i = 0; i < groupsByHour.length; i++) {
+				groupsByHour[i] = new LongAdder();
+			}
+		}
+
+		LongAdder adder(ConcurrentHashMap<Integer, LongAdder> adders, Integer key) {
+			return adders.computeIfAbsent(key, k -> new LongAdder());
+		}
+	}
+}
@@ -40,6 +40,12 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Long getTotalSuccessAmountBetween(@Param("startDate") LocalDateTime startDate, 
                                      @Param("endDate") LocalDateTime endDate);
     
+    // 指定時間內付款成功的筆數與金額（依付款時間）
+    @Query("SELECT COUNT(p), COALESCE(SUM(p.totalAmount), 0) FROM Payment p "
+            + "WHERE p.tradeStatus = 'SUCCESS' AND p.paidAt >= :startTime AND p.paidAt < :endTime")
+    List<Object[]> countAndSumPaidBetween(@Param("startTime") LocalDateTime startTime,
+                                         @Param("endTime") LocalDateTime endTime);
+
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.tradeStatus = 'SUCCESS' AND p.payerUserId = :userId")
     Long getSuccessPaymentCountByUser(@Param("userId") Long userId);
 
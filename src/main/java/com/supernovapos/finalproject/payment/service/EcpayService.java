@@ -19,6 +19,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.supernovapos.finalproject.analytics.service.AnalyticsCache;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
 import com.supernovapos.finalproject.order.model.OrderGroup;
 import com.supernovapos.finalproject.order.model.OrderItems;
 import com.supernovapos.finalproject.order.model.Orders;
@@ -26,6 +28,7 @@ import com.supernovapos.finalproject.order.repository.OrderGroupRepository;
 import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
 import com.supernovapos.finalproject.order.repository.OrdersRepository;
 import com.supernovapos.finalproject.order.service.OrderGroupService;
+import com.supernovapos.finalproject.order.service.TodayMetrics;
 import com.supernovapos.finalproject.payment.EcpayConfig;
 import com.supernovapos.finalproject.payment.model.Payment;
 import com.supernovapos.finalproject.payment.model.dto.CreatePaymentRequestDTO;
@@ -75,6 +78,12 @@ public class EcpayService {
 
     @Autowired
     private EmailService emailService;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private TodayMetrics todayMetrics;
     
     @Value("${restaurant.name:SupernovaPOS}")
     private String restaurantName;
@@ -239,6 +248,8 @@ public class EcpayService {
     	            .orElseThrow(() -> new RuntimeException("找不到付款記錄"));
     	    
     	    boolean isGuest = (payment.getPayerUserId() == null);
+    	    // 綠界可能重送回調，已成功的付款不重複計入今日數據
+    	    boolean alreadyPaid = "SUCCESS".equals(payment.getTradeStatus());
     	    
     	    if ("1".equals(rtnCode)) {
     	        // 付款成功
@@ -306,6 +317,11 @@ public class EcpayService {
     	    payment.setRtnMsg(params.get("RtnMsg"));
     	    payment.setTradeNo(params.get("TradeNo"));
     	    paymentRepository.save(payment);
+    	    // 報表快取中目前時段的結果失效
+    	    TransactionUtils.afterCommit(analyticsCache::evictCurrent);
+    	    if ("1".equals(rtnCode) && !alreadyPaid) {
+    	        todayMetrics.recordPaymentSucceeded(payment.getTotalAmount() != null ? payment.getTotalAmount() : 0, payment.getPaidAt());
+    	    }
     	    
     	    return PaymentResultDTO.builder()
     	            .merchantTradeNo(merchantTradeNo)
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker;
 import com.supernovapos.finalproject.product.model.ProductCategory;
 import com.supernovapos.finalproject.product.model.Products;
 import com.supernovapos.finalproject.product.service.ProductService;
@@ -76,12 +77,12 @@ public class ProductController {
 	}
 
 //	取得熱門商品
-	@Operation(summary = "取得熱門商品", description = "取得銷量排行的熱門商品")
+	@Operation(summary = "取得熱門商品", description = "取得指定時段銷量排行的熱門商品")
 	@GetMapping("/popular")
 	public ResponseEntity<List<Products>> getPopularProducts(
-			@Parameter(description = "取得數量，預設10筆") @RequestParam(defaultValue = "10") Integer limit) {
-		Pageable pageable = PageRequest.of(0, limit);
-		List<Products> products = productService.getPopularProducts(pageable);
+			@Parameter(description = "取得數量，預設10筆") @RequestParam(defaultValue = "10") Integer limit,
+			@Parameter(description = "統計時段：hour（近一小時）、today（今日）、week（近 7 天，預設）") @RequestParam(defaultValue = "week") String window) {
+		List<Products> products = productService.getPopularProducts(limit, PopularProductTracker.Window.of(window));
 
 		return ResponseEntity.ok(products);
 	}
@@ -2,6 +2,7 @@ package com.supernovapos.finalproject.product.repository;
 
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -26,16 +27,6 @@ public interface ProductsRepository extends JpaRepository<Products, Integer> {
 	@Query("select p from Products p where p.isAvailable = true and lower(p.name) like lower(concat('%', :keyword, '%')) order by p.name asc")
 	List<Products> searchAvailableProducts(@Param("keyword") String keyword);
 
-// 	查詢熱門商品
-	@Query("select p from Products p " +
-	           "left join OrderItems oi on p.id = oi.products.id " +
-	           "left join Orders o on oi.orders.id = o.id " +
-	           "where p.isAvailable = true and o.status = true " +
-	           "group by p.id, p.name, p.price, p.isAvailable, p.image, p.description, " +
-	           "p.createdAt, p.updatedAt, p.productCategory " +
-	           "order by sum(oi.quantity) desc")
-	List<Products> findPopularProducts(Pageable pageable);
-	
 	@Query("SELECT p FROM Products p WHERE p.isAvailable = true AND " +
 		       "(:categoryId IS NULL OR p.productCategory.id = :categoryId) " +
 		       "ORDER BY p.name ASC")
@@ -51,6 +42,14 @@ public interface ProductsRepository extends JpaRepository<Products, Integer> {
 	       "ORDER BY p.createdAt DESC")
 	List<Products> findAllProductsWithCategory();
 
+	/**
+	 * 查詢單一商品並包含分類資訊（購物車快取用）
+	 */
+	@Query("SELECT p FROM Products p " +
+	       "LEFT JOIN FETCH p.productCategory " +
+	       "WHERE p.id = :id")
+	Optional<Products> findByIdWithCategory(@Param("id") Integer id);
+
 	
     /**
      * 根據分類查詢所有商品（包含已下架）- 管理端用
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker;
 import com.supernovapos.finalproject.common.exception.ConflictException;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
@@ -31,6 +32,9 @@ public class CategoryManagementService {
 	@Autowired
 	private ProductsRepository productsRepository;
 
+	@Autowired
+	private PopularProductTracker popularProductTracker;
+
 //   新增商品分類
 	public ProductCategory createCategory(CreateCategoryRequest request) {
 		Optional<ProductCategory> existingCategory = productCategoryRepository
@@ -93,6 +97,7 @@ public class CategoryManagementService {
 		}
 
 		productCategoryRepository.deleteById(categoryId);
+		popularProductTracker.evictAllProducts();
 	}
 
 //	啟用分類
@@ -123,6 +128,7 @@ public class CategoryManagementService {
 			product.setIsAvailable(false);
 			productsRepository.save(product);
 		}
+		popularProductTracker.evictAllProducts();
 
 		productCategoryRepository.save(category);
 	}
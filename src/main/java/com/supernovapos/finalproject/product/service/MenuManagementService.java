@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker;
 import com.supernovapos.finalproject.product.dto.BatchUpdateProductStatusRequest;
 import com.supernovapos.finalproject.product.dto.CategoryWithProductsDto;
 import com.supernovapos.finalproject.product.dto.MenuStructureDto;
@@ -26,6 +27,9 @@ public class MenuManagementService {
 	@Autowired
 	private ProductsRepository productsRepository;
 
+	@Autowired
+	private PopularProductTracker popularProductTracker;
+
 //	取得完整菜單結構(管理端用)
 	public MenuStructureDto getFullMenuStructure() {
 		List<ProductCategory> allCategories = productCategoryRepository.findAllOrderByName();
@@ -105,6 +109,7 @@ public class MenuManagementService {
 	
 //	批量更新商品狀態
 	public Integer batchUpdateProductStatus(BatchUpdateProductStatusRequest request) {
+		popularProductTracker.evictProducts(request.getProductIds());
 		return productsRepository.batchUpdateProductStatus(request.getProductIds(), request.getIsAvailable());
 	}
 	
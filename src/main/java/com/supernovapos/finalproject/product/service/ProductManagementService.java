@@ -9,6 +9,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
 import com.supernovapos.finalproject.product.dto.CategoryProductStatsDto;
@@ -31,6 +32,9 @@ public class ProductManagementService {
 	@Autowired
 	private ProductCategoryRepository productCategoryRepository;
 
+	@Autowired
+	private PopularProductTracker popularProductTracker;
+
 //	新增商品
 	public Products createProduct(CreateProductRequest request) {
 		// 檢查分類是否存在
@@ -90,6 +94,7 @@ public class ProductManagementService {
 			}
 			product.setProductCategory(category);
 		}
+		popularProductTracker.evictProducts(List.of(productId));
 		return productsRepository.save(product);
 	}
 
@@ -97,6 +102,7 @@ public class ProductManagementService {
 	 * 批量更新商品狀態（使用 Repository 的批量方法）
 	 */
 	public int batchUpdateProductStatus(List<Integer> productIds, Boolean isAvailable) {
+		popularProductTracker.evictProducts(productIds);
 		return productsRepository.batchUpdateProductStatus(productIds, isAvailable);
 	}
 
@@ -108,6 +114,7 @@ public class ProductManagementService {
 		}
 
 		productsRepository.deleteById(productId);
+		popularProductTracker.evictProducts(List.of(productId));
 	}
 
 //	下架商品
@@ -121,6 +128,7 @@ public class ProductManagementService {
 		Products product = productOpt.get();
 		product.setIsAvailable(false);
 		productsRepository.save(product);
+		popularProductTracker.evictProducts(List.of(productId));
 	}
 
 //	批量下架商品
@@ -145,6 +153,7 @@ public class ProductManagementService {
 
 		product.setIsAvailable(true);
 		productsRepository.save(product);
+		popularProductTracker.evictProducts(List.of(productId));
 	}
 
 //	批量上架商品
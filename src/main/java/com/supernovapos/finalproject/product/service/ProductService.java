@@ -1,6 +1,9 @@
 package com.supernovapos.finalproject.product.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.supernovapos.finalproject.analytics.model.dto.PopularProductDto;
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
 import com.supernovapos.finalproject.product.model.ProductCategory;
 import com.supernovapos.finalproject.product.model.Products;
@@ -25,6 +30,9 @@ public class ProductService {
 	@Autowired
 	private ProductCategoryRepository productCategoryRepository;
 	
+	@Autowired
+	private PopularProductTracker popularProductTracker;
+	
 //	取得所有可用商品
 	public List<Products> getAllAvailableProducts(){
 		return productsRepository.findAllAvailableProducts();
@@ -49,9 +57,24 @@ public class ProductService {
 		return productsRepository.searchAvailableProducts(keyword);
 	}
 	
-//	取得熱門商品
-	public List<Products> getPopularProducts(Pageable pageable){
-		return productsRepository.findPopularProducts(pageable);
+//	取得熱門商品（排行來自記憶體即時統計，只以主鍵查詢商品）
+	public List<Products> getPopularProducts(int limit, PopularProductTracker.Window window){
+		List<Integer> productIds = popularProductTracker.top(window, limit).stream()
+				.map(PopularProductDto::getProductId)
+				.toList();
+
+		Map<Integer, Products> products = new HashMap<>();
+		for (Products product : productsRepository.findAllById(productIds)) {
+			products.put(product.getId(), product);
+		}
+		List<Products> result = new ArrayList<>();
+		for (Integer productId : productIds) {
+			Products product = products.get(productId);
+			if (product != null && Boolean.TRUE.equals(product.getIsAvailable())) {
+				result.add(product);
+			}
+		}
+		return result;
 	}
 	
 //	分頁查詢商品
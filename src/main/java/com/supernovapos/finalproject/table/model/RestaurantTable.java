@@ -163,6 +163,8 @@ public class RestaurantTable {
     }
 
     // 便利方法：檢查桌子是否有進行中的訂單
+    // 會載入此桌所有歷史訂單群組，服務層請改用 ActiveSessionRegistry
+    @Deprecated
     public boolean hasActiveOrder() {
         if (orderGroups == null || orderGroups.isEmpty()) {
             return false;
@@ -177,6 +179,8 @@ public class RestaurantTable {
     }
 
     // 便利方法：取得目前進行中的訂單群組
+    // 會載入此桌所有歷史訂單群組，服務層請改用 ActiveSessionRegistry
+    @Deprecated
     public OrderGroup getCurrentOrderGroup() {
         if (orderGroups == null || orderGroups.isEmpty()) {
             return null;
@@ -21,14 +21,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.email = :input OR u.phoneNumber = :input")
     Optional<User> findByEmailOrPhone(@Param("input") String input);
 
-    // ========== 帶角色與權限 (Authentication / RBAC 用) ==========
+    // ========== 帶角色 (Authentication / RBAC 用) ==========
+    // 權限由 RoleAuthorityRegistry 依角色代碼取得，不再載入 rolePermissions
     @Query("""
             SELECT DISTINCT u
             FROM User u
             LEFT JOIN FETCH u.userRoles ur
             LEFT JOIN FETCH ur.role r
-            LEFT JOIN FETCH r.rolePermissions rp
-            LEFT JOIN FETCH rp.permission p
             WHERE u.email = :input OR u.phoneNumber = :input
             """)
     Optional<User> findByEmailOrPhoneWithRoles(@Param("input") String input);
@@ -13,7 +13,8 @@ import com.supernovapos.finalproject.user.model.entity.User;
 
 public interface UserService {
 
-	UserResponseDto registerUser(UserRegisterDto dto);
+	// encodedPassword 由呼叫端先行雜湊（BCrypt 在 authExecutor 執行）
+	UserResponseDto registerUser(UserRegisterDto dto, String encodedPassword);
 
 	void resendVerificationEmail(String username);
 
@@ -16,6 +16,8 @@ import com.supernovapos.finalproject.auth.model.entity.Role;
 import com.supernovapos.finalproject.auth.model.entity.UserRole;
 import com.supernovapos.finalproject.auth.model.entity.UserRoleId;
 import com.supernovapos.finalproject.auth.repository.RoleRepository;
+import com.supernovapos.finalproject.auth.security.PrincipalCache;
+import com.supernovapos.finalproject.auth.security.TokenDenyList;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
 import com.supernovapos.finalproject.user.model.dto.StaffRegisterDto;
@@ -44,6 +46,8 @@ public class StaffServiceImpl implements StaffService {
     private final UserRoleRepository userRoleRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final PrincipalCache principalCache;
+    private final TokenDenyList tokenDenyList;
 
     // ==================================================
     // 🔹 Public Methods
@@ -58,6 +62,7 @@ public class StaffServiceImpl implements StaffService {
         assignStoreRoles(user, dto.getRoles());
 
         User saved = userRepository.save(user);
+        principalCache.evictUser(saved.getId()); // 可能沿用既有帳號
         log.info("員工建立完成 id={}, roles={}", saved.getId(), dto.getRoles());
         return userMapper.toDto(saved);
     }
@@ -100,6 +105,10 @@ public class StaffServiceImpl implements StaffService {
         }
 
         User saved = userRepository.save(user);
+        if (dto.getRoles() != null) {
+            principalCache.evictUser(saved.getId());
+            tokenDenyList.revokeUser(saved.getEmail());
+        }
         log.info("員工更新成功 id={}, roles={}", saved.getId(), dto.getRoles());
         return userMapper.toDto(saved);
     }
@@ -120,6 +129,8 @@ public class StaffServiceImpl implements StaffService {
         validateStoreRoleConstraints(user);
 
         User saved = userRepository.save(user);
+        principalCache.evictUser(saved.getId());
+        tokenDenyList.revokeUser(saved.getEmail());
         log.info("員工離職成功 id={}", saved.getId());
         return userMapper.toDto(saved);
     }
@@ -5,15 +5,14 @@ import java.util.function.Function;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClient;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.supernovapos.finalproject.auth.service.AuthService;
 import com.supernovapos.finalproject.common.exception.ConflictException;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.oauth.dto.LineProfile;
 import com.supernovapos.finalproject.oauth.verifier.GoogleTokenVerifier;
+import com.supernovapos.finalproject.oauth.verifier.LineTokenVerifier;
 import com.supernovapos.finalproject.user.model.dto.BindResponseDto;
 import com.supernovapos.finalproject.user.model.entity.User;
 import com.supernovapos.finalproject.user.model.mapper.BindResponseMapper;
@@ -30,8 +29,7 @@ public class UserBindingServiceImpl implements UserBindingService {
 
     private final UserRepository userRepository;
     private final GoogleTokenVerifier googleTokenVerifier;
-    private final RestClient restClient;
-    private final ObjectMapper objectMapper;
+    private final LineTokenVerifier lineTokenVerifier;
     private final AuthService authService;
     private final BindResponseMapper bindResponseMapper;
 
@@ -95,11 +93,11 @@ public class UserBindingServiceImpl implements UserBindingService {
     @Transactional
     public BindResponseDto bindLine(String accessToken) {
         try {
-            JsonNode profile = fetchLineProfile(accessToken);
+            LineProfile profile = lineTokenVerifier.verify(accessToken);
 
-            String lineUid = profile.get("userId").asText();
-            String displayName = profile.get("displayName").asText();
-            String pictureUrl = profile.get("pictureUrl").asText();
+            String lineUid = profile.getUserId();
+            String displayName = profile.getDisplayName();
+            String pictureUrl = profile.getPictureUrl();
 
             if (lineUid == null || lineUid.isBlank()) {
                 throw new InvalidRequestException("[LINE] UID 無效");
@@ -181,17 +179,5 @@ public class UserBindingServiceImpl implements UserBindingService {
         userRepository.save(user);
         log.info("使用者 {} 成功綁定 {} 帳號 uid={}", user.getId(), provider, uid);
     }
-
-    /**
-     * 呼叫 LINE API 取得使用者 Profile
-     */
-    private JsonNode fetchLineProfile(String accessToken) throws Exception {
-        String result = restClient.get()
-                .uri("https://api.line.me/v2/profile")
-                .header("Authorization", "Bearer " + accessToken)
-                .retrieve()
-                .body(String.class);
-        return objectMapper.readTree(result);
-    }
 }
 
@@ -17,11 +17,14 @@ import com.supernovapos.finalproject.auth.model.entity.UserRoleId;
 import com.supernovapos.finalproject.auth.model.entity.VerificationToken;
 import com.supernovapos.finalproject.auth.repository.RoleRepository;
 import com.supernovapos.finalproject.auth.repository.VerificationTokenRepository;
+import com.supernovapos.finalproject.auth.security.PrincipalCache;
+import com.supernovapos.finalproject.auth.security.TokenDenyList;
 import com.supernovapos.finalproject.auth.service.EmailService;
 import com.supernovapos.finalproject.common.exception.ConflictException;
 import com.supernovapos.finalproject.common.exception.InvalidRequestException;
 import com.supernovapos.finalproject.common.exception.ResourceNotFoundException;
 import com.supernovapos.finalproject.common.util.SystemAccountProtector;
+import com.supernovapos.finalproject.common.util.TransactionUtils;
 import com.supernovapos.finalproject.order.model.Orders;
 import com.supernovapos.finalproject.payment.service.PointService;
 import com.supernovapos.finalproject.user.model.dto.UserOrderResponseDto;
@@ -52,6 +55,8 @@ public class UserServiceImpl implements UserService {
     private final EmailService emailService;
     private final UserMapper userMapper;
     private final OrderMapper orderMapper;
+    private final PrincipalCache principalCache;
+    private final TokenDenyList tokenDenyList;
 
     // ==================================================
     // 🔹 使用者註冊 / 登入相關
@@ -59,12 +64,12 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
-    public UserResponseDto registerUser(UserRegisterDto dto) {
+    public UserResponseDto registerUser(UserRegisterDto dto, String encodedPassword) {
         checkEmailUnique(dto.getEmail());
         checkPhoneUnique(dto.getPhone());
 
         User user = userMapper.toEntity(dto);
-        user.setPassword(passwordEncoder.encode(dto.getPassword()));
+        user.setPassword(encodedPassword);
         user.setIsActive(false);
 
         User savedUser = userRepository.save(user);
@@ -98,6 +103,7 @@ public class UserServiceImpl implements UserService {
         user.setEmailVerified(true);
         user.setIsActive(true);
         userRepository.save(user);
+        principalCache.evictUser(user.getId());
 
         tokenRepository.delete(vToken);
     }
@@ -128,6 +134,10 @@ public class UserServiceImpl implements UserService {
         validateNotAdmin(user, "停用管理員帳號");
 
         user.setIsActive(isAvailable);
+        principalCache.evictUser(user.getId());
+        if (!isAvailable) {
+            tokenDenyList.revokeUser(user.getEmail());
+        }
         return userMapper.toDto(userRepository.save(user));
     }
 
@@ -140,6 +150,8 @@ public class UserServiceImpl implements UserService {
         validateNotAdmin(user, "停用管理員帳號");
 
         user.setIsActive(false);
+        principalCache.evictUser(user.getId());
+        tokenDenyList.revokeUser(user.getEmail());
         return userMapper.toDto(userRepository.save(user));
     }
 
@@ -213,7 +225,9 @@ public class UserServiceImpl implements UserService {
         vToken.setExpiryDate(LocalDateTime.now().plusHours(24));
         tokenRepository.save(vToken);
 
-        emailService.sendVerificationEmail(user.getEmail(), token);
+        // commit 後才寄信：不在交易內等待 SMTP，寄信失敗也不回滾帳號（可重新寄送驗證信）
+        String email = user.getEmail();
+        TransactionUtils.afterCommit(() -> emailService.sendVerificationEmail(email, token));
     }
 
     /** 驗證 token 是否有效 */
@@ -197,6 +197,7 @@ CREATE TABLE order_groups (
     created_at DATETIME2 NOT NULL DEFAULT SYSUTCDATETIME(),
     updated_at DATETIME2 NOT NULL DEFAULT SYSUTCDATETIME(),
     completed_at DATETIME2 NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT PK_order_groups PRIMARY KEY (id),
     CONSTRAINT FK_order_groups_table
         FOREIGN KEY (table_id) REFERENCES dbo.restaurant_table(id) ON DELETE NO ACTION ON UPDATE NO ACTION
@@ -229,6 +230,10 @@ CREATE TABLE orders (
     group_id UNIQUEIDENTIFIER,
     temp_user_id UNIQUEIDENTIFIER,
     user_id BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
+    prep_status VARCHAR(10) NOT NULL DEFAULT 'QUEUED'
+        CHECK (prep_status IN ('QUEUED', 'COOKING', 'READY', 'SERVED')),
+    served_at DATETIME2 NULL,
     
     -- 主鍵約束
     CONSTRAINT PK_orders PRIMARY KEY (id),
@@ -240,8 +245,13 @@ CREATE TABLE orders (
 );
 GO
 
+-- order_items 主鍵改用 sequence，應用程式一次取 50 個 id 以便批次 INSERT
+-- INCREMENT BY 必須與 OrderItems 的 allocationSize 相同
+CREATE SEQUENCE dbo.order_items_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+GO
+
 CREATE TABLE order_items (
-    id BIGINT IDENTITY(1,1) NOT NULL,
+    id BIGINT NOT NULL DEFAULT (NEXT VALUE FOR dbo.order_items_seq),
     order_id BIGINT NOT NULL,
     product_id INT NOT NULL,
     quantity INT NOT NULL CHECK (quantity >= 1),
@@ -249,6 +259,11 @@ CREATE TABLE order_items (
     subtotal AS (CAST(quantity AS DECIMAL(10,2)) * unit_price) PERSISTED,
     note NVARCHAR(255) NULL,
     created_at DATETIME2 NOT NULL DEFAULT SYSUTCDATETIME(),
+    prep_status VARCHAR(10) NOT NULL DEFAULT 'QUEUED'
+        CHECK (prep_status IN ('QUEUED', 'COOKING', 'READY', 'SERVED')),
+    cooking_at DATETIME2 NULL,
+    ready_at DATETIME2 NULL,
+    served_at DATETIME2 NULL,
     CONSTRAINT PK_order_items PRIMARY KEY (id),
     CONSTRAINT FK_order_items_order
         FOREIGN KEY (order_id) REFERENCES dbo.orders(id) ON DELETE CASCADE ON UPDATE NO ACTION,
@@ -257,6 +272,34 @@ CREATE TABLE order_items (
 );
 GO
 
+-- 既有資料庫升級：已結束群組（或沒有群組）的訂單不會再出餐，一律標記為 SERVED
+-- 之後由結帳與強制結束維護（OrderGroupService），新建資料庫時不影響任何資料
+UPDATE oi SET oi.prep_status = 'SERVED'
+FROM dbo.order_items oi
+JOIN dbo.orders o ON o.id = oi.order_id
+LEFT JOIN dbo.order_groups og ON og.id = o.group_id
+WHERE oi.prep_status <> 'SERVED' AND (og.id IS NULL OR og.status = 0);
+
+UPDATE o SET o.prep_status = 'SERVED'
+FROM dbo.orders o
+LEFT JOIN dbo.order_groups og ON og.id = o.group_id
+WHERE o.prep_status <> 'SERVED' AND (og.id IS NULL OR og.status = 0);
+GO
+
+-- 廚房佇列：只索引未出餐項目（由舊到新），索引大小隨現場待出餐量而非歷史資料成長
+DROP INDEX IF EXISTS IX_order_items_prep_status ON dbo.order_items;
+CREATE INDEX IX_order_items_prep_status
+ON dbo.order_items(prep_status, created_at)
+INCLUDE (order_id, product_id, quantity)
+WHERE prep_status <> 'SERVED';
+GO
+
+-- 收款前檢查同桌是否還有未出餐的訂單
+CREATE INDEX IX_orders_group_prep_status
+ON dbo.orders(group_id, prep_status)
+WHERE status = 1;
+GO
+
 CREATE TABLE payments (
     id BIGINT IDENTITY(1,1) PRIMARY KEY,
     order_group_id UNIQUEIDENTIFIER NOT NULL,
@@ -364,4 +407,77 @@ BEGIN
     SET updated_at = SYSUTCDATETIME()
     FROM dbo.orders o
     INNER JOIN inserted i ON o.id = i.id;
-END;
\ No newline at end of file
+END;
+GO
+
+-- 營收彙總表：群組結帳時累加，報表直接讀取彙總列不再掃描 order_items
+-- 只計入已送出訂單（orders.status = 1），歷史資料以 /api/analytics/rollup/rebuild 重建
+CREATE TABLE sales_rollup_daily (
+    sales_date DATE NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    item_quantity INT NOT NULL DEFAULT 0,
+    updated_at DATETIME2 NOT NULL DEFAULT SYSUTCDATETIME(),
+    CONSTRAINT PK_sales_rollup_daily PRIMARY KEY (sales_date)
+);
+GO
+
+CREATE TABLE sales_rollup_hourly (
+    sales_date DATE NOT NULL,
+    sales_hour TINYINT NOT NULL CHECK (sales_hour BETWEEN 0 AND 23),
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    item_quantity INT NOT NULL DEFAULT 0,
+    CONSTRAINT PK_sales_rollup_hourly PRIMARY KEY (sales_date, sales_hour)
+);
+GO
+
+CREATE TABLE sales_rollup_product_daily (
+    sales_date DATE NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    CONSTRAINT PK_sales_rollup_product_daily PRIMARY KEY (sales_date, product_id),
+    CONSTRAINT FK_sales_rollup_product_daily_product
+        FOREIGN KEY (product_id) REFERENCES dbo.products(id) ON DELETE NO ACTION ON UPDATE NO ACTION
+);
+GO
+
+-- 以群組開桌日期歸戶，table_id 為 restaurant_table.id
+CREATE TABLE sales_rollup_table_daily (
+    sales_date DATE NOT NULL,
+    table_id INT NOT NULL,
+    group_count INT NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    dining_minutes INT NOT NULL DEFAULT 0,
+    CONSTRAINT PK_sales_rollup_table_daily PRIMARY KEY (sales_date, table_id),
+    CONSTRAINT FK_sales_rollup_table_daily_table
+        FOREIGN KEY (table_id) REFERENCES dbo.restaurant_table(id) ON DELETE NO ACTION ON UPDATE NO ACTION
+);
+GO
+
+-- 營運負載時間序列快照（15 分鐘時槽）：已結束的日期每天一列，payload 為 LoadSeries 編碼的非空時槽
+-- 只保留最近 90 天會被讀取，較舊的列可定期刪除
+CREATE TABLE load_series_daily (
+    series_date DATE NOT NULL,
+    payload VARBINARY(MAX) NOT NULL,
+    updated_at DATETIME2 NOT NULL DEFAULT SYSUTCDATETIME(),
+    CONSTRAINT PK_load_series_daily PRIMARY KEY (series_date)
+);
+GO
+
+-- JWT 撤銷清單：TOKEN 為單一 token（token_key = jti），USER 為使用者在 revoked_at 前簽發的所有 token（token_key = email）
+-- expires_at 之後 token 本身已過期，該列可刪除
+CREATE TABLE revoked_tokens (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    kind VARCHAR(10) NOT NULL,
+    token_key NVARCHAR(100) NOT NULL,
+    revoked_at DATETIME2 NOT NULL,
+    expires_at DATETIME2 NOT NULL,
+    CONSTRAINT CK_revoked_tokens_kind CHECK (kind IN ('TOKEN', 'USER'))
+);
+GO
+
+CREATE INDEX IX_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+GO
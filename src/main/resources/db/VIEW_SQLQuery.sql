@@ -11,17 +11,6 @@ JOIN product_category c ON p.category_id = c.id
 GROUP BY p.id, p.name, c.category_name;
 GO
 
-CREATE VIEW v_daily_sales AS
-SELECT 
-    CONVERT(date, o.created_at) AS order_date,
-    SUM(oi.subtotal) AS daily_revenue,
-    COUNT(DISTINCT o.id) AS order_count,
-    SUM(oi.subtotal) * 1.0 / NULLIF(COUNT(DISTINCT o.id), 0) AS avg_order_value
-FROM orders o
-JOIN order_items oi ON o.id = oi.order_id
-GROUP BY CONVERT(date, o.created_at);
-GO
-
 CREATE VIEW v_user_spending AS
 SELECT 
     u.id AS user_id,
@@ -0,0 +1,87 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class AnalyticsCacheTest {
+
+	@Test
+	void closedPeriodSurvivesEvictCurrent() {
+		AnalyticsCache cache = new AnalyticsCache(100, 300);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get("r", "closed", true, loads::incrementAndGet);
+		cache.get("r", "current", false, loads::incrementAndGet);
+		cache.evictCurrent();
+
+		assertThat(cache.get("r", "closed", true, loads::incrementAndGet)).isEqualTo(1);
+		assertThat(cache.get("r", "current", false, loads::incrementAndGet)).isEqualTo(3);
+		assertThat(cache.getStats().getInvalidations()).isEqualTo(1);
+	}
+
+	@Test
+	void evictAllRemovesClosedPeriods() {
+		AnalyticsCache cache = new AnalyticsCache(100, 300);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get("r", "closed", true, loads::incrementAndGet);
+		cache.evictAll();
+
+		assertThat(cache.get("r", "closed", true, loads::incrementAndGet)).isEqualTo(2);
+	}
+
+	@Test
+	void currentPeriodExpires() throws InterruptedException {
+		AnalyticsCache cache = new AnalyticsCache(100, 0);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get("r", "current", false, loads::incrementAndGet);
+		Thread.sleep(5);
+
+		assertThat(cache.get("r", "current", false, loads::incrementAndGet)).isEqualTo(2);
+	}
+
+	@Test
+	void resultLoadedDuringInvalidationIsNotStored() {
+		AnalyticsCache cache = new AnalyticsCache(100, 300);
+		AtomicInteger loads = new AtomicInteger();
+
+		Integer first = cache.get("r", "current", false, () -> {
+			// 查詢期間有群組結帳，結果可能已過期
+			cache.evictCurrent();
+			return loads.incrementAndGet();
+		});
+
+		assertThat(first).isEqualTo(1);
+		assertThat(cache.get("r", "current", false, loads::incrementAndGet)).isEqualTo(2);
+		assertThat(cache.get("r", "current", false, loads::incrementAndGet)).isEqualTo(2);
+	}
+
+	@Test
+	void leastRecentlyUsedIsEvicted() {
+		AnalyticsCache cache = new AnalyticsCache(2, 300);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get("r", "a", true, loads::incrementAndGet);
+		cache.get("r", "b", true, loads::incrementAndGet);
+		cache.get("r", "a", true, loads::incrementAndGet);
+		cache.get("r", "c", true, loads::incrementAndGet);
+
+		assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+		assertThat(cache.get("r", "a", true, loads::incrementAndGet)).isEqualTo(1);
+		assertThat(cache.get("r", "b", true, loads::incrementAndGet)).isEqualTo(4);
+	}
+
+	@Test
+	void onlyDaysBeforeYesterdayAreClosed() {
+		LocalDate today = LocalDate.now();
+		assertThat(AnalyticsCache.isClosed(today.minusDays(2))).isTrue();
+		assertThat(AnalyticsCache.isClosed(today.minusDays(1))).isFalse();
+		assertThat(AnalyticsCache.isClosed(today)).isFalse();
+		assertThat(AnalyticsCache.isClosed(null)).isFalse();
+	}
+}
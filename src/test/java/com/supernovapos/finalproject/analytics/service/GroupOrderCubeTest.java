@@ -0,0 +1,151 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.supernovapos.finalproject.analytics.repository.GroupOrdersRepository;
+
+class GroupOrderCubeTest {
+
+	private final GroupOrdersRepository repository = mock(GroupOrdersRepository.class);
+	private final LocalDate today = LocalDate.now();
+	private final LocalDate closedDay = today.minusDays(5);
+
+	@Test
+	void closedDayIsLoadedOnce() {
+		GroupOrderCube cube = new GroupOrderCube(repository, 400);
+		when(repository.sumCompletedGroupCells(any(), any())).thenReturn(rows(summed(closedDay, 12, 1, 2, 1000)));
+
+		assertThat(revenue(cube, closedDay)).isEqualTo(1000);
+		assertThat(revenue(cube, closedDay)).isEqualTo(1000);
+		verify(repository, times(1)).sumCompletedGroupCells(any(), any());
+	}
+
+	@Test
+	void openDayCountsEachGroupOnce() {
+		GroupOrderCube cube = new GroupOrderCube(repository, 400);
+		UUID loadedGroup = UUID.randomUUID();
+		UUID newGroup = UUID.randomUUID();
+		when(repository.findCompletedGroupRows(any(), any())).thenReturn(rows(group(loadedGroup, today, 500)));
+		when(repository.findGroupRow(loadedGroup)).thenReturn(rows(group(loadedGroup, today, 500)));
+		when(repository.findGroupRow(newGroup)).thenReturn(rows(group(newGroup, today, 300)));
+
+		assertThat(revenue(cube, today)).isEqualTo(500);
+		// 沒有交易時結帳事件立即套用
+		cube.recordGroupCompleted(loadedGroup);
+		cube.recordGroupCompleted(newGroup);
+		cube.recordGroupCompleted(newGroup);
+
+		assertThat(revenue(cube, today)).isEqualTo(800);
+		verify(repository, times(1)).findCompletedGroupRows(any(), any());
+	}
+
+	@Test
+	void eventOnClosedDayForcesReload() {
+		GroupOrderCube cube = new GroupOrderCube(repository, 400);
+		UUID staleGroup = UUID.randomUUID();
+		when(repository.sumCompletedGroupCells(any(), any()))
+				.thenReturn(rows(summed(closedDay, 12, 1, 1, 1000)))
+				.thenReturn(rows(summed(closedDay, 12, 1, 2, 1400)));
+		when(repository.findGroupRow(staleGroup)).thenReturn(rows(group(staleGroup, closedDay, 400)));
+
+		assertThat(revenue(cube, closedDay)).isEqualTo(1000);
+		cube.recordGroupCompleted(staleGroup);
+
+		assertThat(revenue(cube, closedDay)).isEqualTo(1400);
+		verify(repository, times(2)).sumCompletedGroupCells(any(), any());
+	}
+
+	@Test
+	void eventDuringLoadIsNotLost() {
+		GroupOrderCube cube = new GroupOrderCube(repository, 400);
+		UUID racingGroup = UUID.randomUUID();
+		when(repository.findGroupRow(racingGroup)).thenReturn(rows(group(racingGroup, closedDay, 400)));
+		when(repository.sumCompletedGroupCells(any(), any()))
+				.thenAnswer(inv -> {
+					// 查詢結果已產生後才收到結帳事件，查詢不持有鎖所以事件可以進來
+					cube.recordGroupCompleted(racingGroup);
+					return rows(summed(closedDay, 12, 1, 1, 1000));
+				})
+				.thenReturn(rows(summed(closedDay, 12, 1, 2, 1400)));
+
+		assertThat(revenue(cube, closedDay)).isEqualTo(1000);
+		// 載入結果未發布，下次查詢重新載入
+		assertThat(revenue(cube, closedDay)).isEqualTo(1400);
+	}
+
+	@Test
+	void keepsAtMostMaxDays() {
+		GroupOrderCube cube = new GroupOrderCube(repository, 2);
+		when(repository.sumCompletedGroupCells(any(), any())).thenAnswer(inv -> {
+			LocalDate from = ((LocalDateTime) inv.getArgument(0)).toLocalDate();
+			LocalDate to = ((LocalDateTime) inv.getArgument(1)).toLocalDate();
+			List<Object[]> result = new ArrayList<>();
+			for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+				result.add(summed(date, 12, 1, 1, 100));
+			}
+			return result;
+		});
+		LocalDate from = closedDay.minusDays(2);
+
+		// 超過上限的日期仍計入本次查詢
+		assertThat(revenue(cube, from, closedDay.plusDays(1))).isEqualTo(300);
+		verify(repository, times(1)).sumCompletedGroupCells(any(), any());
+
+		// 最早的日期已被移除，需要重新載入
+		assertThat(revenue(cube, from, from.plusDays(1))).isEqualTo(100);
+		verify(repository, times(2)).sumCompletedGroupCells(any(), any());
+	}
+
+	@Test
+	void clearReloadsFromDatabase() {
+		GroupOrderCube cube = new GroupOrderCube(repository, 400);
+		when(repository.sumCompletedGroupCells(any(), any()))
+				.thenReturn(rows(summed(closedDay, 12, 1, 1, 1000)))
+				.thenReturn(rows(summed(closedDay, 12, 1, 1, 900)));
+
+		assertThat(revenue(cube, closedDay)).isEqualTo(1000);
+		cube.clear();
+		assertThat(revenue(cube, closedDay)).isEqualTo(900);
+	}
+
+	private static long revenue(GroupOrderCube cube, LocalDate day) {
+		return revenue(cube, day, day.plusDays(1));
+	}
+
+	private static long revenue(GroupOrderCube cube, LocalDate from, LocalDate to) {
+		long[] total = new long[1];
+		cube.forEachCell(from, to, (hour, tableId, cell) -> total[0] += cell.getRevenue());
+		return total[0];
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return new ArrayList<>(List.of(rows));
+	}
+
+	// date, hour, table_id, group_count, revenue, duration_sum, duration_count
+	private static Object[] summed(LocalDate date, int hour, int tableId, long groups, long revenue) {
+		return new Object[] { yyyymmdd(date), hour, tableId, groups, revenue, 60L * groups, groups };
+	}
+
+	// group_id, date, hour, table_id, total_amount, duration
+	private static Object[] group(UUID groupId, LocalDate date, int amount) {
+		return new Object[] { groupId.toString(), yyyymmdd(date), 12, 1, amount, 60 };
+	}
+
+	private static int yyyymmdd(LocalDate date) {
+		return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+	}
+}
@@ -0,0 +1,103 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.supernovapos.finalproject.analytics.model.dto.LoadHeatmapDto;
+import com.supernovapos.finalproject.analytics.model.entity.LoadSeriesSnapshot;
+import com.supernovapos.finalproject.analytics.repository.LoadSeriesRepository;
+
+class LoadSeriesTest {
+
+	// 已結束的日期，persistClosedDay 會寫入這一天
+	private final LocalDate day = LocalDate.now().minusDays(2);
+	private final int weekday = day.getDayOfWeek().getValue() - 1;
+
+	@Test
+	void recordsIntoFifteenMinuteSlots() {
+		LoadSeries series = new LoadSeries(mock(LoadSeriesRepository.class));
+		record(series);
+
+		LoadHeatmapDto heatmap = series.getHeatmap(day, day);
+		assertThat(heatmap.getDayCount()[weekday]).isEqualTo(1);
+		assertThat(heatmap.getGroupsOpened().get(weekday).get(48)).isEqualTo(2.0);
+		assertThat(heatmap.getItemsSubmitted().get(weekday).get(48)).isEqualTo(0.0);
+		assertThat(heatmap.getRevenue().get(weekday).get(52)).isEqualTo(1500.0);
+		assertThat(heatmap.getAvgDiningMinutes().get(weekday).get(52)).isEqualTo(45.0);
+	}
+
+	@Test
+	void slotOlderThanRingIsDropped() {
+		LoadSeries series = new LoadSeries(mock(LoadSeriesRepository.class));
+		series.recordGroupOpened(day.atTime(12, 5));
+		// 同一個環狀位置、早 90 天的時槽
+		series.recordGroupOpened(day.minusDays(LoadSeries.RETENTION_DAYS).atTime(12, 5));
+
+		assertThat(series.getHeatmap(day, day).getGroupsOpened().get(weekday).get(48)).isEqualTo(1.0);
+	}
+
+	@Test
+	void snapshotRestoresSameHeatmap() {
+		LoadSeriesRepository source = mock(LoadSeriesRepository.class);
+		LoadSeries original = new LoadSeries(source);
+		record(original);
+		original.persistClosedDay();
+
+		ArgumentCaptor<LoadSeriesSnapshot> saved = ArgumentCaptor.forClass(LoadSeriesSnapshot.class);
+		verify(source).save(saved.capture());
+		assertThat(saved.getValue().getSeriesDate()).isEqualTo(day);
+
+		LoadSeriesRepository target = mock(LoadSeriesRepository.class);
+		when(target.findBySeriesDateBetween(any(), any())).thenReturn(List.of(saved.getValue()));
+		LoadSeries restored = new LoadSeries(target);
+		restored.load();
+
+		assertThat(restored.getHeatmap(day, day)).usingRecursiveComparison().isEqualTo(original.getHeatmap(day, day));
+		// 已有快照的日期不再重寫
+		verify(target, never()).save(argThat(snapshot -> snapshot.getSeriesDate().equals(day)));
+	}
+
+	@Test
+	void corruptSnapshotIsRebuiltFromRows() {
+		LoadSeriesRepository repository = mock(LoadSeriesRepository.class);
+		// 宣告 5 個時槽但沒有內容
+		LoadSeriesSnapshot corrupt = new LoadSeriesSnapshot(day, new byte[] { 1, 5 }, LocalDateTime.now());
+		when(repository.findBySeriesDateBetween(any(), any())).thenReturn(List.of(corrupt));
+		when(repository.sumItemsBySlot(any(), any())).thenReturn(rows(new Object[] { slotOf(day.atTime(12, 0)), 7 }));
+		LoadSeries series = new LoadSeries(repository);
+		series.load();
+
+		assertThat(series.getHeatmap(day, day).getItemsSubmitted().get(weekday).get(48)).isEqualTo(7.0);
+		verify(repository).save(argThat(snapshot -> snapshot.getSeriesDate().equals(day)));
+	}
+
+	private void record(LoadSeries series) {
+		// 沒有交易時立即累加
+		series.recordGroupOpened(day.atTime(12, 5));
+		series.recordGroupOpened(day.atTime(12, 10));
+		series.recordGroupCompleted(day.atTime(12, 5), day.atTime(13, 5), 1000);
+		series.recordGroupCompleted(day.atTime(12, 40), day.atTime(13, 10), 500);
+	}
+
+	private static long slotOf(LocalDateTime time) {
+		return Duration.between(LocalDateTime.of(2000, 1, 1, 0, 0), time).toMinutes() / LoadSeries.SLOT_MINUTES;
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return new ArrayList<>(List.of(rows));
+	}
+}
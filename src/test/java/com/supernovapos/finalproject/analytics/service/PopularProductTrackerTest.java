@@ -0,0 +1,83 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.supernovapos.finalproject.analytics.model.dto.PopularProductDto;
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker.SpaceSaving;
+import com.supernovapos.finalproject.analytics.service.PopularProductTracker.Window;
+import com.supernovapos.finalproject.order.repository.OrderItemsRepository;
+import com.supernovapos.finalproject.product.model.Products;
+import com.supernovapos.finalproject.product.repository.ProductsRepository;
+
+class PopularProductTrackerTest {
+
+	private final ProductsRepository productsRepository = mock(ProductsRepository.class);
+	private final PopularProductTracker tracker = new PopularProductTracker(mock(OrderItemsRepository.class),
+			productsRepository, 64);
+
+	@Test
+	void fullSketchReplacesSmallestAndInheritsCount() {
+		SpaceSaving sketch = new SpaceSaving(2);
+		sketch.add(1, 5);
+		sketch.add(2, 3);
+		sketch.add(3, 1);
+
+		Map<Integer, Long> counts = new HashMap<>();
+		sketch.mergeInto(counts);
+		// 3 取代計數最小的 2，估計值 3 + 1 不低於實際銷量
+		assertThat(counts).containsOnly(Map.entry(1, 5L), Map.entry(3, 4L));
+	}
+
+	@Test
+	void ranksRecordedQuantitiesAndSkipsUnavailable() {
+		when(productsRepository.findAllById(anyIterable()))
+				.thenReturn(List.of(product(1, "滷肉飯", true), product(2, "雞排", true), product(3, "冬瓜茶", false)));
+
+		// 沒有交易時立即累加
+		tracker.record(Map.of(1, 2L, 2, 5L, 3, 9L));
+		tracker.record(Map.of(1, 1L));
+
+		List<PopularProductDto> top = tracker.top(Window.TODAY, 10);
+		assertThat(top).extracting(PopularProductDto::getProductId).containsExactly(2, 1);
+		assertThat(top).extracting(PopularProductDto::getQuantity).containsExactly(5L, 3L);
+		assertThat(tracker.top(Window.HOUR, 1)).extracting(PopularProductDto::getProductId).containsExactly(2);
+	}
+
+	@Test
+	void evictedProductIsReloaded() {
+		when(productsRepository.findAllById(anyIterable()))
+				.thenReturn(List.of(product(1, "滷肉飯", true)))
+				.thenReturn(List.of(product(1, "滷肉飯", false)));
+		tracker.record(Map.of(1, 2L));
+
+		assertThat(tracker.top(Window.WEEK, 10)).hasSize(1);
+		// 批次下架後移除快取，下次查詢重新讀取上架狀態
+		tracker.evictProducts(List.of(1));
+		assertThat(tracker.top(Window.WEEK, 10)).isEmpty();
+	}
+
+	@Test
+	void deletedProductIsSkipped() {
+		when(productsRepository.findAllById(anyIterable())).thenReturn(List.of());
+		tracker.record(Map.of(7, 1L));
+
+		assertThat(tracker.top(Window.TODAY, 10)).isEmpty();
+	}
+
+	private static Products product(int id, String name, boolean available) {
+		Products product = new Products();
+		product.setId(id);
+		product.setName(name);
+		product.setIsAvailable(available);
+		return product;
+	}
+}
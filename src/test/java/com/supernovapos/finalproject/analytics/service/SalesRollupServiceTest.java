@@ -0,0 +1,50 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.supernovapos.finalproject.analytics.repository.SalesRollupRepository;
+
+class SalesRollupServiceTest {
+
+	private final SalesRollupRepository repository = mock(SalesRollupRepository.class);
+	private final TrendService trendService = mock(TrendService.class);
+	private final AnalyticsCache analyticsCache = mock(AnalyticsCache.class);
+	private final SalesRollupService service = new SalesRollupService(repository, trendService,
+			mock(GroupOrderCube.class), analyticsCache);
+
+	@Test
+	void recentGroupEvictsCurrentPeriodsOnly() {
+		UUID groupId = UUID.randomUUID();
+		when(repository.findEarliestSalesDate(groupId)).thenReturn(yyyymmdd(LocalDate.now().minusDays(1)));
+
+		// 沒有交易時立即失效
+		service.recordGroupCompleted(groupId);
+
+		verify(analyticsCache).evictCurrent();
+		verify(analyticsCache, never()).evictAll();
+		verify(trendService, never()).evictClosedPeriods();
+	}
+
+	@Test
+	void staleGroupEvictsClosedPeriods() {
+		UUID groupId = UUID.randomUUID();
+		when(repository.findEarliestSalesDate(groupId)).thenReturn(yyyymmdd(LocalDate.now().minusDays(3)));
+
+		service.recordGroupCompleted(groupId);
+
+		verify(analyticsCache).evictAll();
+		verify(trendService).evictClosedPeriods();
+	}
+
+	private static int yyyymmdd(LocalDate date) {
+		return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+	}
+}
@@ -0,0 +1,85 @@
+package com.supernovapos.finalproject.analytics.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.supernovapos.finalproject.analytics.model.dto.RevenueTrendResponse;
+import com.supernovapos.finalproject.analytics.repository.SalesRollupRepository;
+import com.supernovapos.finalproject.order.service.ActiveSessionRegistry;
+
+class TrendServiceTest {
+
+	private final SalesRollupRepository repository = mock(SalesRollupRepository.class);
+	private final ActiveSessionRegistry registry = mock(ActiveSessionRegistry.class);
+	private final AnalyticsCache analyticsCache = mock(AnalyticsCache.class);
+	private final TrendService service = new TrendService(repository, registry, analyticsCache);
+	private final LocalDate today = LocalDate.now();
+
+	@BeforeEach
+	void setUp() {
+		// 報表快取直接執行 loader，只測 closedPeriods
+		when(analyticsCache.get(any(), any(), anyBoolean(), any()))
+				.thenAnswer(inv -> ((Supplier<?>) inv.getArgument(3)).get());
+		when(repository.sumRevenueByDay(any(), any())).thenAnswer(inv -> {
+			List<Object[]> rows = new ArrayList<>();
+			for (LocalDate day = inv.getArgument(0); day.isBefore(inv.getArgument(1)); day = day.plusDays(1)) {
+				rows.add(new Object[] { yyyymmdd(day), 100L });
+			}
+			return rows;
+		});
+	}
+
+	@Test
+	void activeSessionsAreReadBeforeRollup() {
+		service.getRevenueTrend("date", today.toString());
+
+		InOrder order = inOrder(registry, repository);
+		order.verify(registry).getAll();
+		order.verify(repository).sumRevenueByDay(any(), any());
+	}
+
+	@Test
+	void onlyDaysBeforeYesterdayArePinned() {
+		RevenueTrendResponse first = service.getRevenueTrend("date", today.toString());
+		service.getRevenueTrend("date", today.toString());
+
+		assertThat(first.getValues()).containsOnly(100L);
+		// 第二次只重查昨天與今天
+		verify(repository).sumRevenueByDay(today.minusDays(6), today.plusDays(1));
+		verify(repository).sumRevenueByDay(today.minusDays(1), today.plusDays(1));
+	}
+
+	@Test
+	void evictionDuringBuildIsNotOverwritten() {
+		LocalDate base = today.minusDays(10);
+		when(repository.sumRevenueByDay(base.minusDays(6), base.plusDays(1))).thenAnswer(inv -> {
+			// 查詢期間彙總表重建
+			service.evictClosedPeriods();
+			return List.of();
+		});
+
+		service.getRevenueTrend("date", base.toString());
+		service.getRevenueTrend("date", base.toString());
+
+		verify(repository, times(2)).sumRevenueByDay(base.minusDays(6), base.plusDays(1));
+	}
+
+	private static int yyyymmdd(LocalDate date) {
+		return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+	}
+}
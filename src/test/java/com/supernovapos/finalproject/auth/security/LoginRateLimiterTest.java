@@ -0,0 +1,94 @@
+package com.supernovapos.finalproject.auth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.supernovapos.finalproject.common.exception.TooManyRequestsException;
+
+class LoginRateLimiterTest {
+
+    // 每分鐘 60000 個，約每毫秒補 1 個
+    private static final int FAST_REFILL = 60_000;
+
+    @Test
+    void ipBucketEmptiesAndRefills() throws InterruptedException {
+        // 每 100 毫秒補 1 個
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 600, 5, 5, 100);
+
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.1")).isFalse();
+
+        Thread.sleep(150);
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void endpointsAndIpsAreCountedSeparately() {
+        LoginRateLimiter limiter = new LoginRateLimiter(1, 1, 5, 5, 100);
+
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.1")).isFalse();
+        assertThat(limiter.tryAcquireIp("register", "10.0.0.1")).isTrue();
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.2")).isTrue();
+    }
+
+    @Test
+    void accountLimitThrowsTooManyRequests() {
+        LoginRateLimiter limiter = new LoginRateLimiter(20, 20, 2, 1, 100);
+
+        limiter.acquireAccount("login", "user@test.com");
+        // 大小寫與前後空白視為同一帳號
+        limiter.acquireAccount("login", " USER@test.com ");
+        assertThatThrownBy(() -> limiter.acquireAccount("login", "user@test.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> limiter.acquireAccount("login", "other@test.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void blankAccountIsNotLimited() {
+        LoginRateLimiter limiter = new LoginRateLimiter(20, 20, 1, 1, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatCode(() -> limiter.acquireAccount("login", " ")).doesNotThrowAnyException();
+            assertThatCode(() -> limiter.acquireAccount("login", null)).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void keysOverLimitShareOverflowBucket() {
+        LoginRateLimiter limiter = new LoginRateLimiter(1, 1, 5, 5, 1);
+
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.1")).isTrue();
+        // 超過上限的新 IP 共用同一個溢出桶
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.2")).isTrue();
+        assertThat(limiter.tryAcquireIp("login", "10.0.0.3")).isFalse();
+        assertThat(buckets(limiter)).hasSize(2);
+    }
+
+    @Test
+    void refilledBucketsAreEvicted() throws InterruptedException {
+        LoginRateLimiter limiter = new LoginRateLimiter(1, FAST_REFILL, 5, 5, 100);
+        LoginRateLimiter slow = new LoginRateLimiter(1, 1, 5, 5, 100);
+        limiter.tryAcquireIp("login", "10.0.0.1");
+        slow.tryAcquireIp("login", "10.0.0.1");
+
+        Thread.sleep(10);
+        limiter.evictIdle();
+        slow.evictIdle();
+
+        assertThat(buckets(limiter)).isEmpty();
+        assertThat(buckets(slow)).hasSize(1);
+    }
+
+    private static Map<?, ?> buckets(LoginRateLimiter limiter) {
+        return (Map<?, ?>) ReflectionTestUtils.getField(limiter, "buckets");
+    }
+}
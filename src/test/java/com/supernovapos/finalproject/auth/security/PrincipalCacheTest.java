@@ -0,0 +1,102 @@
+package com.supernovapos.finalproject.auth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.supernovapos.finalproject.user.model.entity.User;
+
+class PrincipalCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void hitSkipsLoader() {
+        PrincipalCache cache = new PrincipalCache(100, 300);
+
+        CustomUserDetails first = cache.get("a@test.com", () -> load(1L, "a@test.com"));
+        CustomUserDetails second = cache.get("a@test.com", () -> load(1L, "a@test.com"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsReloaded() throws InterruptedException {
+        PrincipalCache cache = new PrincipalCache(100, 0);
+
+        cache.get("a@test.com", () -> load(1L, "a@test.com"));
+        Thread.sleep(5);
+        cache.get("a@test.com", () -> load(1L, "a@test.com"));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        PrincipalCache cache = new PrincipalCache(2, 300);
+
+        cache.get("a", () -> load(1L, "a"));
+        cache.get("b", () -> load(2L, "b"));
+        cache.get("a", () -> load(1L, "a"));
+        cache.get("c", () -> load(3L, "c"));
+        assertThat(loads.get()).isEqualTo(3);
+
+        cache.get("a", () -> load(1L, "a"));
+        assertThat(loads.get()).isEqualTo(3);
+        cache.get("b", () -> load(2L, "b"));
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void evictUserRemovesOnlyThatUser() {
+        PrincipalCache cache = new PrincipalCache(100, 300);
+        cache.get("a", () -> load(1L, "a"));
+        cache.get("b", () -> load(2L, "b"));
+
+        // 沒有交易時立即移除
+        cache.evictUser(1L);
+        cache.get("a", () -> load(1L, "a"));
+        cache.get("b", () -> load(2L, "b"));
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void evictAllRemovesEveryone() {
+        PrincipalCache cache = new PrincipalCache(100, 300);
+        cache.get("a", () -> load(1L, "a"));
+        cache.get("b", () -> load(2L, "b"));
+
+        cache.evictAll();
+        cache.get("a", () -> load(1L, "a"));
+        cache.get("b", () -> load(2L, "b"));
+
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void principalLoadedDuringEvictionIsNotStored() {
+        PrincipalCache cache = new PrincipalCache(100, 300);
+
+        cache.get("a", () -> {
+            // 載入期間角色被修改，載入結果可能是舊的
+            cache.evictUser(1L);
+            return load(1L, "a");
+        });
+        cache.get("a", () -> load(1L, "a"));
+        cache.get("a", () -> load(1L, "a"));
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private CustomUserDetails load(Long userId, String email) {
+        loads.incrementAndGet();
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(email);
+        return new CustomUserDetails(user, null).withoutPassword();
+    }
+}
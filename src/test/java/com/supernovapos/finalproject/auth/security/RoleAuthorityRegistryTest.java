@@ -0,0 +1,93 @@
+package com.supernovapos.finalproject.auth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.supernovapos.finalproject.auth.model.entity.Role;
+import com.supernovapos.finalproject.auth.model.entity.UserRole;
+import com.supernovapos.finalproject.auth.repository.RoleRepository;
+import com.supernovapos.finalproject.user.model.entity.User;
+
+class RoleAuthorityRegistryTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final RoleAuthorityRegistry registry = new RoleAuthorityRegistry(roleRepository, principalCache);
+
+    @Test
+    void unionOfRoleBitsIncludesRoleCodes() {
+        when(roleRepository.findRolePermissionCodes()).thenReturn(rows(
+                new Object[] { "ADMIN", "ORDER_READ" },
+                new Object[] { "ADMIN", "ORDER_WRITE" },
+                new Object[] { "STAFF", "ORDER_READ" },
+                new Object[] { "STAFF", "KITCHEN_VIEW" },
+                new Object[] { "GUEST", null }));
+
+        AuthoritySet authorities = registry.authoritiesOf(user("STAFF", "GUEST"));
+
+        assertThat(authorities).hasSize(4);
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("STAFF", "ORDER_READ", "KITCHEN_VIEW", "GUEST");
+        assertThat(authorities.hasAuthority("ORDER_WRITE")).isFalse();
+        assertThat(authorities.hasAuthority("UNKNOWN")).isFalse();
+        assertThat(authorities.contains(new SimpleGrantedAuthority("KITCHEN_VIEW"))).isTrue();
+    }
+
+    @Test
+    void unknownRoleIsIgnored() {
+        when(roleRepository.findRolePermissionCodes()).thenReturn(rows(new Object[] { "ADMIN", "ORDER_READ" }));
+
+        assertThat(registry.authoritiesOf(user("REMOVED"))).isEmpty();
+    }
+
+    @Test
+    void compiledOnceAndSharedAcrossUsers() {
+        when(roleRepository.findRolePermissionCodes()).thenReturn(rows(new Object[] { "ADMIN", "ORDER_READ" }));
+
+        GrantedAuthority first = registry.authoritiesOf(user("ADMIN")).iterator().next();
+        GrantedAuthority second = registry.authoritiesOf(user("ADMIN")).iterator().next();
+
+        assertThat(second).isSameAs(first);
+        verify(roleRepository, times(1)).findRolePermissionCodes();
+    }
+
+    @Test
+    void invalidateRecompilesAndEvictsPrincipals() {
+        when(roleRepository.findRolePermissionCodes())
+                .thenReturn(rows(new Object[] { "STAFF", "ORDER_READ" }))
+                .thenReturn(rows(new Object[] { "STAFF", "ORDER_READ" }, new Object[] { "STAFF", "ORDER_WRITE" }));
+
+        assertThat(registry.authoritiesOf(user("STAFF")).hasAuthority("ORDER_WRITE")).isFalse();
+        // 沒有交易時立即重置
+        registry.invalidate();
+
+        assertThat(registry.authoritiesOf(user("STAFF")).hasAuthority("ORDER_WRITE")).isTrue();
+        verify(principalCache).evictAll();
+    }
+
+    private static User user(String... roleCodes) {
+        User user = new User();
+        for (String code : roleCodes) {
+            Role role = new Role();
+            role.setCode(code);
+            UserRole userRole = new UserRole();
+            userRole.setRole(role);
+            user.getUserRoles().add(userRole);
+        }
+        return user;
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
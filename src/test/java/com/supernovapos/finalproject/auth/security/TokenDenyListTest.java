@@ -0,0 +1,136 @@
+package com.supernovapos.finalproject.auth.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.supernovapos.finalproject.auth.model.entity.RevokedToken;
+import com.supernovapos.finalproject.auth.model.entity.RevokedToken.Kind;
+import com.supernovapos.finalproject.auth.repository.RevokedTokenRepository;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+class TokenDenyListTest {
+
+    private static final long EXPIRATION = TimeUnit.HOURS.toMillis(1);
+    private static final long TICK = TimeUnit.MINUTES.toMillis(1);
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private TokenDenyList denyList;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        denyList = new TokenDenyList(repository, EXPIRATION, 1024);
+        denyList.load();
+    }
+
+    @Test
+    void revokedTokenIsDeniedByJti() {
+        Claims revoked = claims("a@test.com", System.currentTimeMillis());
+        Claims other = claims("a@test.com", System.currentTimeMillis());
+
+        assertThat(denyList.isRevoked(revoked)).isFalse();
+        // 沒有交易時立即生效
+        denyList.revokeToken(revoked);
+
+        assertThat(denyList.isRevoked(revoked)).isTrue();
+        assertThat(denyList.isRevoked(other)).isFalse();
+    }
+
+    @Test
+    void userRevocationCoversTokensIssuedInSameSecond() {
+        long before = System.currentTimeMillis();
+        // iat 捨去到秒，可能與撤銷時間在同一秒
+        Claims issuedBefore = claims("a@test.com", before / 1000 * 1000);
+        denyList.revokeUser("a@test.com");
+        long after = System.currentTimeMillis();
+
+        assertThat(denyList.isRevoked(issuedBefore)).isTrue();
+        assertThat(denyList.isRevoked(claims("a@test.com", (after / 1000 + 1) * 1000))).isFalse();
+        assertThat(denyList.isRevoked(claims("b@test.com", before / 1000 * 1000))).isFalse();
+    }
+
+    @Test
+    void tokenWithoutJtiIsNotStored() {
+        Claims legacy = Jwts.claims().setSubject("a@test.com");
+        legacy.setExpiration(new Date(System.currentTimeMillis() + EXPIRATION));
+
+        denyList.revokeToken(legacy);
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void expiredEntriesLeaveTheWheel() {
+        Claims token = claims("a@test.com", System.currentTimeMillis());
+        // 三分鐘前到期的 token，放入已經過的格
+        token.setExpiration(new Date(System.currentTimeMillis() - 3 * TICK));
+        denyList.revokeToken(token);
+        Claims live = claims("b@test.com", System.currentTimeMillis());
+        denyList.revokeToken(live);
+
+        // 模擬時間輪停在五分鐘前
+        long nowTick = System.currentTimeMillis() / TICK;
+        ReflectionTestUtils.setField(denyList, "lastTick", nowTick - 5);
+        denyList.advance();
+
+        assertThat(denyList.isRevoked(token)).isFalse();
+        assertThat(denyList.isRevoked(live)).isTrue();
+        verify(repository).deleteExpired(any());
+    }
+
+    @Test
+    void storedRevocationsAreLoaded() {
+        RevokedToken row = new RevokedToken();
+        row.setKind(Kind.USER);
+        row.setTokenKey("a@test.com");
+        // 舊紀錄未進位到秒
+        row.setRevokedAt(LocalDateTime.now().withNano(500_000_000));
+        row.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(row));
+
+        TokenDenyList loaded = new TokenDenyList(repository, EXPIRATION, 1024);
+        loaded.load();
+
+        long revokedSecond = row.getRevokedAt().withNano(0).atZone(ZoneId.systemDefault())
+                .toInstant().toEpochMilli();
+        assertThat(loaded.isRevoked(claims("a@test.com", revokedSecond))).isTrue();
+        assertThat(loaded.isRevoked(claims("a@test.com", revokedSecond + 1000))).isFalse();
+    }
+
+    @Test
+    void worksWithoutBloomFilter() {
+        TokenDenyList noBloom = new TokenDenyList(repository, EXPIRATION, 0);
+        noBloom.load();
+        Claims token = claims("a@test.com", System.currentTimeMillis());
+
+        noBloom.revokeToken(token);
+
+        assertThat(noBloom.isRevoked(token)).isTrue();
+        assertThat(noBloom.isRevoked(claims("a@test.com", System.currentTimeMillis()))).isFalse();
+    }
+
+    private static Claims claims(String subject, long issuedAt) {
+        Claims claims = Jwts.claims().setSubject(subject);
+        claims.setId(UUID.randomUUID().toString());
+        claims.setIssuedAt(new Date(issuedAt));
+        claims.setExpiration(new Date(issuedAt + EXPIRATION));
+        return claims;
+    }
+}
@@ -0,0 +1,80 @@
+package com.supernovapos.finalproject.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 各 API 的延遲與吞吐量統計
+ * 以 API 名稱（方法 + 路徑樣板）分組，結束時輸出 p50 / p95 / p99 與每秒請求數
+ */
+public class LatencyReport {
+
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+	private final long startedAt = System.nanoTime();
+
+	public void record(String endpoint, long elapsedNanos, boolean success) {
+		Endpoint stats = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+		stats.latencies.add(elapsedNanos);
+		if (!success) {
+			stats.errors.increment();
+		}
+	}
+
+	public String render() {
+		double wallSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+		StringBuilder out = new StringBuilder();
+		out.append(String.format("%-40s %8s %7s %9s %9s %9s %9s %9s%n",
+				"endpoint", "count", "errors", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)", "req/s"));
+
+		long totalCount = 0;
+		long totalErrors = 0;
+		for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+			long[] sorted = entry.getValue().sortedLatencies();
+			long errors = entry.getValue().errors.sum();
+			totalCount += sorted.length;
+			totalErrors += errors;
+			out.append(String.format("%-40s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+					entry.getKey(), sorted.length, errors,
+					millis(percentile(sorted, 50)), millis(percentile(sorted, 95)), millis(percentile(sorted, 99)),
+					millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+					sorted.length / wallSeconds));
+		}
+		out.append(String.format("%ntotal: %d requests, %d errors, %.1f s, %.1f req/s%n",
+				totalCount, totalErrors, wallSeconds, totalCount / wallSeconds));
+		return out.toString();
+	}
+
+	private static long percentile(long[] sorted, int percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	private static double millis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	private static class Endpoint {
+		private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		private final LongAdder errors = new LongAdder();
+
+		private long[] sortedLatencies() {
+			List<Long> copy = new ArrayList<>(latencies);
+			long[] sorted = new long[copy.size()];
+			for (int i = 0; i < sorted.length; i++) {
+				sorted[i] = copy.get(i);
+			}
+			Arrays.sort(sorted);
+			return sorted;
+		}
+	}
+}
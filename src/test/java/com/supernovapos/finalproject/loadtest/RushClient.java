@@ -0,0 +1,115 @@
+package com.supernovapos.finalproject.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 壓測用 HTTP 客戶端
+ * 每個請求都記錄到 LatencyReport，非 2xx 視為錯誤並拋出 RushException
+ */
+public class RushClient {
+
+	private final HttpClient httpClient;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final String baseUrl;
+	private final LatencyReport report;
+	private final Duration timeout;
+
+	public RushClient(String baseUrl, LatencyReport report, Executor executor, Duration timeout) {
+		this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+		this.report = report;
+		this.timeout = timeout;
+		this.httpClient = HttpClient.newBuilder()
+				.executor(executor)
+				.connectTimeout(timeout)
+				.build();
+	}
+
+	public JsonNode get(String endpoint, String path) {
+		return send(endpoint, HttpRequest.newBuilder(uri(path)).GET(), false);
+	}
+
+	public JsonNode post(String endpoint, String path, Object body) {
+		return send(endpoint, HttpRequest.newBuilder(uri(path)).POST(json(body)), true);
+	}
+
+	public JsonNode put(String endpoint, String path, Object body) {
+		return send(endpoint, HttpRequest.newBuilder(uri(path)).PUT(json(body)), true);
+	}
+
+	public JsonNode delete(String endpoint, String path) {
+		return send(endpoint, HttpRequest.newBuilder(uri(path)).DELETE(), true);
+	}
+
+	private JsonNode send(String endpoint, HttpRequest.Builder builder, boolean mutation) {
+		builder.timeout(timeout).header("Content-Type", "application/json");
+		if (mutation) {
+			// 與手機端相同，每個異動請求帶一個新的重送識別碼
+			builder.header("Idempotency-Key", UUID.randomUUID().toString());
+		}
+
+		long start = System.nanoTime();
+		HttpResponse<String> response;
+		try {
+			response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+		} catch (IOException e) {
+			report.record(endpoint, System.nanoTime() - start, false);
+			throw new RushException(endpoint + " 連線失敗: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RushException(endpoint + " 被中斷");
+		}
+		long elapsed = System.nanoTime() - start;
+
+		boolean success = response.statusCode() / 100 == 2;
+		report.record(endpoint, elapsed, success);
+		if (!success) {
+			throw new RushException(endpoint + " 回應 " + response.statusCode() + ": " + response.body());
+		}
+		return readTree(response.body());
+	}
+
+	private URI uri(String path) {
+		return URI.create(baseUrl + path);
+	}
+
+	private HttpRequest.BodyPublisher json(Object body) {
+		if (body == null) {
+			return HttpRequest.BodyPublishers.noBody();
+		}
+		try {
+			return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	private JsonNode readTree(String body) {
+		if (body == null || body.isBlank()) {
+			return objectMapper.nullNode();
+		}
+		try {
+			return objectMapper.readTree(body);
+		} catch (IOException e) {
+			// 部分 API 回傳純文字
+			return objectMapper.getNodeFactory().textNode(body);
+		}
+	}
+
+	public static class RushException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public RushException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package com.supernovapos.finalproject.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.supernovapos.finalproject.loadtest.RushClient.RushException;
+
+/**
+ * 尖峰時段點餐壓測（直接呼叫本機啟動的後端 HTTP API，不需外部服務）
+ *
+ * 每一桌依序模擬完整流程：
+ * 產生 QR Code → 驗證 → 臨時用戶加入 → 同桌多人同時加入/移除/修改購物車 → 首次送單 → 加點
+ * → 廚房出餐 → 建立付款並模擬付款成功（付款回調會結帳）
+ *
+ * 執行方式（先啟動後端，桌號需已存在且沒有進行中的訂單）：
+ * <pre>
+ * ./mvnw test-compile
+ * java -cp "target/test-classes:$(./mvnw -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.supernovapos.finalproject.loadtest.TableRushSimulator --tables=1-20 --concurrency=20 --rounds=3
+ * </pre>
+ *
+ * 參數：
+ * --base-url      後端位址，預設 http://localhost:8080
+ * --tables        桌號範圍或清單，例如 1-20 或 1,3,5，預設 1-10
+ * --diners        每桌人數，預設 4
+ * --items         每人加入購物車的品項數，預設 3
+ * --add-ons       每桌加點次數，預設 1
+ * --rounds        每桌翻桌次數，預設 1
+ * --concurrency   同時進行的桌數，預設 10
+ * --timeout-ms    單一請求逾時，預設 10000
+ */
+public class TableRushSimulator {
+
+	private final RushClient client;
+	private final LatencyReport report;
+	private final Map<String, String> options;
+	private final ExecutorService dinerPool;
+	private final AtomicInteger completedTables = new AtomicInteger();
+	private final AtomicInteger failedTables = new AtomicInteger();
+	private List<Integer> productIds;
+
+	public TableRushSimulator(Map<String, String> options) {
+		this.options = options;
+		this.report = new LatencyReport();
+		int concurrency = intOption("concurrency", 10);
+		this.dinerPool = Executors.newFixedThreadPool(concurrency * intOption("diners", 4));
+		this.client = new RushClient(options.getOrDefault("base-url", "http://localhost:8080"), report,
+				Executors.newFixedThreadPool(Math.max(4, concurrency)),
+				Duration.ofMillis(intOption("timeout-ms", 10000)));
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			if (arg.startsWith("--") && arg.contains("=")) {
+				options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+			}
+		}
+		TableRushSimulator simulator = new TableRushSimulator(options);
+		simulator.run();
+		System.out.println(simulator.report.render());
+		System.out.printf("tables completed: %d, failed: %d%n", simulator.completedTables.get(), simulator.failedTables.get());
+		System.exit(simulator.failedTables.get() == 0 ? 0 : 1);
+	}
+
+	public void run() throws InterruptedException {
+		productIds = loadProductIds();
+		if (productIds.isEmpty()) {
+			throw new IllegalStateException("沒有可點的商品，請先建立商品資料");
+		}
+
+		List<Integer> tables = parseTables(options.getOrDefault("tables", "1-10"));
+		int rounds = intOption("rounds", 1);
+		ExecutorService tablePool = Executors.newFixedThreadPool(intOption("concurrency", 10));
+		for (Integer table : tables) {
+			tablePool.submit(() -> {
+				for (int round = 1; round <= rounds; round++) {
+					runTable(table, round);
+				}
+			});
+		}
+		tablePool.shutdown();
+		tablePool.awaitTermination(1, TimeUnit.HOURS);
+		dinerPool.shutdown();
+	}
+
+// ================= 單桌流程 =================
+
+	private void runTable(int table, int round) {
+		String groupId = null;
+		try {
+			groupId = client.post("POST /api/qr/generate/{table}", "/api/qr/generate/" + table, null)
+					.path("orderGroupId").asText();
+			client.get("GET /api/qr/verify/{group}", "/api/qr/verify/" + groupId);
+
+			List<String> diners = joinDiners(groupId, table, round);
+			fillCarts(groupId, diners);
+			client.get("GET /api/customer/order/{group}/status", "/api/customer/order/" + groupId + "/status");
+
+			client.post("POST /api/customer/order/{group}/submit-first",
+					cartPath(groupId, "/submit-first", diners.get(0)), null);
+
+			for (int i = 0; i < intOption("add-ons", 1); i++) {
+				String diner = diners.get(ThreadLocalRandom.current().nextInt(diners.size()));
+				client.post("POST /api/customer/order/{group}/add-order",
+						cartPath(groupId, "/add-order", diner), Map.of("items", List.of(randomItem()), "note", "加點"));
+			}
+
+			serveAll(groupId);
+			pay(groupId);
+			completedTables.incrementAndGet();
+		} catch (RuntimeException e) {
+			failedTables.incrementAndGet();
+			System.err.printf("桌號 %d 第 %d 輪失敗: %s%n", table, round, e.getMessage());
+			releaseTable(groupId);
+		}
+	}
+
+	private List<String> joinDiners(String groupId, int table, int round) {
+		List<String> diners = new ArrayList<>();
+		for (int i = 1; i <= intOption("diners", 4); i++) {
+			JsonNode created = client.post("POST /api/temp-user/{group}", "/api/temp-user/" + groupId,
+					Map.of("nickname", "T" + table + "-R" + round + "-" + i));
+			diners.add(created.path("data").path("id").asText());
+		}
+		return diners;
+	}
+
+//	同桌所有人同時操作購物車
+	private void fillCarts(String groupId, List<String> diners) {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (String diner : diners) {
+			futures.add(CompletableFuture.runAsync(() -> fillCart(groupId, diner), dinerPool));
+		}
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+		} catch (RuntimeException e) {
+			throw e.getCause() instanceof RushException cause ? cause : new RushException(e.getMessage());
+		}
+	}
+
+	private void fillCart(String groupId, String diner) {
+		List<Integer> added = new ArrayList<>();
+		for (int i = 0; i < intOption("items", 3); i++) {
+			Map<String, Object> item = randomItem();
+			client.post("POST /api/customer/order/{group}/cart/items", cartPath(groupId, "/cart/items", diner), item);
+			added.add((Integer) item.get("productId"));
+		}
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Integer first = added.get(0);
+		Integer last = added.get(added.size() - 1);
+		if (random.nextInt(3) == 0) {
+			client.put("PUT /api/customer/order/{group}/cart/items/{product}",
+					cartPath(groupId, "/cart/items/" + first, diner), Map.of("quantity", 2, "note", "改數量"));
+		}
+		// 至少留一個品項，送單時才有內容
+		if (random.nextInt(3) == 0 && !first.equals(last)) {
+			client.delete("DELETE /api/customer/order/{group}/cart/items/{product}",
+					cartPath(groupId, "/cart/items/" + last, diner));
+		}
+	}
+
+//	廚房將此桌所有未出餐項目標記為已出餐
+	private void serveAll(String groupId) {
+		List<Long> itemIds = new ArrayList<>();
+		for (JsonNode item : client.get("GET /api/qr/kitchen/queue", "/api/qr/kitchen/queue")) {
+			if (groupId.equals(item.path("groupId").asText())) {
+				itemIds.add(item.path("id").asLong());
+			}
+		}
+		if (!itemIds.isEmpty()) {
+			client.put("PUT /api/qr/kitchen/items/status", "/api/qr/kitchen/items/status",
+					Map.of("itemIds", itemIds, "status", "SERVED"));
+		}
+	}
+
+	private void pay(String groupId) {
+		String merchantTradeNo = client.post("POST /api/payment/create", "/api/payment/create",
+				Map.of("orderGroupId", groupId)).path("merchantTradeNo").asText();
+		client.post("POST /api/payment/simulate/{tradeNo}",
+				"/api/payment/simulate/" + merchantTradeNo + "?success=true", null);
+	}
+
+//	流程失敗時強制結束會話，讓下一輪可以重新開桌
+	private void releaseTable(String groupId) {
+		if (groupId == null) {
+			return;
+		}
+		try {
+			client.put("PUT /api/qr/force-complete/{group}", "/api/qr/force-complete/" + groupId, null);
+		} catch (RushException e) {
+			System.err.println("強制結束失敗: " + e.getMessage());
+		}
+	}
+
+// ================= 工具 =================
+
+	private List<Integer> loadProductIds() {
+		List<Integer> ids = new ArrayList<>();
+		for (JsonNode product : client.get("GET /api/products", "/api/products")) {
+			ids.add(product.path("id").asInt());
+		}
+		return ids;
+	}
+
+	private Map<String, Object> randomItem() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Map<String, Object> item = new HashMap<>();
+		item.put("productId", productIds.get(random.nextInt(productIds.size())));
+		item.put("quantity", 1 + random.nextInt(2));
+		return item;
+	}
+
+	private String cartPath(String groupId, String suffix, String diner) {
+		return "/api/customer/order/" + groupId + suffix + "?userType=TEMP&userId=" + diner;
+	}
+
+	private int intOption(String name, int defaultValue) {
+		String value = options.get(name);
+		return value != null ? Integer.parseInt(value) : defaultValue;
+	}
+
+	private static List<Integer> parseTables(String spec) {
+		List<Integer> tables = new ArrayList<>();
+		for (String part : spec.split(",")) {
+			String trimmed = part.trim();
+			if (trimmed.contains("-")) {
+				String[] range = trimmed.split("-");
+				for (int t = Integer.parseInt(range[0]); t <= Integer.parseInt(range[1]); t++) {
+					tables.add(t);
+				}
+			} else if (!trimmed.isEmpty()) {
+				tables.add(Integer.parseInt(trimmed));
+			}
+		}
+		return tables;
+	}
+}
@@ -0,0 +1,174 @@
+package com.supernovapos.finalproject.oauth.verifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+import com.supernovapos.finalproject.oauth.config.GoogleProperties;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+class GoogleTokenVerifierTest {
+
+    private static final String CLIENT_ID = "client-id.apps.googleusercontent.com";
+    private static final KeyPair KEY = Keys.keyPairFor(SignatureAlgorithm.RS256);
+    private static final KeyPair ROTATED_KEY = Keys.keyPairFor(SignatureAlgorithm.RS256);
+
+    // 本機公鑰來源，可替換內容或模擬失敗
+    private final Map<String, PublicKey> published = new HashMap<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private boolean failing;
+
+    private GoogleTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        published.put("k1", KEY.getPublic());
+        JwksSource source = () -> {
+            fetches.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("Google 無回應");
+            }
+            return new JwksSource.KeySet(Map.copyOf(published), Duration.ofHours(6));
+        };
+        GoogleProperties properties = new GoogleProperties();
+        properties.setClientId(CLIENT_ID);
+        verifier = new GoogleTokenVerifier(source, properties);
+        verifier.init();
+        verifier.refreshIfStale();
+    }
+
+    @Test
+    void validTokenReturnsPayload() {
+        GoogleIdToken.Payload payload = verifier.verify(token().claim("name", "王小明").compact());
+
+        assertThat(payload.getSubject()).isEqualTo("google-uid");
+        assertThat(payload.getEmail()).isEqualTo("user@gmail.com");
+        assertThat(payload.get("name")).isEqualTo("王小明");
+    }
+
+    @Test
+    void keysAreCachedUntilStale() {
+        verifier.verify(token().compact());
+        verifier.verify(token().compact());
+        verifier.refreshIfStale();
+
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void hmacSignedTokenIsRejected() {
+        // 以對稱金鑰簽章，kid 指向 Google 公鑰
+        String forged = token().signWith(Keys.hmacShaKeyFor(new byte[32]), SignatureAlgorithm.HS256).compact();
+
+        assertRejected(forged);
+    }
+
+    @Test
+    void unsignedTokenIsRejected() {
+        String unsigned = Jwts.builder().setHeaderParam("kid", "k1").setIssuer("https://accounts.google.com")
+                .setAudience(CLIENT_ID).setSubject("google-uid")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000)).compact();
+
+        assertRejected(unsigned);
+    }
+
+    @Test
+    void wrongSignerIsRejected() {
+        assertRejected(token().signWith(ROTATED_KEY.getPrivate(), SignatureAlgorithm.RS256).compact());
+    }
+
+    @Test
+    void wrongIssuerIsRejected() {
+        assertRejected(token().setIssuer("https://evil.example.com").compact());
+    }
+
+    @Test
+    void bothGoogleIssuersAreAccepted() {
+        assertThat(verifier.verify(token().setIssuer("accounts.google.com").compact())).isNotNull();
+    }
+
+    @Test
+    void wrongAudienceIsRejected() {
+        assertRejected(token().setAudience("other-client").compact());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        long expired = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(5);
+        assertRejected(token().setExpiration(new Date(expired)).compact());
+    }
+
+    @Test
+    void expiryWithinClockSkewIsAccepted() {
+        long justExpired = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(30);
+        assertThat(verifier.verify(token().setExpiration(new Date(justExpired)).compact())).isNotNull();
+    }
+
+    @Test
+    void unknownKidIsRejectedWithoutRefetchingTooOften() {
+        String unknown = token().setHeaderParam("kid", "k9").compact();
+
+        assertRejected(unknown);
+        assertRejected(unknown);
+        // 距上次取得未滿一分鐘，不重新取得
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rotatedKeyIsFetchedOnDemand() {
+        published.put("k2", ROTATED_KEY.getPublic());
+        // 模擬上次取得已超過一分鐘
+        ReflectionTestUtils.setField(verifier, "lastFetchAt", 0L);
+
+        String rotated = token().setHeaderParam("kid", "k2").signWith(ROTATED_KEY.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+
+        assertThat(verifier.verify(rotated).getSubject()).isEqualTo("google-uid");
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousKeys() {
+        failing = true;
+        ReflectionTestUtils.setField(verifier, "refreshAt", 0L);
+        verifier.refreshIfStale();
+
+        assertThat(verifier.verify(token().compact())).isNotNull();
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    private void assertRejected(String idToken) {
+        assertThatThrownBy(() -> verifier.verify(idToken)).isInstanceOf(InvalidRequestException.class);
+    }
+
+    // 預設為有效的 token，測試再覆寫個別欄位
+    private static JwtBuilder token() {
+        return Jwts.builder()
+                .setHeaderParam("kid", "k1")
+                .setIssuer("https://accounts.google.com")
+                .setAudience(CLIENT_ID)
+                .setSubject("google-uid")
+                .claim("email", "user@gmail.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(KEY.getPrivate(), SignatureAlgorithm.RS256);
+    }
+}
@@ -0,0 +1,259 @@
+package com.supernovapos.finalproject.order.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.supernovapos.finalproject.order.model.OrderItems;
+import com.supernovapos.finalproject.order.model.Orders;
+import com.supernovapos.finalproject.order.model.TempUser;
+import com.supernovapos.finalproject.order.repository.OrdersRepository;
+import com.supernovapos.finalproject.order.service.DraftCartStore.DraftCart;
+import com.supernovapos.finalproject.product.model.Products;
+import com.supernovapos.finalproject.product.repository.ProductsRepository;
+
+/**
+ * DraftCartStore 寫回與移出記憶體
+ * 以單一 Orders 物件模擬資料庫中的草稿訂單：讀取時回傳複本，saveAndFlush 時整份替換
+ */
+class DraftCartStoreTest {
+
+	private final UUID groupId = UUID.randomUUID();
+	private final UUID tempUserId = UUID.randomUUID();
+	private final String ownerKey = DraftCartStore.ownerKey("TEMP", tempUserId);
+
+	private OrdersRepository ordersRepository;
+	private ProductsRepository productsRepository;
+	private DraftCartStore store;
+	private Products product;
+	private Orders stored;
+
+	@BeforeEach
+	void setUp() {
+		ordersRepository = mock(OrdersRepository.class);
+		productsRepository = mock(ProductsRepository.class);
+		store = new DraftCartStore(ordersRepository, productsRepository, mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(store, "idleEvictMinutes", 30L);
+
+		product = new Products();
+		product.setId(1);
+		product.setPrice(new BigDecimal("50"));
+
+		TempUser tempUser = new TempUser();
+		tempUser.setId(tempUserId);
+		stored = new Orders();
+		stored.setId(10L);
+		stored.setTotalAmount(0);
+		stored.setTempUser(tempUser);
+		stored.setOrderItems(new ArrayList<>());
+
+		when(ordersRepository.findDraftOrdersWithDetailsByGroupId(groupId)).thenAnswer(inv -> List.of(snapshot()));
+		when(ordersRepository.findById(10L)).thenAnswer(inv -> Optional.of(snapshot()));
+		when(ordersRepository.saveAndFlush(any())).thenAnswer(inv -> commit(inv.getArgument(0)));
+		when(productsRepository.getReferenceById(1)).thenReturn(product);
+	}
+
+	@Test
+	void flushDirtyWritesMergedChangesOnce() {
+		store.addItem(groupId, ownerKey, product, 1, null);
+		store.addItem(groupId, ownerKey, product, 2, null);
+
+		store.flushDirty();
+		store.flushDirty();
+
+		verify(ordersRepository, times(1)).saveAndFlush(any());
+		assertThat(stored.getOrderItems()).singleElement()
+				.satisfies(item -> assertThat(item.getQuantity()).isEqualTo(3));
+		assertThat(stored.getTotalAmount()).isEqualTo(150);
+	}
+
+	@Test
+	void idleGroupIsEvictedAndReloaded() {
+		store.addItem(groupId, ownerKey, product, 2, null);
+		// 期限為負值：所有群組都視為閒置
+		ReflectionTestUtils.setField(store, "idleEvictMinutes", -1L);
+		store.flushDirty();
+
+		DraftCart reloaded = store.find(groupId, "TEMP", tempUserId);
+
+		verify(ordersRepository, times(2)).findDraftOrdersWithDetailsByGroupId(groupId);
+		assertThat(reloaded.getLines().get(1).getQuantity()).isEqualTo(2);
+	}
+
+	@Test
+	void evictFlushesBeforeRemoving() {
+		store.addItem(groupId, ownerKey, product, 1, null);
+
+		store.evict(groupId);
+
+		assertThat(stored.getOrderItems()).hasSize(1);
+		store.flushDirty();
+		verify(ordersRepository, times(1)).saveAndFlush(any());
+	}
+
+	@Test
+	void evictEndsWhenOrderRowWasDeleted() {
+		store.addItem(groupId, ownerKey, product, 1, null);
+		// 臨時用戶刪除時串聯刪除草稿訂單
+		when(ordersRepository.findById(10L)).thenReturn(Optional.empty());
+
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> store.evict(groupId));
+
+		verify(ordersRepository, never()).saveAndFlush(any());
+	}
+
+	@Test
+	void deletedOrderRowDropsCartAfterRetries() {
+		store.addItem(groupId, ownerKey, product, 1, null);
+		when(ordersRepository.findById(10L)).thenReturn(Optional.empty());
+
+		store.flushDirty();
+		store.flushDirty();
+		assertThat(store.find(groupId, "TEMP", tempUserId)).isNotNull();
+		store.flushDirty();
+
+		assertThat(store.find(groupId, "TEMP", tempUserId)).isNull();
+		store.flushDirty();
+		verify(ordersRepository, times(3)).findById(10L);
+	}
+
+	@Test
+	void orderRowVisibleOnRetryIsWritten() {
+		store.addItem(groupId, ownerKey, product, 1, null);
+		// 第一次寫回時訂單列尚未 commit
+		when(ordersRepository.findById(10L)).thenReturn(Optional.empty()).thenAnswer(inv -> Optional.of(snapshot()));
+
+		store.flushDirty();
+		store.flushDirty();
+
+		assertThat(stored.getOrderItems()).hasSize(1);
+		assertThat(store.find(groupId, "TEMP", tempUserId)).isNotNull();
+	}
+
+	@Test
+	void duplicateDraftRowsAreSummedAndCollapsed() {
+		stored.getOrderItems().add(item(2));
+		stored.getOrderItems().add(item(3));
+		stored.setTotalAmount(250);
+
+		DraftCart cart = store.find(groupId, "TEMP", tempUserId);
+		assertThat(cart.getLines()).hasSize(1);
+		assertThat(cart.getLines().get(1).getQuantity()).isEqualTo(5);
+		assertThat(cart.getTotalAmount()).isEqualTo(250);
+
+		store.flushDirty();
+		assertThat(stored.getOrderItems()).singleElement()
+				.satisfies(item -> assertThat(item.getQuantity()).isEqualTo(5));
+	}
+
+	@Test
+	void peekDoesNotLoadOrWrite() {
+		assertThat(store.peekCarts(groupId)).isEmpty();
+		verify(ordersRepository, never()).findDraftOrdersWithDetailsByGroupId(groupId);
+
+		store.addItem(groupId, ownerKey, product, 2, null);
+		assertThat(store.peekCarts(groupId)).singleElement()
+				.satisfies(cart -> assertThat(cart.getTotalAmount()).isEqualTo(100));
+		verify(ordersRepository, never()).saveAndFlush(any());
+	}
+
+	@Test
+	void cleanGroupIsNotWritten() {
+		store.find(groupId, "TEMP", tempUserId);
+		store.flushDirty();
+		verify(ordersRepository, never()).saveAndFlush(any());
+	}
+
+	@Test
+	void concurrentMutationsSurviveIdleEviction() throws Exception {
+		ReflectionTestUtils.setField(store, "idleEvictMinutes", -1L);
+		int threads = 4;
+		int addsPerThread = 200;
+		ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		try {
+			Future<?> flusher = pool.submit(() -> {
+				start.await();
+				while (running.get()) {
+					store.flushDirty();
+				}
+				return null;
+			});
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				writers.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < addsPerThread; i++) {
+						store.addItem(groupId, ownerKey, product, 1, null);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> writer : writers) {
+				writer.get(30, TimeUnit.SECONDS);
+			}
+			running.set(false);
+			flusher.get(30, TimeUnit.SECONDS);
+		} finally {
+			pool.shutdownNow();
+		}
+		store.flushAll();
+
+		assertThat(stored.getOrderItems()).singleElement()
+				.satisfies(item -> assertThat(item.getQuantity()).isEqualTo(threads * addsPerThread));
+		assertThat(stored.getTotalAmount()).isEqualTo(threads * addsPerThread * 50);
+	}
+
+	private synchronized Orders snapshot() {
+		Orders copy = new Orders();
+		copy.setId(stored.getId());
+		copy.setTotalAmount(stored.getTotalAmount());
+		copy.setTempUser(stored.getTempUser());
+		copy.setOrderItems(new ArrayList<>());
+		for (OrderItems item : stored.getOrderItems()) {
+			OrderItems itemCopy = item(item.getQuantity());
+			itemCopy.setOrders(copy);
+			copy.getOrderItems().add(itemCopy);
+		}
+		return copy;
+	}
+
+	private synchronized Orders commit(Orders order) {
+		stored = order;
+		return order;
+	}
+
+	private OrderItems item(int quantity) {
+		OrderItems item = new OrderItems();
+		item.setProducts(product);
+		item.setQuantity(quantity);
+		item.setUnitPrice(product.getPrice());
+		item.setOrders(stored);
+		return item;
+	}
+}
@@ -0,0 +1,161 @@
+package com.supernovapos.finalproject.order.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supernovapos.finalproject.common.exception.ConflictException;
+import com.supernovapos.finalproject.common.exception.InvalidRequestException;
+
+class IdempotencyCacheTest {
+
+	private final IdempotencyCache cache = new IdempotencyCache(new ObjectMapper(), 100, 600, 5000);
+
+	@Test
+	void replayReturnsFirstResultWithoutRunningAgain() {
+		AtomicInteger runs = new AtomicInteger();
+
+		ResponseEntity<Map<String, Object>> first = cache.execute("k1", "scope", "body", () -> ok(runs.incrementAndGet()));
+		ResponseEntity<Map<String, Object>> replay = cache.execute("k1", "scope", "body", () -> ok(runs.incrementAndGet()));
+
+		assertThat(runs.get()).isEqualTo(1);
+		assertThat(replay.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(replay.getBody()).isEqualTo(first.getBody());
+		// 重送回傳的是由 JSON 重建的新物件，不是第一次的回應物件
+		assertThat(replay.getBody()).isNotSameAs(first.getBody());
+		assertThat(cache.getStats().getHits()).isEqualTo(1);
+		assertThat(cache.getStats().getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentReplaysWaitForSingleExecution() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		int threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<ResponseEntity<Map<String, Object>>>> results = new ArrayList<>();
+			results.add(pool.submit(() -> cache.execute("k", "scope", null, () -> {
+				started.countDown();
+				await(release);
+				return ok(runs.incrementAndGet());
+			})));
+			started.await(5, TimeUnit.SECONDS);
+			for (int i = 1; i < threads; i++) {
+				results.add(pool.submit(() -> cache.execute("k", "scope", null, () -> ok(runs.incrementAndGet()))));
+			}
+			release.countDown();
+
+			for (Future<ResponseEntity<Map<String, Object>>> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS).getBody()).containsEntry("run", 1);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(runs.get()).isEqualTo(1);
+		assertThat(cache.getStats().getHits()).isEqualTo(threads - 1);
+	}
+
+	@Test
+	void waitersGetFirstErrorCountedSeparately() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> first = pool.submit(() -> cache.execute("k", "scope", null, () -> {
+				started.countDown();
+				await(release);
+				throw new InvalidRequestException("商品已下架");
+			}));
+			started.await(5, TimeUnit.SECONDS);
+			Future<?> waiter = pool.submit(() -> cache.execute("k", "scope", null, () -> ok(0)));
+			// 等待者進入等待後才讓第一次失敗
+			Thread.sleep(100);
+			release.countDown();
+
+			assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(InvalidRequestException.class);
+			assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(InvalidRequestException.class);
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(cache.getStats().getHits()).isZero();
+		assertThat(cache.getStats().getErrorReplays()).isEqualTo(1);
+
+		// 失敗不保存，之後可重新執行
+		assertThat(cache.execute("k", "scope", null, () -> ok(2)).getBody()).containsEntry("run", 2);
+	}
+
+	@Test
+	void sameKeyWithDifferentBodyIsRejected() {
+		cache.execute("k", "scope", "a", () -> ok(1));
+		assertThatThrownBy(() -> cache.execute("k", "scope", "b", () -> ok(2)))
+				.isInstanceOf(ConflictException.class);
+	}
+
+	@Test
+	void failedResponseIsNotKept() {
+		AtomicInteger runs = new AtomicInteger();
+		cache.execute("k", "scope", null, () -> {
+			runs.incrementAndGet();
+			return ResponseEntity.badRequest().body(Map.<String, Object>of("success", false));
+		});
+		cache.execute("k", "scope", null, () -> ok(runs.incrementAndGet()));
+		assertThat(runs.get()).isEqualTo(2);
+	}
+
+	@Test
+	void expiredEntryRunsAgain() throws InterruptedException {
+		IdempotencyCache shortLived = new IdempotencyCache(new ObjectMapper(), 100, 0, 5000);
+		AtomicInteger runs = new AtomicInteger();
+		shortLived.execute("k", "scope", null, () -> ok(runs.incrementAndGet()));
+		Thread.sleep(5);
+		shortLived.execute("k", "scope", null, () -> ok(runs.incrementAndGet()));
+		assertThat(runs.get()).isEqualTo(2);
+
+		Thread.sleep(5);
+		shortLived.sweepExpired();
+		assertThat(shortLived.getStats().getSize()).isZero();
+	}
+
+	@Test
+	void oldestEntriesAreEvictedOverCapacity() {
+		IdempotencyCache small = new IdempotencyCache(new ObjectMapper(), 2, 600, 5000);
+		AtomicInteger runs = new AtomicInteger();
+		for (String key : List.of("a", "b", "c")) {
+			small.execute(key, "scope", null, () -> ok(runs.incrementAndGet()));
+		}
+		assertThat(small.getStats().getSize()).isEqualTo(2);
+		assertThat(small.getStats().getEvictions()).isEqualTo(1);
+
+		// 最早的 a 已被移除，重送會重新執行
+		small.execute("a", "scope", null, () -> ok(runs.incrementAndGet()));
+		assertThat(runs.get()).isEqualTo(4);
+	}
+
+	private static ResponseEntity<Map<String, Object>> ok(int run) {
+		return ResponseEntity.ok(Map.of("success", true, "run", run));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}